@@ -0,0 +1,50 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Visual-editor analysis cache: up to {@code max-entries} analyses of unchanged graphs are reused
+ * for {@code ttl}, AI assessment included. Up to {@code max-graphs} editor graphs are kept for
+ * incremental analysis, least recently edited evicted first.
+ */
+@ConfigurationProperties(prefix = "flowstack.assistant.analysis-cache")
+public class AnalysisCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 200;
+    private Duration ttl = Duration.ofMinutes(30);
+    private int maxGraphs = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxGraphs() {
+        return maxGraphs;
+    }
+
+    public void setMaxGraphs(int maxGraphs) {
+        this.maxGraphs = maxGraphs;
+    }
+}
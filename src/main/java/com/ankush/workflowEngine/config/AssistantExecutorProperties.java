@@ -0,0 +1,61 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Thread pool for the blocking (non-streaming) chatbot and visual-editor assistant endpoints, kept
+ * apart from the servlet threads that serve the workflow API. At most {@code threads} calls run at
+ * once, with no queue behind them; each endpoint may hold at most its
+ * {@code max-concurrent[<endpoint>]} (else {@code default-max-concurrent}) of them. The endpoint
+ * caps may add up to more than {@code threads}, so a burst on one endpoint is bounded by its cap
+ * and all of them together by the pool. Requests over either limit get a 503 straight away, and one
+ * not answered within {@code timeout} gets a 503 too; its call keeps its thread and its endpoint's
+ * slot until it returns.
+ */
+@ConfigurationProperties(prefix = "flowstack.assistant.executor")
+public class AssistantExecutorProperties {
+
+    private int threads = 16;
+    private Duration timeout = Duration.ofSeconds(150);
+    private int defaultMaxConcurrent = 4;
+    private Map<String, Integer> maxConcurrent = new LinkedHashMap<>();
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getDefaultMaxConcurrent() {
+        return defaultMaxConcurrent;
+    }
+
+    public void setDefaultMaxConcurrent(int defaultMaxConcurrent) {
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+    }
+
+    public Map<String, Integer> getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(Map<String, Integer> maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int maxConcurrentFor(String endpoint) {
+        return maxConcurrent.getOrDefault(endpoint, defaultMaxConcurrent);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Multi-turn chatbot sessions. At most {@code max-sessions} are kept (least recently used go
+ * first) and one idle for {@code idle-timeout} is dropped. Per session, the last {@code max-turns}
+ * requests are remembered and Ollama's context is kept only while it fits the chatbot model's
+ * context window ({@code flowstack.llm.prompt.context-tokens} or its per-model entry), or
+ * {@code max-context-tokens} if set lower; past that the next turn starts over from the
+ * remembered requests. {@code max-context-tokens} of 0 means the window.
+ * {@code keep-alive} is how long Ollama keeps the model loaded after a session's turn.
+ */
+@ConfigurationProperties(prefix = "flowstack.chatbot.sessions")
+public class ChatbotSessionProperties {
+
+    private boolean enabled = true;
+    private int maxSessions = 500;
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    private int maxTurns = 10;
+    private int maxContextTokens = 0;
+    private Duration keepAlive = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    public int getMaxContextTokens() {
+        return maxContextTokens;
+    }
+
+    public void setMaxContextTokens(int maxContextTokens) {
+        this.maxContextTokens = maxContextTokens;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+}
@@ -1,30 +1,38 @@
 package com.ankush.workflowEngine.config;
 
-import java.security.cert.X509Certificate;
+import com.ankush.workflowEngine.support.AssistantDispatcher;
+import com.ankush.workflowEngine.support.HttpClientRegistry;
 import java.util.concurrent.Executor;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.io.HttpClientConnectionManager;
-import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.core5.ssl.SSLContextBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 @EnableCaching
-@EnableConfigurationProperties({OllamaProperties.class, OpenAiProperties.class})
+@EnableConfigurationProperties({
+        OllamaProperties.class,
+        OpenAiProperties.class,
+        ScriptSandboxProperties.class,
+        HttpClientProperties.class,
+        HttpCacheProperties.class,
+        ResilienceProperties.class,
+        LlmCacheProperties.class,
+        LlmAdmissionProperties.class,
+        LlmRouterProperties.class,
+        LlmTimeoutProperties.class,
+        LlmPromptProperties.class,
+        ChatbotSessionProperties.class,
+        AnalysisCacheProperties.class,
+        TemplateIndexProperties.class,
+        AssistantExecutorProperties.class,
+        ModelResidencyProperties.class})
 public class FlowStackConfig {
 
     @Bean(name = "workflowAsyncExecutor")
@@ -42,56 +50,50 @@ public class FlowStackConfig {
     }
 
     /**
-     * Configures RestClient.Builder with SSL verification disabled for development/testing.
+     * Resumes workflow runs whose async node completed, finishes async HTTP node responses (cache
+     * store, extraction) and sends the next request of an HTTP batch lane. Those callbacks fire on HTTP client I/O threads, so overflow is rejected (and the run
+     * failed) instead of run on the caller: a blocking node on an I/O thread stalls every exchange.
+     */
+    @Bean(name = "workflowResumeExecutor")
+    public Executor workflowResumeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("flowstack-resume-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the blocking assistant endpoints (see {@link AssistantDispatcher}). There is no queue:
+     * a call waiting behind others would likely time out anyway, so one arriving when every thread
+     * is busy is rejected, not run on the caller (a servlet thread).
+     */
+    @Bean(name = "assistantExecutor")
+    public Executor assistantExecutor(AssistantExecutorProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("flowstack-assistant-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Configures RestClient.Builder on the shared pooled HTTP client (see {@link HttpClientRegistry}),
+     * which has SSL verification disabled for development/testing.
      * WARNING: This disables SSL certificate validation - use only in development environments.
      * For production, configure proper SSL trust stores or use valid certificates.
      */
     @Bean
-    public RestClient.Builder restClientBuilder() {
-        try {
-            // Create a trust manager that accepts all certificates
-            TrustManager[] trustAllCerts = new TrustManager[]{
-                new X509TrustManager() {
-                    public X509Certificate[] getAcceptedIssuers() {
-                        return null;
-                    }
-                    public void checkClientTrusted(X509Certificate[] certs, String authType) {
-                    }
-                    public void checkServerTrusted(X509Certificate[] certs, String authType) {
-                    }
-                }
-            };
-
-            // Create SSL context with trust-all manager
-            SSLContext sslContext = SSLContextBuilder.create()
-                    .loadTrustMaterial(null, (certificate, authType) -> true)
-                    .build();
-            sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-
-            // Create connection socket factory with no hostname verification
-            SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
-                    sslContext,
-                    NoopHostnameVerifier.INSTANCE);
-
-            // Create HTTP client with SSL configuration
-            HttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                    .setSSLSocketFactory(sslSocketFactory)
-                    .build();
-
-            CloseableHttpClient httpClient = HttpClients.custom()
-                    .setConnectionManager(connectionManager)
-                    .evictIdleConnections(org.apache.hc.core5.util.TimeValue.ofSeconds(30))
-                    .evictExpiredConnections()
-                    .build();
-
-            HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-            requestFactory.setConnectTimeout(java.time.Duration.ofSeconds(30));
-            requestFactory.setConnectionRequestTimeout(java.time.Duration.ofSeconds(30));
-
-            return RestClient.builder()
-                    .requestFactory(requestFactory);
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to configure RestClient with SSL disabled", ex);
-        }
+    public RestClient.Builder restClientBuilder(HttpClientRegistry httpClientRegistry) {
+        return RestClient.builder()
+                .requestFactory(httpClientRegistry.requestFactory(null));
     }
 }
@@ -0,0 +1,63 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "flowstack.http.cache")
+public class HttpCacheProperties {
+
+    private boolean enabled = false;
+    private int maxEntries = 1000;
+    private int maxEntryBytes = 256 * 1024;
+    private Duration staleRetention = Duration.ofMinutes(10);
+    private boolean redisEnabled = false;
+    private String redisKeyPrefix = "flowstack:http-cache:";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public Duration getStaleRetention() {
+        return staleRetention;
+    }
+
+    public void setStaleRetention(Duration staleRetention) {
+        this.staleRetention = staleRetention;
+    }
+
+    public boolean isRedisEnabled() {
+        return redisEnabled;
+    }
+
+    public void setRedisEnabled(boolean redisEnabled) {
+        this.redisEnabled = redisEnabled;
+    }
+
+    public String getRedisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    public void setRedisKeyPrefix(String redisKeyPrefix) {
+        this.redisKeyPrefix = redisKeyPrefix;
+    }
+}
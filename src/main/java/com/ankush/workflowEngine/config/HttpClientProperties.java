@@ -0,0 +1,198 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "flowstack.http")
+public class HttpClientProperties {
+
+    private int maxTotal = 200;
+    private int defaultMaxPerRoute = 20;
+    private Duration connectTimeout = Duration.ofSeconds(30);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    private Duration responseTimeout = Duration.ofSeconds(60);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    private Duration evictIdleAfter = Duration.ofSeconds(30);
+    private boolean asyncEnabled = false;
+    private int asyncIoThreads = 2;
+    private long maxInMemoryBodyBytes = 1024 * 1024;
+    private long maxBodyBytes = 100L * 1024 * 1024;
+    private String spillDirectory = "";
+    private int batchDefaultParallelism = 4;
+    private int batchMaxParallelism = 16;
+    private int batchMaxRequests = 500;
+    private List<HostLimit> hosts = new ArrayList<>();
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return defaultMaxPerRoute;
+    }
+
+    public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public Duration getEvictIdleAfter() {
+        return evictIdleAfter;
+    }
+
+    public void setEvictIdleAfter(Duration evictIdleAfter) {
+        this.evictIdleAfter = evictIdleAfter;
+    }
+
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    public void setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    public int getAsyncIoThreads() {
+        return asyncIoThreads;
+    }
+
+    public void setAsyncIoThreads(int asyncIoThreads) {
+        this.asyncIoThreads = asyncIoThreads;
+    }
+
+    public long getMaxInMemoryBodyBytes() {
+        return maxInMemoryBodyBytes;
+    }
+
+    public void setMaxInMemoryBodyBytes(long maxInMemoryBodyBytes) {
+        this.maxInMemoryBodyBytes = maxInMemoryBodyBytes;
+    }
+
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public int getBatchDefaultParallelism() {
+        return batchDefaultParallelism;
+    }
+
+    public void setBatchDefaultParallelism(int batchDefaultParallelism) {
+        this.batchDefaultParallelism = batchDefaultParallelism;
+    }
+
+    public int getBatchMaxParallelism() {
+        return batchMaxParallelism;
+    }
+
+    public void setBatchMaxParallelism(int batchMaxParallelism) {
+        this.batchMaxParallelism = batchMaxParallelism;
+    }
+
+    public int getBatchMaxRequests() {
+        return batchMaxRequests;
+    }
+
+    public void setBatchMaxRequests(int batchMaxRequests) {
+        this.batchMaxRequests = batchMaxRequests;
+    }
+
+    public List<HostLimit> getHosts() {
+        return hosts;
+    }
+
+    public void setHosts(List<HostLimit> hosts) {
+        this.hosts = hosts;
+    }
+
+    /**
+     * Connection limit for a single downstream origin, e.g. {@code https://api.partner.com}.
+     */
+    public static class HostLimit {
+
+        private String url;
+        private int maxConnections = 20;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+    }
+}
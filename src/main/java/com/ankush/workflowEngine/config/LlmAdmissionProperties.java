@@ -0,0 +1,66 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control for local (Ollama) models. Each model runs at most {@code concurrency}
+ * generations at once (overridable per model under {@code models[<name>]}); further calls wait in
+ * a priority queue of at most {@code max-queue} entries. {@code initial-service-time} seeds the
+ * per-model service-time estimate used to reject calls that could not start before their deadline.
+ */
+@ConfigurationProperties(prefix = "flowstack.llm.admission")
+public class LlmAdmissionProperties {
+
+    private boolean enabled = true;
+    private int concurrency = 1;
+    private int maxQueue = 32;
+    private Duration initialServiceTime = Duration.ofSeconds(10);
+    private Map<String, Integer> models = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public Duration getInitialServiceTime() {
+        return initialServiceTime;
+    }
+
+    public void setInitialServiceTime(Duration initialServiceTime) {
+        this.initialServiceTime = initialServiceTime;
+    }
+
+    public Map<String, Integer> getModels() {
+        return models;
+    }
+
+    public void setModels(Map<String, Integer> models) {
+        this.models = models;
+    }
+
+    public int concurrencyFor(String model) {
+        return Math.max(1, models.getOrDefault(model, concurrency));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * LLM response cache. Workflow nodes opt in per node ({@code "cache": true}, optional
+ * {@code "cacheTtlSeconds"}); the chatbot and visual editor assistant use {@code assistant-ttl}
+ * (zero turns their caching off).
+ */
+@ConfigurationProperties(prefix = "flowstack.llm.cache")
+public class LlmCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 500;
+    private int maxEntryChars = 64 * 1024;
+    private Duration defaultTtl = Duration.ofHours(1);
+    private Duration assistantTtl = Duration.ofMinutes(10);
+    private boolean redisEnabled = false;
+    private String redisKeyPrefix = "flowstack:llm-cache:";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntryChars() {
+        return maxEntryChars;
+    }
+
+    public void setMaxEntryChars(int maxEntryChars) {
+        this.maxEntryChars = maxEntryChars;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getAssistantTtl() {
+        return assistantTtl;
+    }
+
+    public void setAssistantTtl(Duration assistantTtl) {
+        this.assistantTtl = assistantTtl;
+    }
+
+    public boolean isRedisEnabled() {
+        return redisEnabled;
+    }
+
+    public void setRedisEnabled(boolean redisEnabled) {
+        this.redisEnabled = redisEnabled;
+    }
+
+    public String getRedisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    public void setRedisKeyPrefix(String redisKeyPrefix) {
+        this.redisKeyPrefix = redisKeyPrefix;
+    }
+}
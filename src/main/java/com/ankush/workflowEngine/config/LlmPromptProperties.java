@@ -0,0 +1,37 @@
+package com.ankush.workflowEngine.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Context window used to budget assistant prompts. Ollama runs every model with
+ * {@code context-tokens} of context unless the model is listed under {@code models[<name>]}; the
+ * prompt gets whatever the window leaves after the response's token limit.
+ */
+@ConfigurationProperties(prefix = "flowstack.llm.prompt")
+public class LlmPromptProperties {
+
+    private int contextTokens = 2048;
+    private Map<String, Integer> models = new LinkedHashMap<>();
+
+    public int getContextTokens() {
+        return contextTokens;
+    }
+
+    public void setContextTokens(int contextTokens) {
+        this.contextTokens = contextTokens;
+    }
+
+    public Map<String, Integer> getModels() {
+        return models;
+    }
+
+    public void setModels(Map<String, Integer> models) {
+        this.models = models;
+    }
+
+    public int contextTokensFor(String model) {
+        return Math.max(1, models.getOrDefault(model, contextTokens));
+    }
+}
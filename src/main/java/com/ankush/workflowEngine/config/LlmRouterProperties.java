@@ -0,0 +1,69 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Latency-aware routing for LLM nodes. The router keeps the last {@code window} successful
+ * latencies per provider/model; until {@code min-samples} are in, a candidate is assumed to take
+ * {@code initial-latency} and hedges fire after {@code default-hedge-delay}. Learned hedge delays
+ * (the leader's p95) are never shorter than {@code min-hedge-delay}.
+ */
+@ConfigurationProperties(prefix = "flowstack.llm.router")
+public class LlmRouterProperties {
+
+    private int window = 100;
+    private int minSamples = 10;
+    private Duration initialLatency = Duration.ofSeconds(5);
+    private Duration defaultHedgeDelay = Duration.ofSeconds(3);
+    private Duration minHedgeDelay = Duration.ofMillis(250);
+    private Duration timeout = Duration.ofMinutes(3);
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public Duration getInitialLatency() {
+        return initialLatency;
+    }
+
+    public void setInitialLatency(Duration initialLatency) {
+        this.initialLatency = initialLatency;
+    }
+
+    public Duration getDefaultHedgeDelay() {
+        return defaultHedgeDelay;
+    }
+
+    public void setDefaultHedgeDelay(Duration defaultHedgeDelay) {
+        this.defaultHedgeDelay = defaultHedgeDelay;
+    }
+
+    public Duration getMinHedgeDelay() {
+        return minHedgeDelay;
+    }
+
+    public void setMinHedgeDelay(Duration minHedgeDelay) {
+        this.minHedgeDelay = minHedgeDelay;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,90 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive timeouts for Ollama calls. Latencies are kept per model, prompt-size bucket (prompt
+ * length in characters, split at {@code prompt-buckets}) and token limit (rounded up to a power of
+ * two), {@code window} calls each. Once a bucket holds {@code min-samples}, its timeout is the
+ * {@code quantile} latency times {@code multiplier}, kept between {@code floor} and
+ * {@code ceiling}; until then the static estimate from prompt length and token limit applies.
+ */
+@ConfigurationProperties(prefix = "flowstack.llm.timeout")
+public class LlmTimeoutProperties {
+
+    private boolean enabled = true;
+    private int window = 200;
+    private int minSamples = 20;
+    private double quantile = 0.99;
+    private double multiplier = 2.0;
+    private Duration floor = Duration.ofSeconds(10);
+    private Duration ceiling = Duration.ofMinutes(3);
+    private List<Integer> promptBuckets = new ArrayList<>(List.of(500, 2000, 8000));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getQuantile() {
+        return quantile;
+    }
+
+    public void setQuantile(double quantile) {
+        this.quantile = quantile;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public Duration getFloor() {
+        return floor;
+    }
+
+    public void setFloor(Duration floor) {
+        this.floor = floor;
+    }
+
+    public Duration getCeiling() {
+        return ceiling;
+    }
+
+    public void setCeiling(Duration ceiling) {
+        this.ceiling = ceiling;
+    }
+
+    public List<Integer> getPromptBuckets() {
+        return promptBuckets;
+    }
+
+    public void setPromptBuckets(List<Integer> promptBuckets) {
+        this.promptBuckets = promptBuckets;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How long Ollama keeps models loaded between calls. Every call sends a {@code keep_alive} that
+ * grows with the model's recent traffic, from {@code min-keep-alive} for a model called once to
+ * {@code max-keep-alive} for one called {@code busy-calls} times within {@code window}; models of
+ * published workflows get at least {@code published-keep-alive}. With {@code warmup-published}
+ * those models are preloaded once the application is ready and as workflows using them are
+ * published, then preloaded again every {@code refresh-interval} when they would otherwise unload
+ * before the check after next; with {@code prewarm-on-run} a run's models are loaded as the run
+ * starts. Each load is allowed {@code warmup-timeout}.
+ */
+@ConfigurationProperties(prefix = "flowstack.ollama.residency")
+public class ModelResidencyProperties {
+
+    private boolean enabled = true;
+    private boolean warmupPublished = true;
+    private boolean prewarmOnRun = true;
+    private Duration minKeepAlive = Duration.ofMinutes(5);
+    private Duration maxKeepAlive = Duration.ofMinutes(60);
+    private Duration publishedKeepAlive = Duration.ofMinutes(30);
+    private Duration window = Duration.ofMinutes(30);
+    private int busyCalls = 20;
+    private Duration warmupTimeout = Duration.ofMinutes(2);
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isWarmupPublished() {
+        return warmupPublished;
+    }
+
+    public void setWarmupPublished(boolean warmupPublished) {
+        this.warmupPublished = warmupPublished;
+    }
+
+    public boolean isPrewarmOnRun() {
+        return prewarmOnRun;
+    }
+
+    public void setPrewarmOnRun(boolean prewarmOnRun) {
+        this.prewarmOnRun = prewarmOnRun;
+    }
+
+    public Duration getMinKeepAlive() {
+        return minKeepAlive;
+    }
+
+    public void setMinKeepAlive(Duration minKeepAlive) {
+        this.minKeepAlive = minKeepAlive;
+    }
+
+    public Duration getMaxKeepAlive() {
+        return maxKeepAlive;
+    }
+
+    public void setMaxKeepAlive(Duration maxKeepAlive) {
+        this.maxKeepAlive = maxKeepAlive;
+    }
+
+    public Duration getPublishedKeepAlive() {
+        return publishedKeepAlive;
+    }
+
+    public void setPublishedKeepAlive(Duration publishedKeepAlive) {
+        this.publishedKeepAlive = publishedKeepAlive;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getBusyCalls() {
+        return busyCalls;
+    }
+
+    public void setBusyCalls(int busyCalls) {
+        this.busyCalls = busyCalls;
+    }
+
+    public Duration getWarmupTimeout() {
+        return warmupTimeout;
+    }
+
+    public void setWarmupTimeout(Duration warmupTimeout) {
+        this.warmupTimeout = warmupTimeout;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -7,6 +7,8 @@ public class OllamaProperties {
 
     private String baseUrl = "http://localhost:11434";
     private String defaultModel = "gemma3:1b";
+    private int maxConnections = 8;
+    private int streamBuffer = 256;
 
     public String getBaseUrl() {
         return baseUrl;
@@ -23,4 +25,20 @@ public class OllamaProperties {
     public void setDefaultModel(String defaultModel) {
         this.defaultModel = defaultModel;
     }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getStreamBuffer() {
+        return streamBuffer;
+    }
+
+    public void setStreamBuffer(int streamBuffer) {
+        this.streamBuffer = streamBuffer;
+    }
 }
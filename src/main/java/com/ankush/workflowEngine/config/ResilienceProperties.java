@@ -0,0 +1,113 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulkhead and circuit breaker settings for external calls. Downstreams are named
+ * {@code host[:port]} for HTTP nodes, {@code ollama:<model>} and {@code openai:<model>};
+ * a policy under {@code downstreams[<name>]} applies to that name, and one keyed by the part
+ * before the first colon ({@code ollama}, a bare host) applies to all of its variants.
+ * A blocking call waits up to {@code acquire-timeout} for a bulkhead slot; an async call never
+ * waits, as it may be started from an HTTP client I/O thread.
+ */
+@ConfigurationProperties(prefix = "flowstack.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+    private Policy defaults = new Policy();
+    private Map<String, Policy> downstreams = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getDownstreams() {
+        return downstreams;
+    }
+
+    public void setDownstreams(Map<String, Policy> downstreams) {
+        this.downstreams = downstreams;
+    }
+
+    public static class Policy {
+
+        private int maxConcurrent = 20;
+        private Duration acquireTimeout = Duration.ofMillis(500);
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenProbes = 3;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenProbes() {
+            return halfOpenProbes;
+        }
+
+        public void setHalfOpenProbes(int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+        }
+    }
+}
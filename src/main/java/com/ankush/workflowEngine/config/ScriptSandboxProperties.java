@@ -0,0 +1,101 @@
+package com.ankush.workflowEngine.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "flowstack.script.sandbox")
+public class ScriptSandboxProperties {
+
+    private boolean enabled = false;
+    private String nodeCommand = "node";
+    private String pythonCommand = "python3";
+    private int maxConcurrent = 4;
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+    private Duration wallClockTimeout = Duration.ofSeconds(10);
+    private Duration cpuTimeLimit = Duration.ofSeconds(5);
+    private int maxHeapMb = 256;
+    private int maxOutputBytes = 1024 * 1024;
+    private List<String> passEnv = new ArrayList<>(List.of("PATH", "LANG"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeCommand() {
+        return nodeCommand;
+    }
+
+    public void setNodeCommand(String nodeCommand) {
+        this.nodeCommand = nodeCommand;
+    }
+
+    public String getPythonCommand() {
+        return pythonCommand;
+    }
+
+    public void setPythonCommand(String pythonCommand) {
+        this.pythonCommand = pythonCommand;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public Duration getWallClockTimeout() {
+        return wallClockTimeout;
+    }
+
+    public void setWallClockTimeout(Duration wallClockTimeout) {
+        this.wallClockTimeout = wallClockTimeout;
+    }
+
+    public Duration getCpuTimeLimit() {
+        return cpuTimeLimit;
+    }
+
+    public void setCpuTimeLimit(Duration cpuTimeLimit) {
+        this.cpuTimeLimit = cpuTimeLimit;
+    }
+
+    public int getMaxHeapMb() {
+        return maxHeapMb;
+    }
+
+    public void setMaxHeapMb(int maxHeapMb) {
+        this.maxHeapMb = maxHeapMb;
+    }
+
+    public int getMaxOutputBytes() {
+        return maxOutputBytes;
+    }
+
+    public void setMaxOutputBytes(int maxOutputBytes) {
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    public List<String> getPassEnv() {
+        return passEnv;
+    }
+
+    public void setPassEnv(List<String> passEnv) {
+        this.passEnv = passEnv;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ankush.workflowEngine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Local template index the assistant and chatbot consult before calling the LLM. Stored workflows
+ * and the example workflows in {@code examples-dir} are indexed; a prompt is answered from the
+ * best template when it covers at least {@code min-confidence} of the prompt's weight and at least
+ * {@code min-matched-terms} of its words, and scores {@code min-margin} times the runner-up, so a
+ * generic prompt that fits several templates equally still goes to the LLM.
+ */
+@ConfigurationProperties(prefix = "flowstack.assistant.templates")
+public class TemplateIndexProperties {
+
+    private boolean enabled = true;
+    private String examplesDir = "docs";
+    private double minConfidence = 0.55;
+    private int minMatchedTerms = 2;
+    private double minMargin = 1.5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getExamplesDir() {
+        return examplesDir;
+    }
+
+    public void setExamplesDir(String examplesDir) {
+        this.examplesDir = examplesDir;
+    }
+
+    public double getMinConfidence() {
+        return minConfidence;
+    }
+
+    public void setMinConfidence(double minConfidence) {
+        this.minConfidence = minConfidence;
+    }
+
+    public int getMinMatchedTerms() {
+        return minMatchedTerms;
+    }
+
+    public void setMinMatchedTerms(int minMatchedTerms) {
+        this.minMatchedTerms = minMatchedTerms;
+    }
+
+    public double getMinMargin() {
+        return minMargin;
+    }
+
+    public void setMinMargin(double minMargin) {
+        this.minMargin = minMargin;
+    }
+}
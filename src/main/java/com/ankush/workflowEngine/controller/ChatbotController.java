@@ -3,12 +3,14 @@ package com.ankush.workflowEngine.controller;
 import com.ankush.workflowEngine.dto.ChatbotRequest;
 import com.ankush.workflowEngine.dto.ChatbotResponse;
 import com.ankush.workflowEngine.service.ChatbotService;
+import com.ankush.workflowEngine.support.AssistantDispatcher;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
@@ -16,21 +18,23 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class ChatbotController {
 
     private final ChatbotService chatbotService;
+    private final AssistantDispatcher dispatcher;
 
-    public ChatbotController(ChatbotService chatbotService) {
+    public ChatbotController(ChatbotService chatbotService, AssistantDispatcher dispatcher) {
         this.chatbotService = chatbotService;
+        this.dispatcher = dispatcher;
     }
 
     @PostMapping("/chat")
-    public ChatbotResponse chat(@Valid @RequestBody ChatbotRequest request) {
-        return chatbotService.processMessage(request.message());
+    public DeferredResult<ChatbotResponse> chat(@Valid @RequestBody ChatbotRequest request) {
+        return dispatcher.dispatch("chat", () -> chatbotService.processMessage(request.message(), request.sessionId()));
     }
 
     @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter chatStream(@Valid @RequestBody ChatbotRequest request) {
         SseEmitter emitter = new SseEmitter(300000L); // 5 minute timeout
         
-        chatbotService.processMessageStream(request.message(), emitter);
+        chatbotService.processMessageStream(request.message(), request.sessionId(), emitter);
         
         return emitter;
     }
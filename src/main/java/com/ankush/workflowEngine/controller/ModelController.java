@@ -0,0 +1,29 @@
+package com.ankush.workflowEngine.controller;
+
+import com.ankush.workflowEngine.service.ModelResidencyService;
+import com.ankush.workflowEngine.support.ModelResidency;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/models")
+public class ModelController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelController.class);
+
+    private final ModelResidencyService residencyService;
+
+    public ModelController(ModelResidencyService residencyService) {
+        this.residencyService = residencyService;
+    }
+
+    @GetMapping("/residency")
+    public List<ModelResidency.Residency> residency() {
+        LOGGER.debug("Listing Ollama model residency");
+        return residencyService.residency();
+    }
+}
@@ -2,17 +2,21 @@ package com.ankush.workflowEngine.controller;
 
 import com.ankush.workflowEngine.dto.VisualEditorSuggestionRequest;
 import com.ankush.workflowEngine.dto.VisualEditorSuggestionResponse;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisDiffRequest;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisDiffResponse;
 import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest;
 import com.ankush.workflowEngine.dto.WorkflowAnalysisResponse;
 import com.ankush.workflowEngine.dto.WorkflowPromptRequest;
 import com.ankush.workflowEngine.dto.WorkflowPromptResponse;
 import com.ankush.workflowEngine.service.VisualEditorAssistantService;
+import com.ankush.workflowEngine.support.AssistantDispatcher;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
@@ -20,14 +24,17 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class VisualEditorAssistantController {
 
     private final VisualEditorAssistantService assistantService;
+    private final AssistantDispatcher dispatcher;
 
-    public VisualEditorAssistantController(VisualEditorAssistantService assistantService) {
+    public VisualEditorAssistantController(VisualEditorAssistantService assistantService,
+                                           AssistantDispatcher dispatcher) {
         this.assistantService = assistantService;
+        this.dispatcher = dispatcher;
     }
 
     @PostMapping("/suggest")
-    public VisualEditorSuggestionResponse suggest(@Valid @RequestBody VisualEditorSuggestionRequest request) {
-        return assistantService.getSuggestions(request);
+    public DeferredResult<VisualEditorSuggestionResponse> suggest(@Valid @RequestBody VisualEditorSuggestionRequest request) {
+        return dispatcher.dispatch("suggest", () -> assistantService.getSuggestions(request));
     }
 
     @PostMapping(value = "/suggest/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -38,8 +45,13 @@ public class VisualEditorAssistantController {
     }
 
     @PostMapping("/analyze")
-    public WorkflowAnalysisResponse analyze(@Valid @RequestBody WorkflowAnalysisRequest request) {
-        return assistantService.analyzeWorkflow(request);
+    public DeferredResult<WorkflowAnalysisResponse> analyze(@Valid @RequestBody WorkflowAnalysisRequest request) {
+        return dispatcher.dispatch("analyze", () -> assistantService.analyzeWorkflow(request));
+    }
+
+    @PostMapping("/analyze/incremental")
+    public WorkflowAnalysisDiffResponse analyzeIncremental(@Valid @RequestBody WorkflowAnalysisDiffRequest request) {
+        return assistantService.analyzeWorkflowIncremental(request);
     }
 
     @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -50,8 +62,8 @@ public class VisualEditorAssistantController {
     }
 
     @PostMapping("/prompt")
-    public WorkflowPromptResponse processPrompt(@Valid @RequestBody WorkflowPromptRequest request) {
-        return assistantService.processWorkflowPrompt(request);
+    public DeferredResult<WorkflowPromptResponse> processPrompt(@Valid @RequestBody WorkflowPromptRequest request) {
+        return dispatcher.dispatch("prompt", () -> assistantService.processWorkflowPrompt(request));
     }
 
     @PostMapping(value = "/prompt/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -47,6 +47,9 @@ public class WorkflowNodeRun {
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Column(columnDefinition = "json")
+    private String metrics;
+
     public WorkflowNodeRun() {
         // JPA constructor
     }
@@ -144,4 +147,12 @@ public class WorkflowNodeRun {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public String getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(String metrics) {
+        this.metrics = metrics;
+    }
 }
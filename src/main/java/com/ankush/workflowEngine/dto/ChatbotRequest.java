@@ -3,9 +3,13 @@ package com.ankush.workflowEngine.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+/**
+ * A chatbot message; {@code sessionId} (from an earlier response) continues that conversation.
+ */
 public record ChatbotRequest(
         @NotBlank(message = "Message is required")
         @Size(max = 5000, message = "Message must not exceed 5000 characters")
-        String message) {
+        String message,
+        @Size(max = 64, message = "Session id must not exceed 64 characters")
+        String sessionId) {
 }
-
@@ -6,18 +6,22 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 public record ChatbotResponse(
         String response,
         WorkflowDefinitionRequest workflow,
-        String error) {
+        String error,
+        String sessionId) {
     
     public static ChatbotResponse success(String response, WorkflowDefinitionRequest workflow) {
-        return new ChatbotResponse(response, workflow, null);
+        return new ChatbotResponse(response, workflow, null, null);
     }
     
     public static ChatbotResponse error(String error) {
-        return new ChatbotResponse(null, null, error);
+        return new ChatbotResponse(null, null, error, null);
     }
     
     public static ChatbotResponse message(String response) {
-        return new ChatbotResponse(response, null, null);
+        return new ChatbotResponse(response, null, null, null);
     }
-}
 
+    public ChatbotResponse withSessionId(String sessionId) {
+        return new ChatbotResponse(response, workflow, error, sessionId);
+    }
+}
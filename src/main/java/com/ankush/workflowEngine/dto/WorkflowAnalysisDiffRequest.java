@@ -0,0 +1,22 @@
+package com.ankush.workflowEngine.dto;
+
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest.EdgeInfo;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest.NodeInfo;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Editor changes since the last incremental analysis of {@code graphId}. Without a graph id the
+ * upserted nodes and added edges are the whole graph, and the response carries the id to send
+ * with the next diff.
+ */
+public record WorkflowAnalysisDiffRequest(
+        @Size(max = 64, message = "Graph id must not exceed 64 characters") String graphId,
+        String workflowName,
+        String workflowDescription,
+        List<@Valid NodeInfo> upsertNodes,
+        List<String> removedNodeKeys,
+        List<@Valid EdgeInfo> addedEdges,
+        List<@Valid EdgeInfo> removedEdges) {
+}
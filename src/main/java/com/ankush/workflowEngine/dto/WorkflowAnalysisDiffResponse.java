@@ -0,0 +1,14 @@
+package com.ankush.workflowEngine.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * {@code resyncRequired} means the server no longer holds the graph (evicted or unknown id): send
+ * the full graph again without a graph id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WorkflowAnalysisDiffResponse(
+        String graphId,
+        boolean resyncRequired,
+        WorkflowAnalysisResponse analysis) {
+}
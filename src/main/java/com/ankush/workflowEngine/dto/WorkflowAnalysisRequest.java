@@ -1,24 +1,31 @@
 package com.ankush.workflowEngine.dto;
 
 import com.ankush.workflowEngine.enums.NodeType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import java.util.Map;
 
 public record WorkflowAnalysisRequest(
-        List<NodeInfo> nodes,
-        List<EdgeInfo> edges,
+        List<@Valid NodeInfo> nodes,
+        List<@Valid EdgeInfo> edges,
         String workflowName,
         String workflowDescription) {
     
     public record NodeInfo(
+            @NotBlank(message = "Node key is required")
             String key,
+            @NotNull(message = "Node type is required")
             NodeType type,
             String displayName,
             Map<String, Object> config) {
     }
     
     public record EdgeInfo(
+            @NotBlank(message = "Source node key is required")
             String sourceKey,
+            @NotBlank(message = "Target node key is required")
             String targetKey,
             String conditionExpression) {
     }
@@ -14,7 +14,7 @@ public record WorkflowAnalysisResponse(
         boolean isValid) {
     
     public record WorkflowIssue(
-            String type, // "MISSING_INPUT", "MISSING_OUTPUT", "ORPHANED_NODE", "DISCONNECTED_FLOW", "INCOMPLETE_CONFIG"
+            String type, // "MISSING_INPUT", "MISSING_OUTPUT", "ORPHANED_NODE", "DISCONNECTED_FLOW", "DEAD_END", "INCOMPLETE_CONFIG"
             String severity, // "ERROR", "WARNING", "INFO"
             String message,
             String nodeKey,
@@ -0,0 +1,25 @@
+package com.ankush.workflowEngine.enums;
+
+/**
+ * Who is waiting on an LLM call. Interactive callers (a person watching the chatbot or the
+ * visual editor) are admitted ahead of workflow nodes when a model is busy.
+ */
+public enum LlmCaller {
+    NODE(0),
+    CHATBOT(1),
+    ASSISTANT(1);
+
+    private final int priority;
+
+    LlmCaller(int priority) {
+        this.priority = priority;
+    }
+
+    public int priority() {
+        return priority;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
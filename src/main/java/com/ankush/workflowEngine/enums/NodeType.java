@@ -6,8 +6,10 @@ public enum NodeType {
     SCRIPT_PY,
     OLLAMA,
     HTTP,
+    HTTP_BATCH,
     EMAIL,
     CHATGPT,
+    LLM,
     OUTPUT,
     NOTIFY,
     IF_ELSE
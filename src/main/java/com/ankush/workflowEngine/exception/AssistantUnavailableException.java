@@ -0,0 +1,19 @@
+package com.ankush.workflowEngine.exception;
+
+/**
+ * The assistant cannot take a request right now (its endpoint or thread pool is saturated, or the
+ * answer took too long); answered with a 503 and a {@code Retry-After} hint.
+ */
+public class AssistantUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AssistantUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,12 +1,30 @@
 package com.ankush.workflowEngine.execution;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class NodeExecutionException extends RuntimeException {
 
+    private final Map<String, Object> metrics;
+
     public NodeExecutionException(String message) {
-        super(message);
+        this(message, null, null);
     }
 
     public NodeExecutionException(String message, Throwable cause) {
+        this(message, cause, null);
+    }
+
+    /**
+     * Creates an exception that still carries the resource metrics gathered before the node failed,
+     * so they can be persisted on the node run alongside the error.
+     */
+    public NodeExecutionException(String message, Throwable cause, Map<String, Object> metrics) {
         super(message, cause);
+        this.metrics = metrics == null ? Collections.emptyMap() : metrics;
+    }
+
+    public Map<String, Object> getMetrics() {
+        return metrics;
     }
 }
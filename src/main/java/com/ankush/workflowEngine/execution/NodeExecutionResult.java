@@ -3,13 +3,21 @@ package com.ankush.workflowEngine.execution;
 import java.util.Collections;
 import java.util.Map;
 
-public record NodeExecutionResult(boolean success, Map<String, Object> output, String message) {
+public record NodeExecutionResult(boolean success, Map<String, Object> output, String message, Map<String, Object> metrics) {
 
     public static NodeExecutionResult completed() {
-        return new NodeExecutionResult(true, Collections.emptyMap(), "completed");
+        return new NodeExecutionResult(true, Collections.emptyMap(), "completed", Collections.emptyMap());
     }
 
     public static NodeExecutionResult completed(Map<String, Object> output, String message) {
-        return new NodeExecutionResult(true, output == null ? Collections.emptyMap() : output, message);
+        return completed(output, message, null);
+    }
+
+    public static NodeExecutionResult completed(Map<String, Object> output, String message, Map<String, Object> metrics) {
+        return new NodeExecutionResult(
+                true,
+                output == null ? Collections.emptyMap() : output,
+                message,
+                metrics == null ? Collections.emptyMap() : metrics);
     }
 }
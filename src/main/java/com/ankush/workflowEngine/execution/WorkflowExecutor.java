@@ -6,18 +6,23 @@ import com.ankush.workflowEngine.domain.WorkflowNodeRun;
 import com.ankush.workflowEngine.domain.WorkflowRun;
 import com.ankush.workflowEngine.enums.NodeRunStatus;
 import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.enums.RunStatus;
 import com.ankush.workflowEngine.mapper.WorkflowMapper;
+import com.ankush.workflowEngine.registry.AsyncNodeExecutor;
 import com.ankush.workflowEngine.registry.NodeExecutor;
 import com.ankush.workflowEngine.registry.NodeRegistry;
 import com.ankush.workflowEngine.repository.WorkflowEdgeRepository;
 import com.ankush.workflowEngine.repository.WorkflowNodeRepository;
 import com.ankush.workflowEngine.repository.WorkflowNodeRunRepository;
 import com.ankush.workflowEngine.repository.WorkflowRunRepository;
+import com.ankush.workflowEngine.support.BodySpillStore;
 import com.ankush.workflowEngine.support.ErrorMessageFormatter;
+import com.ankush.workflowEngine.support.RunEventBroadcaster;
 import com.ankush.workflowEngine.support.TemplateRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
@@ -27,6 +32,12 @@ import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.*;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Component
@@ -40,6 +51,9 @@ public class WorkflowExecutor {
     private final WorkflowNodeRunRepository nodeRunRepository;
     private final NodeRegistry nodeRegistry;
     private final WorkflowMapper mapper;
+    private final Executor workflowResumeExecutor;
+    private final BodySpillStore bodySpillStore;
+    private final RunEventBroadcaster runEvents;
 
     public WorkflowExecutor(
             WorkflowRunRepository runRepository,
@@ -47,13 +61,19 @@ public class WorkflowExecutor {
             WorkflowEdgeRepository edgeRepository,
             WorkflowNodeRunRepository nodeRunRepository,
             NodeRegistry nodeRegistry,
-            WorkflowMapper mapper) {
+            WorkflowMapper mapper,
+            @Qualifier("workflowResumeExecutor") Executor workflowResumeExecutor,
+            BodySpillStore bodySpillStore,
+            RunEventBroadcaster runEvents) {
         this.runRepository = runRepository;
         this.nodeRepository = nodeRepository;
         this.edgeRepository = edgeRepository;
         this.nodeRunRepository = nodeRunRepository;
         this.nodeRegistry = nodeRegistry;
         this.mapper = mapper;
+        this.workflowResumeExecutor = workflowResumeExecutor;
+        this.bodySpillStore = bodySpillStore;
+        this.runEvents = runEvents;
     }
 
     @Async("workflowAsyncExecutor")
@@ -116,20 +136,20 @@ public class WorkflowExecutor {
                     .filter(key -> !nodesWithIncomingEdges.contains(key))
                     .collect(Collectors.toList());
             
+            Queue<String> queue;
             if (entryNodes.isEmpty()) {
-                // Fallback to sequential execution if no edges defined
-                executeSequentially(run, context, allNodes);
+                // Fallback to sequential execution if no edges defined: every node in order, no edges followed
+                queue = allNodes.stream()
+                        .map(WorkflowNode::getNodeKey)
+                        .collect(Collectors.toCollection(LinkedList::new));
+                adjacencyList = Collections.emptyMap();
             } else {
                 // Execute using graph traversal
-                executeGraph(run, context, nodeMap, adjacencyList, entryNodes);
+                queue = new LinkedList<>(entryNodes);
             }
 
-            run.setContextData(mapper.writeJson(context.snapshot()));
-            run.markCompleted();
-            runRepository.save(run);
-            
-            LOGGER.info("Workflow run {} completed successfully", runId);
-            
+            drive(new RunTraversal(run, context, nodeMap, adjacencyList, queue));
+
         } catch (Exception ex) {
             LOGGER.error("Workflow execution failed for run {}", runId, ex);
             handleWorkflowFailure(runId, ex);
@@ -138,44 +158,90 @@ public class WorkflowExecutor {
         }
     }
 
-    private void executeGraph(WorkflowRun run, WorkflowContext context,
-                             Map<String, WorkflowNode> nodeMap,
-                             Map<String, List<WorkflowEdge>> adjacencyList,
-                             List<String> entryNodes) {
-        Set<String> executedNodes = new HashSet<>();
-        Queue<String> queue = new LinkedList<>(entryNodes);
+    /**
+     * Walks the graph until the run completes, a node fails, or a node's result is still pending.
+     * In the last case the traversal is parked on the node's future and resumed on the resume pool
+     * when it completes, so no workflow thread is held while an async node waits on I/O. The
+     * future completes on an HTTP client I/O thread, which must never run the rest of the run: if
+     * the resume pool is full the run fails instead.
+     */
+    private void drive(RunTraversal traversal) {
+        while (!traversal.queue.isEmpty()) {
+            String currentNodeKey = traversal.queue.poll();
 
-        while (!queue.isEmpty()) {
-            String currentNodeKey = queue.poll();
-            
-            if (executedNodes.contains(currentNodeKey)) {
+            if (traversal.executedNodes.contains(currentNodeKey)) {
                 continue; // Skip already executed nodes
             }
 
-            WorkflowNode node = nodeMap.get(currentNodeKey);
+            WorkflowNode node = traversal.nodeMap.get(currentNodeKey);
             if (node == null) {
                 LOGGER.warn("Node {} not found in node map", currentNodeKey);
                 continue;
             }
-
-            // Execute the node
-            NodeExecutionError error = executeNode(run, node, context);
-            executedNodes.add(currentNodeKey);
-
-            if (error != null) {
-                // Node execution failed, stop workflow
+            traversal.executedNodes.add(currentNodeKey);
+
+            PendingNode pending = startNode(traversal.run, node, traversal.context);
+            if (!pending.result().isDone()) {
+                pending.result().whenComplete((result, failure) -> {
+                    try {
+                        workflowResumeExecutor.execute(() -> resume(traversal, pending, result, failure));
+                    } catch (RejectedExecutionException ex) {
+                        // Fail the node and the run here rather than leave the run RUNNING forever
+                        LOGGER.error("[FlowStack] Cannot resume run {}: the resume pool is full",
+                                traversal.run.getId());
+                        resumeRejected(traversal, pending, ex);
+                    }
+                });
                 return;
             }
 
-            // Determine next nodes based on edges and node type
-            List<String> nextNodes = determineNextNodes(node, context, adjacencyList);
-            
-            // Add next nodes to queue
-            for (String nextNodeKey : nextNodes) {
-                if (!executedNodes.contains(nextNodeKey)) {
-                    queue.offer(nextNodeKey);
-                }
+            NodeExecutionResult result = null;
+            Throwable failure = null;
+            try {
+                result = pending.result().join();
+            } catch (CompletionException | CancellationException ex) {
+                failure = ex;
             }
+            if (!completeNode(traversal, pending, result, failure)) {
+                return; // Node execution failed, stop workflow
+            }
+        }
+
+        WorkflowRun run = traversal.run;
+        run.setContextData(mapper.writeJson(traversal.context.snapshot()));
+        run.markCompleted();
+        runRepository.save(run);
+        bodySpillStore.release(run.getId());
+        runEvents.runFinished(run.getId(), RunStatus.COMPLETED);
+
+        LOGGER.info("Workflow run {} completed successfully", run.getId());
+    }
+
+    private void resume(RunTraversal traversal, PendingNode pending, NodeExecutionResult result, Throwable failure) {
+        Long runId = traversal.run.getId();
+        MDC.put("runId", runId.toString());
+        MDC.put("workflowId", traversal.run.getWorkflowDefinition().getId().toString());
+        try {
+            if (completeNode(traversal, pending, result, failure)) {
+                drive(traversal);
+            }
+        } catch (Exception ex) {
+            LOGGER.error("Workflow execution failed for run {}", runId, ex);
+            handleWorkflowFailure(runId, ex);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void resumeRejected(RunTraversal traversal, PendingNode pending, RejectedExecutionException ex) {
+        MDC.put("runId", traversal.run.getId().toString());
+        try {
+            completeNode(traversal, pending, null,
+                    new NodeExecutionException("Workflow engine overloaded; the run could not be resumed", ex));
+        } catch (Exception failure) {
+            handleWorkflowFailure(traversal.run.getId(), failure);
+        } finally {
+            MDC.clear();
         }
     }
 
@@ -263,12 +329,10 @@ public class WorkflowExecutor {
         }
     }
 
-    private NodeExecutionError executeNode(WorkflowRun run, WorkflowNode node, WorkflowContext context) {
-        // Add node context to MDC
-        String previousNodeKey = MDC.get("nodeKey");
+    private PendingNode startNode(WorkflowRun run, WorkflowNode node, WorkflowContext context) {
         MDC.put("nodeKey", node.getNodeKey());
         MDC.put("nodeType", node.getType().name());
-        
+
         try {
             WorkflowNodeRun nodeRun = new WorkflowNodeRun();
             nodeRun.setWorkflowRun(run);
@@ -277,68 +341,116 @@ public class WorkflowExecutor {
             nodeRun.setInputPayload(mapper.writeJson(context.snapshot()));
             nodeRun = nodeRunRepository.save(nodeRun);
 
+            CompletableFuture<NodeExecutionResult> result;
             try {
                 nodeRun.markRunning();
                 nodeRunRepository.save(nodeRun);
 
                 NodeExecutor executor = nodeRegistry.getExecutor(node.getType());
-                NodeExecutionResult result = executor.execute(new NodeExecutionContext(
+                NodeExecutionContext executionContext = new NodeExecutionContext(
                         run,
                         node,
                         context,
-                        mapper.readJson(node.getConfig())));
-                
-                context.merge(result.output());
-                nodeRun.markSuccess(mapper.writeJson(result.output()));
-                nodeRunRepository.save(nodeRun);
-                
-                LOGGER.debug("Node {} executed successfully", node.getNodeKey());
-                return null; // Success
-                
-            } catch (NodeExecutionException ex) {
-                NodeExecutionError error = NodeExecutionError.fromException(ex, node.getNodeKey());
-                LOGGER.error("Node {} execution failed: {}", node.getNodeKey(), error.getMessage(), ex);
-                
-                nodeRun.markFailed(error.getMessage());
-                nodeRunRepository.save(nodeRun);
-                
-                run.setContextData(mapper.writeJson(context.snapshot()));
-                run.markFailed(error.getMessage());
-                runRepository.save(run);
-                
-                return error;
-                
+                        mapper.readJson(node.getConfig()));
+                if (executor instanceof AsyncNodeExecutor asyncExecutor) {
+                    result = asyncExecutor.executeAsync(executionContext);
+                } else {
+                    result = CompletableFuture.completedFuture(executor.execute(executionContext));
+                }
             } catch (Exception ex) {
-                NodeExecutionError error = NodeExecutionError.fromException(ex, node.getNodeKey());
-                LOGGER.error("Unexpected error executing node {}: {}", node.getNodeKey(), error.getMessage(), ex);
-                
-                nodeRun.markFailed(error.getMessage());
-                nodeRunRepository.save(nodeRun);
-                
-                run.setContextData(mapper.writeJson(context.snapshot()));
-                run.markFailed(error.getMessage());
-                runRepository.save(run);
-                
-                return error;
+                result = CompletableFuture.failedFuture(ex);
             }
+            return new PendingNode(node, nodeRun, result);
         } finally {
-            // Restore previous node key or remove if it was null
-            if (previousNodeKey != null) {
-                MDC.put("nodeKey", previousNodeKey);
-            } else {
-                MDC.remove("nodeKey");
-            }
+            MDC.remove("nodeKey");
             MDC.remove("nodeType");
         }
     }
 
-    private void executeSequentially(WorkflowRun run, WorkflowContext context, List<WorkflowNode> nodes) {
-        for (WorkflowNode node : nodes) {
-            NodeExecutionError error = executeNode(run, node, context);
-            if (error != null) {
-                return; // Stop on error
+    /**
+     * Records the outcome of a started node and queues its successors.
+     *
+     * @return {@code false} when the node failed and the run has been marked failed
+     */
+    private boolean completeNode(RunTraversal traversal, PendingNode pending,
+                                 NodeExecutionResult result, Throwable failure) {
+        WorkflowRun run = traversal.run;
+        WorkflowContext context = traversal.context;
+        WorkflowNode node = pending.node();
+        WorkflowNodeRun nodeRun = pending.nodeRun();
+        MDC.put("nodeKey", node.getNodeKey());
+        MDC.put("nodeType", node.getType().name());
+
+        try {
+            if (failure != null) {
+                throw unwrap(failure);
+            }
+            context.merge(result.output());
+            nodeRun.markSuccess(mapper.writeJson(result.output()));
+            if (!result.metrics().isEmpty()) {
+                nodeRun.setMetrics(mapper.writeJson(result.metrics()));
+            }
+            nodeRunRepository.save(nodeRun);
+            runEvents.nodeFinished(run.getId(), node.getNodeKey(), NodeRunStatus.SUCCESS.name());
+
+            LOGGER.debug("Node {} executed successfully", node.getNodeKey());
+
+        } catch (NodeExecutionException ex) {
+            NodeExecutionError error = NodeExecutionError.fromException(ex, node.getNodeKey());
+            LOGGER.error("Node {} execution failed: {}", node.getNodeKey(), error.getMessage(), ex);
+
+            nodeRun.markFailed(error.getMessage());
+            if (!ex.getMetrics().isEmpty()) {
+                nodeRun.setMetrics(mapper.writeJson(ex.getMetrics()));
+            }
+            failRun(run, context, nodeRun, error);
+            return false;
+
+        } catch (Exception ex) {
+            NodeExecutionError error = NodeExecutionError.fromException(ex, node.getNodeKey());
+            LOGGER.error("Unexpected error executing node {}: {}", node.getNodeKey(), error.getMessage(), ex);
+
+            nodeRun.markFailed(error.getMessage());
+            failRun(run, context, nodeRun, error);
+            return false;
+
+        } finally {
+            MDC.remove("nodeKey");
+            MDC.remove("nodeType");
+        }
+
+        // Determine next nodes based on edges and node type
+        List<String> nextNodes = determineNextNodes(node, context, traversal.adjacencyList);
+
+        // Add next nodes to queue
+        for (String nextNodeKey : nextNodes) {
+            if (!traversal.executedNodes.contains(nextNodeKey)) {
+                traversal.queue.offer(nextNodeKey);
             }
         }
+        return true;
+    }
+
+    private void failRun(WorkflowRun run, WorkflowContext context, WorkflowNodeRun nodeRun, NodeExecutionError error) {
+        nodeRunRepository.save(nodeRun);
+
+        run.setContextData(mapper.writeJson(context.snapshot()));
+        run.markFailed(error.getMessage());
+        runRepository.save(run);
+        bodySpillStore.release(run.getId());
+        runEvents.nodeFinished(run.getId(), nodeRun.getNodeKey(), NodeRunStatus.FAILED.name());
+        runEvents.runFinished(run.getId(), RunStatus.FAILED);
+    }
+
+    private static Exception unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Exception ex) {
+            return ex;
+        }
+        return new NodeExecutionException("Node execution aborted: " + cause, cause);
     }
 
     private Map<String, List<WorkflowEdge>> buildAdjacencyList(List<WorkflowEdge> edges) {
@@ -350,6 +462,7 @@ public class WorkflowExecutor {
     }
 
     private void handleWorkflowFailure(Long runId, Exception ex) {
+        bodySpillStore.release(runId);
         try {
             Optional<WorkflowRun> runOpt = runRepository.findById(runId);
             if (runOpt.isPresent()) {
@@ -363,5 +476,33 @@ public class WorkflowExecutor {
         } catch (Exception saveEx) {
             LOGGER.error("Failed to save workflow failure state for run {}", runId, saveEx);
         }
+        runEvents.runFinished(runId, RunStatus.FAILED);
+    }
+
+    private record PendingNode(WorkflowNode node, WorkflowNodeRun nodeRun,
+                               CompletableFuture<NodeExecutionResult> result) {
+    }
+
+    /**
+     * Traversal state of one run. Only one node of a run is in flight at a time, and the future
+     * hand-off orders every access, so the state is never touched by two threads at once.
+     */
+    private static final class RunTraversal {
+
+        private final WorkflowRun run;
+        private final WorkflowContext context;
+        private final Map<String, WorkflowNode> nodeMap;
+        private final Map<String, List<WorkflowEdge>> adjacencyList;
+        private final Queue<String> queue;
+        private final Set<String> executedNodes = new HashSet<>();
+
+        private RunTraversal(WorkflowRun run, WorkflowContext context, Map<String, WorkflowNode> nodeMap,
+                             Map<String, List<WorkflowEdge>> adjacencyList, Queue<String> queue) {
+            this.run = run;
+            this.context = context;
+            this.nodeMap = nodeMap;
+            this.adjacencyList = adjacencyList;
+            this.queue = queue;
+        }
     }
 }
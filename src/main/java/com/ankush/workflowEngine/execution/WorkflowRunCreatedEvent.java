@@ -5,13 +5,18 @@ package com.ankush.workflowEngine.execution;
  */
 public class WorkflowRunCreatedEvent {
     private final Long runId;
+    private final Long workflowId;
 
-    public WorkflowRunCreatedEvent(Long runId) {
+    public WorkflowRunCreatedEvent(Long runId, Long workflowId) {
         this.runId = runId;
+        this.workflowId = workflowId;
     }
 
     public Long getRunId() {
         return runId;
     }
-}
 
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ankush.workflowEngine.registry;
+
+import com.ankush.workflowEngine.execution.NodeExecutionContext;
+import com.ankush.workflowEngine.execution.NodeExecutionResult;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A node executor that can complete without holding a workflow thread while it waits on I/O.
+ * The workflow executor parks the run on the returned future and resumes it on the workflow
+ * pool once the future completes; failures surface as a {@code NodeExecutionException} cause.
+ */
+public interface AsyncNodeExecutor extends NodeExecutor {
+
+    CompletableFuture<NodeExecutionResult> executeAsync(NodeExecutionContext context);
+}
@@ -6,29 +6,33 @@ import com.ankush.workflowEngine.execution.NodeExecutionContext;
 import com.ankush.workflowEngine.execution.NodeExecutionException;
 import com.ankush.workflowEngine.execution.NodeExecutionResult;
 import com.ankush.workflowEngine.registry.NodeExecutor;
+import com.ankush.workflowEngine.support.LlmResponseCache;
+import com.ankush.workflowEngine.support.OpenAiClient;
+import com.ankush.workflowEngine.support.RunEventBroadcaster;
 import com.ankush.workflowEngine.support.TemplateRenderer;
-import java.util.HashMap;
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
 
 @Component
 public class ChatGptNodeExecutor implements NodeExecutor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatGptNodeExecutor.class);
 
-    private final RestClient.Builder restClientBuilder;
+    private final OpenAiClient openAiClient;
     private final OpenAiProperties properties;
+    private final RunEventBroadcaster runEvents;
+    private final LlmResponseCache responseCache;
 
-    public ChatGptNodeExecutor(RestClient.Builder restClientBuilder, OpenAiProperties properties) {
-        this.restClientBuilder = restClientBuilder;
+    public ChatGptNodeExecutor(OpenAiClient openAiClient, OpenAiProperties properties, RunEventBroadcaster runEvents,
+                               LlmResponseCache responseCache) {
+        this.openAiClient = openAiClient;
         this.properties = properties;
+        this.runEvents = runEvents;
+        this.responseCache = responseCache;
     }
 
     @Override
@@ -36,6 +40,12 @@ public class ChatGptNodeExecutor implements NodeExecutor {
         return NodeType.CHATGPT;
     }
 
+    /**
+     * With {@code "stream": true} the completion is streamed and every delta is published to the
+     * run's event channel as it arrives; {@code ::response} still holds the assembled text.
+     * {@code "cache": true} (with an optional {@code "cacheTtlSeconds"}) reuses responses to
+     * identical prompts.
+     */
     @Override
     public NodeExecutionResult execute(NodeExecutionContext context) {
         Map<String, Object> config = context.config();
@@ -49,62 +59,30 @@ public class ChatGptNodeExecutor implements NodeExecutor {
 
         String model = config.get("model") != null ? config.get("model").toString() : properties.getDefaultModel();
         Double temperature = config.get("temperature") instanceof Number num ? num.doubleValue() : null;
-        String apiKey = properties.getApiKey();
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new NodeExecutionException("OpenAI API key is not configured");
-        }
-
-        Map<String, Object> request = new HashMap<>();
-        request.put("model", model);
-        request.put("messages", List.of(Map.of("role", "user", "content", resolvedPrompt)));
-        if (temperature != null) {
-            request.put("temperature", temperature);
-        }
+        String nodeKey = context.node().getNodeKey();
+        Duration cacheTtl = responseCache.nodeTtl(config);
 
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restClientBuilder.build()
-                    .post()
-                    .uri(properties.getBaseUrl() + "/chat/completions")
-                    .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
-                    .header("Authorization", "Bearer " + apiKey)
-                    .body(request)
-                    .retrieve()
-                    .body(Map.class);
-
-            String content = extractContent(response);
+            String content = streaming(config)
+                    ? openAiClient.completeStream(model, resolvedPrompt, temperature, cacheTtl,
+                            token -> runEvents.token(context.run().getId(), nodeKey, token))
+                    : openAiClient.complete(model, resolvedPrompt, temperature, cacheTtl);
             Map<String, Object> output = Map.of(
-                    context.node().getNodeKey() + "::response", content,
+                    nodeKey + "::response", content,
                     "model", model,
                     "prompt", resolvedPrompt);
             context.context().merge(output);
-            LOGGER.info("[FlowStack] ChatGPT node {} invoked model {}", context.node().getNodeKey(), model);
+            LOGGER.info("[FlowStack] ChatGPT node {} invoked model {}", nodeKey, model);
             return NodeExecutionResult.completed(output, "chatgpt response");
-        } catch (RestClientException ex) {
-            LOGGER.error("[FlowStack] ChatGPT node {} failed: {}", context.node().getNodeKey(), ex.getMessage());
-            throw new NodeExecutionException("ChatGPT call failed", ex);
+        } catch (NodeExecutionException ex) {
+            LOGGER.error("[FlowStack] ChatGPT node {} failed: {}", nodeKey,
+                    ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+            throw ex;
         }
     }
 
-    private String extractContent(Map<String, Object> response) {
-        if (response == null) {
-            return "";
-        }
-        Object choicesObj = response.get("choices");
-        if (choicesObj instanceof List<?> choices && !choices.isEmpty()) {
-            Object first = choices.get(0);
-            if (first instanceof Map<?, ?> firstMap) {
-                Object messageObj = firstMap.get("message");
-                if (messageObj instanceof Map<?, ?> messageMap) {
-                    Object content = messageMap.get("content");
-                    if (content != null) {
-                        return content.toString();
-                    }
-                } else if (firstMap.get("text") != null) {
-                    return firstMap.get("text").toString();
-                }
-            }
-        }
-        return "";
+    private boolean streaming(Map<String, Object> config) {
+        Object flag = config.get("stream");
+        return flag instanceof Boolean bool ? bool : flag != null && Boolean.parseBoolean(flag.toString());
     }
 }
@@ -0,0 +1,321 @@
+package com.ankush.workflowEngine.registry.executors;
+
+import com.ankush.workflowEngine.config.HttpClientProperties;
+import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.execution.NodeExecutionContext;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.ankush.workflowEngine.execution.NodeExecutionResult;
+import com.ankush.workflowEngine.registry.AsyncNodeExecutor;
+import com.ankush.workflowEngine.support.BodySpillStore;
+import com.ankush.workflowEngine.support.DownstreamGuard;
+import com.ankush.workflowEngine.support.HttpClientRegistry;
+import com.ankush.workflowEngine.support.HttpNodeRequest;
+import com.ankush.workflowEngine.support.SingleFlight;
+import com.ankush.workflowEngine.support.SpilledBody;
+import com.ankush.workflowEngine.support.SpoolingResponseConsumer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends many HTTP requests from one node, concurrently, on the non-blocking client. Requests come
+ * either from {@code "requests"}, a list of request configs shaped like an HTTP node's, or from
+ * {@code "request"} rendered once per element of {@code "items"} (a list, or the context key of
+ * one) with {@code {{item}}}, {@code {{item.<field>}}} and {@code {{index}}} available. At most
+ * {@code "parallelism"} requests are in flight at once; {@code "timeoutMs"} bounds each one.
+ *
+ * <p>Output is {@code <node>::results}, one entry per request in request order with its status,
+ * body or error, plus {@code ::succeeded} and {@code ::failed} counts. Failed requests do not fail
+ * the node unless it sets {@code "failOnError": true}.
+ */
+@Component
+public class HttpBatchNodeExecutor implements AsyncNodeExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpBatchNodeExecutor.class);
+
+    private final HttpClientRegistry httpClientRegistry;
+    private final HttpClientProperties properties;
+    private final BodySpillStore bodySpillStore;
+    private final SingleFlight singleFlight;
+    private final DownstreamGuard downstreamGuard;
+    private final ObjectMapper objectMapper;
+    private final Executor workflowResumeExecutor;
+
+    public HttpBatchNodeExecutor(HttpClientRegistry httpClientRegistry, HttpClientProperties properties,
+                                 BodySpillStore bodySpillStore, SingleFlight singleFlight,
+                                 DownstreamGuard downstreamGuard, ObjectMapper objectMapper,
+                                 @Qualifier("workflowResumeExecutor") Executor workflowResumeExecutor) {
+        this.httpClientRegistry = httpClientRegistry;
+        this.properties = properties;
+        this.bodySpillStore = bodySpillStore;
+        this.singleFlight = singleFlight;
+        this.downstreamGuard = downstreamGuard;
+        this.objectMapper = objectMapper;
+        this.workflowResumeExecutor = workflowResumeExecutor;
+    }
+
+    @Override
+    public NodeType supportsType() {
+        return NodeType.HTTP_BATCH;
+    }
+
+    @Override
+    public NodeExecutionResult execute(NodeExecutionContext context) {
+        try {
+            NodeExecutionResult result = executeAsync(context).join();
+            context.context().merge(result.output());
+            return result;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof NodeExecutionException nodeFailure) {
+                throw nodeFailure;
+            }
+            throw new NodeExecutionException("HTTP batch failed", ex.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<NodeExecutionResult> executeAsync(NodeExecutionContext context) {
+        Map<String, Object> config = context.config();
+        String nodeKey = context.node().getNodeKey();
+        List<HttpNodeRequest> requests = requests(config, context.context().snapshot());
+        int parallelism = parallelism(config.get("parallelism"));
+        boolean failOnError = flag(config.get("failOnError"));
+        Long runId = context.run().getId();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object>[] results = new Map[requests.size()];
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(parallelism, requests.size())];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            lanes[lane] = lane(requests, results, next, runId);
+        }
+        long started = System.currentTimeMillis();
+        return CompletableFuture.allOf(lanes).thenApply(done -> {
+            List<Map<String, Object>> ordered = Arrays.asList(results);
+            long failed = ordered.stream().filter(entry -> !Boolean.TRUE.equals(entry.get("ok"))).count();
+            long durationMs = System.currentTimeMillis() - started;
+            LOGGER.info("[FlowStack] HTTP batch node {} sent {} requests ({} failed, parallelism {}) in {} ms",
+                    nodeKey, requests.size(), failed, parallelism, durationMs);
+            if (failOnError && failed > 0) {
+                throw new NodeExecutionException("HTTP batch failed: " + failed + " of " + requests.size()
+                        + " requests failed");
+            }
+            Map<String, Object> output = new HashMap<>();
+            output.put(nodeKey + "::results", ordered);
+            output.put(nodeKey + "::succeeded", requests.size() - failed);
+            output.put(nodeKey + "::failed", failed);
+            Map<String, Object> metrics = Map.of("requests", requests.size(), "failed", failed,
+                    "parallelism", parallelism, "durationMs", durationMs);
+            return NodeExecutionResult.completed(output, "http batch completed", metrics);
+        });
+    }
+
+    /**
+     * One of {@code parallelism} lanes: takes the next unsent request, and when it settles, the
+     * one after that. Follow-ups hop to the resume pool so a bulkhead wait never blocks an I/O thread;
+     * when that pool is full the lane fails rather than running on the I/O thread.
+     */
+    private CompletableFuture<Void> lane(List<HttpNodeRequest> requests, Map<String, Object>[] results,
+                                         AtomicInteger next, Long runId) {
+        int index = next.getAndIncrement();
+        if (index >= requests.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpNodeRequest request = requests.get(index);
+        return send(request, runId)
+                .handle((response, failure) -> {
+                    results[index] = resultEntry(index, request, response, failure);
+                    return null;
+                })
+                .thenComposeAsync(settled -> lane(requests, results, next, runId), workflowResumeExecutor);
+    }
+
+    private CompletableFuture<SpoolingResponseConsumer.Result> send(HttpNodeRequest request, Long runId) {
+        Supplier<CompletableFuture<SpoolingResponseConsumer.Result>> call = () -> downstreamGuard.callAsync(
+                DownstreamGuard.httpDownstream(request.url()),
+                () -> {
+                    CompletableFuture<SpoolingResponseConsumer.Result> exchange = httpClientRegistry.executeAsync(
+                            SimpleRequestProducer.create(request.toAsyncRequest(Map.of())),
+                            new SpoolingResponseConsumer(bodySpillStore.accumulator(runId)));
+                    return request.responseTimeout() != null
+                            ? exchange.orTimeout(request.responseTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                            : exchange;
+                },
+                SpoolingResponseConsumer.Result::downstreamFailure);
+        try {
+            if (request.method() == HttpMethod.GET || request.method() == HttpMethod.HEAD) {
+                String key = SingleFlight.key(request.method(), request.url(), new TreeMap<>(request.headers()),
+                        request.responseTimeout());
+                return singleFlight.executeAsync("http", key, call, shared -> {
+                    if (shared.body() instanceof SpilledBody spilled) {
+                        bodySpillStore.retain(runId, spilled);
+                    }
+                });
+            }
+            return call.get();
+        } catch (RuntimeException ex) {
+            // Breaker or bulkhead rejections are per-request failures, not batch failures
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private Map<String, Object> resultEntry(int index, HttpNodeRequest request,
+                                            SpoolingResponseConsumer.Result response, Throwable failure) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("index", index);
+        entry.put("method", request.method().name());
+        entry.put("url", request.url());
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            entry.put("ok", false);
+            entry.put("status", null);
+            entry.put("error", cause instanceof TimeoutException
+                    ? "Timed out after " + request.responseTimeout().toMillis() + " ms"
+                    : String.valueOf(cause.getMessage()));
+            return entry;
+        }
+        boolean ok = response.status() < 400;
+        entry.put("ok", ok);
+        entry.put("status", response.status());
+        entry.put("body", response.body());
+        if (!ok) {
+            entry.put("error", response.status() + " " + response.reasonPhrase());
+        }
+        return entry;
+    }
+
+    private List<HttpNodeRequest> requests(Map<String, Object> config, Map<String, Object> snapshot) {
+        Duration defaultTimeout = timeout(config.get("timeoutMs"));
+        List<HttpNodeRequest> requests = new ArrayList<>();
+        if (config.get("requests") instanceof List<?> templates) {
+            for (Object template : templates) {
+                if (!(template instanceof Map<?, ?> requestConfig)) {
+                    throw new NodeExecutionException("HTTP_BATCH requests must be request objects (method, url, ...)");
+                }
+                requests.add(render(requestConfig, snapshot, defaultTimeout));
+            }
+        } else if (config.get("request") instanceof Map<?, ?> template) {
+            List<?> items = items(config.get("items"), snapshot);
+            if (items.size() > properties.getBatchMaxRequests()) {
+                throw tooManyRequests();
+            }
+            for (int index = 0; index < items.size(); index++) {
+                requests.add(render(template, itemSnapshot(snapshot, items.get(index), index), defaultTimeout));
+            }
+        } else {
+            throw new NodeExecutionException("HTTP_BATCH node requires 'requests' or a 'request' template with 'items'");
+        }
+        if (requests.size() > properties.getBatchMaxRequests()) {
+            throw tooManyRequests();
+        }
+        return requests;
+    }
+
+    private NodeExecutionException tooManyRequests() {
+        return new NodeExecutionException("HTTP_BATCH node exceeds the limit of "
+                + properties.getBatchMaxRequests() + " requests");
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpNodeRequest render(Map<?, ?> requestConfig, Map<String, Object> snapshot, Duration defaultTimeout) {
+        HttpNodeRequest request = HttpNodeRequest.fromConfig((Map<String, Object>) requestConfig, snapshot);
+        if (request.responseTimeout() == null && defaultTimeout != null) {
+            return new HttpNodeRequest(request.method(), request.url(), request.headers(), request.body(), defaultTimeout);
+        }
+        return request;
+    }
+
+    /**
+     * {@code items} is a literal list, or the context key of a list (or of a JSON array string).
+     */
+    private List<?> items(Object raw, Map<String, Object> snapshot) {
+        if (raw instanceof List<?> list) {
+            return list;
+        }
+        if (raw == null) {
+            throw new NodeExecutionException("HTTP_BATCH request template requires 'items'");
+        }
+        String key = raw.toString().trim();
+        if (key.startsWith("{{") && key.endsWith("}}")) {
+            key = key.substring(2, key.length() - 2).trim();
+        }
+        Object value = snapshot.get(key);
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        if (value != null) {
+            try {
+                return objectMapper.readValue(value.toString(), new TypeReference<List<Object>>() { });
+            } catch (JsonProcessingException ex) {
+                throw new NodeExecutionException("HTTP_BATCH items '" + key + "' is not a list", ex);
+            }
+        }
+        throw new NodeExecutionException("HTTP_BATCH items '" + key + "' not found in context");
+    }
+
+    private Map<String, Object> itemSnapshot(Map<String, Object> snapshot, Object item, int index) {
+        Map<String, Object> itemContext = new HashMap<>(snapshot);
+        itemContext.put("index", index);
+        if (item instanceof Map<?, ?> fields) {
+            fields.forEach((field, value) -> itemContext.put("item." + field, value));
+            try {
+                itemContext.put("item", objectMapper.writeValueAsString(item));
+            } catch (JsonProcessingException ex) {
+                itemContext.put("item", item);
+            }
+        } else {
+            itemContext.put("item", item);
+        }
+        return itemContext;
+    }
+
+    private int parallelism(Object raw) {
+        int requested = properties.getBatchDefaultParallelism();
+        if (raw != null) {
+            try {
+                requested = raw instanceof Number number ? number.intValue() : Integer.parseInt(raw.toString().trim());
+            } catch (NumberFormatException ex) {
+                throw new NodeExecutionException("HTTP_BATCH parallelism must be a number: " + raw, ex);
+            }
+        }
+        return Math.max(1, Math.min(requested, properties.getBatchMaxParallelism()));
+    }
+
+    private Duration timeout(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            long millis = raw instanceof Number number ? number.longValue() : Long.parseLong(raw.toString().trim());
+            return millis > 0 ? Duration.ofMillis(millis) : null;
+        } catch (NumberFormatException ex) {
+            throw new NodeExecutionException("HTTP_BATCH timeoutMs must be a number: " + raw, ex);
+        }
+    }
+
+    private boolean flag(Object raw) {
+        return raw instanceof Boolean bool ? bool : raw != null && Boolean.parseBoolean(raw.toString());
+    }
+}
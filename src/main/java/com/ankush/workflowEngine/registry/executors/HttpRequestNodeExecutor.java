@@ -4,29 +4,63 @@ import com.ankush.workflowEngine.enums.NodeType;
 import com.ankush.workflowEngine.execution.NodeExecutionContext;
 import com.ankush.workflowEngine.execution.NodeExecutionException;
 import com.ankush.workflowEngine.execution.NodeExecutionResult;
-import com.ankush.workflowEngine.registry.NodeExecutor;
-import com.ankush.workflowEngine.support.TemplateRenderer;
-import java.util.LinkedHashMap;
-import java.util.Locale;
+import com.ankush.workflowEngine.registry.AsyncNodeExecutor;
+import com.ankush.workflowEngine.support.BodyAccumulator;
+import com.ankush.workflowEngine.support.BodySpillStore;
+import com.ankush.workflowEngine.support.DownstreamGuard;
+import com.ankush.workflowEngine.support.HttpClientRegistry;
+import com.ankush.workflowEngine.support.HttpNodeRequest;
+import com.ankush.workflowEngine.support.HttpResponseCache;
+import com.ankush.workflowEngine.support.JsonExtractor;
+import com.ankush.workflowEngine.support.SingleFlight;
+import com.ankush.workflowEngine.support.SpilledBody;
+import com.ankush.workflowEngine.support.SpoolingResponseConsumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
 @Component
-public class HttpRequestNodeExecutor implements NodeExecutor {
+public class HttpRequestNodeExecutor implements AsyncNodeExecutor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpRequestNodeExecutor.class);
 
-    private final RestClient.Builder restClientBuilder;
+    private final HttpClientRegistry httpClientRegistry;
+    private final BodySpillStore bodySpillStore;
+    private final HttpResponseCache responseCache;
+    private final SingleFlight singleFlight;
+    private final DownstreamGuard downstreamGuard;
+    private final ObjectMapper objectMapper;
+    private final Executor workflowResumeExecutor;
 
-    public HttpRequestNodeExecutor(RestClient.Builder restClientBuilder) {
-        this.restClientBuilder = restClientBuilder;
+    public HttpRequestNodeExecutor(HttpClientRegistry httpClientRegistry, BodySpillStore bodySpillStore,
+                                   HttpResponseCache responseCache, SingleFlight singleFlight,
+                                   DownstreamGuard downstreamGuard, ObjectMapper objectMapper,
+                                   @Qualifier("workflowResumeExecutor") Executor workflowResumeExecutor) {
+        this.httpClientRegistry = httpClientRegistry;
+        this.bodySpillStore = bodySpillStore;
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
+        this.downstreamGuard = downstreamGuard;
+        this.objectMapper = objectMapper;
+        this.workflowResumeExecutor = workflowResumeExecutor;
     }
 
     @Override
@@ -36,77 +70,284 @@ public class HttpRequestNodeExecutor implements NodeExecutor {
 
     @Override
     public NodeExecutionResult execute(NodeExecutionContext context) {
-        Map<String, Object> config = context.config();
-        Map<String, Object> snapshot = context.context().snapshot();
+        HttpNodeRequest request = HttpNodeRequest.fromConfig(context.config(), context.context().snapshot());
+        String nodeKey = context.node().getNodeKey();
+        Extraction extraction = extraction(context.config());
+        HttpResponseCache.Lookup lookup = cacheLookup(context.config(), request, extraction);
+        if (lookup != null && lookup.fresh()) {
+            NodeExecutionResult result = fromCache(nodeKey, request, lookup.entry(), HttpResponseCache.Outcome.HIT,
+                    extraction);
+            context.context().merge(result.output());
+            return result;
+        }
+
+        try {
+            RestClient restClient = httpClientRegistry.restClient(request.responseTimeout());
+            var spec = restClient.method(request.method()).uri(request.url());
+            request.headers().forEach(spec::header);
+            if (lookup != null) {
+                lookup.conditionalHeaders().forEach(spec::header);
+            }
+            if (request.body() != null) {
+                spec.body(request.body());
+            }
+            Long runId = context.run().getId();
+            SpoolingResponseConsumer.Result response = coalesce(request, lookup, extraction, runId,
+                    () -> downstreamGuard.call(DownstreamGuard.httpDownstream(request.url()),
+                            () -> spec.exchange((httpRequest, httpResponse) ->
+                                    readResponse(accumulator(runId, lookup, extraction), httpResponse)),
+                            SpoolingResponseConsumer.Result::downstreamFailure));
+            if (response.status() >= 400) {
+                LOGGER.error("[FlowStack] HTTP node {} failed: {} {}", nodeKey, response.status(), response.reasonPhrase());
+                throw new NodeExecutionException("HTTP call failed",
+                        new IllegalStateException(response.status() + " " + response.reasonPhrase()));
+            }
+
+            NodeExecutionResult result = complete(nodeKey, request, lookup, response, extraction);
+            context.context().merge(result.output());
+            LOGGER.info("[FlowStack] HTTP node {} {} {}", nodeKey, request.method(), request.url());
+            return result;
+        } catch (RestClientException ex) {
+            LOGGER.error("[FlowStack] HTTP node {} failed: {}", nodeKey, ex.getMessage());
+            throw new NodeExecutionException("HTTP call failed", ex);
+        }
+    }
 
-        Object rawUrl = config.get("url");
-        String urlTemplate = rawUrl != null ? rawUrl.toString() : null;
-        if (urlTemplate == null || urlTemplate.isBlank()) {
-            throw new NodeExecutionException("HTTP node requires a url in config");
+    /**
+     * Streams the response into an accumulator; error bodies are skipped since the node fails on the status.
+     */
+    private SpoolingResponseConsumer.Result readResponse(BodyAccumulator bodyAccumulator,
+                                                         ClientHttpResponse httpResponse) throws IOException {
+        if (httpResponse.getStatusCode().isError()) {
+            bodyAccumulator.close();
+            return new SpoolingResponseConsumer.Result(httpResponse.getStatusCode().value(),
+                    httpResponse.getStatusText(), httpResponse.getHeaders().toSingleValueMap(), null, 0, false, null);
         }
-        String url = Objects.requireNonNull(TemplateRenderer.render(urlTemplate, snapshot), "Resolved url must not be null");
-        if (url.isBlank()) {
-            throw new NodeExecutionException("HTTP node resolved url is empty");
+        MediaType mediaType = httpResponse.getHeaders().getContentType();
+        try (BodyAccumulator accumulator = bodyAccumulator) {
+            accumulator.copyFrom(httpResponse.getBody());
+            Object body = accumulator.finish(mediaType != null ? mediaType.toString() : null,
+                    mediaType != null ? mediaType.getCharset() : null);
+            return new SpoolingResponseConsumer.Result(httpResponse.getStatusCode().value(),
+                    httpResponse.getStatusText(), httpResponse.getHeaders().toSingleValueMap(), body,
+                    accumulator.size(), accumulator.spilled(), accumulator.extracted());
         }
+    }
 
-        Object rawMethod = config.getOrDefault("method", "GET");
-        String methodName = rawMethod != null ? rawMethod.toString() : null;
-        final String normalizedMethod;
-        if (methodName == null || methodName.isBlank()) {
-            normalizedMethod = "GET";
-        } else {
-            normalizedMethod = methodName.trim().toUpperCase(Locale.ROOT);
+    /**
+     * Sends the request on the non-blocking client when the node sets {@code "async": true} or
+     * {@code flowstack.http.async-enabled} is on; otherwise runs the blocking path inline.
+     * The response is not merged here: the workflow executor merges it when it resumes the run.
+     * The exchange completes on an HTTP client I/O thread, so the response is finished (cache
+     * store, extraction from a spilled body) on the resume pool rather than there.
+     */
+    @Override
+    public CompletableFuture<NodeExecutionResult> executeAsync(NodeExecutionContext context) {
+        if (!useAsync(context.config())) {
+            return CompletableFuture.completedFuture(execute(context));
         }
-        HttpMethod httpMethod;
-        try {
-            httpMethod = HttpMethod.valueOf(Objects.requireNonNull(normalizedMethod));
-        } catch (IllegalArgumentException ex) {
-            throw new NodeExecutionException("Unsupported HTTP method: " + normalizedMethod, ex);
+        HttpNodeRequest request = HttpNodeRequest.fromConfig(context.config(), context.context().snapshot());
+        String nodeKey = context.node().getNodeKey();
+        Extraction extraction = extraction(context.config());
+        HttpResponseCache.Lookup lookup = cacheLookup(context.config(), request, extraction);
+        if (lookup != null && lookup.fresh()) {
+            return CompletableFuture.completedFuture(
+                    fromCache(nodeKey, request, lookup.entry(), HttpResponseCache.Outcome.HIT, extraction));
         }
 
-        Map<String, Object> headers = new LinkedHashMap<>();
-        if (config.get("headers") instanceof Map<?, ?> map) {
-            map.forEach((key, value) -> {
-                if (key != null) {
-                    headers.put(String.valueOf(key), value);
-                }
-            });
+        Long runId = context.run().getId();
+        Supplier<CompletableFuture<SpoolingResponseConsumer.Result>> call = () -> downstreamGuard.callAsync(
+                DownstreamGuard.httpDownstream(request.url()),
+                () -> httpClientRegistry.executeAsync(SimpleRequestProducer.create(
+                                request.toAsyncRequest(lookup != null ? lookup.conditionalHeaders() : Map.of())),
+                        new SpoolingResponseConsumer(accumulator(runId, lookup, extraction))),
+                SpoolingResponseConsumer.Result::downstreamFailure);
+        CompletableFuture<SpoolingResponseConsumer.Result> exchange = coalescable(request)
+                ? singleFlight.executeAsync("http", flightKey(request, lookup, extraction), call,
+                        shared -> retainShared(runId, shared))
+                : call.get();
+        return exchange
+                .handleAsync((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        LOGGER.error("[FlowStack] HTTP node {} failed: {}", nodeKey, cause.getMessage());
+                        throw new NodeExecutionException("HTTP call failed", cause);
+                    }
+                    if (response.status() >= 400) {
+                        LOGGER.error("[FlowStack] HTTP node {} failed: {} {}", nodeKey, response.status(), response.reasonPhrase());
+                        throw new NodeExecutionException("HTTP call failed",
+                                new IllegalStateException(response.status() + " " + response.reasonPhrase()));
+                    }
+                    NodeExecutionResult result = complete(nodeKey, request, lookup, response, extraction);
+                    LOGGER.info("[FlowStack] HTTP node {} {} {} (async)", nodeKey, request.method(), request.url());
+                    return result;
+                }, workflowResumeExecutor);
+    }
+
+    /**
+     * Identical concurrent safe-method requests share one exchange via {@link SingleFlight}.
+     */
+    private SpoolingResponseConsumer.Result coalesce(HttpNodeRequest request, HttpResponseCache.Lookup lookup,
+                                                     Extraction extraction, Long runId,
+                                                     Supplier<SpoolingResponseConsumer.Result> call) {
+        if (!coalescable(request)) {
+            return call.get();
         }
-        Object rawBody = config.get("body");
-        String bodyTemplate = rawBody != null ? rawBody.toString() : null;
-        String requestBody = bodyTemplate != null ? TemplateRenderer.render(bodyTemplate, snapshot) : null;
+        return singleFlight.execute("http", flightKey(request, lookup, extraction), call,
+                shared -> retainShared(runId, shared));
+    }
 
+    private boolean coalescable(HttpNodeRequest request) {
+        return request.method() == HttpMethod.GET
+                || request.method() == HttpMethod.HEAD
+                || request.method() == HttpMethod.OPTIONS;
+    }
+
+    private String flightKey(HttpNodeRequest request, HttpResponseCache.Lookup lookup, Extraction extraction) {
+        Map<String, String> conditional = lookup != null ? lookup.conditionalHeaders() : Map.of();
+        // The read itself differs by extraction and body retention, so those are part of the flight
+        return SingleFlight.key(request.method(), request.url(), new TreeMap<>(request.headers()),
+                request.body(), request.responseTimeout(), new TreeMap<>(conditional),
+                extraction != null ? extraction.spec() : null, retainBody(extraction));
+    }
+
+    private void retainShared(Long runId, SpoolingResponseConsumer.Result shared) {
+        if (shared.body() instanceof SpilledBody spilled) {
+            bodySpillStore.retain(runId, spilled);
+        }
+    }
+
+    /**
+     * GET requests go through the response cache when the node sets {@code "cache": true}, or when
+     * the cache is enabled for all nodes and the node does not set {@code "cache": false}. A node
+     * that drops the body caches its extracted fields, so the body is never retained for the cache.
+     */
+    private HttpResponseCache.Lookup cacheLookup(Map<String, Object> config, HttpNodeRequest request,
+                                                 Extraction extraction) {
+        Object flag = config.get("cache");
+        boolean optedIn = flag != null && (flag instanceof Boolean bool ? bool : Boolean.parseBoolean(flag.toString()));
+        if (flag != null && !optedIn) {
+            return null;
+        }
+        return responseCache.lookup(request, optedIn,
+                extraction != null && !extraction.keepBody() ? extraction.spec() : null);
+    }
+
+    private NodeExecutionResult complete(String nodeKey, HttpNodeRequest request, HttpResponseCache.Lookup lookup,
+                                         SpoolingResponseConsumer.Result response, Extraction extraction) {
+        if (response.status() == 304 && lookup != null && lookup.entry() != null) {
+            HttpResponseCache.CachedResponse entry = responseCache.revalidated(lookup, response.headers());
+            return fromCache(nodeKey, request, entry, HttpResponseCache.Outcome.REVALIDATED, extraction);
+        }
+        HttpResponseCache.Outcome outcome = HttpResponseCache.Outcome.BYPASS;
+        if (lookup != null) {
+            responseCache.store(lookup, response.status(), response.body(), response.extracted(), response.headers());
+            outcome = HttpResponseCache.Outcome.MISS;
+        }
+        responseCache.record(outcome);
+        Map<String, Object> metrics = Map.of("bodyBytes", response.bodyBytes(), "bodySpilled", response.spilled());
+        Object body = extraction == null || extraction.keepBody() ? response.body() : null;
+        return NodeExecutionResult.completed(
+                output(nodeKey, response.status(), body, request.url(), outcome, response.extracted()),
+                "http request completed", metrics);
+    }
+
+    private NodeExecutionResult fromCache(String nodeKey, HttpNodeRequest request,
+                                          HttpResponseCache.CachedResponse entry, HttpResponseCache.Outcome outcome,
+                                          Extraction extraction) {
+        responseCache.record(outcome);
+        LOGGER.info("[FlowStack] HTTP node {} {} {} served from cache ({})", nodeKey, request.method(), request.url(), outcome);
+        Map<String, Object> extracted = entry.extracted();
+        Object body = entry.body();
+        if (extraction != null && extracted == null) {
+            extracted = extractFrom(extraction, body);
+            body = extraction.keepBody() ? body : null;
+        }
+        return NodeExecutionResult.completed(output(nodeKey, entry.status(), body, request.url(), outcome, extracted),
+                "http request served from cache");
+    }
+
+    /**
+     * Node config {@code "extract": {"name": "$.data.id", ...}} selects fields out of a JSON
+     * response while it is read; each lands in the context as {@code <node>::<name>} with its JSON
+     * type. The raw body is then dropped from the output unless the node sets {@code "keepBody": true}.
+     */
+    private Extraction extraction(Map<String, Object> config) {
+        Object spec = config.get("extract");
+        if (spec == null) {
+            return null;
+        }
+        if (!(spec instanceof Map<?, ?> map)) {
+            throw new NodeExecutionException("HTTP node extract must map context names to JSONPath or JSON Pointer expressions");
+        }
+        if (map.isEmpty()) {
+            return null;
+        }
+        Object keepBody = config.get("keepBody");
+        return new Extraction(JsonExtractor.compile(map), new TreeMap<>(map).toString(),
+                keepBody instanceof Boolean bool ? bool : keepBody != null && Boolean.parseBoolean(keepBody.toString()));
+    }
+
+    private record Extraction(JsonExtractor extractor, String spec, boolean keepBody) {
+    }
+
+    private BodyAccumulator accumulator(Long runId, HttpResponseCache.Lookup lookup, Extraction extraction) {
+        if (extraction == null) {
+            return bodySpillStore.accumulator(runId);
+        }
+        return bodySpillStore.accumulator(runId, extraction.extractor().start(objectMapper),
+                retainBody(extraction));
+    }
+
+    private boolean retainBody(Extraction extraction) {
+        return extraction == null || extraction.keepBody();
+    }
+
+    private Map<String, Object> extractFrom(Extraction extraction, Object body) {
+        JsonExtractor.Session session = extraction.extractor().start(objectMapper);
         try {
-            var spec = restClientBuilder.build().method(httpMethod).uri(url);
-            headers.forEach((key, value) -> {
-                if (key == null) {
-                    return;
+            if (body instanceof SpilledBody spilled) {
+                try (InputStream in = spilled.openStream()) {
+                    byte[] chunk = new byte[8192];
+                    int read;
+                    while ((read = in.read(chunk)) != -1) {
+                        session.feed(chunk, 0, read);
+                    }
                 }
-                String headerValue = value != null ? value.toString() : "";
-                spec.header(key, headerValue);
-            });
-            if (requestBody != null && !requestBody.isBlank() && allowsBody(httpMethod)) {
-                spec.body(requestBody);
+            } else if (body != null) {
+                byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+                session.feed(bytes, 0, bytes.length);
             }
-            ResponseEntity<String> response = spec.retrieve().toEntity(String.class);
-
-            Map<String, Object> output = Map.of(
-                    context.node().getNodeKey() + "::status", response.getStatusCode().value(),
-                    context.node().getNodeKey() + "::body", response.getBody(),
-                    context.node().getNodeKey() + "::url", url);
-            context.context().merge(output);
-            LOGGER.info("[FlowStack] HTTP node {} {} {}", context.node().getNodeKey(), httpMethod, url);
-            return NodeExecutionResult.completed(output, "http request completed");
-        } catch (RestClientException ex) {
-            LOGGER.error("[FlowStack] HTTP node {} failed: {}", context.node().getNodeKey(), ex.getMessage());
-            throw new NodeExecutionException("HTTP call failed", ex);
+            return session.finish();
+        } catch (IOException ex) {
+            throw new NodeExecutionException("HTTP response extraction failed", ex);
+        }
+    }
+
+    private boolean useAsync(Map<String, Object> config) {
+        Object flag = config.get("async");
+        if (flag == null) {
+            return httpClientRegistry.asyncByDefault();
         }
+        return flag instanceof Boolean bool ? bool : Boolean.parseBoolean(flag.toString());
     }
 
-    private boolean allowsBody(HttpMethod method) {
-        return method == HttpMethod.POST
-                || method == HttpMethod.PUT
-                || method == HttpMethod.PATCH
-                || method == HttpMethod.DELETE;
+    /**
+     * Bodies above flowstack.http.max-in-memory-body-bytes are a {@link SpilledBody} handle
+     * rather than a String; downstream templates read the spilled file when they render it, and it
+     * is deleted when the run ends.
+     */
+    private Map<String, Object> output(String nodeKey, int status, Object body, String url,
+                                       HttpResponseCache.Outcome cacheOutcome, Map<String, Object> extracted) {
+        Map<String, Object> output = new HashMap<>();
+        if (extracted != null) {
+            extracted.forEach((name, value) -> output.put(nodeKey + "::" + name, value));
+        }
+        output.put(nodeKey + "::status", status);
+        output.put(nodeKey + "::body", body);
+        output.put(nodeKey + "::url", url);
+        output.put(nodeKey + "::cache", cacheOutcome.name());
+        return output;
     }
 }
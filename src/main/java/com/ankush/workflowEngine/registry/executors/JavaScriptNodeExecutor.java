@@ -4,6 +4,8 @@ import com.ankush.workflowEngine.enums.NodeType;
 import com.ankush.workflowEngine.execution.NodeExecutionContext;
 import com.ankush.workflowEngine.execution.NodeExecutionResult;
 import com.ankush.workflowEngine.registry.NodeExecutor;
+import com.ankush.workflowEngine.support.ScriptSandbox;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +16,12 @@ public class JavaScriptNodeExecutor implements NodeExecutor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JavaScriptNodeExecutor.class);
 
+    private final ScriptSandbox scriptSandbox;
+
+    public JavaScriptNodeExecutor(ScriptSandbox scriptSandbox) {
+        this.scriptSandbox = scriptSandbox;
+    }
+
     @Override
     public NodeType supportsType() {
         return NodeType.SCRIPT_JS;
@@ -22,6 +30,9 @@ public class JavaScriptNodeExecutor implements NodeExecutor {
     @Override
     public NodeExecutionResult execute(NodeExecutionContext context) {
         Map<String, Object> config = context.config();
+        if (scriptSandbox.isEnabled()) {
+            return executeSandboxed(context, String.valueOf(config.getOrDefault("script", "")));
+        }
         Map<String, Object> output = Map.of(
                 "script", config.getOrDefault("script", "console.log('noop')"),
                 "language", "javascript");
@@ -30,4 +41,24 @@ public class JavaScriptNodeExecutor implements NodeExecutor {
         LOGGER.info("JS Output: {}",output.toString());
         return NodeExecutionResult.completed(output, "javascript placeholder");
     }
+
+    private NodeExecutionResult executeSandboxed(NodeExecutionContext context, String script) {
+        String nodeKey = context.node().getNodeKey();
+        ScriptSandbox.Execution execution = scriptSandbox.execute(
+                ScriptSandbox.Language.JAVASCRIPT, script, context.context().snapshot(), nodeKey);
+
+        Map<String, Object> output = new LinkedHashMap<>();
+        if (execution.result() instanceof Map<?, ?> resultMap) {
+            resultMap.forEach((key, value) -> output.put(String.valueOf(key), value));
+        } else if (execution.result() != null) {
+            output.put(nodeKey + "::result", execution.result());
+        }
+        if (!execution.stdout().isBlank()) {
+            output.put(nodeKey + "::stdout", execution.stdout());
+        }
+        output.put("language", "javascript");
+        context.context().merge(output);
+        LOGGER.info("[FlowStack] JS node {} executed in sandbox {}", nodeKey, execution.metrics());
+        return NodeExecutionResult.completed(output, "javascript executed", execution.metrics());
+    }
 }
@@ -0,0 +1,118 @@
+package com.ankush.workflowEngine.registry.executors;
+
+import com.ankush.workflowEngine.config.OllamaProperties;
+import com.ankush.workflowEngine.config.OpenAiProperties;
+import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.execution.NodeExecutionContext;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.ankush.workflowEngine.execution.NodeExecutionResult;
+import com.ankush.workflowEngine.registry.NodeExecutor;
+import com.ankush.workflowEngine.support.LlmRouter;
+import com.ankush.workflowEngine.support.TemplateRenderer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the prompt to whichever acceptable LLM the {@link LlmRouter} expects to answer first.
+ * {@code "providers"} lists the candidates in order of preference, each either
+ * {@code "<provider>:<model>"} or {@code {"provider": ..., "model": ...}}, where the provider is
+ * {@code ollama} or {@code openai} and a missing model means that provider's default.
+ * {@code "hedge": true} races the runner-up once the leader is slower than usual;
+ * {@code "hedgeDelayMs"} fixes that delay instead of learning it.
+ *
+ * <p>Output is {@code <node>::response} plus the {@code ::provider} and {@code ::model} that
+ * answered, the number of {@code ::attempts} and whether the call was {@code ::hedged}.
+ */
+@Component
+public class LlmNodeExecutor implements NodeExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmNodeExecutor.class);
+
+    private final LlmRouter llmRouter;
+    private final OllamaProperties ollamaProperties;
+    private final OpenAiProperties openAiProperties;
+
+    public LlmNodeExecutor(LlmRouter llmRouter, OllamaProperties ollamaProperties, OpenAiProperties openAiProperties) {
+        this.llmRouter = llmRouter;
+        this.ollamaProperties = ollamaProperties;
+        this.openAiProperties = openAiProperties;
+    }
+
+    @Override
+    public NodeType supportsType() {
+        return NodeType.LLM;
+    }
+
+    @Override
+    public NodeExecutionResult execute(NodeExecutionContext context) {
+        Map<String, Object> config = context.config();
+        String promptTemplate = Objects.toString(config.get("prompt"), "FlowStack prompt");
+        String resolvedPrompt = TemplateRenderer.render(promptTemplate, context.context().snapshot());
+        if (resolvedPrompt == null || resolvedPrompt.isBlank()) {
+            throw new NodeExecutionException("LLM prompt resolved to empty value");
+        }
+        List<LlmRouter.Candidate> candidates = candidates(config.get("providers"));
+        Double temperature = config.get("temperature") instanceof Number num ? num.doubleValue() : null;
+        Duration hedgeDelay = config.get("hedgeDelayMs") instanceof Number delay
+                ? Duration.ofMillis(delay.longValue()) : null;
+        String nodeKey = context.node().getNodeKey();
+
+        LlmRouter.Routed routed = llmRouter.route(candidates, resolvedPrompt, temperature, flag(config.get("hedge")),
+                hedgeDelay);
+        Map<String, Object> output = Map.of(
+                nodeKey + "::response", routed.text(),
+                nodeKey + "::provider", routed.candidate().provider(),
+                nodeKey + "::model", routed.candidate().model(),
+                nodeKey + "::attempts", routed.attempts(),
+                nodeKey + "::hedged", routed.hedged(),
+                "model", routed.candidate().model(),
+                "prompt", resolvedPrompt);
+        context.context().merge(output);
+        LOGGER.info("[FlowStack] LLM node {} answered by {} after {} attempt(s)", nodeKey,
+                routed.candidate().name(), routed.attempts());
+        return NodeExecutionResult.completed(output, "llm response from " + routed.candidate().name());
+    }
+
+    private List<LlmRouter.Candidate> candidates(Object providers) {
+        if (!(providers instanceof List<?> list) || list.isEmpty()) {
+            throw new NodeExecutionException("LLM node requires a non-empty 'providers' list");
+        }
+        List<LlmRouter.Candidate> candidates = new ArrayList<>(list.size());
+        for (Object entry : list) {
+            String provider;
+            String model;
+            if (entry instanceof Map<?, ?> map) {
+                provider = Objects.toString(map.get("provider"), "");
+                model = map.get("model") != null ? map.get("model").toString() : null;
+            } else {
+                // "ollama:gemma3:1b" - the model name may itself contain colons
+                String spec = Objects.toString(entry, "");
+                int colon = spec.indexOf(':');
+                provider = colon > 0 ? spec.substring(0, colon) : spec;
+                model = colon > 0 ? spec.substring(colon + 1) : null;
+            }
+            provider = provider.trim().toLowerCase(Locale.ROOT);
+            if (!LlmRouter.OLLAMA.equals(provider) && !LlmRouter.OPENAI.equals(provider)) {
+                throw new NodeExecutionException("Unknown LLM provider '" + provider + "'; expected ollama or openai");
+            }
+            candidates.add(new LlmRouter.Candidate(provider, model != null && !model.isBlank()
+                    ? model.trim() : defaultModel(provider)));
+        }
+        return candidates;
+    }
+
+    private String defaultModel(String provider) {
+        return LlmRouter.OLLAMA.equals(provider) ? ollamaProperties.getDefaultModel() : openAiProperties.getDefaultModel();
+    }
+
+    private boolean flag(Object value) {
+        return value instanceof Boolean bool ? bool : value != null && Boolean.parseBoolean(value.toString());
+    }
+}
@@ -4,8 +4,11 @@ import com.ankush.workflowEngine.enums.NodeType;
 import com.ankush.workflowEngine.execution.NodeExecutionContext;
 import com.ankush.workflowEngine.execution.NodeExecutionResult;
 import com.ankush.workflowEngine.registry.NodeExecutor;
+import com.ankush.workflowEngine.support.LlmResponseCache;
 import com.ankush.workflowEngine.support.OllamaClient;
+import com.ankush.workflowEngine.support.RunEventBroadcaster;
 import com.ankush.workflowEngine.support.TemplateRenderer;
+import java.time.Duration;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,9 +20,14 @@ public class OllamaNodeExecutor implements NodeExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(OllamaNodeExecutor.class);
 
     private final OllamaClient ollamaClient;
+    private final RunEventBroadcaster runEvents;
+    private final LlmResponseCache responseCache;
 
-    public OllamaNodeExecutor(OllamaClient ollamaClient) {
+    public OllamaNodeExecutor(OllamaClient ollamaClient, RunEventBroadcaster runEvents,
+                              LlmResponseCache responseCache) {
         this.ollamaClient = ollamaClient;
+        this.runEvents = runEvents;
+        this.responseCache = responseCache;
     }
 
     @Override
@@ -27,19 +35,34 @@ public class OllamaNodeExecutor implements NodeExecutor {
         return NodeType.OLLAMA;
     }
 
+    /**
+     * With {@code "stream": true} tokens are published to the run's event channel as Ollama
+     * produces them; {@code ::response} still holds the assembled text. {@code "cache": true}
+     * (with an optional {@code "cacheTtlSeconds"}) reuses responses to identical prompts.
+     */
     @Override
     public NodeExecutionResult execute(NodeExecutionContext context) {
         Map<String, Object> snapshot = context.context().snapshot();
         String promptTemplate = String.valueOf(context.config().getOrDefault("prompt", "FlowStack prompt"));
         String resolvedPrompt = TemplateRenderer.render(promptTemplate, snapshot);
         String model = (String) context.config().get("model");
-        String response = ollamaClient.generateText(model, resolvedPrompt);
+        String nodeKey = context.node().getNodeKey();
+        Duration cacheTtl = responseCache.nodeTtl(context.config());
+        String response = streaming(context.config())
+                ? ollamaClient.generateTextStream(model, resolvedPrompt, cacheTtl,
+                        token -> runEvents.token(context.run().getId(), nodeKey, token))
+                : ollamaClient.generateText(model, resolvedPrompt, cacheTtl);
         Map<String, Object> output = Map.of(
-                context.node().getNodeKey() + "::response", response,
+                nodeKey + "::response", response,
                 "model", model != null ? model : "default",
                 "prompt", resolvedPrompt);
         context.context().merge(output);
-        LOGGER.info("[FlowStack] Ollama node {} invoked model {}", context.node().getNodeKey(), model);
+        LOGGER.info("[FlowStack] Ollama node {} invoked model {}", nodeKey, model);
         return NodeExecutionResult.completed(output, "ollama response");
     }
+
+    private boolean streaming(Map<String, Object> config) {
+        Object flag = config.get("stream");
+        return flag instanceof Boolean bool ? bool : flag != null && Boolean.parseBoolean(flag.toString());
+    }
 }
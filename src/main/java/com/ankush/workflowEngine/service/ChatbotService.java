@@ -1,9 +1,16 @@
 package com.ankush.workflowEngine.service;
 
+import com.ankush.workflowEngine.config.ChatbotSessionProperties;
 import com.ankush.workflowEngine.dto.ChatbotResponse;
 import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import com.ankush.workflowEngine.enums.LlmCaller;
 import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.ankush.workflowEngine.support.ChatSessionStore;
+import com.ankush.workflowEngine.support.IncrementalWorkflowParser;
+import com.ankush.workflowEngine.support.LlmResponseCache;
 import com.ankush.workflowEngine.support.OllamaClient;
+import com.ankush.workflowEngine.support.PromptAssembler;
+import com.ankush.workflowEngine.support.SseStreams;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,99 +20,41 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 
 @Service
 public class ChatbotService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatbotService.class);
-    
-    private final OllamaClient ollamaClient;
-    private final ObjectMapper objectMapper;
-
-    public ChatbotService(OllamaClient ollamaClient, ObjectMapper objectMapper) {
-        this.ollamaClient = ollamaClient;
-        this.objectMapper = objectMapper;
-    }
-
-    public ChatbotResponse processMessage(String userMessage) {
-        if (userMessage == null || userMessage.trim().isEmpty()) {
-            LOGGER.warn("Empty user message received");
-            return ChatbotResponse.error("Please provide a message describing the workflow you want to create.");
-        }
-        
-        // Limit message length to prevent excessive processing
-        if (userMessage.length() > 2000) {
-            LOGGER.warn("User message too long ({} chars), truncating", userMessage.length());
-            userMessage = userMessage.substring(0, 2000) + "...";
-        }
-        
-        try {
-            // Build system prompt for workflow generation
-            String systemPrompt = buildSystemPrompt();
-            String fullPrompt = systemPrompt + "\n\nUser Request: " + userMessage + "\n\nGenerate the workflow JSON:";
-            
-            // Limit prompt size to prevent timeouts
-            if (fullPrompt.length() > 3000) {
-                LOGGER.warn("Prompt too long ({} chars), truncating", fullPrompt.length());
-                fullPrompt = fullPrompt.substring(0, 3000) + "...";
-            }
-            
-            LOGGER.info("Sending prompt to Ollama for workflow generation (prompt length: {})", fullPrompt.length());
-            String aiResponse = ollamaClient.generateText(null, fullPrompt, 500);
-            
-            LOGGER.debug("Ollama response received (length: {})", aiResponse != null ? aiResponse.length() : 0);
-            
-            // Try to extract JSON from the response
-            WorkflowDefinitionRequest workflow = extractWorkflowFromResponse(aiResponse);
-            
-            if (workflow != null) {
-                String friendlyResponse = generateFriendlyResponse(workflow);
-                return ChatbotResponse.success(friendlyResponse, workflow);
-            } else {
-                // If no workflow found, return the AI response as a message
-                String truncatedResponse = aiResponse != null && aiResponse.length() > 500 
-                    ? aiResponse.substring(0, 500) + "..." 
-                    : aiResponse;
-                return ChatbotResponse.message("I understand your request. Here's what I can help you with:\n\n" + 
-                    truncatedResponse + "\n\nCould you provide more specific details about:\n" +
-                    "- What type of workflow you need?\n" +
-                    "- What nodes should be included?\n" +
-                    "- What should be the execution flow?");
-            }
-            
-        } catch (NodeExecutionException ex) {
-            LOGGER.error("Ollama call failed: {}", ex.getMessage());
-            return ChatbotResponse.error("The AI service is currently unavailable. Please try again later or create the workflow manually.");
-        } catch (Exception ex) {
-            LOGGER.error("Error processing chatbot message", ex);
-            return ChatbotResponse.error("Sorry, I encountered an error. Please try again or provide more details about your workflow.");
-        }
-    }
+    private static final int MAX_RESPONSE_TOKENS = 500;
+    private static final String GENERATED = "I've generated a workflow for you!";
+    private static final String TEMPLATE_FOUND = "I found an existing workflow that matches your request!";
 
-    private String buildSystemPrompt() {
-        return """
+    // Static parts of the generation prompt, measured once; the examples go first when space is short
+    private static final PromptAssembler.Segment INSTRUCTIONS = PromptAssembler.Segment.of("""
             You are a workflow generation assistant for FlowStack, an AI-native workflow automation platform.
-            
+
             Your task is to convert user descriptions into workflow JSON definitions.
-            
+
             Available Node Types:
             - INPUT: Entry point for workflow input
             - HTTP: Make REST API calls (config: method, url, headers, body)
+            - HTTP_BATCH: Make many REST API calls concurrently (config: requests, or request + items; parallelism, timeoutMs)
             - SCRIPT_JS: Execute JavaScript (config: script)
             - SCRIPT_PY: Execute Python (config: script)
             - OLLAMA: Call on-device LLM (config: prompt, model)
             - CHATGPT: Call OpenAI API (config: prompt, model, temperature)
+            - LLM: Call whichever of several LLMs answers fastest (config: prompt, providers, hedge)
             - EMAIL: Send email (config: to, subject, body, cc, bcc)
             - IF_ELSE: Conditional branching (config: condition)
             - OUTPUT: Final output aggregation (config: fields)
             - NOTIFY: Send notifications (config: message)
-            
+
             Workflow JSON Structure:
             {
               "name": "Workflow Name",
@@ -127,7 +76,7 @@ public class ChatbotService {
                 }
               ]
             }
-            
+
             Rules:
             1. Always start with an INPUT node
             2. Node keys must be alphanumeric with underscores/hyphens only (e.g., "fetch-data", "process_result")
@@ -139,7 +88,9 @@ public class ChatbotService {
             8. CRITICAL: Edges must ONLY reference node keys that exist in the nodes array
             9. Edge sourceKey and targetKey must match exactly the "key" field of nodes
             10. Do not create edges to nodes that don't exist
-            
+
+            """);
+    private static final PromptAssembler.Segment EXAMPLES = PromptAssembler.Segment.of("""
             Example - CORRECT:
             {
               "nodes": [
@@ -150,7 +101,7 @@ public class ChatbotService {
                 {"sourceKey": "input-node", "targetKey": "http-node"}
               ]
             }
-            
+
             Example - WRONG (edge references non-existent node):
             {
               "nodes": [
@@ -160,9 +111,183 @@ public class ChatbotService {
                 {"sourceKey": "input-node", "targetKey": "http-node"}  // ERROR: http-node doesn't exist!
               ]
             }
-            
+
+            """);
+    private static final PromptAssembler.Segment RESPONSE_RULES = PromptAssembler.Segment.of("""
             Respond ONLY with valid JSON. Do not include markdown code blocks or explanations.
-            """;
+
+            """);
+    private static final PromptAssembler.Segment GENERATE = PromptAssembler.Segment.of("\nGenerate the workflow JSON:");
+    private static final PromptAssembler.Segment UPDATE = PromptAssembler.Segment.of(
+            "\nRespond ONLY with the complete updated workflow JSON:");
+    
+    private final OllamaClient ollamaClient;
+    private final ObjectMapper objectMapper;
+    private final LlmResponseCache responseCache;
+    private final PromptAssembler promptAssembler;
+    private final ChatSessionStore sessionStore;
+    private final ChatbotSessionProperties sessionProperties;
+    private final WorkflowTemplateService templateService;
+
+    public ChatbotService(OllamaClient ollamaClient, ObjectMapper objectMapper, LlmResponseCache responseCache,
+                          PromptAssembler promptAssembler, ChatSessionStore sessionStore,
+                          ChatbotSessionProperties sessionProperties, WorkflowTemplateService templateService) {
+        this.ollamaClient = ollamaClient;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.promptAssembler = promptAssembler;
+        this.sessionStore = sessionStore;
+        this.sessionProperties = sessionProperties;
+        this.templateService = templateService;
+    }
+
+    /**
+     * One chatbot turn. With sessions enabled the response carries a {@code sessionId}; sending it
+     * back continues the conversation, and while Ollama's context for it is still usable only the
+     * new message is sent.
+     */
+    public ChatbotResponse processMessage(String userMessage, String sessionId) {
+        if (userMessage == null || userMessage.trim().isEmpty()) {
+            LOGGER.warn("Empty user message received");
+            return ChatbotResponse.error("Please provide a message describing the workflow you want to create.");
+        }
+        
+        Turn turn = startTurn(userMessage, sessionId);
+        WorkflowDefinitionRequest template = matchTemplate(turn, userMessage);
+        if (template != null) {
+            return ChatbotResponse.success(generateFriendlyResponse(TEMPLATE_FOUND, template), template)
+                    .withSessionId(turn.sessionId());
+        }
+        try {
+            LOGGER.info("Sending prompt to Ollama for workflow generation (prompt length: {}, continued: {})",
+                    turn.prompt().length(), turn.continued());
+            // Only a conversation's opening prompt is the same for everyone, so only that is cached
+            OllamaClient.Generation generation = ollamaClient.continueText(null, turn.prompt(), MAX_RESPONSE_TOKENS,
+                    turn.from(), turn.opening() ? responseCache.assistantTtl() : null, LlmCaller.CHATBOT);
+            String aiResponse = generation.text();
+            
+            LOGGER.debug("Ollama response received (length: {})", aiResponse != null ? aiResponse.length() : 0);
+            
+            // Try to extract JSON from the response
+            WorkflowDefinitionRequest workflow = extractWorkflowFromResponse(aiResponse);
+            turn.finish(userMessage, generation.context(), workflow);
+            
+            if (workflow != null) {
+                String friendlyResponse = generateFriendlyResponse(GENERATED, workflow);
+                return ChatbotResponse.success(friendlyResponse, workflow).withSessionId(turn.sessionId());
+            } else {
+                // If no workflow found, return the AI response as a message
+                String truncatedResponse = aiResponse != null && aiResponse.length() > 500 
+                    ? aiResponse.substring(0, 500) + "..." 
+                    : aiResponse;
+                return ChatbotResponse.message("I understand your request. Here's what I can help you with:\n\n" + 
+                    truncatedResponse + "\n\nCould you provide more specific details about:\n" +
+                    "- What type of workflow you need?\n" +
+                    "- What nodes should be included?\n" +
+                    "- What should be the execution flow?").withSessionId(turn.sessionId());
+            }
+            
+        } catch (NodeExecutionException ex) {
+            LOGGER.error("Ollama call failed: {}", ex.getMessage());
+            return ChatbotResponse.error("The AI service is currently unavailable. Please try again later or create the workflow manually.");
+        } catch (Exception ex) {
+            LOGGER.error("Error processing chatbot message", ex);
+            return ChatbotResponse.error("Sorry, I encountered an error. Please try again or provide more details about your workflow.");
+        }
+    }
+
+    /**
+     * A turn about to be sent: its prompt and where in the conversation it continues from.
+     */
+    private record Turn(ChatSessionStore.ChatSession session, String prompt, OllamaClient.Continuation from,
+                        boolean opening) {
+
+        String sessionId() {
+            return session != null ? session.id() : null;
+        }
+
+        boolean continued() {
+            return from.context() != null;
+        }
+
+        void finish(String userMessage, int[] context, WorkflowDefinitionRequest workflow) {
+            if (session != null) {
+                session.record(userMessage, context, workflow);
+            }
+        }
+    }
+
+    /**
+     * Continues from the session's Ollama context when the new message still fits next to it in
+     * the model's window; otherwise starts over with the full instructions plus what the session
+     * remembers (earlier requests and the latest workflow).
+     */
+    private Turn startTurn(String userMessage, String sessionId) {
+        if (!sessionProperties.isEnabled()) {
+            return new Turn(null, buildPrompt(userMessage, null), new OllamaClient.Continuation(null, null), true);
+        }
+        ChatSessionStore.ChatSession session = sessionStore.open(sessionId);
+        OllamaClient.Continuation from = new OllamaClient.Continuation(session.context(),
+                sessionProperties.getKeepAlive());
+        if (from.context() != null) {
+            int budget = promptAssembler.budget(null, MAX_RESPONSE_TOKENS + from.context().length);
+            String followUp = "\nFollow-up request: " + userMessage.trim() + "\n";
+            if (PromptAssembler.estimateTokens(followUp) + UPDATE.tokens() <= budget) {
+                return new Turn(session, followUp + UPDATE.text(), from, false);
+            }
+            LOGGER.debug("Chatbot session {} context is full; starting over", session.id());
+            from = new OllamaClient.Continuation(null, sessionProperties.getKeepAlive());
+        }
+        return new Turn(session, buildPrompt(userMessage, session), from, session.isNew());
+    }
+
+    /**
+     * A stored or example workflow confidently matching the opening message of a conversation,
+     * recorded as the session's workflow; follow-ups that change it still go to the LLM.
+     */
+    private WorkflowDefinitionRequest matchTemplate(Turn turn, String userMessage) {
+        if (!turn.opening()) {
+            return null;
+        }
+        return templateService.match(userMessage, LlmCaller.CHATBOT)
+                .map(match -> {
+                    WorkflowDefinitionRequest workflow = WorkflowTemplateService.copyOf(match, null);
+                    turn.finish(userMessage, null, workflow);
+                    LOGGER.info("Answered chatbot message from template {} without the LLM", match.template().source());
+                    return workflow;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Instructions and response rules are always sent; the user's message is cut short only if
+     * it would not fit next to them, and the examples are dropped before that happens. For a
+     * session starting over, its earlier requests and latest workflow are compacted into the
+     * remaining space, most recent first.
+     */
+    private String buildPrompt(String userMessage, ChatSessionStore.ChatSession session) {
+        PromptAssembler.Builder prompt = promptAssembler.prompt(null, MAX_RESPONSE_TOKENS)
+                .fixed(INSTRUCTIONS)
+                .optional(EXAMPLES)
+                .fixed(RESPONSE_RULES);
+        if (session != null && !session.isNew()) {
+            WorkflowDefinitionRequest workflow = session.workflow();
+            prompt.tail("Earlier requests: ", session.requests(), " | ");
+            if (workflow != null) {
+                prompt.text("Current workflow: ", workflow.name())
+                        .list("Current nodes: ", workflow.nodes().stream()
+                                .map(node -> node.key() + "[" + node.type() + "]")
+                                .toList(), ", ");
+                if (workflow.edges() != null) {
+                    prompt.list("Current edges: ", workflow.edges().stream()
+                            .map(edge -> edge.sourceKey() + "->" + edge.targetKey())
+                            .toList(), ", ");
+                }
+            }
+        }
+        return prompt.text("User Request: ", userMessage)
+                .fixed(GENERATE)
+                .build();
     }
 
     private WorkflowDefinitionRequest extractWorkflowFromResponse(String aiResponse) {
@@ -194,25 +319,9 @@ public class ChatbotService {
     }
 
     private String extractJsonFromText(String text) {
-        // Try to find JSON object in the text
-        // First, try to find JSON wrapped in code blocks
-        Pattern codeBlockPattern = Pattern.compile("```(?:json)?\\s*\\{.*?\\}\\s*```", Pattern.DOTALL);
-        Matcher codeBlockMatcher = codeBlockPattern.matcher(text);
-        if (codeBlockMatcher.find()) {
-            String json = codeBlockMatcher.group(0);
-            // Remove code block markers
-            json = json.replaceAll("```(?:json)?\\s*", "").replaceAll("```", "").trim();
-            return json;
-        }
-        
-        // Try to find JSON object directly
-        Pattern jsonPattern = Pattern.compile("\\{.*?\\}", Pattern.DOTALL);
-        Matcher jsonMatcher = jsonPattern.matcher(text);
-        if (jsonMatcher.find()) {
-            return jsonMatcher.group(0);
-        }
-        
-        return null;
+        // The first balanced object, whether or not it sits in a code block; a lazy regex would
+        // stop at the first closing brace of a nested object
+        return IncrementalWorkflowParser.firstObject(text);
     }
 
     private WorkflowDefinitionRequest normalizeWorkflow(WorkflowDefinitionRequest workflow) {
@@ -266,7 +375,7 @@ public class ChatbotService {
      * Processes a message with streaming response for real-time display
      * Uses SseEmitter for Server-Sent Events streaming
      */
-    public void processMessageStream(String userMessage, SseEmitter emitter) {
+    public void processMessageStream(String userMessage, String sessionId, SseEmitter emitter) {
         try {
             if (userMessage == null || userMessage.trim().isEmpty()) {
                 emitter.send(SseEmitter.event()
@@ -276,24 +385,36 @@ public class ChatbotService {
                 return;
             }
             
-            // Limit message length
-            if (userMessage.length() > 2000) {
-                userMessage = userMessage.substring(0, 2000) + "...";
+            Turn turn = startTurn(userMessage, sessionId);
+            if (turn.sessionId() != null) {
+                emitter.send(SseEmitter.event().name("session").data(turn.sessionId()));
             }
-            
-            // Build system prompt
-            String systemPrompt = buildSystemPrompt();
-            String fullPrompt = systemPrompt + "\n\nUser Request: " + userMessage + "\n\nGenerate the workflow JSON:";
-            
-            if (fullPrompt.length() > 3000) {
-                fullPrompt = fullPrompt.substring(0, 3000) + "...";
+            WorkflowDefinitionRequest template = matchTemplate(turn, userMessage);
+            if (template != null) {
+                emitter.send(SseEmitter.event()
+                    .name("workflow")
+                    .data(objectMapper.writeValueAsString(template)));
+                emitter.send(SseEmitter.event()
+                    .name("complete")
+                    .data(generateFriendlyResponse(TEMPLATE_FOUND, template)));
+                emitter.complete();
+                return;
             }
             
-            LOGGER.info("Starting streaming response for chatbot (prompt length: {})", fullPrompt.length());
+            LOGGER.info("Starting streaming response for chatbot (prompt length: {}, continued: {})",
+                    turn.prompt().length(), turn.continued());
             
             // Stream the response from Ollama
             StringBuilder fullResponse = new StringBuilder();
-            ollamaClient.generateTextStream(null, fullPrompt, 500)
+            int[][] nextContext = new int[1][];
+            // Each node and edge goes out as soon as its object in the JSON is complete
+            List<SseEmitter.SseEventBuilder> parsed = new ArrayList<>();
+            IncrementalWorkflowParser parser = new IncrementalWorkflowParser(objectMapper,
+                    node -> parsed.add(SseEmitter.event().name("node").data(node, MediaType.APPLICATION_JSON)),
+                    edge -> parsed.add(SseEmitter.event().name("edge").data(edge, MediaType.APPLICATION_JSON)));
+            Disposable.Swap subscription = SseStreams.cancelOnClose(emitter);
+            subscription.update(ollamaClient.continueTextStream(null, turn.prompt(), MAX_RESPONSE_TOKENS, turn.from(), LlmCaller.CHATBOT,
+                            context -> nextContext[0] = context)
                 .subscribe(
                     chunk -> {
                         try {
@@ -302,10 +423,12 @@ public class ChatbotService {
                             emitter.send(SseEmitter.event()
                                 .name("chunk")
                                 .data(chunk));
+                            parser.accept(chunk);
+                            SseStreams.sendAll(emitter, parsed);
                         } catch (IOException e) {
                             // Client disconnected - this is normal, just stop sending
                             LOGGER.debug("Client disconnected during streaming: {}", e.getMessage());
-                            return; // Exit subscription gracefully
+                            subscription.dispose(); // Stop generating for nobody
                         } catch (Exception e) {
                             LOGGER.warn("Error sending chunk: {}", e.getMessage());
                             // Don't complete with error for non-IO exceptions, just log
@@ -329,10 +452,11 @@ public class ChatbotService {
                         try {
                             String completeResponse = fullResponse.toString();
                             WorkflowDefinitionRequest workflow = extractWorkflowFromResponse(completeResponse);
+                            turn.finish(userMessage, nextContext[0], workflow);
                             
                             try {
                                 if (workflow != null) {
-                                    String friendlyResponse = generateFriendlyResponse(workflow);
+                                    String friendlyResponse = generateFriendlyResponse(GENERATED, workflow);
                                     // Send workflow data
                                     emitter.send(SseEmitter.event()
                                         .name("workflow")
@@ -371,7 +495,7 @@ public class ChatbotService {
                             }
                         }
                     }
-                );
+                ));
                 
         } catch (Exception ex) {
             LOGGER.error("Error in processMessageStream", ex);
@@ -388,9 +512,9 @@ public class ChatbotService {
         }
     }
 
-    private String generateFriendlyResponse(WorkflowDefinitionRequest workflow) {
+    private String generateFriendlyResponse(String heading, WorkflowDefinitionRequest workflow) {
         StringBuilder response = new StringBuilder();
-        response.append("I've generated a workflow for you!\n\n");
+        response.append(heading).append("\n\n");
         response.append("**Workflow:** ").append(workflow.name()).append("\n");
         if (workflow.description() != null && !workflow.description().isEmpty()) {
             response.append("**Description:** ").append(workflow.description()).append("\n");
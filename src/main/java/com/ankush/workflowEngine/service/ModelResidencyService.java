@@ -0,0 +1,215 @@
+package com.ankush.workflowEngine.service;
+
+import com.ankush.workflowEngine.config.ModelResidencyProperties;
+import com.ankush.workflowEngine.config.OllamaProperties;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionResponse;
+import com.ankush.workflowEngine.dto.WorkflowNodeResponse;
+import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.enums.WorkflowStatus;
+import com.ankush.workflowEngine.execution.WorkflowRunCreatedEvent;
+import com.ankush.workflowEngine.support.LlmRouter;
+import com.ankush.workflowEngine.support.ModelResidency;
+import com.ankush.workflowEngine.support.OllamaClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the Ollama models that workflows use loaded, so the first OLLAMA or LLM node after a quiet
+ * spell does not pay for loading its model. The models each stored workflow references are
+ * tracked from the workflows themselves: those of published workflows are preloaded once the
+ * application is ready and whenever a newly published workflow brings in another, and preloaded
+ * again before their {@code keep_alive} runs out; a run's models are loaded as the run is
+ * created, in parallel with its first nodes. A model already warm is not loaded again; loads are
+ * fire-and-forget and a failed one is only logged.
+ */
+@Service
+public class ModelResidencyService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelResidencyService.class);
+
+    private final ModelResidencyProperties properties;
+    private final OllamaProperties ollamaProperties;
+    private final ModelResidency residency;
+    private final OllamaClient ollamaClient;
+    private final WorkflowDefinitionService definitionService;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Set<String>> modelsByWorkflow = new ConcurrentHashMap<>();
+    private final Set<Long> publishedWorkflows = ConcurrentHashMap.newKeySet();
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+
+    public ModelResidencyService(ModelResidencyProperties properties, OllamaProperties ollamaProperties,
+                                 ModelResidency residency, OllamaClient ollamaClient,
+                                 WorkflowDefinitionService definitionService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ollamaProperties = ollamaProperties;
+        this.residency = residency;
+        this.ollamaClient = ollamaClient;
+        this.definitionService = definitionService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmPublished() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            definitionService.listDefinitions().forEach(this::track);
+        } catch (RuntimeException ex) {
+            LOGGER.warn("[FlowStack] Could not read workflows for model warm-up: {}", ex.getMessage());
+            return;
+        }
+        Set<String> published = refreshPublished();
+        LOGGER.info("[FlowStack] Published workflows use {} Ollama model(s): {}", published.size(), published);
+        if (properties.isWarmupPublished()) {
+            published.forEach(model -> warm(model, "startup"));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleDefinitionChanged(WorkflowDefinitionChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Set<String> before = residency.getPublishedModels();
+        if (event.isDeleted()) {
+            modelsByWorkflow.remove(event.getWorkflowId());
+            publishedWorkflows.remove(event.getWorkflowId());
+        } else {
+            track(event.getDefinition());
+        }
+        Set<String> published = refreshPublished();
+        if (properties.isWarmupPublished()) {
+            published.stream()
+                    .filter(model -> !before.contains(model))
+                    .forEach(model -> warm(model, "published"));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleWorkflowRunCreated(WorkflowRunCreatedEvent event) {
+        if (!properties.isEnabled() || !properties.isPrewarmOnRun()) {
+            return;
+        }
+        modelsByWorkflow.getOrDefault(event.getWorkflowId(), Set.of()).forEach(model -> warm(model, "run"));
+    }
+
+    /**
+     * Preloads each published model that would unload before the check after next, so a quiet
+     * published workflow still finds its model loaded. A model whose preload failed is retried at
+     * the next check.
+     */
+    @Scheduled(initialDelayString = "${flowstack.ollama.residency.refresh-interval:5m}",
+            fixedDelayString = "${flowstack.ollama.residency.refresh-interval:5m}")
+    public void keepPublishedWarm() {
+        if (!properties.isEnabled() || !properties.isWarmupPublished()) {
+            return;
+        }
+        Duration margin = properties.getRefreshInterval().multipliedBy(2);
+        residency.getPublishedModels().forEach(model -> warm(model, "refresh", margin));
+    }
+
+    /**
+     * What is known about each model this instance has used or expects to use.
+     */
+    public List<ModelResidency.Residency> residency() {
+        return residency.snapshot();
+    }
+
+    private void track(WorkflowDefinitionResponse definition) {
+        modelsByWorkflow.put(definition.id(), ollamaModels(definition));
+        if (definition.status() == WorkflowStatus.PUBLISHED) {
+            publishedWorkflows.add(definition.id());
+        } else {
+            publishedWorkflows.remove(definition.id());
+        }
+    }
+
+    private Set<String> refreshPublished() {
+        Set<String> published = new TreeSet<>();
+        publishedWorkflows.forEach(id -> published.addAll(modelsByWorkflow.getOrDefault(id, Set.of())));
+        residency.setPublishedModels(published);
+        return published;
+    }
+
+    private void warm(String model, String reason) {
+        warm(model, reason, Duration.ZERO);
+    }
+
+    /**
+     * Preloads {@code model} unless it is expected to stay loaded for at least {@code margin}.
+     */
+    private void warm(String model, String reason, Duration margin) {
+        if (residency.isWarm(model, margin) || !loading.add(model)) {
+            return;
+        }
+        Duration keepAlive = residency.keepAlive(model);
+        long startedAt = System.nanoTime();
+        ollamaClient.preload(model, keepAlive, properties.getWarmupTimeout()).whenComplete((ignored, ex) -> {
+            loading.remove(model);
+            meterRegistry.counter("flowstack.ollama.residency.warmups",
+                    "model", model, "reason", reason, "result", ex == null ? "loaded" : "failed").increment();
+            if (ex == null) {
+                LOGGER.info("[FlowStack] Loaded Ollama model {} ({}) in {} ms, keep-alive {}", model, reason,
+                        Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), keepAlive);
+            } else {
+                Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                LOGGER.warn("[FlowStack] Could not preload Ollama model {} ({}): {}", model, reason,
+                        error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * The Ollama models a workflow's nodes call: an OLLAMA node's {@code model} (else the default
+     * model) and every {@code ollama} candidate among an LLM node's {@code providers}.
+     */
+    private Set<String> ollamaModels(WorkflowDefinitionResponse definition) {
+        Set<String> models = new HashSet<>();
+        for (WorkflowNodeResponse node : definition.nodes()) {
+            Map<String, Object> config = node.config() != null ? node.config() : Map.of();
+            if (node.type() == NodeType.OLLAMA) {
+                models.add(modelOrDefault(config.get("model")));
+            } else if (node.type() == NodeType.LLM && config.get("providers") instanceof List<?> providers) {
+                for (Object entry : providers) {
+                    String provider;
+                    Object model;
+                    if (entry instanceof Map<?, ?> map) {
+                        provider = String.valueOf(map.get("provider"));
+                        model = map.get("model");
+                    } else {
+                        // "ollama:gemma3:1b" - the model name may itself contain colons
+                        String spec = String.valueOf(entry);
+                        int colon = spec.indexOf(':');
+                        provider = colon > 0 ? spec.substring(0, colon) : spec;
+                        model = colon > 0 ? spec.substring(colon + 1) : null;
+                    }
+                    if (LlmRouter.OLLAMA.equals(provider.trim().toLowerCase(Locale.ROOT))) {
+                        models.add(modelOrDefault(model));
+                    }
+                }
+            }
+        }
+        return models;
+    }
+
+    private String modelOrDefault(Object model) {
+        return model != null && !model.toString().isBlank() ? model.toString().trim() : ollamaProperties.getDefaultModel();
+    }
+}
@@ -2,6 +2,8 @@ package com.ankush.workflowEngine.service;
 
 import com.ankush.workflowEngine.dto.VisualEditorSuggestionRequest;
 import com.ankush.workflowEngine.dto.VisualEditorSuggestionResponse;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisDiffRequest;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisDiffResponse;
 import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest;
 import com.ankush.workflowEngine.dto.WorkflowAnalysisResponse;
 import com.ankush.workflowEngine.dto.WorkflowPromptRequest;
@@ -10,30 +12,82 @@ import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
 import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
 import com.ankush.workflowEngine.dto.WorkflowEdgeRequest;
 import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.enums.LlmCaller;
 import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.ankush.workflowEngine.support.LlmResponseCache;
 import com.ankush.workflowEngine.support.OllamaClient;
+import com.ankush.workflowEngine.support.PromptAssembler;
+import com.ankush.workflowEngine.support.SseStreams;
+import com.ankush.workflowEngine.support.WorkflowAnalysisCache;
+import com.ankush.workflowEngine.support.WorkflowGraph;
+import com.ankush.workflowEngine.support.WorkflowTemplateIndex;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 
 @Service
 public class VisualEditorAssistantService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VisualEditorAssistantService.class);
+
+    // Response and prompt token limits; short prompts keep the editor responsive
+    private static final int SUGGESTION_RESPONSE_TOKENS = 150;
+    private static final int SUGGESTION_PROMPT_TOKENS = 128;
+    private static final int ANALYSIS_RESPONSE_TOKENS = 200;
+    private static final int ANALYSIS_STREAM_RESPONSE_TOKENS = 250;
+    private static final int ANALYSIS_PROMPT_TOKENS = 75;
+    private static final int WORKFLOW_RESPONSE_TOKENS = 250;
+    private static final int WORKFLOW_PROMPT_TOKENS = 512;
+
+    private static final PromptAssembler.Segment SUGGESTION_FORMAT = PromptAssembler.Segment.of(
+            "Suggest 2-3 next node types. Format:\n"
+                    + "SUGGESTED_NODES:\n- INPUT: reason\n- HTTP: reason\n"
+                    + "NEXT_STEPS:\n- Step\n");
+    private static final PromptAssembler.Segment CODE_SUGGESTION_FORMAT = PromptAssembler.Segment.of(
+            "CODE_SUGGESTION:\nCode: [code]\n");
+    private static final PromptAssembler.Segment WORKFLOW_NODE_TYPES = PromptAssembler.Segment.of(
+            "Node types: INPUT, OUTPUT, HTTP(method,url), HTTP_BATCH(requests|request+items,parallelism), "
+                    + "SCRIPT_JS(script), SCRIPT_PY(script), "
+                    + "OLLAMA(prompt), CHATGPT(prompt), LLM(prompt,providers,hedge), EMAIL(to,subject,body), "
+                    + "IF_ELSE(condition), NOTIFY(message)\n\n");
+    private static final PromptAssembler.Segment WORKFLOW_RESPONSE_FORMAT = PromptAssembler.Segment.of(
+            "\nResponse format:\n"
+                    + "EXPLANATION: [brief]\n"
+                    + "NODES_TO_ADD:\n"
+                    + "  - type: [TYPE] key: [key] displayName: [name] reason: [why] config: {fields} insertAfterNodeKey: [key?]\n"
+                    + "EDGES_TO_ADD:\n"
+                    + "  - sourceKey: [key] targetKey: [key] conditionExpression: [expr?] reason: [why]\n"
+                    + "NODES_TO_MODIFY:\n"
+                    + "  - nodeKey: [key] updatedConfig: {fields} reason: [why]\n"
+                    + "NODES_TO_REMOVE:\n"
+                    + "  - nodeKey: [key] reason: [why]\n"
+                    + "NEXT_STEPS: [guidance]\n");
     
     private final OllamaClient ollamaClient;
+    private final LlmResponseCache responseCache;
+    private final PromptAssembler promptAssembler;
+    private final WorkflowAnalysisCache analysisCache;
+    private final WorkflowTemplateService templateService;
 
-    public VisualEditorAssistantService(OllamaClient ollamaClient) {
+    public VisualEditorAssistantService(OllamaClient ollamaClient, LlmResponseCache responseCache,
+                                        PromptAssembler promptAssembler, WorkflowAnalysisCache analysisCache,
+                                        WorkflowTemplateService templateService) {
         this.ollamaClient = ollamaClient;
+        this.responseCache = responseCache;
+        this.promptAssembler = promptAssembler;
+        this.analysisCache = analysisCache;
+        this.templateService = templateService;
     }
 
     public VisualEditorSuggestionResponse getSuggestions(VisualEditorSuggestionRequest request) {
@@ -49,10 +103,11 @@ public class VisualEditorAssistantService {
             
             LOGGER.debug("Getting AI suggestions for workflow with {} nodes", request.nodes().size());
             
-            // Use shorter token limit (150) for faster suggestions
+            // Use a short token limit for faster suggestions
             String aiResponse;
             try {
-                aiResponse = ollamaClient.generateText(null, prompt, 150);
+                aiResponse = ollamaClient.generateText(null, prompt, SUGGESTION_RESPONSE_TOKENS, responseCache.assistantTtl(),
+                        LlmCaller.ASSISTANT);
                 
                 // Validate response
                 if (aiResponse == null || aiResponse.trim().isEmpty()) {
@@ -83,52 +138,24 @@ public class VisualEditorAssistantService {
     }
 
     private String buildSuggestionPrompt(VisualEditorSuggestionRequest request) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("FlowStack workflow suggestions.\n");
-        prompt.append("Nodes: ").append(request.nodes().size());
-        
-        // Limit to last 3 nodes for speed (reduced from 5)
-        if (!request.nodes().isEmpty()) {
-            int startIdx = Math.max(0, request.nodes().size() - 3);
-            prompt.append(" (last 3: ");
-            for (int i = startIdx; i < request.nodes().size(); i++) {
-                var node = request.nodes().get(i);
-                prompt.append(node.key()).append("[").append(node.type()).append("]");
-                if (i < request.nodes().size() - 1) prompt.append(",");
-            }
-            prompt.append(")");
-        }
-        
-        // Limit edges to 3 for speed
-        if (!request.edges().isEmpty() && request.edges().size() <= 3) {
-            prompt.append(" Edges: ");
-            for (int i = 0; i < Math.min(request.edges().size(), 3); i++) {
-                var edge = request.edges().get(i);
-                prompt.append(edge.sourceKey()).append("->").append(edge.targetKey());
-                if (i < Math.min(request.edges().size(), 3) - 1) prompt.append(",");
-            }
-        }
-        
+        PromptAssembler.Builder prompt = promptAssembler.prompt(null, SUGGESTION_RESPONSE_TOKENS)
+                .limit(SUGGESTION_PROMPT_TOKENS)
+                .fixed("FlowStack workflow suggestions.\nNodes: " + request.nodes().size() + "\n")
+                // The most recent nodes say most about what comes next
+                .tail("Recent: ", request.nodes().stream()
+                        .map(node -> node.key() + "[" + node.type() + "]")
+                        .toList(), ",")
+                .tail("Edges: ", request.edges().stream()
+                        .map(edge -> edge.sourceKey() + "->" + edge.targetKey())
+                        .toList(), ",");
         if (request.selectedNodeKey() != null) {
-            prompt.append(" Selected: ").append(request.selectedNodeKey()).append("[").append(request.selectedNodeType()).append("]");
+            prompt.fixed("Selected: " + request.selectedNodeKey() + "[" + request.selectedNodeType() + "]\n");
         }
-        
-        prompt.append("\nSuggest 2-3 next node types. Format:\n");
-        prompt.append("SUGGESTED_NODES:\n- INPUT: reason\n- HTTP: reason\n");
-        prompt.append("NEXT_STEPS:\n- Step\n");
-        
+        prompt.fixed(SUGGESTION_FORMAT);
         if (request.selectedNodeKey() != null) {
-            prompt.append("CODE_SUGGESTION:\nCode: [code]\n");
-        }
-        
-        // Limit prompt size to prevent timeouts
-        String promptStr = prompt.toString();
-        if (promptStr.length() > 500) {
-            LOGGER.warn("Prompt too long ({} chars), truncating", promptStr.length());
-            promptStr = promptStr.substring(0, 500) + "...";
+            prompt.fixed(CODE_SUGGESTION_FORMAT);
         }
-        
-        return promptStr;
+        return prompt.build();
     }
 
     private VisualEditorSuggestionResponse parseSuggestions(
@@ -324,10 +351,12 @@ public class VisualEditorAssistantService {
             case INPUT -> "Start";
             case OUTPUT -> "End";
             case HTTP -> "API Call";
+            case HTTP_BATCH -> "API Batch";
             case SCRIPT_JS -> "JavaScript";
             case SCRIPT_PY -> "Python";
             case OLLAMA -> "AI Analysis";
             case CHATGPT -> "ChatGPT";
+            case LLM -> "AI Router";
             case EMAIL -> "Send Email";
             case IF_ELSE -> "Condition";
             case NOTIFY -> "Notification";
@@ -347,6 +376,11 @@ public class VisualEditorAssistantService {
                 config.put("method", "GET");
                 config.put("url", "https://api.example.com/endpoint");
             }
+            case HTTP_BATCH -> {
+                config.put("items", "input::ids");
+                config.put("request", Map.of("method", "GET", "url", "https://api.example.com/items/{{item}}"));
+                config.put("parallelism", 4);
+            }
             case SCRIPT_JS -> {
                 config.put("script", "return { result: 'value' };");
             }
@@ -356,6 +390,11 @@ public class VisualEditorAssistantService {
             case OLLAMA, CHATGPT -> {
                 config.put("prompt", "Process the data: {{input}}");
             }
+            case LLM -> {
+                config.put("prompt", "Process the data: {{input}}");
+                config.put("providers", List.of("ollama:gemma3:1b", "openai:gpt-4o-mini"));
+                config.put("hedge", true);
+            }
             case EMAIL -> {
                 config.put("to", "user@example.com");
                 config.put("subject", "Workflow Result");
@@ -372,27 +411,41 @@ public class VisualEditorAssistantService {
     }
 
     /**
-     * Analyzes workflow and provides corrections and improvements
+     * Analyzes workflow and provides corrections and improvements. A graph analysed before (same
+     * {@link WorkflowAnalysisCache#fingerprint}) gets the cached analysis; analyses whose AI part
+     * fell back to the generic summary are not cached, so the next request tries the LLM again.
      */
     public WorkflowAnalysisResponse analyzeWorkflow(WorkflowAnalysisRequest request) {
         try {
+            String fingerprint = WorkflowAnalysisCache.fingerprint(request);
+            WorkflowAnalysisResponse cached = analysisCache.get(fingerprint);
+            if (cached != null) {
+                LOGGER.debug("Workflow graph unchanged, returning cached analysis");
+                return cached;
+            }
+            
             // First, perform structural analysis
-            List<WorkflowAnalysisResponse.WorkflowIssue> issues = analyzeWorkflowStructure(request);
-            List<WorkflowAnalysisResponse.FlowCorrection> corrections = generateCorrections(request, issues);
-            List<WorkflowAnalysisResponse.NodeSuggestion> missingNodes = suggestMissingNodes(request);
+            WorkflowGraph graph = WorkflowGraph.of(request);
+            List<WorkflowAnalysisResponse.WorkflowIssue> issues = graph.issues();
+            List<WorkflowAnalysisResponse.FlowCorrection> corrections = generateCorrections(graph, issues);
+            List<WorkflowAnalysisResponse.NodeSuggestion> missingNodes = suggestMissingNodes(graph);
             
             // Use AI for intelligent analysis
             String aiAnalysis = getAIAnalysis(request, issues);
             
             boolean isValid = issues.stream().noneMatch(i -> "ERROR".equals(i.severity()));
             
-            return new WorkflowAnalysisResponse(
+            WorkflowAnalysisResponse response = new WorkflowAnalysisResponse(
                 issues,
                 corrections,
                 missingNodes,
-                aiAnalysis,
+                aiAnalysis != null ? aiAnalysis : fallbackAnalysis(issues),
                 isValid
             );
+            if (aiAnalysis != null) {
+                analysisCache.put(fingerprint, response);
+            }
+            return response;
         } catch (Exception ex) {
             LOGGER.error("Error analyzing workflow", ex);
             return new WorkflowAnalysisResponse(
@@ -405,174 +458,8 @@ public class VisualEditorAssistantService {
         }
     }
 
-    private List<WorkflowAnalysisResponse.WorkflowIssue> analyzeWorkflowStructure(
-            WorkflowAnalysisRequest request) {
-        List<WorkflowAnalysisResponse.WorkflowIssue> issues = new ArrayList<>();
-        
-        Set<String> nodesWithIncomingEdges = request.edges().stream()
-            .map(WorkflowAnalysisRequest.EdgeInfo::targetKey)
-            .collect(Collectors.toSet());
-        
-        Set<String> nodesWithOutgoingEdges = request.edges().stream()
-            .map(WorkflowAnalysisRequest.EdgeInfo::sourceKey)
-            .collect(Collectors.toSet());
-        
-        // Check for missing INPUT node
-        boolean hasInput = request.nodes().stream()
-            .anyMatch(n -> n.type() == NodeType.INPUT);
-        if (!hasInput) {
-            issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                "MISSING_INPUT",
-                "ERROR",
-                "Workflow must start with an INPUT node",
-                null,
-                "Add an INPUT node as the entry point"
-            ));
-        }
-        
-        // Check for missing OUTPUT node
-        boolean hasOutput = request.nodes().stream()
-            .anyMatch(n -> n.type() == NodeType.OUTPUT);
-        if (!hasOutput && request.nodes().size() > 1) {
-            issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                "MISSING_OUTPUT",
-                "WARNING",
-                "Workflow should end with an OUTPUT node",
-                null,
-                "Add an OUTPUT node to complete the workflow"
-            ));
-        }
-        
-        // Check for orphaned nodes (nodes with no connections)
-        for (var node : request.nodes()) {
-            boolean hasIncoming = nodesWithIncomingEdges.contains(node.key());
-            boolean hasOutgoing = nodesWithOutgoingEdges.contains(node.key());
-            
-            if (!hasIncoming && !hasOutgoing && node.type() != NodeType.INPUT && node.type() != NodeType.OUTPUT) {
-                issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                    "ORPHANED_NODE",
-                    "WARNING",
-                    "Node '" + node.key() + "' is not connected to any other node",
-                    node.key(),
-                    "Connect this node to other nodes or remove it"
-                ));
-            }
-        }
-        
-        // Check for disconnected flows (nodes that can't be reached from INPUT)
-        if (hasInput) {
-            String inputNodeKey = request.nodes().stream()
-                .filter(n -> n.type() == NodeType.INPUT)
-                .findFirst()
-                .map(WorkflowAnalysisRequest.NodeInfo::key)
-                .orElse(null);
-            
-            if (inputNodeKey != null) {
-                Set<String> reachableNodes = findReachableNodes(inputNodeKey, request.edges());
-                for (var node : request.nodes()) {
-                    if (!reachableNodes.contains(node.key()) && node.type() != NodeType.INPUT) {
-                        issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                            "DISCONNECTED_FLOW",
-                            "ERROR",
-                            "Node '" + node.key() + "' cannot be reached from INPUT node",
-                            node.key(),
-                            "Add a connection path from INPUT to this node"
-                        ));
-                    }
-                }
-            }
-        }
-        
-        // Check for incomplete configurations
-        for (var node : request.nodes()) {
-            Map<String, Object> config = node.config() != null ? node.config() : new HashMap<>();
-            
-            if (node.type() == NodeType.HTTP) {
-                if (!config.containsKey("url") || config.get("url") == null || 
-                    String.valueOf(config.get("url")).trim().isEmpty()) {
-                    issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                        "INCOMPLETE_CONFIG",
-                        "ERROR",
-                        "HTTP node '" + node.key() + "' is missing URL configuration",
-                        node.key(),
-                        "Configure the URL for this HTTP node"
-                    ));
-                }
-            } else if (node.type() == NodeType.SCRIPT_JS || node.type() == NodeType.SCRIPT_PY) {
-                if (!config.containsKey("script") || config.get("script") == null ||
-                    String.valueOf(config.get("script")).trim().isEmpty()) {
-                    issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                        "INCOMPLETE_CONFIG",
-                        "WARNING",
-                        "Script node '" + node.key() + "' has no script code",
-                        node.key(),
-                        "Add script code to this node"
-                    ));
-                }
-            } else if (node.type() == NodeType.OLLAMA || node.type() == NodeType.CHATGPT) {
-                if (!config.containsKey("prompt") || config.get("prompt") == null ||
-                    String.valueOf(config.get("prompt")).trim().isEmpty()) {
-                    issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                        "INCOMPLETE_CONFIG",
-                        "ERROR",
-                        "AI node '" + node.key() + "' is missing prompt",
-                        node.key(),
-                        "Add a prompt for this AI node"
-                    ));
-                }
-            } else if (node.type() == NodeType.EMAIL) {
-                if (!config.containsKey("to") || config.get("to") == null) {
-                    issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                        "INCOMPLETE_CONFIG",
-                        "ERROR",
-                        "Email node '" + node.key() + "' is missing recipient (to)",
-                        node.key(),
-                        "Configure email recipient"
-                    ));
-                }
-            } else if (node.type() == NodeType.IF_ELSE) {
-                if (!config.containsKey("condition") || config.get("condition") == null ||
-                    String.valueOf(config.get("condition")).trim().isEmpty()) {
-                    issues.add(new WorkflowAnalysisResponse.WorkflowIssue(
-                        "INCOMPLETE_CONFIG",
-                        "ERROR",
-                        "IF_ELSE node '" + node.key() + "' is missing condition",
-                        node.key(),
-                        "Add a condition expression"
-                    ));
-                }
-            }
-        }
-        
-        return issues;
-    }
-
-    private Set<String> findReachableNodes(String startNode, List<WorkflowAnalysisRequest.EdgeInfo> edges) {
-        Set<String> reachable = new HashSet<>();
-        Set<String> visited = new HashSet<>();
-        List<String> queue = new ArrayList<>();
-        
-        queue.add(startNode);
-        reachable.add(startNode);
-        
-        while (!queue.isEmpty()) {
-            String current = queue.remove(0);
-            if (visited.contains(current)) continue;
-            visited.add(current);
-            
-            for (var edge : edges) {
-                if (edge.sourceKey().equals(current) && !reachable.contains(edge.targetKey())) {
-                    reachable.add(edge.targetKey());
-                    queue.add(edge.targetKey());
-                }
-            }
-        }
-        
-        return reachable;
-    }
-
     private List<WorkflowAnalysisResponse.FlowCorrection> generateCorrections(
-            WorkflowAnalysisRequest request,
+            WorkflowGraph graph,
             List<WorkflowAnalysisResponse.WorkflowIssue> issues) {
         List<WorkflowAnalysisResponse.FlowCorrection> corrections = new ArrayList<>();
         
@@ -596,8 +483,7 @@ public class VisualEditorAssistantService {
                     ));
                 }
                 case "MISSING_OUTPUT" -> {
-                    String lastNodeKey = request.nodes().isEmpty() ? null : 
-                        request.nodes().get(request.nodes().size() - 1).key();
+                    String lastNodeKey = graph.lastKey();
                     corrections.add(new WorkflowAnalysisResponse.FlowCorrection(
                         "ADD_NODE",
                         "Add OUTPUT node to complete workflow",
@@ -617,11 +503,7 @@ public class VisualEditorAssistantService {
                 case "ORPHANED_NODE" -> {
                     // Suggest connecting orphaned node
                     if (issue.nodeKey() != null) {
-                        String inputNodeKey = request.nodes().stream()
-                            .filter(n -> n.type() == NodeType.INPUT)
-                            .findFirst()
-                            .map(WorkflowAnalysisRequest.NodeInfo::key)
-                            .orElse(null);
+                        String inputNodeKey = graph.first(NodeType.INPUT);
                         
                         if (inputNodeKey != null) {
                             corrections.add(new WorkflowAnalysisResponse.FlowCorrection(
@@ -640,12 +522,27 @@ public class VisualEditorAssistantService {
                         }
                     }
                 }
+                case "DEAD_END" -> {
+                    String outputNodeKey = graph.first(NodeType.OUTPUT);
+                    if (issue.nodeKey() != null && outputNodeKey != null) {
+                        corrections.add(new WorkflowAnalysisResponse.FlowCorrection(
+                            "ADD_EDGE",
+                            "Connect dead-end node to OUTPUT",
+                            null,
+                            new WorkflowAnalysisResponse.EdgeSuggestion(
+                                issue.nodeKey(),
+                                outputNodeKey,
+                                null,
+                                "Let this branch finish at the OUTPUT node"
+                            ),
+                            null,
+                            null
+                        ));
+                    }
+                }
                 case "INCOMPLETE_CONFIG" -> {
                     if (issue.nodeKey() != null) {
-                        var node = request.nodes().stream()
-                            .filter(n -> n.key().equals(issue.nodeKey()))
-                            .findFirst()
-                            .orElse(null);
+                        var node = graph.node(issue.nodeKey());
                         
                         if (node != null) {
                             Map<String, Object> fixedConfig = fixNodeConfig(node.type(), node.config());
@@ -688,6 +585,14 @@ public class VisualEditorAssistantService {
                     fixed.put("method", "GET");
                 }
             }
+            case HTTP_BATCH -> {
+                if (!(fixed.get("requests") instanceof List<?>) && !(fixed.get("request") instanceof Map<?, ?>)) {
+                    fixed.put("request", Map.of("method", "GET", "url", "https://api.example.com/items/{{item}}"));
+                }
+                if (fixed.get("request") instanceof Map<?, ?> && !fixed.containsKey("items")) {
+                    fixed.put("items", "input::ids");
+                }
+            }
             case SCRIPT_JS -> {
                 if (!fixed.containsKey("script") || fixed.get("script") == null) {
                     fixed.put("script", "return { result: 'value' };");
@@ -703,6 +608,14 @@ public class VisualEditorAssistantService {
                     fixed.put("prompt", "Process the data: {{input}}");
                 }
             }
+            case LLM -> {
+                if (!fixed.containsKey("prompt") || fixed.get("prompt") == null) {
+                    fixed.put("prompt", "Process the data: {{input}}");
+                }
+                if (!(fixed.get("providers") instanceof List<?> providers) || providers.isEmpty()) {
+                    fixed.put("providers", List.of("ollama:gemma3:1b", "openai:gpt-4o-mini"));
+                }
+            }
             case EMAIL -> {
                 if (!fixed.containsKey("to")) {
                     fixed.put("to", List.of("user@example.com"));
@@ -729,14 +642,13 @@ public class VisualEditorAssistantService {
         return fixed;
     }
 
-    private List<WorkflowAnalysisResponse.NodeSuggestion> suggestMissingNodes(
-            WorkflowAnalysisRequest request) {
+    private List<WorkflowAnalysisResponse.NodeSuggestion> suggestMissingNodes(WorkflowGraph graph) {
         List<WorkflowAnalysisResponse.NodeSuggestion> suggestions = new ArrayList<>();
         
-        boolean hasInput = request.nodes().stream().anyMatch(n -> n.type() == NodeType.INPUT);
-        boolean hasOutput = request.nodes().stream().anyMatch(n -> n.type() == NodeType.OUTPUT);
-        boolean hasHttp = request.nodes().stream().anyMatch(n -> n.type() == NodeType.HTTP);
-        boolean hasAi = request.nodes().stream().anyMatch(n -> n.type() == NodeType.OLLAMA || n.type() == NodeType.CHATGPT);
+        boolean hasInput = graph.has(NodeType.INPUT);
+        boolean hasOutput = graph.has(NodeType.OUTPUT);
+        boolean hasHttp = graph.has(NodeType.HTTP);
+        boolean hasAi = graph.has(NodeType.OLLAMA) || graph.has(NodeType.CHATGPT);
         
         if (!hasInput) {
             suggestions.add(new WorkflowAnalysisResponse.NodeSuggestion(
@@ -750,11 +662,7 @@ public class VisualEditorAssistantService {
         }
         
         if (hasHttp && !hasAi) {
-            String httpNodeKey = request.nodes().stream()
-                .filter(n -> n.type() == NodeType.HTTP)
-                .findFirst()
-                .map(WorkflowAnalysisRequest.NodeInfo::key)
-                .orElse(null);
+            String httpNodeKey = graph.first(NodeType.HTTP);
             suggestions.add(new WorkflowAnalysisResponse.NodeSuggestion(
                 NodeType.OLLAMA,
                 "ai-analysis-node",
@@ -765,8 +673,8 @@ public class VisualEditorAssistantService {
             ));
         }
         
-        if (!hasOutput && request.nodes().size() > 1) {
-            String lastNodeKey = request.nodes().get(request.nodes().size() - 1).key();
+        if (!hasOutput && graph.size() > 1) {
+            String lastNodeKey = graph.lastKey();
             suggestions.add(new WorkflowAnalysisResponse.NodeSuggestion(
                 NodeType.OUTPUT,
                 "output-node",
@@ -780,42 +688,75 @@ public class VisualEditorAssistantService {
         return suggestions;
     }
 
+    /**
+     * Structural analysis of an editor graph kept on the server, updated with the editor's
+     * changes since the last call instead of being rebuilt, for feedback while typing. No LLM is
+     * involved; the summary is the plain issue count.
+     */
+    public WorkflowAnalysisDiffResponse analyzeWorkflowIncremental(WorkflowAnalysisDiffRequest diff) {
+        String graphId = diff.graphId();
+        WorkflowGraph graph;
+        if (graphId == null || graphId.isBlank()) {
+            graph = new WorkflowGraph();
+            graphId = analysisCache.register(graph);
+        } else {
+            graph = analysisCache.graph(graphId);
+            if (graph == null) {
+                LOGGER.debug("Editor graph {} no longer held, asking for a resync", graphId);
+                return new WorkflowAnalysisDiffResponse(graphId, true, null);
+            }
+        }
+        synchronized (graph) {
+            graph.describe(diff.workflowName(), diff.workflowDescription());
+            graph.apply(diff.upsertNodes(), diff.removedNodeKeys(), diff.addedEdges(), diff.removedEdges());
+            List<WorkflowAnalysisResponse.WorkflowIssue> issues = graph.issues();
+            boolean isValid = issues.stream().noneMatch(i -> "ERROR".equals(i.severity()));
+            return new WorkflowAnalysisDiffResponse(graphId, false, new WorkflowAnalysisResponse(
+                issues,
+                generateCorrections(graph, issues),
+                suggestMissingNodes(graph),
+                fallbackAnalysis(issues),
+                isValid
+            ));
+        }
+    }
+
+    /**
+     * AI assessment of the workflow, or {@code null} when the LLM failed or said nothing.
+     */
     private String getAIAnalysis(WorkflowAnalysisRequest request, 
                                  List<WorkflowAnalysisResponse.WorkflowIssue> issues) {
         try {
             // Skip AI for very large workflows
             if (request.nodes().size() > 50) {
-                return "Workflow analysis completed. " + issues.size() + " issue(s) found.";
-            }
-            
-            // Use concise prompt and limit tokens for faster response
-            StringBuilder prompt = new StringBuilder();
-            prompt.append("Workflow: ").append(request.workflowName() != null ? request.workflowName() : "Untitled");
-            prompt.append(" (").append(request.nodes().size()).append(" nodes)\n");
-            
-            if (!issues.isEmpty()) {
-                int errorCount = (int) issues.stream().filter(i -> "ERROR".equals(i.severity())).count();
-                int warningCount = issues.size() - errorCount;
-                prompt.append("Issues: ").append(errorCount).append(" errors, ").append(warningCount).append(" warnings\n");
-            }
-            
-            prompt.append("Brief assessment and 2-3 suggestions.\n");
-            
-            // Limit prompt size
-            String promptStr = prompt.toString();
-            if (promptStr.length() > 300) {
-                promptStr = promptStr.substring(0, 300);
+                return fallbackAnalysis(issues);
             }
             
-            // Use shorter token limit (200) for faster analysis
-            String aiResponse = ollamaClient.generateText(null, promptStr, 200);
-            return aiResponse != null && !aiResponse.trim().isEmpty() 
-                ? aiResponse 
-                : "Workflow analysis completed. " + issues.size() + " issue(s) found.";
+            String aiResponse = ollamaClient.generateText(null, buildAnalysisPrompt(request, issues, ANALYSIS_RESPONSE_TOKENS),
+                    ANALYSIS_RESPONSE_TOKENS, responseCache.assistantTtl(), LlmCaller.ASSISTANT);
+            return aiResponse != null && !aiResponse.trim().isEmpty() ? aiResponse : null;
         } catch (Exception ex) {
             LOGGER.warn("Error getting AI analysis, using fallback: {}", ex.getMessage());
-            return "Workflow analysis completed. " + issues.size() + " issue(s) found.";
+            return null;
+        }
+    }
+
+    private static String fallbackAnalysis(List<WorkflowAnalysisResponse.WorkflowIssue> issues) {
+        return "Workflow analysis completed. " + issues.size() + " issue(s) found.";
+    }
+
+    private String buildAnalysisPrompt(WorkflowAnalysisRequest request,
+                                       List<WorkflowAnalysisResponse.WorkflowIssue> issues, int maxTokens) {
+        PromptAssembler.Builder prompt = promptAssembler.prompt(null, maxTokens)
+                .limit(ANALYSIS_PROMPT_TOKENS)
+                .text("Workflow: ", request.workflowName() != null ? request.workflowName() : "Untitled")
+                .fixed("Nodes: " + request.nodes().size() + "\n");
+        if (!issues.isEmpty()) {
+            int errorCount = (int) issues.stream().filter(i -> "ERROR".equals(i.severity())).count();
+            int warningCount = issues.size() - errorCount;
+            prompt.fixed("Issues: " + errorCount + " errors, " + warningCount + " warnings\n");
         }
+        return prompt.fixed("Brief assessment and 2-3 suggestions.\n").build();
     }
 
     /**
@@ -848,8 +789,11 @@ public class VisualEditorAssistantService {
                 request.currentNodes() != null ? request.currentNodes().size() : 0,
                 request.currentEdges() != null ? request.currentEdges().size() : 0);
             
-            // Build comprehensive prompt for AI
-            String aiPrompt = buildWorkflowPrompt(request);
+            // A stored or example workflow matching the prompt answers it without the LLM
+            WorkflowPromptResponse fromTemplate = generateTemplateResponse(request);
+            if (fromTemplate != null) {
+                return fromTemplate;
+            }
             
             // Check if we can use fast fallback for simple requests
             if (canUseFastFallback(request)) {
@@ -863,17 +807,14 @@ public class VisualEditorAssistantService {
                 return generateIntelligentResponse(request);
             }
             
-            // Limit prompt size to prevent timeouts
-            if (aiPrompt.length() > 1000) {
-                LOGGER.warn("Prompt too long ({} chars), truncating", aiPrompt.length());
-                aiPrompt = aiPrompt.substring(0, 1000) + "...";
-            }
+            // Build a prompt sized to keep the call fast
+            String aiPrompt = buildWorkflowPrompt(request);
             
             // Get AI response with timeout handling and token limit for speed
             String aiResponse;
             try {
-                // Use shorter token limit (250) for faster response
-                aiResponse = ollamaClient.generateText(null, aiPrompt, 250);
+                aiResponse = ollamaClient.generateText(null, aiPrompt, WORKFLOW_RESPONSE_TOKENS,
+                        responseCache.assistantTtl(), LlmCaller.ASSISTANT);
                 if (aiResponse == null || aiResponse.trim().isEmpty()) {
                     LOGGER.warn("Empty AI response received");
                     return generateIntelligentResponse(request);
@@ -911,135 +852,55 @@ public class VisualEditorAssistantService {
     }
 
     private String buildWorkflowPrompt(WorkflowPromptRequest request) {
-        StringBuilder prompt = new StringBuilder();
-        
-        // Concise system prompt
-        prompt.append("FlowStack workflow assistant. Action: ").append(request.action()).append("\n");
-        prompt.append("User: ").append(request.prompt()).append("\n\n");
-        
-        // Only include essential workflow state (limit to 10 nodes max for speed)
+        PromptAssembler.Builder prompt = promptAssembler.prompt(null, WORKFLOW_RESPONSE_TOKENS)
+                .limit(WORKFLOW_PROMPT_TOKENS)
+                .fixed("FlowStack workflow assistant. Action: " + request.action() + "\n")
+                .text("User: ", request.prompt())
+                .fixed("\n");
+        // Essential workflow state, as much of it as the budget allows
         if (request.currentNodes() != null && !request.currentNodes().isEmpty()) {
-            int nodeCount = Math.min(request.currentNodes().size(), 10);
-            prompt.append("Current nodes (").append(nodeCount).append("): ");
-            for (int i = 0; i < nodeCount; i++) {
-                var node = request.currentNodes().get(i);
-                prompt.append(node.key()).append("[").append(node.type()).append("]");
-                if (i < nodeCount - 1) prompt.append(", ");
-            }
-            prompt.append("\n");
-            
-            if (request.currentEdges() != null && !request.currentEdges().isEmpty() && request.currentEdges().size() <= 10) {
-                prompt.append("Edges: ");
-                for (int i = 0; i < Math.min(request.currentEdges().size(), 10); i++) {
-                    var edge = request.currentEdges().get(i);
-                    prompt.append(edge.sourceKey()).append("->").append(edge.targetKey());
-                    if (i < Math.min(request.currentEdges().size(), 10) - 1) prompt.append(", ");
-                }
-                prompt.append("\n");
+            prompt.fixed("Current nodes (" + request.currentNodes().size() + "):\n")
+                    .list("", request.currentNodes().stream()
+                            .map(node -> node.key() + "[" + node.type() + "]")
+                            .toList(), ", ");
+            if (request.currentEdges() != null) {
+                prompt.list("Edges: ", request.currentEdges().stream()
+                        .map(edge -> edge.sourceKey() + "->" + edge.targetKey())
+                        .toList(), ", ");
             }
         }
-        
-        // Concise node types (only essential info)
-        prompt.append("Node types: INPUT, OUTPUT, HTTP(method,url), SCRIPT_JS(script), SCRIPT_PY(script), ");
-        prompt.append("OLLAMA(prompt), CHATGPT(prompt), EMAIL(to,subject,body), IF_ELSE(condition), NOTIFY(message)\n\n");
-        
+        prompt.fixed(WORKFLOW_NODE_TYPES);
         // Action-specific concise instructions
         switch (request.action()) {
-            case "CREATE" -> prompt.append("Create workflow: INPUT -> processing nodes -> OUTPUT. Connect all.\n");
-            case "EXTEND" -> prompt.append("Add nodes and connect to existing workflow.\n");
-            case "MODIFY" -> prompt.append("Update node configs. Preserve structure.\n");
-            case "CORRECT" -> prompt.append("Fix: add missing INPUT/OUTPUT, connect orphaned nodes, add configs.\n");
+            case "CREATE" -> prompt.fixed("Create workflow: INPUT -> processing nodes -> OUTPUT. Connect all.\n");
+            case "EXTEND" -> prompt.fixed("Add nodes and connect to existing workflow.\n");
+            case "MODIFY" -> prompt.fixed("Update node configs. Preserve structure.\n");
+            case "CORRECT" -> prompt.fixed("Fix: add missing INPUT/OUTPUT, connect orphaned nodes, add configs.\n");
         }
-        
-        // Concise response format
-        prompt.append("\nResponse format:\n");
-        prompt.append("EXPLANATION: [brief]\n");
-        prompt.append("NODES_TO_ADD:\n");
-        prompt.append("  - type: [TYPE] key: [key] displayName: [name] reason: [why] config: {fields} insertAfterNodeKey: [key?]\n");
-        prompt.append("EDGES_TO_ADD:\n");
-        prompt.append("  - sourceKey: [key] targetKey: [key] conditionExpression: [expr?] reason: [why]\n");
-        prompt.append("NODES_TO_MODIFY:\n");
-        prompt.append("  - nodeKey: [key] updatedConfig: {fields} reason: [why]\n");
-        prompt.append("NODES_TO_REMOVE:\n");
-        prompt.append("  - nodeKey: [key] reason: [why]\n");
-        prompt.append("NEXT_STEPS: [guidance]\n");
-        
-        return prompt.toString();
+        return prompt.fixed(WORKFLOW_RESPONSE_FORMAT).build();
     }
 
     private WorkflowPromptResponse parseWorkflowPromptResponse(
             String aiResponse, 
             WorkflowPromptRequest request) {
-        
-        List<WorkflowPromptResponse.NodeToAdd> nodesToAdd = new ArrayList<>();
-        List<WorkflowPromptResponse.EdgeToAdd> edgesToAdd = new ArrayList<>();
-        List<WorkflowPromptResponse.NodeToModify> nodesToModify = new ArrayList<>();
-        List<WorkflowPromptResponse.NodeToRemove> nodesToRemove = new ArrayList<>();
+        PromptResponseReader reader = new PromptResponseReader(node -> { }, edge -> { });
+        reader.accept(aiResponse);
+        return toPromptResponse(reader, request);
+    }
+
+    private WorkflowPromptResponse toPromptResponse(PromptResponseReader reader, WorkflowPromptRequest request) {
+        List<WorkflowPromptResponse.NodeToAdd> nodesToAdd = reader.nodesToAdd;
+        List<WorkflowPromptResponse.EdgeToAdd> edgesToAdd = reader.edgesToAdd;
+        List<WorkflowPromptResponse.NodeToModify> nodesToModify = reader.nodesToModify;
+        List<WorkflowPromptResponse.NodeToRemove> nodesToRemove = reader.nodesToRemove;
         String explanation = "";
         String nextSteps = "";
         WorkflowDefinitionRequest completeWorkflow = null;
         
         try {
-            // Parse the AI response
-            String[] lines = aiResponse.split("\n");
-            String currentSection = "";
-            Map<String, Object> currentItem = new HashMap<>();
-            
-            for (String line : lines) {
-                line = line.trim();
-                
-                if (line.startsWith("EXPLANATION:")) {
-                    explanation = line.substring("EXPLANATION:".length()).trim();
-                    currentSection = "";
-                    continue;
-                } else if (line.startsWith("NODES_TO_ADD:")) {
-                    currentSection = "nodes_to_add";
-                    continue;
-                } else if (line.startsWith("EDGES_TO_ADD:")) {
-                    currentSection = "edges_to_add";
-                    continue;
-                } else if (line.startsWith("NODES_TO_MODIFY:")) {
-                    currentSection = "nodes_to_modify";
-                    continue;
-                } else if (line.startsWith("NODES_TO_REMOVE:")) {
-                    currentSection = "nodes_to_remove";
-                    continue;
-                } else if (line.startsWith("NEXT_STEPS:")) {
-                    nextSteps = line.substring("NEXT_STEPS:".length()).trim();
-                    currentSection = "";
-                    continue;
-                } else if (line.startsWith("COMPLETE_WORKFLOW:")) {
-                    currentSection = "complete_workflow";
-                    continue;
-                }
-                
-                // Parse items
-                if (line.startsWith("-") || line.startsWith("  -")) {
-                    // Save previous item if exists
-                    if (!currentItem.isEmpty()) {
-                        saveParsedItem(currentSection, currentItem, nodesToAdd, edgesToAdd, 
-                            nodesToModify, nodesToRemove);
-                        currentItem = new HashMap<>();
-                    }
-                    continue;
-                }
-                
-                // Parse key-value pairs
-                if (line.contains(":")) {
-                    String[] parts = line.split(":", 2);
-                    if (parts.length == 2) {
-                        String key = parts[0].trim().replaceAll("^[-\\s]+", "");
-                        String value = parts[1].trim();
-                        currentItem.put(key, value);
-                    }
-                }
-            }
-            
-            // Save last item
-            if (!currentItem.isEmpty()) {
-                saveParsedItem(currentSection, currentItem, nodesToAdd, edgesToAdd, 
-                    nodesToModify, nodesToRemove);
-            }
+            reader.finish();
+            explanation = reader.explanation;
+            nextSteps = reader.nextSteps;
             
             // Generate explanation if missing
             if (explanation.isEmpty()) {
@@ -1073,6 +934,110 @@ public class VisualEditorAssistantService {
         );
     }
 
+    /**
+     * Reads a response in {@link #WORKFLOW_RESPONSE_FORMAT} as it arrives, line by line. An item is
+     * saved when the next one starts (or at {@link #finish()}); nodes and edges to add are also
+     * handed to the listeners then, so a stream can show them before the model has finished.
+     */
+    private final class PromptResponseReader {
+
+        private final List<WorkflowPromptResponse.NodeToAdd> nodesToAdd = new ArrayList<>();
+        private final List<WorkflowPromptResponse.EdgeToAdd> edgesToAdd = new ArrayList<>();
+        private final List<WorkflowPromptResponse.NodeToModify> nodesToModify = new ArrayList<>();
+        private final List<WorkflowPromptResponse.NodeToRemove> nodesToRemove = new ArrayList<>();
+        private final Consumer<WorkflowPromptResponse.NodeToAdd> onNode;
+        private final Consumer<WorkflowPromptResponse.EdgeToAdd> onEdge;
+        private final StringBuilder partialLine = new StringBuilder();
+        private String explanation = "";
+        private String nextSteps = "";
+        private String currentSection = "";
+        private Map<String, Object> currentItem = new HashMap<>();
+
+        private PromptResponseReader(Consumer<WorkflowPromptResponse.NodeToAdd> onNode,
+                                     Consumer<WorkflowPromptResponse.EdgeToAdd> onEdge) {
+            this.onNode = onNode;
+            this.onEdge = onEdge;
+        }
+
+        void accept(String chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                char next = chunk.charAt(i);
+                if (next == '\n') {
+                    line(partialLine.toString());
+                    partialLine.setLength(0);
+                } else {
+                    partialLine.append(next);
+                }
+            }
+        }
+
+        void finish() {
+            if (!partialLine.isEmpty()) {
+                line(partialLine.toString());
+                partialLine.setLength(0);
+            }
+            saveItem();
+        }
+
+        private void line(String line) {
+            line = line.trim();
+            
+            if (line.startsWith("EXPLANATION:")) {
+                explanation = line.substring("EXPLANATION:".length()).trim();
+                currentSection = "";
+                return;
+            } else if (line.startsWith("NODES_TO_ADD:")) {
+                currentSection = "nodes_to_add";
+                return;
+            } else if (line.startsWith("EDGES_TO_ADD:")) {
+                currentSection = "edges_to_add";
+                return;
+            } else if (line.startsWith("NODES_TO_MODIFY:")) {
+                currentSection = "nodes_to_modify";
+                return;
+            } else if (line.startsWith("NODES_TO_REMOVE:")) {
+                currentSection = "nodes_to_remove";
+                return;
+            } else if (line.startsWith("NEXT_STEPS:")) {
+                nextSteps = line.substring("NEXT_STEPS:".length()).trim();
+                currentSection = "";
+                return;
+            } else if (line.startsWith("COMPLETE_WORKFLOW:")) {
+                currentSection = "complete_workflow";
+                return;
+            }
+            
+            // Parse items
+            if (line.startsWith("-") || line.startsWith("  -")) {
+                // Save previous item if exists
+                saveItem();
+                return;
+            }
+            
+            // Parse key-value pairs
+            if (line.contains(":")) {
+                String[] parts = line.split(":", 2);
+                if (parts.length == 2) {
+                    String key = parts[0].trim().replaceAll("^[-\\s]+", "");
+                    String value = parts[1].trim();
+                    currentItem.put(key, value);
+                }
+            }
+        }
+
+        private void saveItem() {
+            if (currentItem.isEmpty()) {
+                return;
+            }
+            int nodes = nodesToAdd.size();
+            int edges = edgesToAdd.size();
+            saveParsedItem(currentSection, currentItem, nodesToAdd, edgesToAdd, nodesToModify, nodesToRemove);
+            currentItem = new HashMap<>();
+            nodesToAdd.subList(nodes, nodesToAdd.size()).forEach(onNode);
+            edgesToAdd.subList(edges, edgesToAdd.size()).forEach(onEdge);
+        }
+    }
+
     private void saveParsedItem(
             String section,
             Map<String, Object> item,
@@ -1335,6 +1300,76 @@ public class VisualEditorAssistantService {
         );
     }
 
+    /**
+     * Answers CREATE prompts with the whole of a matching template, and EXTEND prompts with the
+     * template's nodes that match the prompt, chained after the last node. {@code null} when no
+     * template matches confidently or the action needs the current graph reasoned about.
+     */
+    private WorkflowPromptResponse generateTemplateResponse(WorkflowPromptRequest request) {
+        boolean empty = request.currentNodes() == null || request.currentNodes().isEmpty();
+        boolean create = "CREATE".equals(request.action()) || (empty && "EXTEND".equals(request.action()));
+        if (!create && !"EXTEND".equals(request.action())) {
+            return null;
+        }
+        var match = templateService.match(request.prompt(), LlmCaller.ASSISTANT).orElse(null);
+        if (match == null) {
+            return null;
+        }
+        WorkflowDefinitionRequest template = match.template().workflow();
+        List<WorkflowPromptResponse.NodeToAdd> nodesToAdd = new ArrayList<>();
+        List<WorkflowPromptResponse.EdgeToAdd> edgesToAdd = new ArrayList<>();
+        WorkflowDefinitionRequest completeWorkflow = null;
+        if (create) {
+            String previous = null;
+            for (WorkflowNodeRequest node : template.nodes()) {
+                nodesToAdd.add(new WorkflowPromptResponse.NodeToAdd(node.type(), node.key(), node.displayName(),
+                    "From workflow '" + template.name() + "'", node.config(), previous));
+                previous = node.key();
+            }
+            if (template.edges() != null) {
+                for (WorkflowEdgeRequest edge : template.edges()) {
+                    edgesToAdd.add(new WorkflowPromptResponse.EdgeToAdd(edge.sourceKey(), edge.targetKey(),
+                        edge.conditionExpression(), "From workflow '" + template.name() + "'"));
+                }
+            }
+            completeWorkflow = WorkflowTemplateService.copyOf(match, request.workflowName());
+        } else {
+            Set<String> existing = request.currentNodes().stream()
+                .map(WorkflowPromptRequest.NodeInfo::key)
+                .collect(Collectors.toSet());
+            String previous = request.currentNodes().get(request.currentNodes().size() - 1).key();
+            for (WorkflowNodeRequest node : WorkflowTemplateIndex.matchingNodes(template, request.prompt())) {
+                if (nodesToAdd.size() == 3) {
+                    break;
+                }
+                if (node.type() == NodeType.INPUT || node.type() == NodeType.OUTPUT || existing.contains(node.key())) {
+                    continue;
+                }
+                nodesToAdd.add(new WorkflowPromptResponse.NodeToAdd(node.type(), node.key(), node.displayName(),
+                    "Matches your request; taken from workflow '" + template.name() + "'", node.config(), previous));
+                edgesToAdd.add(new WorkflowPromptResponse.EdgeToAdd(previous, node.key(), null,
+                    "Run after " + previous));
+                previous = node.key();
+            }
+            if (nodesToAdd.isEmpty()) {
+                return null;
+            }
+        }
+        LOGGER.info("Answered {} prompt from template {} without the LLM", request.action(), match.template().source());
+        List<WorkflowPromptResponse.NodeToModify> nodesToModify = new ArrayList<>();
+        List<WorkflowPromptResponse.NodeToRemove> nodesToRemove = new ArrayList<>();
+        return new WorkflowPromptResponse(
+            "Found a matching workflow, '" + template.name() + "'.\n\n"
+                + generateExplanation(request, nodesToAdd, edgesToAdd, nodesToModify, nodesToRemove),
+            nodesToAdd,
+            edgesToAdd,
+            nodesToModify,
+            nodesToRemove,
+            completeWorkflow,
+            generateNextSteps(request, nodesToAdd, edgesToAdd, nodesToModify, nodesToRemove)
+        );
+    }
+
     private WorkflowPromptResponse generateFallbackPromptResponse(
             WorkflowPromptRequest request, 
             String errorMessage) {
@@ -1388,15 +1423,16 @@ public class VisualEditorAssistantService {
             LOGGER.debug("Streaming AI suggestions for workflow with {} nodes", request.nodes().size());
 
             StringBuilder fullResponse = new StringBuilder();
-            ollamaClient.generateTextStream(null, prompt, 150)
+            Disposable.Swap subscription = SseStreams.cancelOnClose(emitter);
+            subscription.update(ollamaClient.generateTextStream(null, prompt, SUGGESTION_RESPONSE_TOKENS, LlmCaller.ASSISTANT)
                 .subscribe(
                     chunk -> {
                         try {
                             fullResponse.append(chunk);
                             emitter.send(SseEmitter.event().name("chunk").data(chunk));
                         } catch (IOException e) {
-                            LOGGER.error("Error sending chunk", e);
-                            emitter.completeWithError(e);
+                            LOGGER.debug("Client disconnected during streaming: {}", e.getMessage());
+                            subscription.dispose(); // Stop generating for nobody
                         }
                     },
                     error -> {
@@ -1439,7 +1475,7 @@ public class VisualEditorAssistantService {
                             }
                         }
                     }
-                );
+                ));
         } catch (Exception ex) {
             LOGGER.error("Error in getSuggestionsStream", ex);
             try {
@@ -1460,31 +1496,27 @@ public class VisualEditorAssistantService {
         try {
             LOGGER.debug("Streaming workflow analysis");
 
+            String fingerprint = WorkflowAnalysisCache.fingerprint(request);
+            WorkflowAnalysisResponse cached = analysisCache.get(fingerprint);
+            if (cached != null) {
+                LOGGER.debug("Workflow graph unchanged, returning cached analysis");
+                emitter.send(SseEmitter.event().name("complete").data(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(cached)));
+                emitter.complete();
+                return;
+            }
+
             // First, perform structural analysis (non-streaming)
-            List<WorkflowAnalysisResponse.WorkflowIssue> issues = analyzeWorkflowStructure(request);
-            List<WorkflowAnalysisResponse.FlowCorrection> corrections = generateCorrections(request, issues);
-            List<WorkflowAnalysisResponse.NodeSuggestion> missingNodes = suggestMissingNodes(request);
+            WorkflowGraph graph = WorkflowGraph.of(request);
+            List<WorkflowAnalysisResponse.WorkflowIssue> issues = graph.issues();
+            List<WorkflowAnalysisResponse.FlowCorrection> corrections = generateCorrections(graph, issues);
+            List<WorkflowAnalysisResponse.NodeSuggestion> missingNodes = suggestMissingNodes(graph);
 
             // Stream the AI analysis explanation
-            StringBuilder promptBuilder = new StringBuilder();
-            promptBuilder.append("Workflow: ").append(request.workflowName() != null ? request.workflowName() : "Untitled");
-            promptBuilder.append(" (").append(request.nodes().size()).append(" nodes)\n");
-            
-            if (!issues.isEmpty()) {
-                int errorCount = (int) issues.stream().filter(i -> "ERROR".equals(i.severity())).count();
-                int warningCount = issues.size() - errorCount;
-                promptBuilder.append("Issues: ").append(errorCount).append(" errors, ").append(warningCount).append(" warnings\n");
-            }
-            
-            promptBuilder.append("Brief assessment and 2-3 suggestions.\n");
-            
-            String aiPrompt = promptBuilder.toString();
-            if (aiPrompt.length() > 300) {
-                aiPrompt = aiPrompt.substring(0, 300);
-            }
+            String aiPrompt = buildAnalysisPrompt(request, issues, ANALYSIS_STREAM_RESPONSE_TOKENS);
             StringBuilder fullResponse = new StringBuilder();
             
-            ollamaClient.generateTextStream(null, aiPrompt, 250)
+            Disposable.Swap subscription = SseStreams.cancelOnClose(emitter);
+            subscription.update(ollamaClient.generateTextStream(null, aiPrompt, ANALYSIS_STREAM_RESPONSE_TOKENS, LlmCaller.ASSISTANT)
                 .subscribe(
                     chunk -> {
                         try {
@@ -1493,7 +1525,7 @@ public class VisualEditorAssistantService {
                         } catch (IOException e) {
                             // Client disconnected - this is normal, just stop sending
                             LOGGER.debug("Client disconnected during streaming: {}", e.getMessage());
-                            return; // Exit subscription gracefully
+                            subscription.dispose(); // Stop generating for nobody
                         } catch (Exception e) {
                             LOGGER.warn("Error sending chunk: {}", e.getMessage());
                             // Don't complete with error for non-IO exceptions, just log
@@ -1502,7 +1534,7 @@ public class VisualEditorAssistantService {
                     error -> {
                         LOGGER.warn("AI analysis failed, using fallback: {}", error.getMessage());
                         try {
-                            String fallbackAnalysis = "Workflow analysis completed. " + issues.size() + " issue(s) found.";
+                            String fallbackAnalysis = fallbackAnalysis(issues);
                             boolean isValid = issues.stream().noneMatch(i -> "ERROR".equals(i.severity()));
                             WorkflowAnalysisResponse fallback = new WorkflowAnalysisResponse(
                                 issues, corrections, missingNodes, fallbackAnalysis, isValid
@@ -1518,14 +1550,16 @@ public class VisualEditorAssistantService {
                     () -> {
                         try {
                             String aiResponse = fullResponse.toString();
-                            String aiAnalysis = (aiResponse != null && !aiResponse.trim().isEmpty()) 
-                                ? aiResponse 
-                                : "Workflow analysis completed. " + issues.size() + " issue(s) found.";
+                            boolean answered = !aiResponse.trim().isEmpty();
+                            String aiAnalysis = answered ? aiResponse : fallbackAnalysis(issues);
                             
                             boolean isValid = issues.stream().noneMatch(i -> "ERROR".equals(i.severity()));
                             WorkflowAnalysisResponse response = new WorkflowAnalysisResponse(
                                 issues, corrections, missingNodes, aiAnalysis, isValid
                             );
+                            if (answered) {
+                                analysisCache.put(fingerprint, response);
+                            }
                             
                             try {
                                 emitter.send(SseEmitter.event().name("complete").data(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(response)));
@@ -1545,7 +1579,7 @@ public class VisualEditorAssistantService {
                             }
                         }
                     }
-                );
+                ));
         } catch (Exception ex) {
             LOGGER.error("Error in analyzeWorkflowStream", ex);
             try {
@@ -1564,6 +1598,13 @@ public class VisualEditorAssistantService {
      */
     public void processWorkflowPromptStream(WorkflowPromptRequest request, SseEmitter emitter) {
         try {
+            WorkflowPromptResponse fromTemplate = generateTemplateResponse(request);
+            if (fromTemplate != null) {
+                emitter.send(SseEmitter.event().name("complete").data(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(fromTemplate)));
+                emitter.complete();
+                return;
+            }
+
             if (canUseFastFallback(request)) {
                 LOGGER.debug("Using fast fallback for prompt processing");
                 WorkflowPromptResponse fallback = generateIntelligentResponse(request);
@@ -1575,17 +1616,23 @@ public class VisualEditorAssistantService {
             String aiPrompt = buildWorkflowPrompt(request);
             LOGGER.debug("Streaming workflow prompt processing");
 
-            StringBuilder fullResponse = new StringBuilder();
-            ollamaClient.generateTextStream(null, aiPrompt, 250)
+            // Nodes and edges go out as soon as their item is complete, ahead of the final response
+            List<SseEmitter.SseEventBuilder> parsed = new ArrayList<>();
+            PromptResponseReader reader = new PromptResponseReader(
+                    node -> parsed.add(SseEmitter.event().name("node").data(node, MediaType.APPLICATION_JSON)),
+                    edge -> parsed.add(SseEmitter.event().name("edge").data(edge, MediaType.APPLICATION_JSON)));
+            Disposable.Swap subscription = SseStreams.cancelOnClose(emitter);
+            subscription.update(ollamaClient.generateTextStream(null, aiPrompt, WORKFLOW_RESPONSE_TOKENS, LlmCaller.ASSISTANT)
                 .subscribe(
                     chunk -> {
                         try {
-                            fullResponse.append(chunk);
                             emitter.send(SseEmitter.event().name("chunk").data(chunk));
+                            reader.accept(chunk);
+                            SseStreams.sendAll(emitter, parsed);
                         } catch (IOException e) {
                             // Client disconnected - this is normal, just stop sending
                             LOGGER.debug("Client disconnected during streaming: {}", e.getMessage());
-                            return; // Exit subscription gracefully
+                            subscription.dispose(); // Stop generating for nobody
                         } catch (Exception e) {
                             LOGGER.warn("Error sending chunk: {}", e.getMessage());
                             // Don't complete with error for non-IO exceptions, just log
@@ -1605,8 +1652,7 @@ public class VisualEditorAssistantService {
                     },
                     () -> {
                         try {
-                            String aiResponse = fullResponse.toString();
-                            WorkflowPromptResponse response = parseWorkflowPromptResponse(aiResponse, request);
+                            WorkflowPromptResponse response = toPromptResponse(reader, request);
                             
                             if (response.nodesToAdd().isEmpty() && 
                                 response.edgesToAdd().isEmpty() && 
@@ -1617,6 +1663,7 @@ public class VisualEditorAssistantService {
                             }
                             
                             try {
+                                SseStreams.sendAll(emitter, parsed);
                                 emitter.send(SseEmitter.event().name("complete").data(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(response)));
                                 emitter.complete();
                             } catch (IOException e) {
@@ -1634,7 +1681,7 @@ public class VisualEditorAssistantService {
                             }
                         }
                     }
-                );
+                ));
         } catch (Exception ex) {
             LOGGER.error("Error in processWorkflowPromptStream", ex);
             try {
@@ -1648,4 +1695,3 @@ public class VisualEditorAssistantService {
         }
     }
 }
-
@@ -0,0 +1,29 @@
+package com.ankush.workflowEngine.service;
+
+import com.ankush.workflowEngine.dto.WorkflowDefinitionResponse;
+
+/**
+ * Event published when a workflow definition is created, updated or deleted; listeners act on it
+ * after the transaction commits. {@code definition} is {@code null} for a deletion.
+ */
+public class WorkflowDefinitionChangedEvent {
+    private final Long workflowId;
+    private final WorkflowDefinitionResponse definition;
+
+    public WorkflowDefinitionChangedEvent(Long workflowId, WorkflowDefinitionResponse definition) {
+        this.workflowId = workflowId;
+        this.definition = definition;
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public WorkflowDefinitionResponse getDefinition() {
+        return definition;
+    }
+
+    public boolean isDeleted() {
+        return definition == null;
+    }
+}
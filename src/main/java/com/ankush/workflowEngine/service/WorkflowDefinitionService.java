@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,6 +46,7 @@ public class WorkflowDefinitionService {
     private final WorkflowNodeRunRepository nodeRunRepository;
     private final WorkflowMapper mapper;
     private final WorkflowValidationService validationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public WorkflowDefinitionService(
             WorkflowDefinitionRepository definitionRepository,
@@ -53,7 +55,8 @@ public class WorkflowDefinitionService {
             WorkflowRunRepository runRepository,
             WorkflowNodeRunRepository nodeRunRepository,
             WorkflowMapper mapper,
-            WorkflowValidationService validationService) {
+            WorkflowValidationService validationService,
+            ApplicationEventPublisher eventPublisher) {
         this.definitionRepository = definitionRepository;
         this.nodeRepository = nodeRepository;
         this.edgeRepository = edgeRepository;
@@ -61,6 +64,7 @@ public class WorkflowDefinitionService {
         this.nodeRunRepository = nodeRunRepository;
         this.mapper = mapper;
         this.validationService = validationService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -148,7 +152,9 @@ public class WorkflowDefinitionService {
         // (especially important for updates where we cleared nodes/edges)
         definition = definitionRepository.save(definition);
         definition.getNodes().sort(Comparator.comparingInt(WorkflowNode::getSortOrder));
-        return mapper.toResponse(definition);
+        WorkflowDefinitionResponse response = mapper.toResponse(definition);
+        eventPublisher.publishEvent(new WorkflowDefinitionChangedEvent(response.id(), response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -257,7 +263,9 @@ public class WorkflowDefinitionService {
             definition = definitionRepository.save(definition);
             definition.getNodes().sort(Comparator.comparingInt(WorkflowNode::getSortOrder));
             
-            return mapper.toResponse(definition);
+            WorkflowDefinitionResponse response = mapper.toResponse(definition);
+            eventPublisher.publishEvent(new WorkflowDefinitionChangedEvent(response.id(), response));
+            return response;
         } finally {
             MDC.remove("workflowId");
         }
@@ -291,6 +299,7 @@ public class WorkflowDefinitionService {
             
             // Delete the workflow (cascade will handle nodes and edges)
             definitionRepository.delete(definition);
+            eventPublisher.publishEvent(new WorkflowDefinitionChangedEvent(id, null));
         } finally {
             MDC.remove("workflowId");
         }
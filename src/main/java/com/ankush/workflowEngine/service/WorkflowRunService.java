@@ -9,6 +9,7 @@ import com.ankush.workflowEngine.mapper.WorkflowMapper;
 import com.ankush.workflowEngine.repository.WorkflowRunRepository;
 import com.ankush.workflowEngine.execution.WorkflowRunCreatedEvent;
 import com.ankush.workflowEngine.support.ErrorMessageFormatter;
+import com.ankush.workflowEngine.support.RunEventBroadcaster;
 import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,7 @@ import org.slf4j.MDC;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class WorkflowRunService {
@@ -25,16 +27,19 @@ public class WorkflowRunService {
     private final WorkflowRunRepository runRepository;
     private final WorkflowMapper mapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final RunEventBroadcaster runEvents;
 
     public WorkflowRunService(
             WorkflowDefinitionService definitionService,
             WorkflowRunRepository runRepository,
             WorkflowMapper mapper,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            RunEventBroadcaster runEvents) {
         this.definitionService = definitionService;
         this.runRepository = runRepository;
         this.mapper = mapper;
         this.eventPublisher = eventPublisher;
+        this.runEvents = runEvents;
     }
 
     @Transactional
@@ -53,7 +58,7 @@ public class WorkflowRunService {
             MDC.put("runId", String.valueOf(run.getId()));
             
             // Publish event to execute workflow after transaction commits
-            eventPublisher.publishEvent(new WorkflowRunCreatedEvent(run.getId()));
+            eventPublisher.publishEvent(new WorkflowRunCreatedEvent(run.getId(), definition.getId()));
             
             return mapper.toResponse(run);
         } finally {
@@ -78,6 +83,24 @@ public class WorkflowRunService {
         }
     }
 
+    /**
+     * Live events of a run (streamed LLM tokens, finished nodes, final status). The run is checked
+     * after subscribing, so a run that already finished, or finishes meanwhile, still closes the stream.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(Long runId) {
+        Long safeId = Objects.requireNonNull(runId, ErrorMessageFormatter.workflowRunIdRequired());
+        if (!runRepository.existsById(safeId)) {
+            throw new EntityNotFoundException(ErrorMessageFormatter.workflowRunNotFound(runId));
+        }
+        SseEmitter emitter = runEvents.subscribe(safeId);
+        runRepository.findById(safeId)
+                .map(WorkflowRun::getStatus)
+                .filter(status -> status == RunStatus.COMPLETED || status == RunStatus.FAILED)
+                .ifPresent(status -> runEvents.runFinished(safeId, status));
+        return emitter;
+    }
+
     @Transactional(readOnly = true)
     public List<WorkflowRunResponse> listRuns() {
         // Use JOIN FETCH to avoid N+1 queries when accessing workflowDefinition for each run
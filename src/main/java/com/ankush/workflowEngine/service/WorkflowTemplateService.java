@@ -0,0 +1,170 @@
+package com.ankush.workflowEngine.service;
+
+import com.ankush.workflowEngine.config.TemplateIndexProperties;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionResponse;
+import com.ankush.workflowEngine.dto.WorkflowEdgeRequest;
+import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.support.WorkflowTemplateIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps a {@link WorkflowTemplateIndex} of the stored workflows and the example workflows shipped
+ * in {@code docs/}, so prompts that describe an existing workflow are answered from it instead of
+ * an LLM call. Everything is indexed once the application is ready; afterwards each create,
+ * update or delete re-indexes just that workflow once its transaction commits.
+ */
+@Service
+public class WorkflowTemplateService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowTemplateService.class);
+    private static final String WORKFLOW_SOURCE = "workflow:";
+    private static final String EXAMPLE_SOURCE = "example:";
+
+    private final WorkflowTemplateIndex index = new WorkflowTemplateIndex();
+    private final TemplateIndexProperties properties;
+    private final WorkflowDefinitionService definitionService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public WorkflowTemplateService(TemplateIndexProperties properties, WorkflowDefinitionService definitionService,
+                                   ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.definitionService = definitionService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexAll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        indexExamples();
+        try {
+            definitionService.listDefinitions().forEach(this::index);
+        } catch (RuntimeException ex) {
+            LOGGER.warn("[FlowStack] Could not index stored workflows: {}", ex.getMessage());
+        }
+        LOGGER.info("[FlowStack] Workflow template index ready with {} template(s)", index.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleDefinitionChanged(WorkflowDefinitionChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (event.isDeleted()) {
+            index.remove(WORKFLOW_SOURCE + event.getWorkflowId());
+        } else {
+            index(event.getDefinition());
+        }
+    }
+
+    /**
+     * The best template for {@code prompt} when it is a confident match; empty means the caller
+     * should ask the LLM.
+     */
+    public Optional<WorkflowTemplateIndex.Match> match(String prompt, LlmCaller caller) {
+        if (!properties.isEnabled() || prompt == null || prompt.isBlank()) {
+            return Optional.empty();
+        }
+        List<WorkflowTemplateIndex.Match> ranked = index.search(prompt, 2);
+        Optional<WorkflowTemplateIndex.Match> match = ranked.stream()
+                .findFirst()
+                .filter(best -> best.confidence() >= properties.getMinConfidence()
+                        && best.matchedTerms() >= properties.getMinMatchedTerms()
+                        && (ranked.size() < 2 || best.score() >= properties.getMinMargin() * ranked.get(1).score()));
+        meterRegistry.counter("flowstack.assistant.templates.lookups",
+                "caller", caller.tag(), "result", match.isPresent() ? "hit" : "miss").increment();
+        match.ifPresent(best -> LOGGER.debug("[FlowStack] Prompt matched template {} (confidence {})",
+                best.template().source(), String.format("%.2f", best.confidence())));
+        return match;
+    }
+
+    /**
+     * The matched workflow, named {@code name} when given. A stored workflow otherwise gets a
+     * {@code -copy} suffix, since saving under its own name would replace it. Credentials in
+     * node configs were stripped when the template was indexed; they are stripped again here in
+     * case the match came from elsewhere.
+     */
+    public static WorkflowDefinitionRequest copyOf(WorkflowTemplateIndex.Match match, String name) {
+        WorkflowDefinitionRequest template = WorkflowTemplateIndex.withoutSecrets(match.template().workflow());
+        if (name == null || name.isBlank()) {
+            name = match.template().source().startsWith(WORKFLOW_SOURCE) ? template.name() + "-copy" : template.name();
+        }
+        return new WorkflowDefinitionRequest(name, template.description(), null, template.nodes(), template.edges());
+    }
+
+    private void index(WorkflowDefinitionResponse definition) {
+        List<WorkflowNodeRequest> nodes = definition.nodes().stream()
+                .map(node -> new WorkflowNodeRequest(node.key(), node.displayName(), node.type(), node.sortOrder(),
+                        node.config(), null))
+                .toList();
+        List<WorkflowEdgeRequest> edges = definition.edges().stream()
+                .map(edge -> new WorkflowEdgeRequest(edge.sourceKey(), edge.targetKey(), edge.conditionExpression(),
+                        null))
+                .toList();
+        index.put(new WorkflowTemplateIndex.Template(WORKFLOW_SOURCE + definition.id(),
+                new WorkflowDefinitionRequest(definition.name(), definition.description(), null, nodes, edges)));
+    }
+
+    /**
+     * Example workflows: JSON files holding a workflow, and curl scripts posting one with
+     * {@code --data-raw}. Examples of the same name are indexed once.
+     */
+    private void indexExamples() {
+        Path dir = Path.of(properties.getExamplesDir());
+        if (!Files.isDirectory(dir)) {
+            LOGGER.debug("[FlowStack] No example workflows at {}", dir.toAbsolutePath());
+            return;
+        }
+        index.removeAll(EXAMPLE_SOURCE);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.sorted().forEach(this::indexExample);
+        } catch (IOException ex) {
+            LOGGER.warn("[FlowStack] Could not list example workflows in {}: {}", dir, ex.getMessage());
+        }
+    }
+
+    private void indexExample(Path file) {
+        String fileName = file.getFileName().toString();
+        boolean json = fileName.endsWith(".json");
+        if (!json && !fileName.endsWith(".txt") && !fileName.endsWith(".sh")) {
+            return;
+        }
+        try {
+            String content = Files.readString(file);
+            if (!json) {
+                int body = content.indexOf("--data-raw");
+                int start = body >= 0 ? content.indexOf('{', body) : -1;
+                int end = content.lastIndexOf('}');
+                if (start < 0 || end < start) {
+                    return;
+                }
+                content = content.substring(start, end + 1);
+            }
+            WorkflowDefinitionRequest workflow = objectMapper.readValue(content, WorkflowDefinitionRequest.class);
+            if (workflow.name() != null && workflow.nodes() != null && !workflow.nodes().isEmpty()) {
+                index.put(new WorkflowTemplateIndex.Template(EXAMPLE_SOURCE + workflow.name(), workflow));
+            }
+        } catch (IOException ex) {
+            LOGGER.debug("[FlowStack] Skipping example {}: {}", fileName, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.AssistantExecutorProperties;
+import com.ankush.workflowEngine.exception.AssistantUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Runs blocking assistant calls on the {@code assistantExecutor} pool and hands the servlet thread
+ * back at once, so a slow LLM never holds the threads that serve the workflow API. Each endpoint
+ * is capped at its share of the pool; a request over its endpoint's cap, or arriving when every
+ * thread is busy, fails fast with {@link AssistantUnavailableException} instead of queueing behind
+ * calls that may take minutes. A call still running when its request times out cannot be stopped:
+ * it is counted as abandoned ({@code flowstack.assistant.abandoned}) and keeps its thread and its
+ * endpoint's slot until it returns, so the limits reflect the work actually in flight.
+ */
+@Component
+public class AssistantDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssistantDispatcher.class);
+    private static final long RETRY_AFTER_SECONDS = 5;
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int ABANDONED = 2;
+    private static final int DONE = 3;
+
+    private final Executor executor;
+    private final AssistantExecutorProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public AssistantDispatcher(@Qualifier("assistantExecutor") Executor executor,
+                               AssistantExecutorProperties properties, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code call} for {@code endpoint} off the request thread. Throws
+     * {@link AssistantUnavailableException} right away when the endpoint or the pool is saturated.
+     */
+    public <T> DeferredResult<T> dispatch(String endpoint, Supplier<T> call) {
+        return submit(endpoint, call).result;
+    }
+
+    /**
+     * {@link #dispatch}, returning the call itself so its timeout can be driven without a servlet
+     * container.
+     */
+    <T> Dispatch<T> submit(String endpoint, Supplier<T> call) {
+        Limit limit = limits.computeIfAbsent(endpoint, this::newLimit);
+        if (!limit.permits.tryAcquire()) {
+            int abandoned = limit.abandoned.get();
+            throw reject(endpoint, "endpoint-limit", "Too many " + endpoint + " requests in progress"
+                    + (abandoned > 0 ? " (" + abandoned + " still running after timing out)" : ""));
+        }
+        Dispatch<T> dispatch = new Dispatch<>(endpoint, limit, call);
+        dispatch.result.onTimeout(dispatch::timedOut);
+        try {
+            executor.execute(dispatch::run);
+        } catch (RejectedExecutionException ex) {
+            limit.permits.release();
+            throw reject(endpoint, "pool-full", "The assistant is at capacity");
+        }
+        return dispatch;
+    }
+
+    private Limit newLimit(String endpoint) {
+        int max = Math.max(1, properties.maxConcurrentFor(endpoint));
+        Limit limit = new Limit(new Semaphore(max), new AtomicInteger());
+        Gauge.builder("flowstack.assistant.active", limit.permits, s -> max - s.availablePermits())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("flowstack.assistant.abandoned", limit.abandoned, AtomicInteger::get)
+                .description("Assistant calls still running after their request timed out")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private AssistantUnavailableException reject(String endpoint, String reason, String message) {
+        meterRegistry.counter("flowstack.assistant.rejected", "endpoint", endpoint, "reason", reason).increment();
+        LOGGER.warn("[FlowStack] Rejected assistant {} request: {}", endpoint, reason);
+        return new AssistantUnavailableException(message + "; please retry shortly", RETRY_AFTER_SECONDS);
+    }
+
+    /**
+     * One dispatched call. It goes from queued to running to done; a request timing out first
+     * skips the call if it is still queued, or marks it abandoned if it is running.
+     */
+    final class Dispatch<T> {
+
+        final DeferredResult<T> result = new DeferredResult<>(properties.getTimeout().toMillis());
+        private final String endpoint;
+        private final Limit limit;
+        private final Supplier<T> call;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private Dispatch(String endpoint, Limit limit, Supplier<T> call) {
+            this.endpoint = endpoint;
+            this.limit = limit;
+            this.call = call;
+        }
+
+        void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                limit.permits.release(); // Timed out before it started
+                return;
+            }
+            try {
+                result.setResult(call.get());
+            } catch (RuntimeException ex) {
+                result.setErrorResult(ex);
+            } finally {
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    limit.abandoned.decrementAndGet();
+                }
+                limit.permits.release();
+            }
+        }
+
+        void timedOut() {
+            meterRegistry.counter("flowstack.assistant.rejected", "endpoint", endpoint, "reason", "timeout")
+                    .increment();
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                limit.abandoned.incrementAndGet();
+            } else {
+                state.compareAndSet(QUEUED, DONE);
+            }
+            result.setErrorResult(new AssistantUnavailableException("The assistant did not answer within "
+                    + properties.getTimeout().toSeconds() + "s", RETRY_AFTER_SECONDS));
+        }
+    }
+
+    /**
+     * One endpoint's slots, and how many of the calls holding them were abandoned by their request.
+     */
+    private record Limit(Semaphore permits, AtomicInteger abandoned) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.ankush.workflowEngine.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Collects a response body as it streams in. Bytes stay in memory up to the in-memory limit,
+ * then everything moves to a temp file from {@link BodySpillStore}; a body larger than the hard
+ * limit fails the read instead of being buffered. With a {@link JsonExtractor.Session} attached,
+ * every chunk is also fed to it, and the body itself can be dropped when only the extracted
+ * fields are wanted.
+ */
+public final class BodyAccumulator implements Closeable {
+
+    private static final int PREVIEW_BYTES = 1024;
+
+    private final BodySpillStore store;
+    private final Long runId;
+    private final long inMemoryLimit;
+    private final long maxBytes;
+    private final JsonExtractor.Session extraction;
+    private final boolean retainBody;
+    private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private byte[] preview;
+    private Path file;
+    private OutputStream fileOut;
+    private long size;
+    private boolean finished;
+    private Map<String, Object> extracted;
+
+    BodyAccumulator(BodySpillStore store, Long runId, long inMemoryLimit, long maxBytes,
+                    JsonExtractor.Session extraction, boolean retainBody) {
+        this.store = store;
+        this.runId = runId;
+        this.inMemoryLimit = inMemoryLimit;
+        this.maxBytes = maxBytes;
+        this.extraction = extraction;
+        this.retainBody = retainBody;
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        size += length;
+        if (maxBytes > 0 && size > maxBytes) {
+            throw new ResponseBodyException("Response body exceeds the limit of " + maxBytes + " bytes");
+        }
+        if (extraction != null) {
+            extraction.feed(bytes, offset, length);
+        }
+        if (!retainBody) {
+            return;
+        }
+        if (fileOut == null && memory.size() + length > inMemoryLimit) {
+            spill();
+        }
+        if (fileOut != null) {
+            fileOut.write(bytes, offset, length);
+            extendPreview(bytes, offset, length);
+        } else {
+            memory.write(bytes, offset, length);
+        }
+    }
+
+    public void write(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            byte[] chunk = new byte[buffer.remaining()];
+            buffer.get(chunk);
+            write(chunk, 0, chunk.length);
+        }
+    }
+
+    public void copyFrom(InputStream in) throws IOException {
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            write(chunk, 0, read);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean spilled() {
+        return file != null;
+    }
+
+    /**
+     * Fields pulled out by the attached extraction once {@link #finish} ran, otherwise {@code null}.
+     */
+    public Map<String, Object> extracted() {
+        return extracted;
+    }
+
+    /**
+     * Completes the body: a String when it fit in memory, a {@link SpilledBody} handle when it
+     * spilled, or {@code null} when the response had no content or the body was not retained.
+     */
+    public Object finish(String contentType, Charset charset) throws IOException {
+        finished = true;
+        if (extraction != null) {
+            extracted = extraction.finish();
+        }
+        Charset effective = charset != null ? charset : StandardCharsets.UTF_8;
+        if (file == null) {
+            return size == 0 || !retainBody ? null : memory.toString(effective);
+        }
+        fileOut.close();
+        String previewText = new String(preview, effective);
+        return new SpilledBody(file, size, contentType, effective, previewText);
+    }
+
+    private void spill() throws IOException {
+        file = store.createFile(runId);
+        fileOut = Files.newOutputStream(file);
+        byte[] buffered = memory.toByteArray();
+        fileOut.write(buffered);
+        preview = new byte[Math.min(PREVIEW_BYTES, buffered.length)];
+        System.arraycopy(buffered, 0, preview, 0, preview.length);
+        memory.reset();
+    }
+
+    private void extendPreview(byte[] bytes, int offset, int length) {
+        int missing = Math.min(PREVIEW_BYTES - preview.length, length);
+        if (missing > 0) {
+            byte[] extended = new byte[preview.length + missing];
+            System.arraycopy(preview, 0, extended, 0, preview.length);
+            System.arraycopy(bytes, offset, extended, preview.length, missing);
+            preview = extended;
+        }
+    }
+
+    /**
+     * Discards a body that was not finished, e.g. because the exchange failed mid-stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileOut != null && !finished) {
+            fileOut.close();
+            store.delete(file);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.HttpClientProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the temp files large HTTP response bodies spill into and deletes them when the owning
+ * run finishes, so spilled bodies live exactly as long as the run that can still read them.
+ * A body shared with other runs (see {@link SingleFlight}) is reference counted and deleted
+ * when the last of those runs finishes.
+ */
+@Component
+public class BodySpillStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BodySpillStore.class);
+    private static final Long NO_RUN = -1L;
+
+    private final HttpClientProperties properties;
+    private final Map<Long, Queue<Path>> filesByRun = new ConcurrentHashMap<>();
+    private final Map<Path, Integer> references = new ConcurrentHashMap<>();
+
+    public BodySpillStore(HttpClientProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts buffering a response body for {@code runId} under the configured memory and size caps.
+     */
+    public BodyAccumulator accumulator(Long runId) {
+        return accumulator(runId, null, true);
+    }
+
+    /**
+     * Same, also feeding the body to {@code extraction}; with {@code retainBody} off only the
+     * extracted fields survive the read.
+     */
+    public BodyAccumulator accumulator(Long runId, JsonExtractor.Session extraction, boolean retainBody) {
+        return new BodyAccumulator(this, runId, properties.getMaxInMemoryBodyBytes(), properties.getMaxBodyBytes(),
+                extraction, retainBody);
+    }
+
+    Path createFile(Long runId) throws IOException {
+        Path directory = spillDirectory();
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "body-", ".tmp");
+        references.put(file, 1);
+        filesByRun.computeIfAbsent(runId != null ? runId : NO_RUN, key -> new ConcurrentLinkedQueue<>()).add(file);
+        return file;
+    }
+
+    /**
+     * Keeps a body spilled by another run readable until {@code runId} finishes as well. Must be
+     * called while the spilling run still holds the body (see {@link SingleFlight}); a body that
+     * is already gone fails the call instead of handing out a handle to a missing file.
+     */
+    public void retain(Long runId, SpilledBody body) {
+        Integer count = references.computeIfPresent(body.path(), (file, current) -> current + 1);
+        if (count == null) {
+            throw new NodeExecutionException("Shared response body was already released: " + body.path());
+        }
+        filesByRun.computeIfAbsent(runId != null ? runId : NO_RUN, key -> new ConcurrentLinkedQueue<>())
+                .add(body.path());
+    }
+
+    /**
+     * Deletes every body spilled during the run.
+     */
+    public void release(Long runId) {
+        Queue<Path> files = filesByRun.remove(runId != null ? runId : NO_RUN);
+        if (files != null) {
+            files.forEach(this::unreference);
+        }
+    }
+
+    private void unreference(Path file) {
+        if (references.computeIfPresent(file, (path, current) -> current > 1 ? current - 1 : null) == null) {
+            delete(file);
+        }
+    }
+
+    void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            LOGGER.warn("[FlowStack] Failed to delete spilled body {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private Path spillDirectory() {
+        String configured = properties.getSpillDirectory();
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"), "flowstack-http-bodies");
+    }
+
+    @PreDestroy
+    void releaseAll() {
+        List.copyOf(filesByRun.keySet()).forEach(this::release);
+    }
+}
@@ -0,0 +1,173 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.ChatbotSessionProperties;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server-side state of chatbot conversations, so a follow-up message only sends what is new.
+ * Sessions live in an access-ordered map bounded by {@code max-sessions}; idle ones are swept
+ * from its cold end whenever the store is touched, so no background thread is needed. Each
+ * session keeps Ollama's context tokens (capped by the chatbot model's context window, or by
+ * {@code max-context-tokens} when that is smaller), its last
+ * {@code max-turns} requests and the latest workflow, which is enough to rebuild the prompt
+ * when the context is gone.
+ */
+@Component
+public class ChatSessionStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatSessionStore.class);
+
+    private final ChatbotSessionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final int maxContextTokens;
+    private final LinkedHashMap<String, ChatSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ChatSessionStore(ChatbotSessionProperties properties, PromptAssembler promptAssembler,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.maxContextTokens = maxContextTokens(properties, promptAssembler.budget(null, 0));
+        Gauge.builder("flowstack.chatbot.sessions.active", this, ChatSessionStore::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The session with {@code id}, or a new one when the id is {@code null}, unknown or expired.
+     */
+    public ChatSession open(String id) {
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            evictIdle(now);
+            ChatSession session = id != null ? sessions.get(id) : null;
+            if (session == null) {
+                session = new ChatSession(UUID.randomUUID().toString());
+                sessions.put(session.id, session);
+                if (sessions.size() > Math.max(1, properties.getMaxSessions())) {
+                    Iterator<ChatSession> eldest = sessions.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evicted("capacity");
+                }
+            }
+            session.touch(now);
+            return session;
+        }
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * A context larger than the model's window could never be continued from, so that is the cap
+     * unless {@code max-context-tokens} sets a smaller one.
+     */
+    private static int maxContextTokens(ChatbotSessionProperties properties, int contextWindow) {
+        int configured = properties.getMaxContextTokens();
+        if (configured <= 0) {
+            return contextWindow;
+        }
+        if (configured > contextWindow) {
+            LOGGER.warn("[FlowStack] flowstack.chatbot.sessions.max-context-tokens={} exceeds the chatbot model's "
+                    + "context window of {} tokens; using {}", configured, contextWindow, contextWindow);
+            return contextWindow;
+        }
+        return configured;
+    }
+
+    private void evictIdle(long now) {
+        long idleMillis = properties.getIdleTimeout().toMillis();
+        Iterator<ChatSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            ChatSession session = iterator.next();
+            if (now - session.lastUsed() < idleMillis) {
+                break; // Access order: everything after this was used more recently
+            }
+            iterator.remove();
+            evicted("idle");
+            LOGGER.debug("[FlowStack] Chatbot session {} expired", session.id);
+        }
+    }
+
+    private void evicted(String reason) {
+        meterRegistry.counter("flowstack.chatbot.sessions.evicted", "reason", reason).increment();
+    }
+
+    /**
+     * One conversation. Turns are expected one at a time; if two overlap, the later one to
+     * finish wins.
+     */
+    public final class ChatSession {
+
+        private final String id;
+        private final ArrayDeque<String> requests = new ArrayDeque<>();
+        private int[] context;
+        private WorkflowDefinitionRequest workflow;
+        private long lastUsed;
+
+        private ChatSession(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public synchronized int[] context() {
+            return context;
+        }
+
+        public synchronized WorkflowDefinitionRequest workflow() {
+            return workflow;
+        }
+
+        public synchronized List<String> requests() {
+            return List.copyOf(requests);
+        }
+
+        public synchronized boolean isNew() {
+            return requests.isEmpty();
+        }
+
+        /**
+         * Records a finished turn. A context over the cap is dropped, and so is a missing one,
+         * since an older context would not include this turn.
+         */
+        public synchronized void record(String request, int[] nextContext, WorkflowDefinitionRequest generated) {
+            requests.addLast(request);
+            while (requests.size() > Math.max(1, properties.getMaxTurns())) {
+                requests.removeFirst();
+            }
+            if (nextContext != null && nextContext.length > maxContextTokens) {
+                LOGGER.debug("[FlowStack] Chatbot session {} context reached {} tokens; starting over next turn",
+                        id, nextContext.length);
+                nextContext = null;
+            }
+            context = nextContext;
+            if (generated != null) {
+                workflow = generated;
+            }
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private synchronized long lastUsed() {
+            return lastUsed;
+        }
+
+        private synchronized void touch(long now) {
+            lastUsed = now;
+        }
+    }
+}
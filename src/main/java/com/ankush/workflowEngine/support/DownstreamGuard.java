@@ -0,0 +1,376 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.ResilienceProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import reactor.core.publisher.Flux;
+
+/**
+ * Isolates external calls per downstream (HTTP host, Ollama model, OpenAI model). Each downstream
+ * gets a bulkhead capping its concurrent calls and a count-based circuit breaker: when the failure
+ * rate over the last calls crosses the threshold the breaker opens and calls fail fast with a
+ * {@link NodeExecutionException}; after the open period a few probe calls decide whether it closes
+ * again. A degraded dependency therefore costs its own slots, not the engine's worker threads.
+ *
+ * <p>Only the downstream's own faults count against the breaker (see {@link #isDownstreamFault}):
+ * a rejected request (4xx other than 429) or a response the caller could not use still means
+ * the downstream is up, and releases its slot as a success.
+ */
+@Component
+public class DownstreamGuard {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownstreamGuard.class);
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public DownstreamGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Downstream name of an HTTP url: its host, plus the port when one is given explicitly.
+     */
+    public static String httpDownstream(String url) {
+        URI uri = URI.create(url.trim());
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "unknown";
+        return uri.getPort() > 0 ? host + ":" + uri.getPort() : host;
+    }
+
+    public <T> T call(String downstream, Supplier<T> call) {
+        return call(downstream, call, result -> false);
+    }
+
+    /**
+     * Whether {@code error} is the downstream's fault: an I/O error or timeout reaching it, or a
+     * 5xx or 429 status. Anywhere in the cause chain, a 4xx status, a JSON parse error or a
+     * {@link ResponseBodyException} marks the caller's side instead, as does any other exception.
+     */
+    public static boolean isDownstreamFault(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof RestClientResponseException response) {
+                int status = response.getStatusCode().value();
+                return status >= 500 || status == 429;
+            }
+            if (current instanceof JsonProcessingException || current instanceof ResponseBodyException) {
+                return false;
+            }
+            if (current instanceof IOException || current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs {@code call} inside the downstream's bulkhead and breaker. Exceptions that are
+     * {@linkplain #isDownstreamFault the downstream's fault} count as failures, as do results
+     * matching {@code failedResult} (e.g. a 5xx status); a {@link CancellationException} means the
+     * caller gave up and is not counted either way.
+     */
+    public <T> T call(String downstream, Supplier<T> call, Predicate<T> failedResult) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        Guard guard = guard(downstream);
+        boolean probe = guard.admit(true);
+        boolean success = false;
+        boolean cancelled = false;
+        try {
+            T result = call.get();
+            success = !failedResult.test(result);
+            return result;
+        } catch (CancellationException ex) {
+            cancelled = true;
+            throw ex;
+        } catch (RuntimeException ex) {
+            success = !isDownstreamFault(ex);
+            throw ex;
+        } finally {
+            if (cancelled) {
+                guard.abandon(probe);
+            } else {
+                guard.release(success, probe);
+            }
+        }
+    }
+
+    /**
+     * Async variant: the bulkhead slot is held until the returned future completes. The slot is
+     * taken without waiting, since the caller may be an HTTP client I/O thread (an async node
+     * resumed there, or the next request of a batch lane); a full bulkhead fails at once. Outcomes
+     * are counted as in {@link #call(String, Supplier, Predicate)}, and a cancelled future frees
+     * its slot without one.
+     */
+    public <T> CompletableFuture<T> callAsync(String downstream, Supplier<CompletableFuture<T>> call,
+                                              Predicate<T> failedResult) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        Guard guard = guard(downstream);
+        boolean probe = guard.admit(false);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            guard.release(!isDownstreamFault(ex), probe);
+            throw ex;
+        }
+        return future.whenComplete((result, failure) -> {
+            if (failure instanceof CancellationException) {
+                guard.abandon(probe);
+            } else {
+                guard.release(failure == null ? !failedResult.test(result) : !isDownstreamFault(failure), probe);
+            }
+        });
+    }
+
+    /**
+     * Streaming variant: the slot is taken without waiting when {@code stream} is subscribed and
+     * held until it terminates. A stream that errors counts as a failure when the error is
+     * {@linkplain #isDownstreamFault the downstream's fault}, and as a success otherwise, as does
+     * one that completes; a cancelled one frees its slot without an outcome, like a
+     * {@link CancellationException} in {@link #call(String, Supplier, Predicate)}.
+     */
+    public <T> Flux<T> guardStream(String downstream, Supplier<Flux<T>> stream) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(stream);
+        }
+        return Flux.defer(() -> {
+            Guard guard = guard(downstream);
+            boolean probe = guard.admit(false);
+            AtomicBoolean ended = new AtomicBoolean();
+            Flux<T> guarded;
+            try {
+                guarded = stream.get();
+            } catch (RuntimeException ex) {
+                guard.release(!isDownstreamFault(ex), probe);
+                throw ex;
+            }
+            return guarded
+                    .doOnComplete(() -> {
+                        if (ended.compareAndSet(false, true)) {
+                            guard.release(true, probe);
+                        }
+                    })
+                    .doOnError(ex -> {
+                        if (ended.compareAndSet(false, true)) {
+                            guard.release(!isDownstreamFault(ex), probe);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (ended.compareAndSet(false, true)) {
+                            guard.abandon(probe);
+                        }
+                    });
+        });
+    }
+
+    public State state(String downstream) {
+        Guard guard = guards.get(downstream);
+        return guard != null ? guard.state() : State.CLOSED;
+    }
+
+    private Guard guard(String downstream) {
+        return guards.computeIfAbsent(downstream, name -> {
+            Guard guard = new Guard(name, policyFor(name));
+            Gauge.builder("flowstack.resilience.state", guard, g -> g.state().ordinal())
+                    .description("0 = closed, 1 = half-open, 2 = open")
+                    .tag("downstream", name)
+                    .strongReference(true)
+                    .register(meterRegistry);
+            Gauge.builder("flowstack.resilience.bulkhead.available", guard, g -> g.bulkhead.availablePermits())
+                    .tag("downstream", name)
+                    .strongReference(true)
+                    .register(meterRegistry);
+            return guard;
+        });
+    }
+
+    private ResilienceProperties.Policy policyFor(String downstream) {
+        Map<String, ResilienceProperties.Policy> configured = properties.getDownstreams();
+        ResilienceProperties.Policy policy = configured.get(downstream);
+        if (policy == null && downstream.indexOf(':') > 0) {
+            policy = configured.get(downstream.substring(0, downstream.indexOf(':')));
+        }
+        return policy != null ? policy : properties.getDefaults();
+    }
+
+    private void rejected(String downstream, String reason) {
+        meterRegistry.counter("flowstack.resilience.rejected", "downstream", downstream, "reason", reason).increment();
+    }
+
+    /**
+     * Bulkhead plus breaker for one downstream. Breaker state is guarded by the instance monitor;
+     * the outcome window is a ring of the last {@code slidingWindowSize} calls.
+     */
+    private final class Guard {
+
+        private final String name;
+        private final ResilienceProperties.Policy policy;
+        private final Semaphore bulkhead;
+        private final boolean[] outcomes;
+        private int recorded;
+        private int failures;
+        private int cursor;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private int probesStarted;
+        private int probesSucceeded;
+
+        private Guard(String name, ResilienceProperties.Policy policy) {
+            this.name = name;
+            this.policy = policy;
+            this.bulkhead = new Semaphore(Math.max(1, policy.getMaxConcurrent()), true);
+            this.outcomes = new boolean[Math.max(1, policy.getSlidingWindowSize())];
+        }
+
+        /**
+         * Takes a bulkhead slot, waiting up to the acquire timeout when {@code wait} is set, or
+         * fails fast.
+         *
+         * @return {@code true} when the call is a half-open probe
+         */
+        boolean admit(boolean wait) {
+            boolean probe = false;
+            synchronized (this) {
+                if (state == State.OPEN) {
+                    long remaining = openedAt + policy.getOpenDuration().toMillis() - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        rejected(name, "circuit_open");
+                        throw new NodeExecutionException("Circuit breaker for " + name
+                                + " is open; failing fast for another " + (remaining / 1000 + 1) + "s");
+                    }
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesStarted >= policy.getHalfOpenProbes()) {
+                        rejected(name, "circuit_half_open");
+                        throw new NodeExecutionException("Circuit breaker for " + name
+                                + " is half-open and already probing; failing fast");
+                    }
+                    probesStarted++;
+                    probe = true;
+                }
+            }
+            boolean acquired;
+            try {
+                acquired = wait
+                        ? bulkhead.tryAcquire(policy.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        : bulkhead.tryAcquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new NodeExecutionException("Interrupted while waiting for a " + name + " call slot", ex);
+            }
+            if (!acquired) {
+                rejected(name, "bulkhead");
+                synchronized (this) {
+                    if (probe && state == State.HALF_OPEN && probesStarted > 0) {
+                        probesStarted--;
+                    }
+                }
+                throw new NodeExecutionException("Bulkhead for " + name + " is full ("
+                        + policy.getMaxConcurrent() + " concurrent calls); failing fast");
+            }
+            return probe;
+        }
+
+        void release(boolean success, boolean probe) {
+            bulkhead.release();
+            synchronized (this) {
+                if (state == State.HALF_OPEN) {
+                    if (!probe) {
+                        return; // Late result of a call admitted before the breaker opened
+                    }
+                    if (!success) {
+                        transition(State.OPEN);
+                    } else if (++probesSucceeded >= policy.getHalfOpenProbes()) {
+                        transition(State.CLOSED);
+                    }
+                    return;
+                }
+                if (state == State.OPEN) {
+                    return;
+                }
+                record(success);
+                int failurePercent = failures * 100 / recorded;
+                if (recorded >= policy.getMinimumCalls() && failurePercent >= policy.getFailureRateThreshold()) {
+                    transition(State.OPEN);
+                }
+            }
+        }
+
+        /**
+         * Frees the slot of a call that was cancelled without recording an outcome.
+         */
+        void abandon(boolean probe) {
+            bulkhead.release();
+            synchronized (this) {
+                if (probe && state == State.HALF_OPEN && probesStarted > 0) {
+                    probesStarted--;
+                }
+            }
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        private void record(boolean success) {
+            if (recorded == outcomes.length) {
+                if (!outcomes[cursor]) {
+                    failures--;
+                }
+            } else {
+                recorded++;
+            }
+            outcomes[cursor] = success;
+            if (!success) {
+                failures++;
+            }
+            cursor = (cursor + 1) % outcomes.length;
+        }
+
+        private void transition(State next) {
+            LOGGER.warn("[FlowStack] Circuit breaker for {} {} -> {}", name, state, next);
+            state = next;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            if (next == State.OPEN) {
+                openedAt = System.currentTimeMillis();
+            }
+            if (next == State.CLOSED) {
+                recorded = 0;
+                failures = 0;
+                cursor = 0;
+            }
+        }
+    }
+}
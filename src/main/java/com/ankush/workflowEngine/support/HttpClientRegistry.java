@@ -0,0 +1,274 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.HttpClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Owns the single pooled Apache HttpClient shared by HTTP nodes and the other outbound clients.
+ * Pool sizes, per-host limits and keep-alive come from {@code flowstack.http.*}; clients are
+ * cached per response timeout so a node-level timeout never rebuilds the connection pool.
+ * A non-blocking client over a second pool with the same limits serves async HTTP nodes, which
+ * negotiate HTTP/2 over TLS and multiplex on a handful of I/O reactor threads.
+ */
+@Component
+public class HttpClientRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientRegistry.class);
+
+    private final HttpClientProperties properties;
+    private final DefaultClientTlsStrategy tlsStrategy;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final PoolingAsyncClientConnectionManager asyncConnectionManager;
+    private final CloseableHttpAsyncClient asyncClient;
+    private final Map<Long, RestClient> restClients = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public HttpClientRegistry(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tlsStrategy = new DefaultClientTlsStrategy(trustAllSslContext(), NoopHostnameVerifier.INSTANCE);
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setTimeToLive(TimeValue.of(properties.getConnectionTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                .build();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            // Honour a shorter server Keep-Alive hint, but never keep idle sockets longer than configured
+            TimeValue serverHint = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            TimeValue cap = TimeValue.of(properties.getKeepAlive());
+            return serverHint != null && serverHint.compareTo(cap) < 0 ? serverHint : cap;
+        };
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(tlsStrategy)
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getDefaultMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictIdleConnections(TimeValue.of(properties.getEvictIdleAfter()))
+                .evictExpiredConnections()
+                .build();
+
+        this.asyncConnectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setTlsStrategy(tlsStrategy)
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getDefaultMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build())
+                .build();
+
+        this.asyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(asyncConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(Math.max(1, properties.getAsyncIoThreads()))
+                        .build())
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictIdleConnections(TimeValue.of(properties.getEvictIdleAfter()))
+                .evictExpiredConnections()
+                .build();
+        this.asyncClient.start();
+
+        registerPoolGauges("flowstack.http.pool", "all", connectionManager::getTotalStats);
+        registerPoolGauges("flowstack.http.async.pool", "all", asyncConnectionManager::getTotalStats);
+        properties.getHosts().forEach(host -> setMaxConnectionsForHost(host.getUrl(), host.getMaxConnections()));
+    }
+
+    /**
+     * Returns a RestClient over the shared pool with the default response timeout.
+     */
+    public RestClient restClient() {
+        return restClient(null);
+    }
+
+    /**
+     * Returns a RestClient over the shared pool whose response (read) timeout is {@code responseTimeout},
+     * or the configured default when {@code null}.
+     */
+    public RestClient restClient(Duration responseTimeout) {
+        Duration effective = responseTimeout != null ? responseTimeout : properties.getResponseTimeout();
+        return restClients.computeIfAbsent(effective.toMillis(),
+                millis -> RestClient.builder().requestFactory(requestFactory(Duration.ofMillis(millis))).build());
+    }
+
+    public HttpComponentsClientHttpRequestFactory requestFactory(Duration responseTimeout) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(properties.getConnectTimeout());
+        requestFactory.setConnectionRequestTimeout(properties.getConnectionRequestTimeout());
+        requestFactory.setReadTimeout(responseTimeout != null ? responseTimeout : properties.getResponseTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * Raises or lowers the connection limit for one origin (scheme, host and port of {@code url})
+     * and exposes its pool stats tagged with that host.
+     */
+    public void setMaxConnectionsForHost(String url, int maxConnections) {
+        if (url == null || url.isBlank() || maxConnections <= 0) {
+            return;
+        }
+        HttpRoute route = routeFor(url);
+        connectionManager.setMaxPerRoute(route, maxConnections);
+        asyncConnectionManager.setMaxPerRoute(route, maxConnections);
+        String host = route.getTargetHost().toHostString();
+        registerPoolGauges("flowstack.http.pool", host, () -> connectionManager.getStats(route));
+        registerPoolGauges("flowstack.http.async.pool", host, () -> asyncConnectionManager.getStats(route));
+        LOGGER.info("[FlowStack] HTTP pool limit for {} set to {}", route.getTargetHost(), maxConnections);
+    }
+
+    public CloseableHttpClient httpClient() {
+        return httpClient;
+    }
+
+    public boolean asyncByDefault() {
+        return properties.isAsyncEnabled();
+    }
+
+    /**
+     * The response timeout of {@link #restClient()}, for async requests that should match it.
+     */
+    public Duration responseTimeout() {
+        return properties.getResponseTimeout();
+    }
+
+    /**
+     * Sends a request on the non-blocking client. No thread waits for the response: the returned
+     * future is completed from an I/O reactor thread, so callers should hop to their own executor
+     * before doing blocking work. Cancelling the future aborts the exchange.
+     */
+    public <T> CompletableFuture<T> executeAsync(AsyncRequestProducer requestProducer,
+                                                 AsyncResponseConsumer<T> responseConsumer) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<T> exchange = asyncClient.execute(requestProducer, responseConsumer, new FutureCallback<>() {
+            @Override
+            public void completed(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((result, ex) -> {
+            // Cancelled, or timed out by the caller via orTimeout: abort the exchange too
+            if (future.isCancelled() || ex instanceof TimeoutException) {
+                exchange.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private HttpRoute routeFor(String url) {
+        URI uri = URI.create(url.trim());
+        String scheme = uri.getScheme() != null ? uri.getScheme() : "http";
+        boolean secure = "https".equalsIgnoreCase(scheme);
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        HttpHost target = new HttpHost(scheme, Objects.requireNonNull(uri.getHost(), "HTTP host url must include a host"), port);
+        return new HttpRoute(target, null, secure);
+    }
+
+    private void registerPoolGauges(String prefix, String route, Supplier<PoolStats> stats) {
+        registerPoolGauge(prefix + ".leased", route, stats, PoolStats::getLeased);
+        registerPoolGauge(prefix + ".pending", route, stats, PoolStats::getPending);
+        registerPoolGauge(prefix + ".available", route, stats, PoolStats::getAvailable);
+        registerPoolGauge(prefix + ".max", route, stats, PoolStats::getMax);
+    }
+
+    private void registerPoolGauge(String name, String route, Supplier<PoolStats> stats,
+                                   ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(name, stats, supplier -> value.applyAsDouble(supplier.get()))
+                .tag("route", route)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Trusts every certificate and skips hostname verification.
+     * WARNING: This disables SSL certificate validation - use only in development environments.
+     * For production, configure proper SSL trust stores or use valid certificates.
+     */
+    private static SSLContext trustAllSslContext() {
+        try {
+            TrustManager[] trustAllCerts = new TrustManager[]{
+                new X509TrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() {
+                        return null;
+                    }
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) {
+                    }
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) {
+                    }
+                }
+            };
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
+            return sslContext;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to configure HTTP client with SSL disabled", ex);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        asyncClient.close(CloseMode.GRACEFUL);
+        httpClient.close();
+    }
+}
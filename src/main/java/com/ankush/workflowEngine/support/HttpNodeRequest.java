@@ -0,0 +1,128 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+
+/**
+ * An HTTP node request rendered against the workflow context: method, url, headers and body
+ * templates resolved once so the blocking and async HTTP paths send exactly the same request.
+ */
+public record HttpNodeRequest(HttpMethod method, String url, Map<String, String> headers, String body,
+                              Duration responseTimeout) {
+
+    public static HttpNodeRequest fromConfig(Map<String, Object> config, Map<String, Object> snapshot) {
+        Object rawUrl = config.get("url");
+        String urlTemplate = rawUrl != null ? rawUrl.toString() : null;
+        if (urlTemplate == null || urlTemplate.isBlank()) {
+            throw new NodeExecutionException("HTTP node requires a url in config");
+        }
+        String url = Objects.requireNonNull(TemplateRenderer.render(urlTemplate, snapshot), "Resolved url must not be null");
+        if (url.isBlank()) {
+            throw new NodeExecutionException("HTTP node resolved url is empty");
+        }
+
+        Object rawMethod = config.getOrDefault("method", "GET");
+        String methodName = rawMethod != null ? rawMethod.toString() : null;
+        final String normalizedMethod;
+        if (methodName == null || methodName.isBlank()) {
+            normalizedMethod = "GET";
+        } else {
+            normalizedMethod = methodName.trim().toUpperCase(Locale.ROOT);
+        }
+        HttpMethod httpMethod;
+        try {
+            httpMethod = HttpMethod.valueOf(Objects.requireNonNull(normalizedMethod));
+        } catch (IllegalArgumentException ex) {
+            throw new NodeExecutionException("Unsupported HTTP method: " + normalizedMethod, ex);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (config.get("headers") instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if (key != null) {
+                    String headerValue = value != null ? value.toString() : "";
+                    headers.put(String.valueOf(key), TemplateRenderer.render(headerValue, snapshot));
+                }
+            });
+        }
+
+        Object rawBody = config.get("body");
+        String bodyTemplate = rawBody != null ? rawBody.toString() : null;
+        String body = bodyTemplate != null ? TemplateRenderer.render(bodyTemplate, snapshot) : null;
+        if (body != null && (body.isBlank() || !allowsBody(httpMethod))) {
+            body = null;
+        }
+
+        return new HttpNodeRequest(httpMethod, url, Collections.unmodifiableMap(headers), body,
+                responseTimeout(config.get("timeoutMs")));
+    }
+
+    /**
+     * Per-node response timeout from {@code timeoutMs}; {@code null} falls back to flowstack.http.response-timeout.
+     */
+    private static Duration responseTimeout(Object raw) {
+        if (raw instanceof Number number && number.longValue() > 0) {
+            return Duration.ofMillis(number.longValue());
+        }
+        if (raw != null) {
+            try {
+                long millis = Long.parseLong(raw.toString().trim());
+                return millis > 0 ? Duration.ofMillis(millis) : null;
+            } catch (NumberFormatException ex) {
+                throw new NodeExecutionException("HTTP node timeoutMs must be a number: " + raw, ex);
+            }
+        }
+        return null;
+    }
+
+    private static boolean allowsBody(HttpMethod method) {
+        return method == HttpMethod.POST
+                || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH
+                || method == HttpMethod.DELETE;
+    }
+
+    /**
+     * The request for the non-blocking client, plus {@code extraHeaders} such as cache validators.
+     */
+    public SimpleHttpRequest toAsyncRequest(Map<String, String> extraHeaders) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(method.name()).setUri(url);
+        headers.forEach((name, value) -> {
+            // The entity carries the Content-Type of a request body; don't send it twice
+            if (body == null || !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                builder.addHeader(name, value);
+            }
+        });
+        extraHeaders.forEach(builder::addHeader);
+        if (body != null) {
+            builder.setBody(body, contentType());
+        }
+        if (responseTimeout != null) {
+            builder.setRequestConfig(RequestConfig.custom()
+                    .setResponseTimeout(Timeout.of(responseTimeout))
+                    .build());
+        }
+        return builder.build();
+    }
+
+    private ContentType contentType() {
+        return headers.entrySet().stream()
+                .filter(header -> HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey()))
+                .map(header -> ContentType.parse(header.getValue()))
+                .findFirst()
+                .orElse(ContentType.TEXT_PLAIN.withCharset(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,376 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.HttpCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Private HTTP cache for HTTP nodes. GET responses are stored when their Cache-Control, Expires,
+ * ETag or Last-Modified headers allow it; fresh entries are served without a network call and
+ * stale entries with a validator are revalidated with If-None-Match / If-Modified-Since, so a
+ * 304 costs a round trip but no body. Entries live in a bounded in-memory LRU and, when
+ * {@code flowstack.http.cache.redis-enabled} is set, in Redis so every instance shares them.
+ * Keys include the request headers, so responses fetched with different credentials never mix.
+ * A response with {@code Vary} is only stored when every header it varies on is one of those
+ * (or {@code Accept-Encoding}, which the client sends the same way on every request).
+ *
+ * <p>Off by default: with {@code flowstack.http.cache.enabled} every GET node uses the cache
+ * unless it sets {@code "cache": false}; without it only nodes that set {@code "cache": true} do.
+ */
+@Component
+public class HttpResponseCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpResponseCache.class);
+
+    public enum Outcome {
+        HIT,
+        REVALIDATED,
+        MISS,
+        BYPASS
+    }
+
+    /**
+     * A stored response: its body, or for a node that extracts fields and drops the body, just the
+     * {@code extracted} fields (the entry is then keyed by the extraction as well).
+     */
+    public record CachedResponse(int status, String body, Map<String, Object> extracted, String etag,
+                                 String lastModified, long freshUntil, long expiresAt) {
+    }
+
+    /**
+     * Result of looking a request up: the cache key, the stored entry if any, whether that entry
+     * can be served without contacting the origin, and the (lower-case) request header names the
+     * key covers.
+     */
+    public record Lookup(String key, CachedResponse entry, boolean fresh, Set<String> keyedHeaders) {
+
+        public Map<String, String> conditionalHeaders() {
+            Map<String, String> headers = new LinkedHashMap<>();
+            if (entry != null && entry.etag() != null) {
+                headers.put("If-None-Match", entry.etag());
+            }
+            if (entry != null && entry.lastModified() != null) {
+                headers.put("If-Modified-Since", entry.lastModified());
+            }
+            return headers;
+        }
+    }
+
+    private final HttpCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CachedResponse> local;
+
+    public HttpResponseCache(HttpCacheProperties properties, StringRedisTemplate redisTemplate,
+                             ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+    }
+
+    /**
+     * Looks the request up, or returns {@code null} when it must not use the cache: caching is
+     * disabled and the node did not opt in, the method is not GET, or the node sends
+     * {@code Cache-Control: no-cache/no-store}. A node that keeps only extracted fields passes its
+     * extraction as {@code extraction}, so its entries hold those fields instead of the body.
+     */
+    public Lookup lookup(HttpNodeRequest request, boolean optedIn, String extraction) {
+        if ((!properties.isEnabled() && !optedIn) || request.method() != HttpMethod.GET) {
+            return null;
+        }
+        String requestCacheControl = header(request.headers(), "Cache-Control");
+        if (requestCacheControl != null) {
+            String directives = requestCacheControl.toLowerCase(Locale.ROOT);
+            if (directives.contains("no-cache") || directives.contains("no-store")) {
+                return null;
+            }
+        }
+        String key = keyFor(request, extraction);
+        CachedResponse entry = get(key);
+        long now = System.currentTimeMillis();
+        Set<String> keyedHeaders = new HashSet<>();
+        request.headers().keySet().forEach(name -> keyedHeaders.add(name.toLowerCase(Locale.ROOT)));
+        return new Lookup(key, entry, entry != null && entry.freshUntil() > now, keyedHeaders);
+    }
+
+    /**
+     * Stores a fresh origin response if its status, size and caching headers allow it: the body
+     * when there is one in memory, else the {@code extracted} fields. A 200 that cannot be stored
+     * still replaces what the lookup found (the origin answered a conditional request with a new
+     * representation), so that entry is evicted rather than revalidated or served again.
+     */
+    public void store(Lookup lookup, int status, Object body, Map<String, Object> extracted,
+                      Map<String, String> headers) {
+        if (lookup == null || status != 200) {
+            return;
+        }
+        CachedResponse entry = storable(lookup, status, body, extracted, headers);
+        if (entry != null) {
+            put(lookup.key(), entry);
+        } else if (lookup.entry() != null) {
+            evict(lookup.key());
+        }
+    }
+
+    private CachedResponse storable(Lookup lookup, int status, Object body, Map<String, Object> extracted,
+                                    Map<String, String> headers) {
+        String text = body instanceof String string ? string : null;
+        if (text == null && (body != null || extracted == null)) {
+            return null; // A spilled body is too large to cache anyway
+        }
+        if (entryBytes(text, extracted) > properties.getMaxEntryBytes()) {
+            return null;
+        }
+        String cacheControl = lower(header(headers, "Cache-Control"));
+        if (cacheControl.contains("no-store") || !keyCoversVary(lookup, header(headers, "Vary"))) {
+            return null;
+        }
+        String etag = header(headers, "ETag");
+        String lastModified = header(headers, "Last-Modified");
+        long now = System.currentTimeMillis();
+        long freshFor = freshnessMillis(cacheControl, headers, now);
+        if (freshFor <= 0 && etag == null && lastModified == null) {
+            return null;
+        }
+        return entryFor(status, text, text == null ? extracted : null, etag, lastModified, freshFor, now);
+    }
+
+    /**
+     * Refreshes a stored entry after the origin answered a conditional request with 304,
+     * taking updated freshness and validators from the 304 headers.
+     */
+    public CachedResponse revalidated(Lookup lookup, Map<String, String> headers) {
+        CachedResponse entry = lookup.entry();
+        long now = System.currentTimeMillis();
+        long freshFor = freshnessMillis(lower(header(headers, "Cache-Control")), headers, now);
+        String etag = header(headers, "ETag");
+        String lastModified = header(headers, "Last-Modified");
+        CachedResponse refreshed = entryFor(entry.status(), entry.body(), entry.extracted(),
+                etag != null ? etag : entry.etag(),
+                lastModified != null ? lastModified : entry.lastModified(),
+                freshFor, now);
+        put(lookup.key(), refreshed);
+        return refreshed;
+    }
+
+    /**
+     * Whether the cache key already distinguishes every request header the response varies on.
+     */
+    private static boolean keyCoversVary(Lookup lookup, String vary) {
+        if (vary == null || vary.isBlank()) {
+            return true;
+        }
+        for (String field : vary.split(",")) {
+            String name = field.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty() || name.equals("accept-encoding")) {
+                continue;
+            }
+            if (name.equals("*") || !lookup.keyedHeaders().contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void record(Outcome outcome) {
+        meterRegistry.counter("flowstack.http.cache.requests", "result", outcome.name().toLowerCase(Locale.ROOT))
+                .increment();
+    }
+
+    private long entryBytes(String text, Map<String, Object> extracted) {
+        if (text != null) {
+            return text.getBytes(StandardCharsets.UTF_8).length;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(extracted).length;
+        } catch (Exception ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private CachedResponse entryFor(int status, String body, Map<String, Object> extracted, String etag,
+                                    String lastModified, long freshFor, long now) {
+        long freshUntil = now + Math.max(0, freshFor);
+        // Entries with a validator stay around past freshness so they can be revalidated cheaply
+        long expiresAt = etag != null || lastModified != null
+                ? freshUntil + properties.getStaleRetention().toMillis()
+                : freshUntil;
+        return new CachedResponse(status, body, extracted, etag, lastModified, freshUntil, expiresAt);
+    }
+
+    private long freshnessMillis(String cacheControl, Map<String, String> headers, long now) {
+        if (cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Long maxAge = directiveSeconds(cacheControl, "max-age");
+        if (maxAge != null) {
+            long age = parseLong(header(headers, "Age"));
+            return Math.max(0, maxAge - age) * 1000;
+        }
+        Long expires = parseDate(header(headers, "Expires"));
+        if (expires != null) {
+            Long date = parseDate(header(headers, "Date"));
+            return expires - (date != null ? date : now);
+        }
+        return 0;
+    }
+
+    private CachedResponse get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            CachedResponse entry = local.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    return entry;
+                }
+                local.remove(key);
+            }
+        }
+        if (!properties.isRedisEnabled()) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(properties.getRedisKeyPrefix() + key);
+            if (json == null) {
+                return null;
+            }
+            CachedResponse entry = objectMapper.readValue(json, CachedResponse.class);
+            synchronized (local) {
+                local.put(key, entry);
+            }
+            return entry;
+        } catch (Exception ex) {
+            LOGGER.warn("[FlowStack] HTTP cache read from Redis failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void put(String key, CachedResponse entry) {
+        synchronized (local) {
+            local.put(key, entry);
+        }
+        if (!properties.isRedisEnabled()) {
+            return;
+        }
+        long ttlMillis = entry.expiresAt() - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(properties.getRedisKeyPrefix() + key,
+                    objectMapper.writeValueAsString(entry), Duration.ofMillis(ttlMillis));
+        } catch (Exception ex) {
+            LOGGER.warn("[FlowStack] HTTP cache write to Redis failed: {}", ex.getMessage());
+        }
+    }
+
+    private void evict(String key) {
+        synchronized (local) {
+            local.remove(key);
+        }
+        if (!properties.isRedisEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(properties.getRedisKeyPrefix() + key);
+        } catch (Exception ex) {
+            LOGGER.warn("[FlowStack] HTTP cache eviction from Redis failed: {}", ex.getMessage());
+        }
+    }
+
+    private String keyFor(HttpNodeRequest request, String extraction) {
+        StringBuilder material = new StringBuilder(request.method().name()).append(' ').append(request.url());
+        if (extraction != null) {
+            material.append("\nextract:").append(extraction);
+        }
+        Map<String, String> sortedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sortedHeaders.putAll(request.headers());
+        sortedHeaders.forEach((name, value) ->
+                material.append('\n').append(name.toLowerCase(Locale.ROOT)).append(':').append(value));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static Long directiveSeconds(String cacheControl, String directive) {
+        for (String part : cacheControl.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.startsWith(directive + "=")) {
+                try {
+                    return Long.parseLong(trimmed.substring(directive.length() + 1).replace("\"", "").trim());
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static Long parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
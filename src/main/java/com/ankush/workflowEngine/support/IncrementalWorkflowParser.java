@@ -0,0 +1,190 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.dto.WorkflowEdgeRequest;
+import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a workflow JSON object out of LLM output as it streams in, chunk by chunk, and hands each
+ * element of a {@code nodes} or {@code edges} array to its callback as soon as the element's
+ * closing brace arrives, so a client can draw the workflow while it is still being generated.
+ *
+ * <p>Tolerant of what models wrap around the JSON: text before the first opening brace (prose, a
+ * markdown fence), brace-delimited fragments without a single string in them and anything after
+ * the object closes are ignored, and an element that does not parse is skipped. Nodes are emitted
+ * the way the final workflow is normalized: without a key or type or with a key already seen they
+ * are dropped, {@code sortOrder} is their position and a missing config becomes empty. An edge is
+ * emitted once both of its nodes have been, so it may wait for a later node; self-loops are
+ * dropped. Each chunk is scanned once. Not thread-safe; one parser belongs to one stream.
+ */
+public final class IncrementalWorkflowParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalWorkflowParser.class);
+    private static final String NODES = "nodes";
+    private static final String EDGES = "edges";
+
+    /**
+     * An open object or array and the key it is the value of ({@code null} in an array).
+     */
+    private record Container(boolean array, String key) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<WorkflowNodeRequest> onNode;
+    private final Consumer<WorkflowEdgeRequest> onEdge;
+    private final StringBuilder json = new StringBuilder();
+    private final Deque<Container> open = new ArrayDeque<>();
+    private final StringBuilder string = new StringBuilder();
+    private final Set<String> nodeKeys = new HashSet<>();
+    private final List<WorkflowEdgeRequest> pendingEdges = new ArrayList<>();
+    private boolean inString;
+    private boolean escaped;
+    private String lastString;
+    private int elementStart = -1;
+    private String elementArray;
+    private boolean complete;
+
+    public IncrementalWorkflowParser(ObjectMapper objectMapper, Consumer<WorkflowNodeRequest> onNode,
+                                     Consumer<WorkflowEdgeRequest> onEdge) {
+        this.objectMapper = objectMapper;
+        this.onNode = onNode;
+        this.onEdge = onEdge;
+    }
+
+    /**
+     * The first complete top-level JSON object in {@code text}, or {@code null} if there is none.
+     * Unlike a regular expression this balances nested braces and ignores braces inside strings.
+     */
+    public static String firstObject(String text) {
+        IncrementalWorkflowParser scanner = new IncrementalWorkflowParser(null, null, null);
+        scanner.accept(text);
+        return scanner.json();
+    }
+
+    public void accept(String chunk) {
+        if (chunk == null) {
+            return;
+        }
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            char next = chunk.charAt(i);
+            if (open.isEmpty()) {
+                if (next != '{') {
+                    continue; // Before the object: prose or a markdown fence
+                }
+                json.setLength(0);
+            }
+            json.append(next);
+            if (inString) {
+                readString(next);
+                continue;
+            }
+            switch (next) {
+                case '"' -> {
+                    inString = true;
+                    string.setLength(0);
+                }
+                case '{', '[' -> openContainer(next == '[');
+                case '}', ']' -> closeContainer();
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * The workflow object once its closing brace has arrived; {@code null} before that.
+     */
+    public String json() {
+        return complete ? json.toString() : null;
+    }
+
+    private void readString(char next) {
+        if (escaped) {
+            escaped = false;
+        } else if (next == '\\') {
+            escaped = true;
+        } else if (next == '"') {
+            inString = false;
+            // A string inside an object is a key or a value; the one just before a '{' or '[' is its key
+            lastString = string.toString();
+            return;
+        }
+        string.append(next);
+    }
+
+    private void openContainer(boolean array) {
+        Container parent = open.peek();
+        String key = parent != null && !parent.array() ? lastString : null;
+        if (!array && elementStart < 0 && parent != null && parent.array()
+                && (NODES.equals(parent.key()) || EDGES.equals(parent.key()))) {
+            elementStart = json.length() - 1;
+            elementArray = parent.key();
+        }
+        open.push(new Container(array, key));
+    }
+
+    private void closeContainer() {
+        open.pop();
+        if (open.isEmpty()) {
+            // Braces in prose ("{name}") are not the workflow; keep looking
+            complete = json.indexOf("\"") >= 0;
+            return;
+        }
+        Container parent = open.peek();
+        if (elementStart >= 0 && parent.array() && elementArray.equals(parent.key())) {
+            String element = json.substring(elementStart);
+            String array = elementArray;
+            elementStart = -1;
+            elementArray = null;
+            if (onNode != null) {
+                emit(array, element);
+            }
+        }
+    }
+
+    private void emit(String array, String element) {
+        try {
+            if (NODES.equals(array)) {
+                emitNode(objectMapper.readValue(element, WorkflowNodeRequest.class));
+            } else {
+                WorkflowEdgeRequest edge = objectMapper.readValue(element, WorkflowEdgeRequest.class);
+                if (edge.sourceKey() != null && edge.targetKey() != null && !edge.sourceKey().equals(edge.targetKey())) {
+                    pendingEdges.add(edge);
+                    emitConnectedEdges();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            LOGGER.debug("[FlowStack] Skipping unparseable streamed {} element: {}", array, ex.getOriginalMessage());
+        }
+    }
+
+    private void emitNode(WorkflowNodeRequest node) {
+        if (node.key() == null || node.type() == null || !nodeKeys.add(node.key())) {
+            return;
+        }
+        onNode.accept(new WorkflowNodeRequest(node.key(), node.displayName(), node.type(), nodeKeys.size() - 1,
+                node.config() != null ? node.config() : new HashMap<>(), node.metadata()));
+        emitConnectedEdges();
+    }
+
+    private void emitConnectedEdges() {
+        pendingEdges.removeIf(edge -> {
+            if (nodeKeys.contains(edge.sourceKey()) && nodeKeys.contains(edge.targetKey())) {
+                onEdge.accept(edge);
+                return true;
+            }
+            return false;
+        });
+    }
+}
@@ -0,0 +1,289 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pulls selected fields out of a JSON document while it streams in, without building the whole
+ * tree. Expressions are JSON Pointers ({@code /data/items/0/id}) or a JSONPath subset: {@code $},
+ * {@code .name}, {@code ['name']}, {@code [n]}, {@code [*]} and {@code .*}. An expression with a
+ * wildcard yields the list of every match; any other yields its first match, or {@code null}.
+ */
+public final class JsonExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Map<String, List<Segment>> expressions;
+
+    private JsonExtractor(Map<String, List<Segment>> expressions) {
+        this.expressions = expressions;
+    }
+
+    /**
+     * Compiles an {@code extract} config map of context name to expression.
+     */
+    public static JsonExtractor compile(Map<?, ?> spec) {
+        Map<String, List<Segment>> compiled = new LinkedHashMap<>();
+        spec.forEach((name, expression) -> {
+            if (name == null || expression == null) {
+                return;
+            }
+            compiled.put(String.valueOf(name), parse(String.valueOf(expression).trim()));
+        });
+        return new JsonExtractor(compiled);
+    }
+
+    public Session start(ObjectMapper objectMapper) {
+        try {
+            return new Session(objectMapper);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to create JSON parser", ex);
+        }
+    }
+
+    /**
+     * One pass over one document. Feed it the body chunk by chunk, then call {@link #finish()}.
+     */
+    public final class Session {
+
+        private final ObjectMapper objectMapper;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final List<Capture> captures = new ArrayList<>();
+        private final Map<String, Object> results = new LinkedHashMap<>();
+
+        private Session(ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            expressions.forEach((name, segments) -> {
+                if (segments.stream().anyMatch(Segment::wildcard)) {
+                    results.put(name, new ArrayList<>());
+                } else {
+                    results.put(name, null);
+                }
+            });
+        }
+
+        public void feed(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            // Copy: the parser keeps a reference to the input until it has consumed it
+            byte[] chunk = new byte[length];
+            System.arraycopy(bytes, offset, chunk, 0, length);
+            feeder.feedInput(chunk, 0, length);
+            drain();
+        }
+
+        public Map<String, Object> finish() throws IOException {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+            return results;
+        }
+
+        private void drain() throws IOException {
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                    handle(token);
+                }
+            } catch (JsonProcessingException ex) {
+                throw new ResponseBodyException("Response body is not valid JSON: " + ex.getOriginalMessage(), ex);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            Iterator<Capture> active = captures.iterator();
+            while (active.hasNext()) {
+                Capture capture = active.next();
+                capture.buffer.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    capture.depth++;
+                } else if (token.isStructEnd() && --capture.depth == 0) {
+                    active.remove();
+                    record(capture.name, objectMapper.readValue(capture.buffer.asParser(), Object.class));
+                }
+            }
+
+            if (token == JsonToken.FIELD_NAME) {
+                frames.peek().field = parser.currentName();
+                return;
+            }
+            if (token.isStructEnd()) {
+                frames.pop();
+                return;
+            }
+
+            Frame container = frames.peek();
+            if (container != null && container.array) {
+                container.index++;
+            }
+            for (Map.Entry<String, List<Segment>> expression : expressions.entrySet()) {
+                if (!matches(expression.getValue())) {
+                    continue;
+                }
+                if (token.isStructStart()) {
+                    TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+                    buffer.copyCurrentEvent(parser);
+                    captures.add(new Capture(expression.getKey(), buffer));
+                } else {
+                    record(expression.getKey(), scalar(token));
+                }
+            }
+            if (token.isStructStart()) {
+                frames.push(new Frame(token == JsonToken.START_ARRAY));
+            }
+        }
+
+        private boolean matches(List<Segment> segments) {
+            if (segments.size() != frames.size()) {
+                return false;
+            }
+            Iterator<Frame> fromRoot = frames.descendingIterator();
+            for (Segment segment : segments) {
+                if (!segment.matches(fromRoot.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void record(String name, Object value) {
+            Object existing = results.get(name);
+            if (existing instanceof List<?> list && expressions.get(name).stream().anyMatch(Segment::wildcard)) {
+                ((List<Object>) list).add(value);
+            } else if (existing == null) {
+                results.put(name, value);
+            }
+        }
+
+        private Object scalar(JsonToken token) throws IOException {
+            return switch (token) {
+                case VALUE_STRING -> parser.getText();
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                case VALUE_TRUE -> Boolean.TRUE;
+                case VALUE_FALSE -> Boolean.FALSE;
+                default -> null;
+            };
+        }
+    }
+
+    private static final class Frame {
+
+        private final boolean array;
+        private String field;
+        private int index = -1;
+
+        private Frame(boolean array) {
+            this.array = array;
+        }
+    }
+
+    private static final class Capture {
+
+        private final String name;
+        private final TokenBuffer buffer;
+        private int depth = 1;
+
+        private Capture(String name, TokenBuffer buffer) {
+            this.name = name;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * One path step: a field name, an array index, both (a numeric JSON Pointer token), or any child.
+     */
+    private record Segment(String field, int index, boolean wildcard) {
+
+        boolean matches(Frame frame) {
+            if (wildcard) {
+                return true;
+            }
+            return frame.array ? index >= 0 && index == frame.index : field != null && field.equals(frame.field);
+        }
+    }
+
+    private static List<Segment> parse(String expression) {
+        if (expression.isEmpty() || expression.startsWith("/")) {
+            return parsePointer(expression);
+        }
+        String path = expression.startsWith("$") ? expression.substring(1) : "." + expression;
+        List<Segment> segments = new ArrayList<>();
+        int i = 0;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                if (path.startsWith("..", i)) {
+                    throw unsupported(expression);
+                }
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String name = path.substring(i + 1, end);
+                if (name.isEmpty()) {
+                    throw unsupported(expression);
+                }
+                segments.add(name.equals("*") ? new Segment(null, -1, true) : new Segment(name, -1, false));
+                i = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0) {
+                    throw unsupported(expression);
+                }
+                String inner = path.substring(i + 1, end).trim();
+                if (inner.equals("*")) {
+                    segments.add(new Segment(null, -1, true));
+                } else if ((inner.startsWith("'") && inner.endsWith("'") || inner.startsWith("\"") && inner.endsWith("\""))
+                        && inner.length() >= 2) {
+                    segments.add(new Segment(inner.substring(1, inner.length() - 1), -1, false));
+                } else if (inner.matches("\\d+")) {
+                    segments.add(new Segment(null, Integer.parseInt(inner), false));
+                } else {
+                    throw unsupported(expression);
+                }
+                i = end + 1;
+            } else {
+                throw unsupported(expression);
+            }
+        }
+        return segments;
+    }
+
+    private static List<Segment> parsePointer(String pointer) {
+        List<Segment> segments = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return segments;
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            String name = token.replace("~1", "/").replace("~0", "~");
+            int index = name.matches("\\d+") ? Integer.parseInt(name) : -1;
+            segments.add(new Segment(name, index, false));
+        }
+        return segments;
+    }
+
+    private static NodeExecutionException unsupported(String expression) {
+        return new NodeExecutionException("Unsupported extract expression: " + expression
+                + " (use a JSON Pointer or $.field, ['field'], [n], [*], .*)");
+    }
+}
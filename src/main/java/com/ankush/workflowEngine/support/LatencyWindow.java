@@ -0,0 +1,42 @@
+package com.ankush.workflowEngine.support;
+
+import java.util.Arrays;
+
+/**
+ * Ring of the last {@code size} latencies (milliseconds) of one kind of call, with percentiles
+ * over whatever it currently holds. Thread-safe; percentiles sort a copy, so windows are meant to
+ * stay in the hundreds.
+ */
+public final class LatencyWindow {
+
+    private final long[] latenciesMs;
+    private int count;
+    private int cursor;
+
+    public LatencyWindow(int size) {
+        this.latenciesMs = new long[Math.max(1, size)];
+    }
+
+    public synchronized void record(long latencyMs) {
+        latenciesMs[cursor] = latencyMs;
+        cursor = (cursor + 1) % latenciesMs.length;
+        count = Math.min(count + 1, latenciesMs.length);
+    }
+
+    public synchronized int samples() {
+        return count;
+    }
+
+    /**
+     * Nearest-rank percentile, e.g. {@code 0.95}; 0 while the window is empty.
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latenciesMs, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+}
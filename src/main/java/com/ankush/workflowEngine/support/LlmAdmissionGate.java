@@ -0,0 +1,331 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.LlmAdmissionProperties;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-model admission control for local LLM calls. Ollama works through a model's requests a
+ * few at a time, so instead of letting every caller pile into its internal queue until the read
+ * timeout fires, calls wait here: each model admits {@code concurrency} calls, the rest queue by
+ * {@link LlmCaller#priority()} and then arrival order. A call whose expected wait (queue ahead of
+ * it times the model's observed service time) exceeds its deadline is rejected immediately, and
+ * one still queued when its deadline passes gives up; both fail with a
+ * {@link NodeExecutionException}. {@link #acquireAsync} queues the same way without holding a
+ * thread: the slot is handed over by completing a future.
+ */
+@Component
+public class LlmAdmissionGate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmAdmissionGate.class);
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+
+    private final LlmAdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public LlmAdmissionGate(LlmAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Held while a call runs; closing it frees the slot for the next waiter.
+     */
+    public interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    public <T> T call(String model, LlmCaller caller, Duration deadline, Supplier<T> call) {
+        try (Permit permit = acquire(model, caller, deadline)) {
+            return call.get();
+        }
+    }
+
+    /**
+     * Waits for a slot on {@code model} for at most {@code deadline}.
+     */
+    public Permit acquire(String model, LlmCaller caller, Duration deadline) {
+        if (!properties.isEnabled()) {
+            return () -> { };
+        }
+        Lane lane = lane(model);
+        long startedAt = System.nanoTime();
+        lane.admit(caller, deadline);
+        return permit(lane, caller, startedAt);
+    }
+
+    /**
+     * A future for a slot on {@code model}, failing like {@link #acquire} when the call is
+     * rejected or {@code deadline} passes first; no thread waits meanwhile. Cancelling the future
+     * leaves the queue. It completes on the thread that frees the slot, so dependents should
+     * only start work, not do it.
+     */
+    public CompletableFuture<Permit> acquireAsync(String model, LlmCaller caller, Duration deadline) {
+        if (!properties.isEnabled()) {
+            return CompletableFuture.completedFuture(() -> { });
+        }
+        Lane lane = lane(model);
+        long startedAt = System.nanoTime();
+        Waiter waiter;
+        try {
+            waiter = lane.enqueue(caller, deadline, true);
+        } catch (NodeExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (waiter == null) {
+            return CompletableFuture.completedFuture(permit(lane, caller, startedAt));
+        }
+        waiter.startedAt = startedAt;
+        waiter.future.whenComplete((permit, ex) -> {
+            if (ex != null) {
+                lane.abandon(waiter);
+            }
+        });
+        CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> lane.expire(waiter, caller, deadline));
+        return waiter.future;
+    }
+
+    private Permit permit(Lane lane, LlmCaller caller, long startedAt) {
+        recordWait(lane, caller, startedAt);
+        return held(lane);
+    }
+
+    private void recordWait(Lane lane, LlmCaller caller, long startedAt) {
+        Timer.builder("flowstack.llm.admission.wait")
+                .tag("model", lane.model)
+                .tag("caller", caller.tag())
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private static Permit held(Lane lane) {
+        long admittedAt = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                lane.release(System.nanoTime() - admittedAt);
+            }
+        };
+    }
+
+    /**
+     * Calls running on or queued for {@code model}.
+     */
+    public int pending(String model) {
+        Lane lane = lanes.get(model);
+        return lane != null ? lane.active() + lane.queued() : 0;
+    }
+
+    private Lane lane(String model) {
+        return lanes.computeIfAbsent(model, name -> {
+            Lane lane = new Lane(name, properties.concurrencyFor(name));
+            Gauge.builder("flowstack.llm.admission.queued", lane, Lane::queued)
+                    .tag("model", name)
+                    .strongReference(true)
+                    .register(meterRegistry);
+            Gauge.builder("flowstack.llm.admission.active", lane, Lane::active)
+                    .tag("model", name)
+                    .strongReference(true)
+                    .register(meterRegistry);
+            return lane;
+        });
+    }
+
+    private void rejected(String model, LlmCaller caller, String reason) {
+        meterRegistry.counter("flowstack.llm.admission.rejected",
+                "model", model, "caller", caller.tag(), "reason", reason).increment();
+    }
+
+    /**
+     * A queued call; {@code future} is set for one queued by {@link #acquireAsync}.
+     */
+    private static final class Waiter {
+
+        private final int priority;
+        private final long sequence;
+        private final LlmCaller caller;
+        private final CompletableFuture<Permit> future;
+        private long startedAt;
+        private boolean admitted;
+
+        private Waiter(LlmCaller caller, long sequence, boolean async) {
+            this.priority = caller.priority();
+            this.sequence = sequence;
+            this.caller = caller;
+            this.future = async ? new CompletableFuture<>() : null;
+        }
+    }
+
+    /**
+     * Slots and wait queue of one model, guarded by the lane's monitor. A released slot is handed
+     * straight to the head waiter, so a newcomer can never overtake the queue.
+     */
+    private final class Lane {
+
+        private final String model;
+        private final int concurrency;
+        private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+                Comparator.comparingInt((Waiter w) -> -w.priority).thenComparingLong(w -> w.sequence));
+        private int running;
+        private long sequence;
+        private double serviceTimeMs;
+
+        private Lane(String model, int concurrency) {
+            this.model = model;
+            this.concurrency = concurrency;
+            this.serviceTimeMs = properties.getInitialServiceTime().toMillis();
+        }
+
+        synchronized void admit(LlmCaller caller, Duration deadline) {
+            Waiter waiter = enqueue(caller, deadline, false);
+            if (waiter == null) {
+                return;
+            }
+            long giveUpAt = System.nanoTime() + deadline.toNanos();
+            try {
+                while (!waiter.admitted) {
+                    long remainingNanos = giveUpAt - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        waiting.remove(waiter);
+                        rejected(model, caller, "timeout");
+                        throw timedOut(deadline);
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                }
+            } catch (InterruptedException ex) {
+                if (waiter.admitted) {
+                    release(-1);
+                } else {
+                    waiting.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new NodeExecutionException("Interrupted while waiting for LLM " + model, ex);
+            }
+        }
+
+        /**
+         * Takes a free slot and returns {@code null}, or queues and returns the waiter; throws if
+         * the queue is full or the expected wait exceeds {@code deadline}.
+         */
+        synchronized Waiter enqueue(LlmCaller caller, Duration deadline, boolean async) {
+            if (running < concurrency && waiting.isEmpty()) {
+                running++;
+                return null;
+            }
+            if (waiting.size() >= properties.getMaxQueue()) {
+                rejected(model, caller, "queue_full");
+                throw new NodeExecutionException("LLM queue for " + model + " is full ("
+                        + properties.getMaxQueue() + " waiting); try again later");
+            }
+            long expectedWaitMs = expectedWaitMs(caller.priority());
+            if (expectedWaitMs > deadline.toMillis()) {
+                rejected(model, caller, "deadline");
+                throw new NodeExecutionException("LLM " + model + " is busy: expected wait of "
+                        + expectedWaitMs / 1000 + "s exceeds the " + deadline.toSeconds() + "s deadline");
+            }
+            Waiter waiter = new Waiter(caller, sequence++, async);
+            waiting.add(waiter);
+            return waiter;
+        }
+
+        /**
+         * Fails an async waiter still queued when its deadline passes.
+         */
+        void expire(Waiter waiter, LlmCaller caller, Duration deadline) {
+            synchronized (this) {
+                if (waiter.admitted || !waiting.remove(waiter)) {
+                    return;
+                }
+            }
+            if (waiter.future.completeExceptionally(timedOut(deadline))) {
+                rejected(model, caller, "timeout");
+            }
+        }
+
+        /**
+         * An async waiter whose future failed or was cancelled leaves the queue.
+         */
+        synchronized void abandon(Waiter waiter) {
+            if (!waiter.admitted) {
+                waiting.remove(waiter);
+            }
+        }
+
+        /**
+         * Frees a slot; {@code heldNanos} below zero means the slot was never used. The slot goes
+         * to the head waiter: a blocked thread is woken, an async waiter's future completed.
+         */
+        void release(long heldNanos) {
+            Waiter next;
+            synchronized (this) {
+                if (heldNanos >= 0) {
+                    double heldMs = heldNanos / 1_000_000.0;
+                    serviceTimeMs += SERVICE_TIME_WEIGHT * (heldMs - serviceTimeMs);
+                }
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+                next.admitted = true;
+                if (next.future == null) {
+                    notifyAll();
+                    return;
+                }
+            }
+            // Outside the monitor: completing runs the waiter's dependents on this thread
+            if (next.future.complete(held(this))) {
+                recordWait(this, next.caller, next.startedAt);
+            } else {
+                release(-1); // Cancelled or expired meanwhile; pass the slot on
+            }
+        }
+
+        private NodeExecutionException timedOut(Duration deadline) {
+            return new NodeExecutionException("Timed out after " + deadline.toSeconds() + "s waiting for LLM " + model);
+        }
+
+        /**
+         * Calls that start before one of the given priority, in rounds of {@code concurrency}.
+         */
+        private long expectedWaitMs(int priority) {
+            int ahead = 0;
+            for (Waiter waiter : waiting) {
+                if (waiter.priority >= priority) {
+                    ahead++;
+                }
+            }
+            int rounds = ahead / concurrency + 1;
+            long estimate = Math.round(rounds * serviceTimeMs);
+            LOGGER.debug("[FlowStack] LLM {} busy: {} queued ahead, expected wait {}ms", model, ahead, estimate);
+            return estimate;
+        }
+
+        synchronized int queued() {
+            return waiting.size();
+        }
+
+        synchronized int active() {
+            return running;
+        }
+    }
+}
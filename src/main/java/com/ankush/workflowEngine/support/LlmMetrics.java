@@ -0,0 +1,140 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.enums.LlmCaller;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency and token throughput of LLM calls, tagged by provider, model and caller:
+ * <ul>
+ *   <li>{@code flowstack.llm.latency} – whole call, with an {@code outcome} of success, error or timeout</li>
+ *   <li>{@code flowstack.llm.ttft} – time to first token</li>
+ *   <li>{@code flowstack.llm.tokens.prompt} / {@code flowstack.llm.tokens.completion} – token counts per call</li>
+ *   <li>{@code flowstack.llm.tokens.per.second} – completion tokens over generation time</li>
+ * </ul>
+ * Percentile histograms are switched on for the {@code flowstack.llm} prefix in
+ * {@code application.properties}, so Prometheus gets buckets for all of them.
+ */
+@Component
+public class LlmMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Sample start(String provider, String model, LlmCaller caller) {
+        return new Sample(provider, model, caller);
+    }
+
+    /**
+     * Whether {@code error} (or one of its causes) is a read or call timeout.
+     */
+    public static boolean isTimeout(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof SocketTimeoutException || current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One call being measured. Not thread-safe; it is used by one thread at a time (the caller's, or
+     * for a stream the HTTP client's I/O thread).
+     */
+    public final class Sample {
+
+        private final String provider;
+        private final String model;
+        private final String caller;
+        private final long startedAt = System.nanoTime();
+        private long firstTokenAt;
+        private Duration timeToFirstToken;
+
+        private Sample(String provider, String model, LlmCaller caller) {
+            this.provider = provider;
+            this.model = model;
+            this.caller = caller.tag();
+        }
+
+        /**
+         * Marks the arrival of streamed output; only the first call counts.
+         */
+        public void firstToken() {
+            if (firstTokenAt == 0) {
+                firstTokenAt = System.nanoTime();
+            }
+        }
+
+        /**
+         * Time to first token as reported by the provider, for calls that were not streamed.
+         */
+        public void timeToFirstToken(Duration reported) {
+            this.timeToFirstToken = reported;
+        }
+
+        /**
+         * Records token counts; a missing {@code generation} time is taken from the first token
+         * to now. Negative counts mean the provider did not report them.
+         */
+        public void usage(long promptTokens, long completionTokens, Duration generation) {
+            if (promptTokens >= 0) {
+                summary("flowstack.llm.tokens.prompt").record(promptTokens);
+            }
+            if (completionTokens < 0) {
+                return;
+            }
+            summary("flowstack.llm.tokens.completion").record(completionTokens);
+            long generationNanos = generation != null ? generation.toNanos()
+                    : firstTokenAt != 0 ? System.nanoTime() - firstTokenAt : 0;
+            if (generationNanos > 0 && completionTokens > 0) {
+                DistributionSummary.builder("flowstack.llm.tokens.per.second")
+                        .baseUnit("tokens")
+                        .tags("provider", provider, "model", model, "caller", caller)
+                        .register(meterRegistry)
+                        .record(completionTokens * 1_000_000_000.0 / generationNanos);
+            }
+        }
+
+        public void success() {
+            long ttftNanos = timeToFirstToken != null ? timeToFirstToken.toNanos()
+                    : firstTokenAt != 0 ? firstTokenAt - startedAt : -1;
+            if (ttftNanos >= 0) {
+                timer("flowstack.llm.ttft").record(ttftNanos, TimeUnit.NANOSECONDS);
+            }
+            finish("success");
+        }
+
+        public void failure(Throwable error) {
+            finish(isTimeout(error) ? "timeout" : "error");
+        }
+
+        private void finish(String outcome) {
+            Timer.builder("flowstack.llm.latency")
+                    .tags("provider", provider, "model", model, "caller", caller, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String name) {
+            return Timer.builder(name)
+                    .tags("provider", provider, "model", model, "caller", caller)
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary summary(String name) {
+            return DistributionSummary.builder(name)
+                    .baseUnit("tokens")
+                    .tags("provider", provider, "model", model, "caller", caller)
+                    .register(meterRegistry);
+        }
+    }
+}
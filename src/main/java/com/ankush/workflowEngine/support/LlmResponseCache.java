@@ -0,0 +1,187 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.LlmCacheProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches LLM completions keyed by provider, model, generation parameters and a hash of the
+ * normalized prompt (line endings unified, trailing whitespace dropped). Entries live in a
+ * bounded in-memory LRU and, when {@code flowstack.llm.cache.redis-enabled} is set, in Redis
+ * with the same TTL so every instance shares them. Callers choose the TTL; {@code null} or
+ * zero means the call is not cached at all.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmResponseCache.class);
+    private static final Pattern TRAILING_WHITESPACE = Pattern.compile("[ \\t]+(?=\\n|$)");
+    private static final int CHARS_PER_TOKEN = 4;
+
+    /**
+     * Cache key for one call; {@code promptChars} feeds the saved-token estimate on a hit.
+     */
+    public record Key(String provider, String model, String hash, int promptChars) {
+    }
+
+    record Entry(String response, long expiresAt) {
+    }
+
+    private final LlmCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> local;
+
+    public LlmResponseCache(LlmCacheProperties properties, StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+    }
+
+    /**
+     * Returns the cached response, or runs {@code call} and caches its result for {@code ttl}.
+     */
+    public String getOrCompute(String provider, String model, Map<String, ?> params, String prompt, Duration ttl,
+                               Supplier<String> call) {
+        if (!cacheable(ttl)) {
+            return call.get();
+        }
+        Key key = key(provider, model, params, prompt);
+        String cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String response = call.get();
+        put(key, response, ttl);
+        return response;
+    }
+
+    /**
+     * TTL a workflow node asked for: {@code "cache": true} opts in, {@code "cacheTtlSeconds"}
+     * overrides the default TTL; {@code null} when the node does not cache.
+     */
+    public Duration nodeTtl(Map<String, Object> config) {
+        Object flag = config.get("cache");
+        boolean enabled = flag instanceof Boolean bool ? bool : flag != null && Boolean.parseBoolean(flag.toString());
+        if (!enabled) {
+            return null;
+        }
+        Object seconds = config.get("cacheTtlSeconds");
+        if (seconds == null) {
+            return properties.getDefaultTtl();
+        }
+        try {
+            long value = seconds instanceof Number number ? number.longValue() : Long.parseLong(seconds.toString().trim());
+            return Duration.ofSeconds(value);
+        } catch (NumberFormatException ex) {
+            throw new NodeExecutionException("cacheTtlSeconds must be a number: " + seconds, ex);
+        }
+    }
+
+    /**
+     * TTL for the chatbot and visual editor assistant calls.
+     */
+    public Duration assistantTtl() {
+        return properties.getAssistantTtl();
+    }
+
+    public boolean cacheable(Duration ttl) {
+        return properties.isEnabled() && ttl != null && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    public Key key(String provider, String model, Map<String, ?> params, String prompt) {
+        String normalized = normalize(prompt);
+        String hash = SingleFlight.key(provider, model, new TreeMap<>(params), normalized);
+        return new Key(provider, model, hash, normalized.length());
+    }
+
+    /**
+     * Looks the key up and records a hit or miss; a hit also counts the tokens it saved.
+     */
+    public String get(Key key) {
+        String response = read(key.hash());
+        String result = response != null ? "hit" : "miss";
+        meterRegistry.counter("flowstack.llm.cache.requests", "provider", key.provider(), "result", result).increment();
+        if (response != null) {
+            meterRegistry.counter("flowstack.llm.cache.saved.tokens", "provider", key.provider(), "model", key.model())
+                    .increment((key.promptChars() + response.length()) / (double) CHARS_PER_TOKEN);
+        }
+        return response;
+    }
+
+    public void put(Key key, String response, Duration ttl) {
+        if (response == null || response.isBlank() || response.length() > properties.getMaxEntryChars()) {
+            return;
+        }
+        Entry entry = new Entry(response, System.currentTimeMillis() + ttl.toMillis());
+        synchronized (local) {
+            local.put(key.hash(), entry);
+        }
+        if (!properties.isRedisEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(properties.getRedisKeyPrefix() + key.hash(),
+                    objectMapper.writeValueAsString(entry), ttl);
+        } catch (Exception ex) {
+            LOGGER.warn("[FlowStack] LLM cache write to Redis failed: {}", ex.getMessage());
+        }
+    }
+
+    private String read(String hash) {
+        long now = System.currentTimeMillis();
+        synchronized (local) {
+            Entry entry = local.get(hash);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    return entry.response();
+                }
+                local.remove(hash);
+            }
+        }
+        if (!properties.isRedisEnabled()) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(properties.getRedisKeyPrefix() + hash);
+            if (json == null) {
+                return null;
+            }
+            Entry entry = objectMapper.readValue(json, Entry.class);
+            synchronized (local) {
+                local.put(hash, entry);
+            }
+            return entry.response();
+        } catch (Exception ex) {
+            LOGGER.warn("[FlowStack] LLM cache read from Redis failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        return TRAILING_WHITESPACE.matcher(prompt.replace("\r\n", "\n")).replaceAll("").strip();
+    }
+}
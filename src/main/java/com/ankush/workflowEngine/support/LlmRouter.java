@@ -0,0 +1,281 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.LlmRouterProperties;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+
+/**
+ * Routes a prompt to one of several acceptable LLMs (Ollama or OpenAI models). Candidates are
+ * ranked by observed median latency scaled by their current load (calls in flight, plus the
+ * admission queue for Ollama models); an open circuit breaker sends a candidate to the back. The
+ * best one is called first and a failure moves on to the next. With hedging, the runner-up is
+ * also started once the leader has taken longer than its own p95; the first answer wins and
+ * the other call is cancelled.
+ *
+ * <p>Attempts are non-blocking streams, so no thread waits on a candidate and cancelling one
+ * releases everything it holds at once: a call still queued at the Ollama admission gate leaves
+ * the queue, and a running one frees its gate and bulkhead slots and aborts its exchange. Once
+ * the routed call has an outcome (an answer, a timeout, an interrupted caller) no further
+ * failover or hedge is started.
+ */
+@Component
+public class LlmRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmRouter.class);
+
+    public static final String OLLAMA = "ollama";
+    public static final String OPENAI = "openai";
+
+    /**
+     * One acceptable provider/model; {@link #name()} matches the {@link DownstreamGuard} name.
+     */
+    public record Candidate(String provider, String model) {
+
+        public String name() {
+            return provider + ":" + model;
+        }
+    }
+
+    public record Routed(String text, Candidate candidate, int attempts, boolean hedged) {
+    }
+
+    private final OllamaClient ollamaClient;
+    private final OpenAiClient openAiClient;
+    private final LlmAdmissionGate admissionGate;
+    private final DownstreamGuard downstreamGuard;
+    private final LlmRouterProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public LlmRouter(OllamaClient ollamaClient, OpenAiClient openAiClient, LlmAdmissionGate admissionGate,
+                     DownstreamGuard downstreamGuard, LlmRouterProperties properties, MeterRegistry meterRegistry) {
+        this.ollamaClient = ollamaClient;
+        this.openAiClient = openAiClient;
+        this.admissionGate = admissionGate;
+        this.downstreamGuard = downstreamGuard;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Calls the best candidate, failing over down the ranking and, when {@code hedge} is set,
+     * racing the runner-up after {@code hedgeDelay} (the leader's p95 when {@code null}).
+     */
+    public Routed route(List<Candidate> preferences, String prompt, Double temperature, boolean hedge,
+                        Duration hedgeDelay) {
+        if (preferences.isEmpty()) {
+            throw new NodeExecutionException("No LLM providers to route to");
+        }
+        List<Candidate> ranked = rank(preferences);
+        Race race = new Race(ranked, prompt, temperature);
+        race.launch("primary");
+        if (hedge && ranked.size() > 1) {
+            Duration delay = hedgeDelay != null ? hedgeDelay : hedgeDelay(ranked.get(0));
+            CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> race.launch("hedge"));
+        }
+        try {
+            return race.winner.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new NodeExecutionException("No LLM answered within " + properties.getTimeout().toSeconds() + "s", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NodeExecutionException("Interrupted while waiting for an LLM", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof NodeExecutionException nodeError) {
+                throw nodeError;
+            }
+            throw new NodeExecutionException("LLM call failed: " + ex.getCause().getMessage(), ex.getCause());
+        } finally {
+            // Settles the race first, so a pending hedge or failover is no longer launched
+            race.winner.cancel(false);
+            race.cancelAll();
+        }
+    }
+
+    /**
+     * Candidates best first: closed breakers before open ones, then by estimated latency; ties
+     * keep the configured preference order.
+     */
+    public List<Candidate> rank(List<Candidate> preferences) {
+        List<Candidate> ranked = new ArrayList<>(preferences);
+        ranked.sort(Comparator
+                .comparing((Candidate c) -> downstreamGuard.state(c.name()) == DownstreamGuard.State.OPEN)
+                .thenComparingDouble(this::estimatedLatencyMs));
+        return ranked;
+    }
+
+    private double estimatedLatencyMs(Candidate candidate) {
+        LatencyWindow window = latencies(candidate);
+        double latency = window.samples() >= properties.getMinSamples()
+                ? window.percentile(0.5)
+                : properties.getInitialLatency().toMillis();
+        int load = inFlight(candidate).get();
+        if (OLLAMA.equals(candidate.provider())) {
+            load = Math.max(load, admissionGate.pending(candidate.model()));
+        }
+        return latency * (1 + load);
+    }
+
+    private Duration hedgeDelay(Candidate leader) {
+        LatencyWindow window = latencies(leader);
+        if (window.samples() < properties.getMinSamples()) {
+            return properties.getDefaultHedgeDelay();
+        }
+        long p95 = window.percentile(0.95);
+        return Duration.ofMillis(Math.max(p95, properties.getMinHedgeDelay().toMillis()));
+    }
+
+    private Flux<String> call(Candidate candidate, String prompt, Double temperature) {
+        return switch (candidate.provider()) {
+            case OLLAMA -> ollamaClient.guardedTextStream(candidate.model(), prompt, LlmCaller.NODE);
+            case OPENAI -> openAiClient.completionStream(candidate.model(), prompt, temperature);
+            default -> Flux.error(new NodeExecutionException("Unknown LLM provider: " + candidate.provider()));
+        };
+    }
+
+    private LatencyWindow latencies(Candidate candidate) {
+        return latencies.computeIfAbsent(candidate.name(), name -> new LatencyWindow(properties.getWindow()));
+    }
+
+    private AtomicInteger inFlight(Candidate candidate) {
+        return inFlight.computeIfAbsent(candidate.name(), name -> new AtomicInteger());
+    }
+
+    private void count(Candidate candidate, String role, String result) {
+        meterRegistry.counter("flowstack.llm.router.attempts", "provider", candidate.provider(),
+                "model", candidate.model(), "role", role, "result", result).increment();
+    }
+
+    /**
+     * Attempts of one routed call. Launches and outcomes are serialized on the race's monitor;
+     * the winner future completes with the first answer, or with the last error once every
+     * candidate has failed. Attempts are cancelled outside the monitor, since a cancelled stream
+     * may report back from another thread.
+     */
+    private final class Race {
+
+        private final List<Candidate> ranked;
+        private final String prompt;
+        private final Double temperature;
+        private final CompletableFuture<Routed> winner = new CompletableFuture<>();
+        private final List<Attempt> attempts = new ArrayList<>();
+        private int next;
+        private int running;
+        private boolean hedged;
+        private RuntimeException lastError;
+
+        private Race(List<Candidate> ranked, String prompt, Double temperature) {
+            this.ranked = ranked;
+            this.prompt = prompt;
+            this.temperature = temperature;
+        }
+
+        synchronized void launch(String role) {
+            if (winner.isDone()) {
+                return;
+            }
+            if (next >= ranked.size()) {
+                if (running == 0) {
+                    winner.completeExceptionally(lastError != null ? lastError
+                            : new NodeExecutionException("No LLM providers left to try"));
+                }
+                return;
+            }
+            Attempt attempt = new Attempt(this, ranked.get(next++), role);
+            hedged |= "hedge".equals(role);
+            attempts.add(attempt);
+            running++;
+            attempt.start();
+        }
+
+        void succeeded(Attempt attempt, String text) {
+            boolean won;
+            synchronized (this) {
+                running--;
+                won = winner.complete(new Routed(text, attempt.candidate, attempts.size(), hedged));
+            }
+            count(attempt.candidate, attempt.role, won ? "won" : "lost");
+            if (won) {
+                cancelAll();
+            }
+        }
+
+        synchronized void failed(Attempt attempt, Throwable error) {
+            running--;
+            count(attempt.candidate, attempt.role, "failed");
+            LOGGER.warn("[FlowStack] LLM {} attempt on {} failed: {}", attempt.role, attempt.candidate.name(),
+                    error.getMessage());
+            lastError = error instanceof RuntimeException runtime ? runtime
+                    : new NodeExecutionException("LLM call failed: " + error.getMessage(), error);
+            launch("failover");
+        }
+
+        synchronized void cancelled(Attempt attempt) {
+            running--;
+            count(attempt.candidate, attempt.role, "cancelled");
+        }
+
+        void cancelAll() {
+            List<Attempt> started;
+            synchronized (this) {
+                started = List.copyOf(attempts);
+            }
+            started.forEach(Attempt::cancel);
+        }
+    }
+
+    /**
+     * One candidate's call, subscribed on launch; {@link #cancel()} disposes the subscription.
+     */
+    private final class Attempt {
+
+        private final Race race;
+        private final Candidate candidate;
+        private final String role;
+        private final StringBuilder text = new StringBuilder();
+        private final Disposable.Swap subscription = Disposables.swap();
+
+        private Attempt(Race race, Candidate candidate, String role) {
+            this.race = race;
+            this.candidate = candidate;
+            this.role = role;
+        }
+
+        void start() {
+            AtomicInteger running = inFlight(candidate);
+            running.incrementAndGet();
+            long startedAt = System.nanoTime();
+            subscription.update(call(candidate, race.prompt, race.temperature)
+                    .doOnCancel(() -> race.cancelled(this))
+                    .doFinally(signal -> running.decrementAndGet())
+                    .subscribe(text::append, error -> race.failed(this, error), () -> {
+                        latencies(candidate).record((System.nanoTime() - startedAt) / 1_000_000);
+                        race.succeeded(this, text.toString());
+                    }));
+        }
+
+        void cancel() {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.LlmTimeoutProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timeouts for Ollama calls learned from their own latencies. Each model, prompt-size bucket and
+ * token-limit bucket keeps a {@link LatencyWindow}; a call's timeout is that bucket's high
+ * quantile times a safety multiplier, clamped to the configured floor and ceiling, so stuck calls
+ * on a fast model are cut early while long generations on a slow one keep their time. Buckets
+ * without enough samples fall back to the static estimate.
+ *
+ * <p>Calls that time out never enter the window: all that is known of them is a lower bound, and
+ * recording that bound as a latency would drag the quantile up towards the ceiling one timeout at
+ * a time. They are counted per bucket instead, and each timeout since the bucket's last completed
+ * call doubles its next timeout (up to the ceiling), so a model that has become slower is not cut
+ * off at the old timeout forever, while one completed call puts the bucket back on its learned
+ * value. Timeouts are whole seconds, since HTTP clients are cached per read timeout.
+ */
+@Component
+public class LlmTimeoutPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmTimeoutPolicy.class);
+
+    // Static estimate: 50ms per 100 prompt chars + 100ms per token, plus 10s slack
+    private static final int TIMEOUT_PER_TOKEN_MS = 100;
+    private static final int MIN_STATIC_TIMEOUT_SECONDS = 30;
+    private static final int MAX_STATIC_TIMEOUT_SECONDS = 120;
+    // Consecutive timeouts beyond this do not widen the timeout further
+    private static final int MAX_BACKOFF_STEPS = 4;
+
+    private final LlmTimeoutProperties properties;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public LlmTimeoutPolicy(LlmTimeoutProperties properties) {
+        this.properties = properties;
+    }
+
+    public Duration timeout(String model, int promptChars, int maxTokens) {
+        if (!properties.isEnabled()) {
+            return staticTimeout(promptChars, maxTokens);
+        }
+        Bucket bucket = buckets.get(bucket(model, promptChars, maxTokens));
+        Duration base = staticTimeout(promptChars, maxTokens);
+        if (bucket != null && bucket.window.samples() >= properties.getMinSamples()) {
+            long learnedMs = Math.round(bucket.window.percentile(properties.getQuantile()) * properties.getMultiplier());
+            base = Duration.ofSeconds(Math.max(properties.getFloor().toSeconds(),
+                    Math.min(properties.getCeiling().toSeconds(), (learnedMs + 999) / 1000)));
+        }
+        int streak = bucket != null ? Math.min(MAX_BACKOFF_STEPS, bucket.timeoutStreak()) : 0;
+        if (streak == 0) {
+            return base;
+        }
+        long widened = base.toSeconds() << streak;
+        return Duration.ofSeconds(Math.max(base.toSeconds(), Math.min(properties.getCeiling().toSeconds(), widened)));
+    }
+
+    /**
+     * Records how long a completed call took.
+     */
+    public void record(String model, int promptChars, int maxTokens, Duration latency) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        bucketFor(model, promptChars, maxTokens).completed(latency.toMillis());
+    }
+
+    /**
+     * Records a call cut off at {@code timeout}; it is counted, not taken as a latency.
+     */
+    public void recordTimeout(String model, int promptChars, int maxTokens, Duration timeout) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Bucket bucket = bucketFor(model, promptChars, maxTokens);
+        int streak = bucket.timedOut();
+        LOGGER.debug("[FlowStack] LLM call timed out after {}s ({} in a row, {} in total)",
+                timeout.toSeconds(), streak, bucket.timeouts());
+    }
+
+    private Bucket bucketFor(String model, int promptChars, int maxTokens) {
+        return buckets.computeIfAbsent(bucket(model, promptChars, maxTokens), key -> {
+            LOGGER.debug("[FlowStack] Learning LLM timeouts for {}", key);
+            return new Bucket(new LatencyWindow(properties.getWindow()));
+        });
+    }
+
+    private static Duration staticTimeout(int promptChars, int maxTokens) {
+        int estimatedMs = (promptChars / 100) * 50 + (maxTokens * TIMEOUT_PER_TOKEN_MS);
+        return Duration.ofSeconds(Math.max(MIN_STATIC_TIMEOUT_SECONDS,
+                Math.min(MAX_STATIC_TIMEOUT_SECONDS, (estimatedMs / 1000) + 10)));
+    }
+
+    /**
+     * {@code <model>|p<prompt bucket>|t<token limit rounded up to a power of two>}.
+     */
+    private String bucket(String model, int promptChars, int maxTokens) {
+        List<Integer> boundaries = properties.getPromptBuckets();
+        int promptBucket = 0;
+        while (promptBucket < boundaries.size() && promptChars > boundaries.get(promptBucket)) {
+            promptBucket++;
+        }
+        int tokenBucket = maxTokens <= 1 ? 1 : Integer.highestOneBit(maxTokens - 1) << 1;
+        return model + "|p" + promptBucket + "|t" + tokenBucket;
+    }
+
+    /**
+     * One bucket's completed latencies, and its timeouts: in total and since the last completion.
+     */
+    private static final class Bucket {
+
+        private final LatencyWindow window;
+        private int timeoutStreak;
+        private long timeouts;
+
+        private Bucket(LatencyWindow window) {
+            this.window = window;
+        }
+
+        private void completed(long latencyMs) {
+            window.record(latencyMs);
+            synchronized (this) {
+                timeoutStreak = 0;
+            }
+        }
+
+        private synchronized int timedOut() {
+            timeouts++;
+            return ++timeoutStreak;
+        }
+
+        private synchronized int timeoutStreak() {
+            return timeoutStreak;
+        }
+
+        private synchronized long timeouts() {
+            return timeouts;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.ModelResidencyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which Ollama models are loaded, as far as this instance can tell, and how long each should stay
+ * loaded after a call. A model's recent traffic is a call count that decays over
+ * {@code flowstack.ollama.residency.window}; its {@code keep_alive} grows with that count, so a
+ * busy model stays resident while one called now and then is let go after the minimum. A model
+ * counts as warm until the {@code keep_alive} of the last call or preload Ollama answered runs out.
+ */
+@Component
+public class ModelResidency {
+
+    /**
+     * What is known about one model: {@code warmUntil} is {@code null} if it was never loaded, and
+     * {@code keepAlive} is what its next call would send unless the caller asks for its own.
+     */
+    public record Residency(String model, boolean warm, Instant warmUntil, Duration keepAlive, double recentCalls,
+                            boolean published) {
+    }
+
+    private record Usage(double recentCalls, Instant updatedAt, Instant warmUntil) {
+    }
+
+    private final ModelResidencyProperties properties;
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+    private volatile Set<String> publishedModels = Set.of();
+
+    public ModelResidency(ModelResidencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("flowstack.ollama.residency.warm", this, ModelResidency::warmCount)
+                .description("Ollama models expected to be loaded")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Records a call to {@code model} and returns the {@code keep_alive} to send with it:
+     * {@code requested} when the caller asked for one, else the traffic-based value, or
+     * {@code null} (Ollama's default) when residency management is off. The model only counts as
+     * warm once the call succeeds and is reported through {@link #loaded}.
+     */
+    public Duration keepAliveForCall(String model, Duration requested) {
+        if (!properties.isEnabled()) {
+            return requested;
+        }
+        Instant now = Instant.now();
+        Duration[] keepAlive = new Duration[1];
+        usage.compute(model, (key, current) -> {
+            double recentCalls = decayed(current, now) + 1;
+            keepAlive[0] = requested != null ? requested : keepAlive(model, recentCalls);
+            return new Usage(recentCalls, now, current != null ? current.warmUntil() : null);
+        });
+        return keepAlive[0];
+    }
+
+    /**
+     * The {@code keep_alive} to load {@code model} with ahead of its calls.
+     */
+    public Duration keepAlive(String model) {
+        Usage current = usage.get(model);
+        return keepAlive(model, decayed(current, Instant.now()));
+    }
+
+    /**
+     * Ollama answered a call or preload of {@code model}, which restarts its unload timer: the
+     * model is loaded for another {@code keepAlive}.
+     */
+    public void loaded(String model, Duration keepAlive) {
+        if (!properties.isEnabled() || keepAlive == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        usage.compute(model, (key, current) -> current != null
+                ? new Usage(current.recentCalls(), current.updatedAt(), now.plus(keepAlive))
+                : new Usage(0, now, now.plus(keepAlive)));
+    }
+
+    public boolean isWarm(String model) {
+        return isWarm(model, Duration.ZERO);
+    }
+
+    /**
+     * Whether {@code model} is expected to stay loaded for at least {@code margin} more.
+     */
+    public boolean isWarm(String model, Duration margin) {
+        Usage current = usage.get(model);
+        return current != null && current.warmUntil() != null
+                && current.warmUntil().isAfter(Instant.now().plus(margin));
+    }
+
+    /**
+     * The models referenced by published workflows, which keep at least
+     * {@code published-keep-alive} however quiet they are.
+     */
+    public void setPublishedModels(Set<String> models) {
+        this.publishedModels = Set.copyOf(models);
+    }
+
+    public Set<String> getPublishedModels() {
+        return publishedModels;
+    }
+
+    /**
+     * Every model seen or published, warm ones first.
+     */
+    public List<Residency> snapshot() {
+        Instant now = Instant.now();
+        Set<String> published = publishedModels;
+        Set<String> models = new TreeSet<>(usage.keySet());
+        models.addAll(published);
+        return models.stream()
+                .map(model -> {
+                    Usage current = usage.get(model);
+                    double recentCalls = decayed(current, now);
+                    Instant warmUntil = current != null ? current.warmUntil() : null;
+                    return new Residency(model, warmUntil != null && warmUntil.isAfter(now), warmUntil,
+                            keepAlive(model, recentCalls), Math.round(recentCalls * 100) / 100.0,
+                            published.contains(model));
+                })
+                .sorted(Comparator.comparing(Residency::warm).reversed())
+                .toList();
+    }
+
+    /**
+     * From {@code min-keep-alive} up to {@code max-keep-alive} as recent calls approach
+     * {@code busy-calls}; never below {@code published-keep-alive} for a published model.
+     */
+    private Duration keepAlive(String model, double recentCalls) {
+        Duration min = properties.getMinKeepAlive();
+        Duration max = properties.getMaxKeepAlive();
+        double share = Math.min(1.0, recentCalls / Math.max(1, properties.getBusyCalls()));
+        Duration keepAlive = min.plusMillis(Math.round(Math.max(0, max.minus(min).toMillis()) * share));
+        if (publishedModels.contains(model) && keepAlive.compareTo(properties.getPublishedKeepAlive()) < 0) {
+            keepAlive = properties.getPublishedKeepAlive();
+        }
+        return keepAlive;
+    }
+
+    /**
+     * Recent calls as of {@code now}, each counting for less the longer ago it was.
+     */
+    private double decayed(Usage current, Instant now) {
+        if (current == null) {
+            return 0;
+        }
+        long elapsed = Math.max(0, Duration.between(current.updatedAt(), now).toMillis());
+        return current.recentCalls() * Math.exp(-(double) elapsed / Math.max(1, properties.getWindow().toMillis()));
+    }
+
+    private double warmCount() {
+        Instant now = Instant.now();
+        return usage.values().stream()
+                .filter(current -> current.warmUntil() != null && current.warmUntil().isAfter(now))
+                .count();
+    }
+}
@@ -0,0 +1,142 @@
+package com.ankush.workflowEngine.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+
+/**
+ * Async response consumer for newline-delimited JSON (Ollama's streamed generations). Lines are
+ * parsed and handed to {@code onLine} on the I/O reactor thread as soon as they are complete, so
+ * no thread waits on the socket. Only the current partial line is buffered, up to
+ * {@link #MAX_LINE_BYTES}. The body of an error response is kept (truncated) for the message.
+ * {@link #eventStream} reads server-sent events (OpenAI's streamed completions) the same way:
+ * the JSON of each {@code data:} line is parsed, other lines and the {@code [DONE]} marker are
+ * skipped.
+ *
+ * <p>Cancelling the exchange's future does not reliably abort a response that arrives on a
+ * reused pooled connection, so {@link #cancel()} makes the next chunk fail the exchange instead,
+ * which closes the connection rather than reading the rest of the generation.
+ */
+public class NdjsonResponseConsumer extends AbstractBinResponseConsumer<NdjsonResponseConsumer.Result> {
+
+    private static final int CAPACITY_INCREMENT = 16 * 1024;
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+    private static final int MAX_ERROR_BODY_BYTES = 2048;
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE = "[DONE]";
+
+    public record Result(int status, String reasonPhrase, String errorBody) {
+    }
+
+    private final ObjectReader reader;
+    private final Consumer<JsonNode> onLine;
+    private final boolean events;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private HttpResponse response;
+    private volatile boolean cancelled;
+
+    public NdjsonResponseConsumer(ObjectReader reader, Consumer<JsonNode> onLine) {
+        this(reader, onLine, false);
+    }
+
+    private NdjsonResponseConsumer(ObjectReader reader, Consumer<JsonNode> onLine, boolean events) {
+        this.reader = reader;
+        this.onLine = onLine;
+        this.events = events;
+    }
+
+    /**
+     * Consumer for a {@code text/event-stream} body whose events carry JSON in {@code data:} lines.
+     */
+    public static NdjsonResponseConsumer eventStream(ObjectReader reader, Consumer<JsonNode> onData) {
+        return new NdjsonResponseConsumer(reader, onData, true);
+    }
+
+    /**
+     * Stops reading: the exchange fails with an {@link InterruptedIOException} on the next chunk.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) {
+        this.response = response;
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return CAPACITY_INCREMENT;
+    }
+
+    @Override
+    protected void data(ByteBuffer data, boolean endOfStream) throws IOException {
+        if (cancelled) {
+            throw new InterruptedIOException("Response consumption cancelled");
+        }
+        if (response.getCode() >= 400) {
+            while (data.hasRemaining() && pending.size() < MAX_ERROR_BODY_BYTES) {
+                pending.write(data.get());
+            }
+            data.position(data.limit());
+            return;
+        }
+        while (data.hasRemaining()) {
+            byte next = data.get();
+            if (next == '\n') {
+                flushLine();
+            } else if (next == '\r') {
+                continue;
+            } else if (pending.size() < MAX_LINE_BYTES) {
+                pending.write(next);
+            } else {
+                throw new IOException("NDJSON line exceeds " + MAX_LINE_BYTES + " bytes");
+            }
+        }
+        if (endOfStream) {
+            flushLine();
+        }
+    }
+
+    @Override
+    protected Result buildResult() {
+        String errorBody = response.getCode() >= 400 ? pending.toString(StandardCharsets.UTF_8) : null;
+        return new Result(response.getCode(), response.getReasonPhrase(), errorBody);
+    }
+
+    @Override
+    public void releaseResources() {
+        pending.reset();
+    }
+
+    private void flushLine() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        byte[] line = pending.toByteArray();
+        pending.reset();
+        if (events) {
+            String text = new String(line, StandardCharsets.UTF_8);
+            if (!text.startsWith(DATA_PREFIX)) {
+                return;
+            }
+            String data = text.substring(DATA_PREFIX.length()).trim();
+            if (data.isEmpty() || DONE.equals(data)) {
+                return;
+            }
+            line = data.getBytes(StandardCharsets.UTF_8);
+        }
+        JsonNode node = reader.readValue(line);
+        if (node != null) {
+            onLine.accept(node);
+        }
+    }
+}
@@ -1,69 +1,186 @@
 package com.ankush.workflowEngine.support;
 
 import com.ankush.workflowEngine.config.OllamaProperties;
+import com.ankush.workflowEngine.enums.LlmCaller;
 import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Ollama calls over the shared pooled HTTP client: connections to the Ollama host are kept alive
+ * and capped at {@code flowstack.ollama.max-connections}. Streamed generations go through the
+ * async client and are parsed line by line as bytes arrive, with one reused reader instead of a
+ * mapper per line.
+ */
 @Component
 public class OllamaClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OllamaClient.class);
-    private static final int CONNECT_TIMEOUT_SECONDS = 10;
     private static final int DEFAULT_MAX_TOKENS = 500; // Limit response length for faster generation
-    
-    // Calculate timeout based on prompt size and max tokens
-    private static final int TIMEOUT_PER_TOKEN_MS = 100; // 100ms per token estimate
-    private static final int MIN_TIMEOUT_SECONDS = 30;
-    private static final int MAX_TIMEOUT_SECONDS = 120;
+    private static final double TEMPERATURE = 0.7;
+
+    /**
+     * Where a conversation left off: the {@code context} tokens Ollama returned for the previous
+     * turn ({@code null} to start over) and how long the model should stay loaded afterwards.
+     */
+    public record Continuation(int[] context, Duration keepAlive) {
+    }
 
-    private final RestClient.Builder restClientBuilder;
+    /**
+     * A generation's text and the context to continue it from ({@code null} if Ollama sent none).
+     */
+    public record Generation(String text, int[] context) {
+    }
+
+    private final HttpClientRegistry httpClientRegistry;
     private final OllamaProperties properties;
+    private final ObjectReader streamReader;
+    private final ObjectWriter payloadWriter;
+    private final SingleFlight singleFlight;
+    private final DownstreamGuard downstreamGuard;
+    private final LlmResponseCache responseCache;
+    private final LlmAdmissionGate admissionGate;
+    private final LlmMetrics llmMetrics;
+    private final LlmTimeoutPolicy timeoutPolicy;
+    private final ModelResidency residency;
 
-    public OllamaClient(RestClient.Builder restClientBuilder, OllamaProperties properties) {
-        this.restClientBuilder = restClientBuilder;
+    public OllamaClient(HttpClientRegistry httpClientRegistry, OllamaProperties properties, ObjectMapper objectMapper,
+                        SingleFlight singleFlight, DownstreamGuard downstreamGuard, LlmResponseCache responseCache,
+                        LlmAdmissionGate admissionGate, LlmMetrics llmMetrics, LlmTimeoutPolicy timeoutPolicy,
+                        ModelResidency residency) {
+        this.httpClientRegistry = httpClientRegistry;
         this.properties = properties;
+        this.streamReader = objectMapper.readerFor(JsonNode.class);
+        this.payloadWriter = objectMapper.writer();
+        this.singleFlight = singleFlight;
+        this.downstreamGuard = downstreamGuard;
+        this.responseCache = responseCache;
+        this.admissionGate = admissionGate;
+        this.llmMetrics = llmMetrics;
+        this.timeoutPolicy = timeoutPolicy;
+        this.residency = residency;
+        httpClientRegistry.setMaxConnectionsForHost(properties.getBaseUrl(), properties.getMaxConnections());
     }
 
     public String generateText(String model, String prompt) {
         return generateText(model, prompt, DEFAULT_MAX_TOKENS);
     }
 
+    public String generateText(String model, String prompt, Duration cacheTtl) {
+        return generateText(model, prompt, DEFAULT_MAX_TOKENS, cacheTtl, LlmCaller.NODE);
+    }
+
     public String generateText(String model, String prompt, int maxTokens) {
-        // Calculate dynamic timeout based on prompt size and max tokens
-        int estimatedTimeout = calculateTimeout(prompt.length(), maxTokens);
+        return generateText(model, prompt, maxTokens, null, LlmCaller.NODE);
+    }
+
+    /**
+     * Identical concurrent generations (same model, prompt and token limit) share one Ollama call,
+     * which waits its turn at the model's {@link LlmAdmissionGate} and then runs inside the
+     * {@code ollama:<model>} bulkhead and circuit breaker (queueing is not a downstream failure).
+     * With a {@code cacheTtl} the response is served from and stored in the {@link LlmResponseCache}.
+     * Both the queue deadline and the read timeout come from the {@link LlmTimeoutPolicy}.
+     */
+    public String generateText(String model, String prompt, int maxTokens, Duration cacheTtl, LlmCaller caller) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        Duration deadline = timeoutPolicy.timeout(effectiveModel, prompt.length(), maxTokens);
+        return responseCache.getOrCompute("ollama", effectiveModel, generationParams(maxTokens), prompt, cacheTtl,
+                () -> singleFlight.execute("ollama", SingleFlight.key(effectiveModel, prompt, maxTokens),
+                        () -> admissionGate.call(effectiveModel, caller, deadline,
+                                () -> downstreamGuard.call("ollama:" + effectiveModel,
+                                        () -> requestGeneration(effectiveModel, prompt, maxTokens, null, caller)
+                                                .text()))));
+    }
+
+    /**
+     * Continues a conversation: with a {@code context}, Ollama reuses the tokens it already
+     * evaluated and only processes the new prompt. Such calls are neither shared nor cached, as
+     * the context is part of the input; a call that starts over is cached under {@code cacheTtl}
+     * like {@link #generateText(String, String, int, Duration, LlmCaller)}, and a cache hit
+     * comes back without a context.
+     */
+    public Generation continueText(String model, String prompt, int maxTokens, Continuation from,
+                                   Duration cacheTtl, LlmCaller caller) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        LlmResponseCache.Key cacheKey = null;
+        if (from.context() == null && responseCache.cacheable(cacheTtl)) {
+            cacheKey = responseCache.key("ollama", effectiveModel, generationParams(maxTokens), prompt);
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                return new Generation(cached, null);
+            }
+        }
+        Duration deadline = timeoutPolicy.timeout(effectiveModel, prompt.length(), maxTokens);
+        Generation generation = admissionGate.call(effectiveModel, caller, deadline,
+                () -> downstreamGuard.call("ollama:" + effectiveModel,
+                        () -> requestGeneration(effectiveModel, prompt, maxTokens, from, caller)));
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, generation.text(), cacheTtl);
+        }
+        return generation;
+    }
+
+    private static Map<String, Object> generationParams(int maxTokens) {
+        return Map.of("num_predict", maxTokens, "temperature", TEMPERATURE);
+    }
+
+    private Generation requestGeneration(String model, String prompt, int maxTokens, Continuation from,
+                                         LlmCaller caller) {
+        Duration timeout = timeoutPolicy.timeout(model, prompt.length(), maxTokens);
         
         Map<String, Object> payload = new HashMap<>();
-        payload.put("model", model != null ? model : properties.getDefaultModel());
+        payload.put("model", model);
         payload.put("prompt", prompt);
         payload.put("stream", false);
         payload.put("num_predict", maxTokens);
-        payload.put("temperature", 0.7);
+        payload.put("temperature", TEMPERATURE);
+        Duration keepAlive = continueFrom(payload, model, from);
 
+        LlmMetrics.Sample sample = llmMetrics.start("ollama", model, caller);
         try {
             LOGGER.debug("Calling Ollama API with model: {}, prompt length: {}, maxTokens: {}, timeout: {}s", 
-                payload.get("model"), prompt.length(), maxTokens, estimatedTimeout);
+                payload.get("model"), prompt.length(), maxTokens, timeout.toSeconds());
             
-            Map<?, ?> response = restClient(estimatedTimeout)
+            long startedAt = System.nanoTime();
+            Map<?, ?> response = restClient(timeout)
                     .post()
-                    .uri("/api/generate")
+                    .uri(generateUrl())
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON)
                     .body(payload)
@@ -80,126 +197,337 @@ public class OllamaClient {
                         );
                     })
                     .body(Map.class);
+            timeoutPolicy.record(model, prompt.length(), maxTokens, Duration.ofNanos(System.nanoTime() - startedAt));
+            residency.loaded(model, keepAlive);
             
             if (response == null) {
                 LOGGER.warn("Ollama returned null response");
-                return "";
+                sample.success();
+                return new Generation("", null);
             }
             
+            ToLongFunction<String> stats = key -> response.get(key) instanceof Number number ? number.longValue() : -1;
+            recordUsage(sample, stats);
+            // Not streamed: the first token came after loading the model and reading the prompt
+            sample.timeToFirstToken(Duration.ofNanos(Math.max(0, stats.applyAsLong("load_duration"))
+                    + Math.max(0, stats.applyAsLong("prompt_eval_duration"))));
+            sample.success();
+            int[] context = response.get("context") instanceof List<?> tokens ? toContext(tokens) : null;
             Object value = response.get("response");
             if (value == null) {
                 LOGGER.warn("Ollama response missing 'response' field. Response keys: {}", response.keySet());
-                return "";
+                return new Generation("", context);
             }
             
             String result = String.valueOf(value);
             LOGGER.debug("Ollama response received, length: {}", result.length());
-            return result;
+            return new Generation(result, context);
             
         } catch (RestClientException ex) {
+            sample.failure(ex);
             LOGGER.error("Failed to call Ollama: {}", ex.getMessage(), ex);
             
             // Check if it's a timeout
             if (ex.getCause() instanceof java.net.SocketTimeoutException) {
-                LOGGER.error("Ollama request timed out after {} seconds. Consider reducing prompt size or max tokens.", estimatedTimeout);
+                timeoutPolicy.recordTimeout(model, prompt.length(), maxTokens, timeout);
+                LOGGER.error("Ollama request timed out after {} seconds. Consider reducing prompt size or max tokens.", timeout.toSeconds());
                 throw new NodeExecutionException("Ollama request timed out. The request may be too large or Ollama is slow. Try reducing the workflow size.", ex);
             }
             
             throw new NodeExecutionException("Ollama call failed: " + ex.getMessage(), ex);
         } catch (Exception ex) {
+            sample.failure(ex);
             LOGGER.error("Unexpected error calling Ollama: {}", ex.getMessage(), ex);
             throw new NodeExecutionException("Unexpected error calling Ollama", ex);
         }
     }
 
-    private int calculateTimeout(int promptLength, int maxTokens) {
-        // Estimate: prompt processing + token generation
-        // Rough estimate: 50ms per 100 chars + 100ms per token
-        int estimatedMs = (promptLength / 100) * 50 + (maxTokens * TIMEOUT_PER_TOKEN_MS);
-        int timeoutSeconds = Math.max(MIN_TIMEOUT_SECONDS, Math.min(MAX_TIMEOUT_SECONDS, (estimatedMs / 1000) + 10));
-        return timeoutSeconds;
+    /**
+     * Adds the conversation's context and the {@code keep_alive} for the call: the one the
+     * conversation asked for, else the one {@link ModelResidency} sets from the model's traffic.
+     * Returns that {@code keep_alive}, to report to {@link ModelResidency#loaded} once the call
+     * succeeds.
+     */
+    private Duration continueFrom(Map<String, Object> payload, String model, Continuation from) {
+        if (from != null && from.context() != null) {
+            payload.put("context", from.context());
+        }
+        Duration keepAlive = residency.keepAliveForCall(model, from != null ? from.keepAlive() : null);
+        if (keepAlive != null) {
+            payload.put("keep_alive", keepAlive.toSeconds());
+        }
+        return keepAlive;
+    }
+
+    /**
+     * Loads {@code model} into Ollama's memory without generating anything (a request without a
+     * prompt), keeping it there for {@code keepAlive}. Sent on the async client, so no thread waits
+     * for the load; the future fails with a {@link NodeExecutionException} if Ollama refuses.
+     */
+    public CompletableFuture<Void> preload(String model, Duration keepAlive, Duration timeout) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("model", model);
+        payload.put("stream", false);
+        payload.put("keep_alive", keepAlive.toSeconds());
+        SimpleHttpRequest request;
+        try {
+            request = SimpleRequestBuilder.post(generateUrl())
+                    .setBody(payloadWriter.writeValueAsBytes(payload), ContentType.APPLICATION_JSON)
+                    .setRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.of(timeout)).build())
+                    .build();
+        } catch (JsonProcessingException ex) {
+            return CompletableFuture.failedFuture(new NodeExecutionException("Preload failed: " + ex.getMessage(), ex));
+        }
+        NdjsonResponseConsumer consumer = new NdjsonResponseConsumer(streamReader, line -> {
+            if (line.hasNonNull("error")) {
+                throw new NodeExecutionException("Ollama API error: " + line.path("error").asText());
+            }
+        });
+        return httpClientRegistry.executeAsync(SimpleRequestProducer.create(request), consumer)
+                .thenAccept(result -> {
+                    if (result.status() >= 400) {
+                        throw new NodeExecutionException("Ollama API error: " + result.status() + " "
+                                + Objects.toString(result.errorBody(), result.reasonPhrase()));
+                    }
+                    residency.loaded(model, keepAlive);
+                });
+    }
+
+    private static int[] toContext(List<?> tokens) {
+        int[] context = new int[tokens.size()];
+        for (int i = 0; i < context.length; i++) {
+            context[i] = tokens.get(i) instanceof Number number ? number.intValue() : 0;
+        }
+        return context;
+    }
+
+    /**
+     * Token counts from Ollama's final response ({@code prompt_eval_count}, {@code eval_count},
+     * {@code eval_duration} in nanoseconds); missing values read as -1.
+     */
+    private static void recordUsage(LlmMetrics.Sample sample, ToLongFunction<String> stats) {
+        long evalDuration = stats.applyAsLong("eval_duration");
+        sample.usage(stats.applyAsLong("prompt_eval_count"), stats.applyAsLong("eval_count"),
+                evalDuration > 0 ? Duration.ofNanos(evalDuration) : null);
     }
 
     /**
      * Generates text with streaming support for real-time response display
-     * Returns a Flux that emits text chunks as they are generated
+     * Returns a Flux that emits text chunks as they are generated; the stream holds a slot of
+     * the model's {@link LlmAdmissionGate} until it ends.
+     */
+    public Flux<String> generateTextStream(String model, String prompt, int maxTokens, LlmCaller caller) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        return admitted(effectiveModel, caller, timeoutPolicy.timeout(effectiveModel, prompt.length(), maxTokens),
+                () -> streamGeneration(effectiveModel, prompt, maxTokens, caller, null, null));
+    }
+
+    /**
+     * Streaming counterpart of {@link #continueText}; the context for the next turn is handed to
+     * {@code onContext} when Ollama finishes. Never cached.
+     */
+    public Flux<String> continueTextStream(String model, String prompt, int maxTokens, Continuation from,
+                                           LlmCaller caller, Consumer<int[]> onContext) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        return admitted(effectiveModel, caller, timeoutPolicy.timeout(effectiveModel, prompt.length(), maxTokens),
+                () -> streamGeneration(effectiveModel, prompt, maxTokens, caller, from, onContext));
+    }
+
+    /**
+     * Like {@link #generateTextStream(String, String, int, LlmCaller)}, but also inside the
+     * {@code ollama:<model>} bulkhead and breaker, for callers that may give up on the call (the
+     * {@link LlmRouter} racing candidates). Disposing the subscription leaves the admission queue,
+     * or frees both slots and aborts the exchange once the call has started.
+     */
+    public Flux<String> guardedTextStream(String model, String prompt, LlmCaller caller) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        return admitted(effectiveModel, caller,
+                timeoutPolicy.timeout(effectiveModel, prompt.length(), DEFAULT_MAX_TOKENS),
+                () -> downstreamGuard.guardStream("ollama:" + effectiveModel,
+                        () -> streamGeneration(effectiveModel, prompt, DEFAULT_MAX_TOKENS, caller, null, null)));
+    }
+
+    /**
+     * Starts {@code stream} once {@code model}'s gate admits it and holds the slot until the
+     * stream ends. No thread waits for the gate: admission is a future, and the stream starts on
+     * whichever thread frees the slot. Chunks reach the subscriber on the bounded-elastic
+     * scheduler, which nothing here blocks, so a slow subscriber never stalls the HTTP client's
+     * I/O threads. Cancelling while queued leaves the queue.
+     */
+    private Flux<String> admitted(String model, LlmCaller caller, Duration deadline, Supplier<Flux<String>> stream) {
+        return Flux.defer(() -> {
+            CompletableFuture<LlmAdmissionGate.Permit> admission = admissionGate.acquireAsync(model, caller, deadline);
+            return Mono.fromFuture(admission, true)
+                    .flatMapMany(permit -> stream.get().doFinally(signal -> permit.close()))
+                    .doOnCancel(() -> {
+                        if (!admission.cancel(false)) {
+                            admission.thenAccept(LlmAdmissionGate.Permit::close);
+                        }
+                    });
+        }).publishOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Non-blocking: the request goes out on the async HTTP client and each NDJSON line is parsed
+     * and emitted on its I/O reactor thread as it arrives, so no thread waits on Ollama. Chunks
+     * queue in a buffer of {@code flowstack.ollama.stream-buffer} entries; a subscriber that falls
+     * further behind fails the stream. Cancelling the subscription aborts the exchange. The learned
+     * timeout bounds the whole stream, which is aborted once it runs out however steadily chunks
+     * arrive; it is also the read timeout, since a whole call's latency bounds every gap in it.
      */
-    public Flux<String> generateTextStream(String model, String prompt, int maxTokens) {
-        return Flux.create(sink -> {
+    private Flux<String> streamGeneration(String model, String prompt, int maxTokens, LlmCaller caller,
+                                          Continuation from, Consumer<int[]> onContext) {
+        return Flux.<String>create(sink -> {
+            LlmMetrics.Sample sample = llmMetrics.start("ollama", model, caller);
+            Duration timeout = timeoutPolicy.timeout(model, prompt.length(), maxTokens);
+            long startedAt = System.nanoTime();
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("model", model);
+            payload.put("prompt", prompt);
+            payload.put("stream", true); // Enable streaming
+            payload.put("num_predict", maxTokens);
+            payload.put("temperature", TEMPERATURE);
+            Duration keepAlive = continueFrom(payload, model, from);
+
+            SimpleHttpRequest request;
             try {
-                String baseUrl = Objects.requireNonNull(properties.getBaseUrl(), "flowstack.ollama.base-url must be set");
-                URL url = new URL(baseUrl + "/api/generate");
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setDoOutput(true);
-                connection.setConnectTimeout((int) Duration.ofSeconds(CONNECT_TIMEOUT_SECONDS).toMillis());
-                connection.setReadTimeout((int) Duration.ofSeconds(MAX_TIMEOUT_SECONDS).toMillis());
-                
-                // Build request payload
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("model", model != null ? model : properties.getDefaultModel());
-                payload.put("prompt", prompt);
-                payload.put("stream", true); // Enable streaming
-                payload.put("num_predict", maxTokens);
-                payload.put("temperature", 0.7);
-                
-                // Write request body
-                String jsonPayload = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(payload);
-                try (java.io.OutputStream os = connection.getOutputStream()) {
-                    byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
+                request = SimpleRequestBuilder.post(generateUrl())
+                        .setBody(payloadWriter.writeValueAsBytes(payload), ContentType.APPLICATION_JSON)
+                        .setRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.of(timeout)).build())
+                        .build();
+            } catch (JsonProcessingException ex) {
+                sample.failure(ex);
+                sink.error(new NodeExecutionException("Streaming failed: " + ex.getMessage(), ex));
+                return;
+            }
+            NdjsonResponseConsumer consumer = new NdjsonResponseConsumer(streamReader, line -> {
+                if (line.hasNonNull("error")) {
+                    // A failure reported mid-stream is the server's, as a 500 would have been
+                    throw new NodeExecutionException("Ollama API error: " + line.path("error").asText(),
+                            apiError(500, "Internal Server Error", line.path("error").asText()));
                 }
-                
-                // Read streaming response
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = reader.readLine()) != null && !sink.isCancelled()) {
-                        if (line.trim().isEmpty()) continue;
-                        
-                        try {
-                            // Parse JSON line from Ollama stream
-                            com.fasterxml.jackson.databind.JsonNode jsonNode = 
-                                new com.fasterxml.jackson.databind.ObjectMapper().readTree(line);
-                            
-                            if (jsonNode.has("response")) {
-                                String chunk = jsonNode.get("response").asText("");
-                                if (!chunk.isEmpty()) {
-                                    sink.next(chunk);
-                                }
-                            }
-                            
-                            // Check if done
-                            if (jsonNode.has("done") && jsonNode.get("done").asBoolean(false)) {
-                                break;
-                            }
-                        } catch (Exception e) {
-                            LOGGER.warn("Error parsing streaming chunk: {}", e.getMessage());
+                String chunk = line.path("response").asText("");
+                if (!chunk.isEmpty()) {
+                    sample.firstToken();
+                    sink.next(chunk);
+                }
+                if (line.path("done").asBoolean(false)) {
+                    recordUsage(sample, key -> line.path(key).asLong(-1));
+                    if (onContext != null && line.path("context").isArray()) {
+                        int[] context = new int[line.path("context").size()];
+                        for (int i = 0; i < context.length; i++) {
+                            context[i] = line.path("context").get(i).asInt();
                         }
+                        onContext.accept(context);
                     }
                 }
-                
+            });
+            CompletableFuture<NdjsonResponseConsumer.Result> exchange = httpClientRegistry.executeAsync(
+                    SimpleRequestProducer.create(request), consumer);
+            AtomicBoolean deadlinePassed = new AtomicBoolean();
+            Disposable deadline = Schedulers.parallel().schedule(() -> {
+                deadlinePassed.set(true);
+                consumer.cancel();
+                exchange.cancel(true);
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            sink.onCancel(() -> {
+                consumer.cancel();
+                exchange.cancel(true);
+            });
+            sink.onDispose(deadline);
+            exchange.whenComplete((result, ex) -> {
+                deadline.dispose();
+                if (sink.isCancelled()) {
+                    return;
+                }
+                if (ex != null && deadlinePassed.get()) {
+                    ex = new NodeExecutionException("Streaming timed out after " + timeout.toSeconds() + "s",
+                            new TimeoutException("Stream deadline of " + timeout + " passed"));
+                }
+                if (ex == null && result.status() >= 400) {
+                    ex = new NodeExecutionException("Ollama API error: " + result.status() + " "
+                            + Objects.toString(result.errorBody(), result.reasonPhrase()),
+                            apiError(result.status(), result.reasonPhrase(), result.errorBody()));
+                }
+                if (ex != null) {
+                    Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    sample.failure(error);
+                    if (LlmMetrics.isTimeout(error)) {
+                        timeoutPolicy.recordTimeout(model, prompt.length(), maxTokens, timeout);
+                    }
+                    LOGGER.error("Error in streaming: {}", error.getMessage(), error);
+                    sink.error(error instanceof NodeExecutionException
+                            ? error : new NodeExecutionException("Streaming failed: " + error.getMessage(), error));
+                    return;
+                }
+                sample.success();
+                timeoutPolicy.record(model, prompt.length(), maxTokens, Duration.ofNanos(System.nanoTime() - startedAt));
+                residency.loaded(model, keepAlive);
                 sink.complete();
-                connection.disconnect();
-                
-            } catch (Exception ex) {
-                LOGGER.error("Error in streaming: {}", ex.getMessage(), ex);
-                sink.error(new NodeExecutionException("Streaming failed: " + ex.getMessage(), ex));
+            });
+        }).onBackpressureBuffer(properties.getStreamBuffer());
+    }
+
+    /**
+     * The status of a failed call as the cause of its {@link NodeExecutionException}, which is how
+     * {@link DownstreamGuard} tells a server fault from a rejected request.
+     */
+    private static RestClientResponseException apiError(int status, String reasonPhrase, String body) {
+        return new RestClientResponseException("Ollama API error: " + status, status, reasonPhrase, null,
+                body != null ? body.getBytes(StandardCharsets.UTF_8) : null, StandardCharsets.UTF_8);
+    }
+
+    public String generateTextStream(String model, String prompt, Duration cacheTtl, Consumer<String> onToken) {
+        return generateTextStream(model, prompt, DEFAULT_MAX_TOKENS, cacheTtl, onToken);
+    }
+
+    /**
+     * Streams a generation through the admission gate and the {@code ollama:<model>} bulkhead
+     * and breaker, passing each chunk to {@code onToken} as it arrives, and returns the assembled
+     * text. A cached response is handed to {@code onToken} in one piece.
+     */
+    public String generateTextStream(String model, String prompt, int maxTokens, Duration cacheTtl,
+                                     Consumer<String> onToken) {
+        String effectiveModel = model != null ? model : properties.getDefaultModel();
+        LlmResponseCache.Key cacheKey = null;
+        if (responseCache.cacheable(cacheTtl)) {
+            cacheKey = responseCache.key("ollama", effectiveModel, generationParams(maxTokens), prompt);
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                onToken.accept(cached);
+                return cached;
             }
-        });
+        }
+        Duration deadline = timeoutPolicy.timeout(effectiveModel, prompt.length(), maxTokens);
+        String response = admissionGate.call(effectiveModel, LlmCaller.NODE, deadline,
+                () -> downstreamGuard.call("ollama:" + effectiveModel, () -> {
+                    // Chunks are consumed here, so onToken runs on the calling thread; closing the
+                    // stream (also when onToken throws) cancels the exchange
+                    StringBuilder text = new StringBuilder();
+                    try (Stream<String> chunks = streamGeneration(effectiveModel, prompt, maxTokens, LlmCaller.NODE,
+                            null, null).toStream()) {
+                        chunks.forEach(chunk -> {
+                            text.append(chunk);
+                            onToken.accept(chunk);
+                        });
+                    }
+                    return text.toString();
+                }));
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, response, cacheTtl);
+        }
+        return response;
     }
 
-    private RestClient restClient(int timeoutSeconds) {
+    /**
+     * Pooled client with a per-call read timeout; clients are cached per timeout by the registry.
+     */
+    private RestClient restClient(Duration timeout) {
+        return httpClientRegistry.restClient(timeout);
+    }
+
+    private String generateUrl() {
         String baseUrl = Objects.requireNonNull(properties.getBaseUrl(), "flowstack.ollama.base-url must be set");
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout((int) Duration.ofSeconds(CONNECT_TIMEOUT_SECONDS).toMillis());
-        factory.setReadTimeout((int) Duration.ofSeconds(timeoutSeconds).toMillis());
-        
-        return restClientBuilder
-                .baseUrl(baseUrl)
-                .requestFactory(factory)
-                .build();
+        return baseUrl.replaceAll("/+$", "") + "/api/generate";
     }
 }
@@ -0,0 +1,295 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.OpenAiProperties;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import reactor.core.publisher.Flux;
+
+/**
+ * OpenAI chat completions over the shared pooled HTTP client, either in one response or streamed
+ * as server-sent events with each content delta handed to a callback as it arrives. Streams go
+ * through the async client and are parsed as bytes arrive.
+ */
+@Component
+public class OpenAiClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenAiClient.class);
+    // Only CHATGPT workflow nodes call OpenAI
+    private static final LlmCaller CALLER = LlmCaller.NODE;
+
+    private final HttpClientRegistry httpClientRegistry;
+    private final OpenAiProperties properties;
+    private final ObjectReader chunkReader;
+    private final ObjectWriter payloadWriter;
+    private final SingleFlight singleFlight;
+    private final DownstreamGuard downstreamGuard;
+    private final LlmResponseCache responseCache;
+    private final LlmMetrics llmMetrics;
+
+    public OpenAiClient(HttpClientRegistry httpClientRegistry, OpenAiProperties properties, ObjectMapper objectMapper,
+                        SingleFlight singleFlight, DownstreamGuard downstreamGuard, LlmResponseCache responseCache,
+                        LlmMetrics llmMetrics) {
+        this.httpClientRegistry = httpClientRegistry;
+        this.properties = properties;
+        this.chunkReader = objectMapper.readerFor(JsonNode.class);
+        this.payloadWriter = objectMapper.writer();
+        this.singleFlight = singleFlight;
+        this.downstreamGuard = downstreamGuard;
+        this.responseCache = responseCache;
+        this.llmMetrics = llmMetrics;
+    }
+
+    public String complete(String model, String prompt, Double temperature) {
+        return complete(model, prompt, temperature, null);
+    }
+
+    /**
+     * Identical concurrent completions (same model, prompt and temperature) share one call, which
+     * runs inside the {@code openai:<model>} bulkhead and circuit breaker. With a {@code cacheTtl}
+     * the response is served from and stored in the {@link LlmResponseCache}.
+     */
+    public String complete(String model, String prompt, Double temperature, Duration cacheTtl) {
+        return responseCache.getOrCompute("openai", model, cacheParams(temperature), prompt, cacheTtl,
+                () -> requestCompletion(model, prompt, temperature));
+    }
+
+    private String requestCompletion(String model, String prompt, Double temperature) {
+        String apiKey = apiKey();
+        Map<String, Object> request = request(model, prompt, temperature, false);
+        try {
+            Map<String, Object> response = singleFlight.execute("chatgpt",
+                    SingleFlight.key(model, prompt, temperature),
+                    () -> downstreamGuard.call("openai:" + model, () -> postCompletion(model, apiKey, request)));
+            return extractContent(response);
+        } catch (RestClientException ex) {
+            throw new NodeExecutionException("ChatGPT call failed", ex);
+        }
+    }
+
+    private Map<String, Object> postCompletion(String model, String apiKey, Map<String, Object> request) {
+        LlmMetrics.Sample sample = llmMetrics.start("openai", model, CALLER);
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = restClient()
+                    .post()
+                    .uri(completionsUrl())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Authorization", "Bearer " + apiKey)
+                    .body(request)
+                    .retrieve()
+                    .body(Map.class);
+            if (response != null && response.get("usage") instanceof Map<?, ?> usage) {
+                sample.usage(count(usage.get("prompt_tokens")), count(usage.get("completion_tokens")), null);
+            }
+            sample.success();
+            return response;
+        } catch (RuntimeException ex) {
+            sample.failure(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Streams the completion, passing each content delta to {@code onToken}, and returns the
+     * assembled text. Streams are per caller, so they are not coalesced; a cached response is
+     * handed to {@code onToken} in one piece.
+     */
+    public String completeStream(String model, String prompt, Double temperature, Duration cacheTtl,
+                                 Consumer<String> onToken) {
+        LlmResponseCache.Key cacheKey = null;
+        if (responseCache.cacheable(cacheTtl)) {
+            cacheKey = responseCache.key("openai", model, cacheParams(temperature), prompt);
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                onToken.accept(cached);
+                return cached;
+            }
+        }
+        String response = streamCompletion(model, prompt, temperature, onToken);
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, response, cacheTtl);
+        }
+        return response;
+    }
+
+    private String streamCompletion(String model, String prompt, Double temperature, Consumer<String> onToken) {
+        return downstreamGuard.call("openai:" + model, () -> {
+            // Chunks are consumed here, so onToken runs on the calling thread; closing the stream
+            // (also when onToken throws) cancels the exchange
+            StringBuilder text = new StringBuilder();
+            try (Stream<String> deltas = completionEvents(model, prompt, temperature).toStream()) {
+                deltas.forEach(delta -> {
+                    text.append(delta);
+                    onToken.accept(delta);
+                });
+            }
+            return text.toString();
+        });
+    }
+
+    /**
+     * Streams the completion's content deltas inside the {@code openai:<model>} bulkhead and
+     * breaker without a thread waiting on either, for callers that may give up on the call (the
+     * {@link LlmRouter} racing candidates). Disposing the subscription aborts the exchange. Never
+     * cached.
+     */
+    public Flux<String> completionStream(String model, String prompt, Double temperature) {
+        return downstreamGuard.guardStream("openai:" + model, () -> completionEvents(model, prompt, temperature));
+    }
+
+    /**
+     * Non-blocking: the request goes out on the async HTTP client and each server-sent event is
+     * parsed and emitted on its I/O reactor thread as it arrives. Cancelling the subscription
+     * aborts the exchange.
+     */
+    private Flux<String> completionEvents(String model, String prompt, Double temperature) {
+        return Flux.<String>create(sink -> {
+            LlmMetrics.Sample sample = llmMetrics.start("openai", model, CALLER);
+            SimpleHttpRequest request;
+            try {
+                request = SimpleRequestBuilder.post(completionsUrl())
+                        .setHeader("Authorization", "Bearer " + apiKey())
+                        .setHeader("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                        .setBody(payloadWriter.writeValueAsBytes(request(model, prompt, temperature, true)),
+                                ContentType.APPLICATION_JSON)
+                        .setRequestConfig(RequestConfig.custom()
+                                .setResponseTimeout(Timeout.of(httpClientRegistry.responseTimeout()))
+                                .build())
+                        .build();
+            } catch (JsonProcessingException | RuntimeException ex) {
+                sample.failure(ex);
+                sink.error(ex instanceof NodeExecutionException ? ex : new NodeExecutionException("ChatGPT call failed", ex));
+                return;
+            }
+            NdjsonResponseConsumer consumer = NdjsonResponseConsumer.eventStream(chunkReader, chunk -> {
+                String delta = chunk.path("choices").path(0).path("delta").path("content").asText("");
+                if (!delta.isEmpty()) {
+                    sample.firstToken();
+                    sink.next(delta);
+                }
+                JsonNode usage = chunk.path("usage");
+                if (usage.isObject()) {
+                    sample.usage(usage.path("prompt_tokens").asLong(-1), usage.path("completion_tokens").asLong(-1),
+                            null);
+                }
+            });
+            CompletableFuture<NdjsonResponseConsumer.Result> exchange = httpClientRegistry.executeAsync(
+                    SimpleRequestProducer.create(request), consumer);
+            sink.onCancel(() -> {
+                consumer.cancel();
+                exchange.cancel(true);
+            });
+            exchange.whenComplete((result, ex) -> {
+                if (sink.isCancelled()) {
+                    return;
+                }
+                if (ex == null && result.status() >= 400) {
+                    ex = new RestClientResponseException("OpenAI API error: " + result.status(), result.status(),
+                            result.reasonPhrase(), null,
+                            Objects.toString(result.errorBody(), "").getBytes(StandardCharsets.UTF_8),
+                            StandardCharsets.UTF_8);
+                }
+                if (ex != null) {
+                    Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    sample.failure(error);
+                    LOGGER.error("[FlowStack] Streaming ChatGPT call failed: {}", error.getMessage());
+                    sink.error(error instanceof NodeExecutionException
+                            ? error : new NodeExecutionException("ChatGPT call failed", error));
+                    return;
+                }
+                sample.success();
+                sink.complete();
+            });
+        }).onBackpressureBuffer();
+    }
+
+    private static Map<String, Object> cacheParams(Double temperature) {
+        return temperature != null ? Map.of("temperature", temperature) : Map.of();
+    }
+
+    private Map<String, Object> request(String model, String prompt, Double temperature, boolean stream) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("model", model);
+        request.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        if (temperature != null) {
+            request.put("temperature", temperature);
+        }
+        if (stream) {
+            request.put("stream", true);
+            // The last chunk then carries the token usage of the whole stream
+            request.put("stream_options", Map.of("include_usage", true));
+        }
+        return request;
+    }
+
+    private static long count(Object value) {
+        return value instanceof Number number ? number.longValue() : -1;
+    }
+
+    private String apiKey() {
+        String apiKey = properties.getApiKey();
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new NodeExecutionException("OpenAI API key is not configured");
+        }
+        return apiKey;
+    }
+
+    private RestClient restClient() {
+        return httpClientRegistry.restClient();
+    }
+
+    private String completionsUrl() {
+        String baseUrl = Objects.requireNonNull(properties.getBaseUrl(), "flowstack.openai.base-url must be set");
+        return baseUrl.replaceAll("/+$", "") + "/chat/completions";
+    }
+
+    private String extractContent(Map<String, Object> response) {
+        if (response == null) {
+            return "";
+        }
+        Object choicesObj = response.get("choices");
+        if (choicesObj instanceof List<?> choices && !choices.isEmpty()) {
+            Object first = choices.get(0);
+            if (first instanceof Map<?, ?> firstMap) {
+                Object messageObj = firstMap.get("message");
+                if (messageObj instanceof Map<?, ?> messageMap) {
+                    Object content = messageMap.get("content");
+                    if (content != null) {
+                        return content.toString();
+                    }
+                } else if (firstMap.get("text") != null) {
+                    return firstMap.get("text").toString();
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,264 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.LlmPromptProperties;
+import com.ankush.workflowEngine.config.OllamaProperties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds assistant prompts that fit the model's context. A prompt is a sequence of parts:
+ * <ul>
+ *   <li>{@link Builder#fixed} segments (instructions, response format) are always kept;</li>
+ *   <li>{@link Builder#text} values (the user's message) are cut short when space runs out;</li>
+ *   <li>{@link Builder#list} / {@link Builder#tail} lists (nodes, edges) keep as many items as fit
+ *       and note how many were left out;</li>
+ *   <li>{@link Builder#optional} segments (examples) are only added if room is left.</li>
+ * </ul>
+ * Space is handed out in that order, while the parts are rendered in the order they were added.
+ * Tokens are estimated at four characters each, which is close enough for English and JSON;
+ * static segments are measured once as {@link Segment} constants.
+ */
+@Component
+public class PromptAssembler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PromptAssembler.class);
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MIN_TEXT_CHARS = 16;
+    private static final int OMITTED_NOTE_CHARS = 16;
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * Text measured once.
+     */
+    public record Segment(String text, int tokens) {
+
+        public static Segment of(String text) {
+            return new Segment(text, estimateTokens(text));
+        }
+    }
+
+    private final LlmPromptProperties properties;
+    private final OllamaProperties ollamaProperties;
+
+    public PromptAssembler(LlmPromptProperties properties, OllamaProperties ollamaProperties) {
+        this.properties = properties;
+        this.ollamaProperties = ollamaProperties;
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Prompt tokens left in {@code model}'s context after {@code reservedTokens} (the response,
+     * plus any conversation context already sent).
+     */
+    public int budget(String model, int reservedTokens) {
+        String effectiveModel = model != null ? model : ollamaProperties.getDefaultModel();
+        return Math.max(0, properties.contextTokensFor(effectiveModel) - reservedTokens);
+    }
+
+    /**
+     * Starts a prompt for {@code model} (the default Ollama model when {@code null}) whose response
+     * may take up to {@code maxTokens}.
+     */
+    public Builder prompt(String model, int maxTokens) {
+        String effectiveModel = model != null ? model : ollamaProperties.getDefaultModel();
+        return new Builder(effectiveModel, budget(effectiveModel, maxTokens));
+    }
+
+    private enum Kind {
+        FIXED,
+        TEXT,
+        LIST,
+        TAIL,
+        OPTIONAL
+    }
+
+    private static final class Part {
+
+        private final Kind kind;
+        private final String label;
+        private final Segment segment;
+        private final String text;
+        private final List<String> items;
+        private final String separator;
+        private String rendered = "";
+
+        private Part(Kind kind, String label, Segment segment, String text, List<String> items, String separator) {
+            this.kind = kind;
+            this.label = label;
+            this.segment = segment;
+            this.text = text;
+            this.items = items;
+            this.separator = separator;
+        }
+    }
+
+    public final class Builder {
+
+        private final String model;
+        private int budgetTokens;
+        private final List<Part> parts = new ArrayList<>();
+
+        private Builder(String model, int budgetTokens) {
+            this.model = model;
+            this.budgetTokens = budgetTokens;
+        }
+
+        /**
+         * Caps the prompt below the context budget, for callers that trade context for speed.
+         */
+        public Builder limit(int maxPromptTokens) {
+            budgetTokens = Math.min(budgetTokens, maxPromptTokens);
+            return this;
+        }
+
+        public Builder fixed(Segment segment) {
+            parts.add(new Part(Kind.FIXED, null, segment, null, null, null));
+            return this;
+        }
+
+        public Builder fixed(String text) {
+            return fixed(Segment.of(text));
+        }
+
+        public Builder optional(Segment segment) {
+            parts.add(new Part(Kind.OPTIONAL, null, segment, null, null, null));
+            return this;
+        }
+
+        /**
+         * {@code label + value + "\n"}, with the value cut short if needed; dropped when empty.
+         */
+        public Builder text(String label, String value) {
+            if (value != null && !value.isBlank()) {
+                parts.add(new Part(Kind.TEXT, label, null, value.trim(), null, null));
+            }
+            return this;
+        }
+
+        /**
+         * {@code label + items + "\n"}, keeping the leading items that fit; dropped when empty.
+         */
+        public Builder list(String label, List<String> items, String separator) {
+            return addList(Kind.LIST, label, items, separator);
+        }
+
+        /**
+         * Like {@link #list}, but keeps the trailing (most recent) items.
+         */
+        public Builder tail(String label, List<String> items, String separator) {
+            return addList(Kind.TAIL, label, items, separator);
+        }
+
+        private Builder addList(Kind kind, String label, List<String> items, String separator) {
+            if (items != null && !items.isEmpty()) {
+                parts.add(new Part(kind, label, null, null, items, separator));
+            }
+            return this;
+        }
+
+        public String build() {
+            int remainingChars = budgetTokens * CHARS_PER_TOKEN;
+            for (Part part : parts) {
+                if (part.kind == Kind.FIXED) {
+                    part.rendered = part.segment.text();
+                    remainingChars -= part.segment.tokens() * CHARS_PER_TOKEN;
+                }
+            }
+            int compacted = 0;
+            for (Part part : parts) {
+                if (part.kind == Kind.TEXT) {
+                    part.rendered = renderText(part, remainingChars);
+                } else if (part.kind == Kind.LIST || part.kind == Kind.TAIL) {
+                    part.rendered = renderList(part, remainingChars);
+                } else {
+                    continue;
+                }
+                remainingChars -= part.rendered.length();
+                if (part.rendered.length() < part.label.length() + fullLength(part) + 1) {
+                    compacted++;
+                }
+            }
+            for (Part part : parts) {
+                if (part.kind == Kind.OPTIONAL) {
+                    int chars = part.segment.tokens() * CHARS_PER_TOKEN;
+                    if (chars <= remainingChars) {
+                        part.rendered = part.segment.text();
+                        remainingChars -= chars;
+                    } else {
+                        compacted++;
+                    }
+                }
+            }
+            StringBuilder prompt = new StringBuilder();
+            parts.forEach(part -> prompt.append(part.rendered));
+            if (compacted > 0) {
+                LOGGER.debug("[FlowStack] Compacted {} prompt part(s) to fit {} tokens for {} (now ~{} tokens)",
+                        compacted, budgetTokens, model, estimateTokens(prompt));
+            }
+            if (remainingChars < 0) {
+                LOGGER.warn("[FlowStack] Fixed prompt parts alone exceed the {} token budget for {}", budgetTokens,
+                        model);
+            }
+            return prompt.toString();
+        }
+
+        private String renderText(Part part, int availableChars) {
+            int room = availableChars - part.label.length() - 1;
+            if (part.text.length() <= room) {
+                return part.label + part.text + "\n";
+            }
+            if (room < MIN_TEXT_CHARS + ELLIPSIS.length()) {
+                return "";
+            }
+            return part.label + part.text.substring(0, room - ELLIPSIS.length()) + ELLIPSIS + "\n";
+        }
+
+        private String renderList(Part part, int availableChars) {
+            List<String> items = part.items;
+            if (part.label.length() + fullLength(part) + 1 <= availableChars) {
+                return part.label + String.join(part.separator, items) + "\n";
+            }
+            // Leave room for the "(+N more)" note
+            int room = availableChars - part.label.length() - 1 - OMITTED_NOTE_CHARS;
+            boolean fromEnd = part.kind == Kind.TAIL;
+            List<String> kept = new ArrayList<>();
+            int used = 0;
+            for (int i = 0; i < items.size(); i++) {
+                String item = items.get(fromEnd ? items.size() - 1 - i : i);
+                used += item.length() + (kept.isEmpty() ? 0 : part.separator.length());
+                if (used > room) {
+                    break;
+                }
+                kept.add(item);
+            }
+            if (kept.isEmpty()) {
+                return "";
+            }
+            int omitted = items.size() - kept.size();
+            if (fromEnd) {
+                Collections.reverse(kept);
+                return part.label + "(+" + omitted + " earlier)" + part.separator
+                        + String.join(part.separator, kept) + "\n";
+            }
+            return part.label + String.join(part.separator, kept) + part.separator + "(+" + omitted + " more)\n";
+        }
+
+        private int fullLength(Part part) {
+            if (part.kind == Kind.TEXT) {
+                return part.text.length();
+            }
+            int length = 0;
+            for (String item : part.items) {
+                length += item.length();
+            }
+            return length + part.separator.length() * (part.items.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ankush.workflowEngine.support;
+
+import java.io.IOException;
+
+/**
+ * A response arrived but the node cannot use its body: it is over the size limit, or it is not
+ * the JSON an extraction expects. The downstream answered, so {@link DownstreamGuard} does not
+ * count this against its breaker.
+ */
+public class ResponseBodyException extends IOException {
+
+    public ResponseBodyException(String message) {
+        super(message);
+    }
+
+    public ResponseBodyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.enums.RunStatus;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live event channel per workflow run, delivered over SSE. Events are {@code token} (a chunk of
+ * LLM output from a streaming node), {@code node} (a node finished) and {@code run} (the run
+ * finished; the stream then ends). Nothing is buffered: a subscriber sees events from the
+ * moment it subscribes, and publishing to a run nobody watches is a map lookup.
+ */
+@Component
+public class RunEventBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunEventBroadcaster.class);
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Long runId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        subscribers.computeIfAbsent(runId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> remove(runId, emitter));
+        emitter.onTimeout(() -> remove(runId, emitter));
+        emitter.onError(error -> remove(runId, emitter));
+        return emitter;
+    }
+
+    public void token(Long runId, String nodeKey, String text) {
+        publish(runId, "token", Map.of("nodeKey", nodeKey, "text", text));
+    }
+
+    public void nodeFinished(Long runId, String nodeKey, String status) {
+        publish(runId, "node", Map.of("nodeKey", nodeKey, "status", status));
+    }
+
+    /**
+     * Sends the final run status and closes every stream of the run.
+     */
+    public void runFinished(Long runId, RunStatus status) {
+        publish(runId, "run", Map.of("runId", runId, "status", status.name()));
+        List<SseEmitter> emitters = subscribers.remove(runId);
+        if (emitters != null) {
+            emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    private void publish(Long runId, String event, Object data) {
+        List<SseEmitter> emitters = runId != null ? subscribers.get(runId) : null;
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+            } catch (IOException | IllegalStateException ex) {
+                // Subscriber went away; drop it and keep the run going
+                LOGGER.debug("[FlowStack] Dropping run {} event subscriber: {}", runId, ex.getMessage());
+                remove(runId, emitter);
+            }
+        }
+    }
+
+    private void remove(Long runId, SseEmitter emitter) {
+        subscribers.computeIfPresent(runId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,388 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.ScriptSandboxProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs SCRIPT_JS and SCRIPT_PY code in separate interpreter processes so a runaway script cannot
+ * stall the workflow executor or pressure the engine heap. Each script gets a wall-clock limit,
+ * a CPU-time limit, an interpreter heap cap and a cap on captured output; a script breaching any
+ * of them is killed together with its child processes and its slot is handed to the next caller.
+ * Scripts do not inherit the engine's environment (its API keys and datastore credentials): only
+ * the variables named in {@code pass-env} are passed through, and each script runs in a temporary
+ * working directory of its own that is deleted when it exits. The script is written to a file in
+ * that directory rather than passed on the command line, which would cap its size at the kernel's
+ * per-argument limit and show it to anyone listing processes.
+ */
+@Component
+public class ScriptSandbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScriptSandbox.class);
+    private static final String RESULT_MARKER = "__FLOWSTACK_RESULT__";
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final int STDERR_TAIL_CHARS = 500;
+    private static final String SCRIPT_FILE = "script";
+    private static final String RUNNER_FILE = "runner.py";
+
+    public enum Language {
+        JAVASCRIPT,
+        PYTHON
+    }
+
+    public record Execution(Object result, String stdout, String stderr, Map<String, Object> metrics) {
+    }
+
+    private final ScriptSandboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final ExecutorService ioExecutor;
+
+    public ScriptSandbox(ScriptSandboxProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(Math.max(1, properties.getMaxConcurrent()), true);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("flowstack-sandbox-io-");
+        threadFactory.setDaemon(true);
+        this.ioExecutor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Execution execute(Language language, String script, Map<String, Object> context, String nodeKey) {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(properties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NodeExecutionException("Interrupted while waiting for a script sandbox slot", ex);
+        }
+        if (!acquired) {
+            throw new NodeExecutionException("All " + properties.getMaxConcurrent()
+                    + " script sandbox slots are busy; node " + nodeKey + " was rejected");
+        }
+        try {
+            return runProcess(language, script, context, nodeKey);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private Execution runProcess(Language language, String script, Map<String, Object> context, String nodeKey) {
+        String input;
+        try {
+            input = objectMapper.writeValueAsString(context != null ? context : Map.of());
+        } catch (JsonProcessingException ex) {
+            throw new NodeExecutionException("Failed to serialize context for script node " + nodeKey, ex);
+        }
+
+        Path workDir;
+        try {
+            workDir = Files.createTempDirectory("flowstack-script-");
+        } catch (IOException ex) {
+            throw new NodeExecutionException("Failed to create a working directory for script node " + nodeKey, ex);
+        }
+        try {
+            return runProcess(language, script, input, workDir, nodeKey);
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    private Execution runProcess(Language language, String script, String input, Path workDir, String nodeKey) {
+        List<String> command;
+        try {
+            command = buildCommand(language, script == null ? "" : script, workDir);
+        } catch (IOException ex) {
+            throw new NodeExecutionException("Failed to write the script of node " + nodeKey, ex);
+        }
+        Process process;
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .directory(workDir.toFile());
+            Map<String, String> environment = builder.environment();
+            environment.clear();
+            for (String name : properties.getPassEnv()) {
+                String value = System.getenv(name);
+                if (value != null) {
+                    environment.put(name, value);
+                }
+            }
+            environment.put("HOME", workDir.toString());
+            environment.put("TMPDIR", workDir.toString());
+            process = builder.start();
+        } catch (IOException ex) {
+            throw new NodeExecutionException("Failed to start " + language.name().toLowerCase() + " interpreter", ex);
+        }
+
+        long startNanos = System.nanoTime();
+        long wallLimitMs = properties.getWallClockTimeout().toMillis();
+        long cpuLimitMs = properties.getCpuTimeLimit().toMillis();
+        BoundedCapture stdout = new BoundedCapture(properties.getMaxOutputBytes());
+        BoundedCapture stderr = new BoundedCapture(properties.getMaxOutputBytes());
+        ioExecutor.execute(() -> writeInput(process, input));
+        ioExecutor.execute(() -> stdout.drain(process.getInputStream()));
+        ioExecutor.execute(() -> stderr.drain(process.getErrorStream()));
+
+        long cpuMs = 0;
+        String killedReason = null;
+        try {
+            while (!process.waitFor(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                cpuMs = Math.max(cpuMs, cpuTimeMillis(process.toHandle()));
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                if (elapsedMs > wallLimitMs) {
+                    killedReason = "wall-clock limit of " + wallLimitMs + "ms exceeded";
+                } else if (cpuMs > cpuLimitMs) {
+                    killedReason = "CPU time limit of " + cpuLimitMs + "ms exceeded";
+                } else if (stdout.overflowed() || stderr.overflowed()) {
+                    killedReason = "output limit of " + properties.getMaxOutputBytes() + " bytes exceeded";
+                }
+                if (killedReason != null) {
+                    kill(process);
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            kill(process);
+            killedReason = "interrupted";
+        }
+        stdout.awaitDrained();
+        stderr.awaitDrained();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sandbox", language.name().toLowerCase());
+        metrics.put("wallTimeMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        metrics.put("cpuTimeMs", cpuMs);
+        metrics.put("heapLimitMb", properties.getMaxHeapMb());
+        metrics.put("stdoutBytes", stdout.size());
+        metrics.put("stderrBytes", stderr.size());
+
+        if (killedReason != null) {
+            metrics.put("killed", killedReason);
+            LOGGER.warn("[FlowStack] Script node {} killed: {}", nodeKey, killedReason);
+            throw new NodeExecutionException("Script killed: " + killedReason, null, metrics);
+        }
+
+        int exitCode = process.exitValue();
+        metrics.put("exitCode", exitCode);
+        String errText = stderr.asString();
+        if (exitCode != 0) {
+            throw new NodeExecutionException("Script exited with code " + exitCode + ": " + tail(errText), null, metrics);
+        }
+
+        String outText = stdout.asString();
+        int markerIndex = outText.lastIndexOf(RESULT_MARKER);
+        Object result = null;
+        if (markerIndex >= 0) {
+            String resultJson = outText.substring(markerIndex + RESULT_MARKER.length()).trim();
+            outText = outText.substring(0, markerIndex).stripTrailing();
+            try {
+                result = objectMapper.readValue(resultJson, Object.class);
+            } catch (JsonProcessingException ex) {
+                throw new NodeExecutionException("Script returned a value that is not valid JSON", ex, metrics);
+            }
+        }
+        return new Execution(result, outText, errText, metrics);
+    }
+
+    /**
+     * Writes the script into {@code workDir} and returns the command that runs it from there.
+     */
+    private List<String> buildCommand(Language language, String script, Path workDir) throws IOException {
+        List<String> command = new ArrayList<>();
+        if (language == Language.JAVASCRIPT) {
+            Path file = Files.writeString(workDir.resolve(SCRIPT_FILE + ".js"), javascriptWrapper(script));
+            command.add(properties.getNodeCommand());
+            command.add("--max-old-space-size=" + properties.getMaxHeapMb());
+            command.add(file.toString());
+        } else {
+            Files.writeString(workDir.resolve(SCRIPT_FILE + ".py"), script);
+            Path runner = Files.writeString(workDir.resolve(RUNNER_FILE), pythonRunner());
+            command.add(properties.getPythonCommand());
+            command.add(runner.toString());
+        }
+        return command;
+    }
+
+    private String javascriptWrapper(String script) {
+        return """
+                const __chunks = [];
+                process.stdin.on('data', c => __chunks.push(c));
+                process.stdin.on('end', async () => {
+                  const context = JSON.parse(Buffer.concat(__chunks).toString('utf8') || '{}');
+                  const __result = await (async (context) => {
+                %s
+                  })(context);
+                  process.stdout.write('\\n%s' + JSON.stringify(__result === undefined ? null : __result) + '\\n');
+                });
+                """.formatted(script, RESULT_MARKER);
+    }
+
+    /**
+     * Python is indentation-sensitive, so the script is not pasted into a function. The runner
+     * parses the script file as it is and moves its statements into the body of a function taking
+     * {@code context}, which keeps {@code return} working and tracebacks pointing at the script's
+     * own lines.
+     */
+    private String pythonRunner() {
+        // RLIMIT_CPU sits one second above the watchdog limit so the watchdog normally kills first
+        long heapBytes = properties.getMaxHeapMb() * 1024L * 1024L;
+        long cpuSeconds = Math.max(1, (long) Math.ceil(properties.getCpuTimeLimit().toMillis() / 1000.0));
+        return """
+                import ast, json, sys
+                try:
+                    import resource
+                    resource.setrlimit(resource.RLIMIT_AS, (%d, %d))
+                    resource.setrlimit(resource.RLIMIT_CPU, (%d, %d))
+                except Exception:
+                    pass
+                with open('%s', encoding='utf-8') as __source:
+                    __script = ast.parse(__source.read(), '%s')
+                __module = ast.parse('def __flowstack_main(context):\\n    pass\\n')
+                if __script.body:
+                    __module.body[0].body = __script.body
+                exec(compile(__module, '%s', 'exec'))
+                __result = __flowstack_main(json.loads(sys.stdin.read() or '{}'))
+                sys.stdout.write('\\n%s' + json.dumps(__result, default=str) + '\\n')
+                """.formatted(heapBytes, heapBytes, cpuSeconds + 1, cpuSeconds + 2, SCRIPT_FILE + ".py",
+                SCRIPT_FILE + ".py", SCRIPT_FILE + ".py", RESULT_MARKER);
+    }
+
+    private void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ex) {
+            LOGGER.warn("[FlowStack] Could not delete script working directory {}: {}", dir, ex.getMessage());
+        }
+    }
+
+    private void writeInput(Process process, String input) {
+        try (OutputStream stdin = process.getOutputStream()) {
+            stdin.write(input.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            // Process exited before reading its input; the exit code reports the failure
+            LOGGER.debug("Script stdin closed early: {}", ex.getMessage());
+        }
+    }
+
+    private long cpuTimeMillis(ProcessHandle handle) {
+        long total = handle.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+        for (ProcessHandle child : handle.descendants().toList()) {
+            total += child.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+        }
+        return total;
+    }
+
+    private void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+        try {
+            process.waitFor(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String tail(String text) {
+        if (text == null || text.isBlank()) {
+            return "no error output";
+        }
+        String trimmed = text.strip();
+        return trimmed.length() > STDERR_TAIL_CHARS ? trimmed.substring(trimmed.length() - STDERR_TAIL_CHARS) : trimmed;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    /**
+     * Captures a process stream up to a byte cap. Anything past the cap is discarded and flagged so
+     * the watchdog can kill the script instead of buffering unbounded output in the engine heap.
+     */
+    private static final class BoundedCapture {
+
+        private final int limit;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final CountDownLatch drained = new CountDownLatch(1);
+        private volatile boolean overflowed;
+        private volatile long total;
+
+        BoundedCapture(int limit) {
+            this.limit = limit;
+        }
+
+        void drain(InputStream stream) {
+            byte[] chunk = new byte[8192];
+            try (stream) {
+                int read;
+                while ((read = stream.read(chunk)) != -1) {
+                    synchronized (buffer) {
+                        int room = limit - buffer.size();
+                        if (room > 0) {
+                            buffer.write(chunk, 0, Math.min(room, read));
+                        }
+                    }
+                    total += read;
+                    if (total > limit) {
+                        overflowed = true;
+                    }
+                }
+            } catch (IOException ex) {
+                // Stream is closed when the process is killed
+            } finally {
+                drained.countDown();
+            }
+        }
+
+        void awaitDrained() {
+            try {
+                drained.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+
+        long size() {
+            return total;
+        }
+
+        String asString() {
+            synchronized (buffer) {
+                return buffer.toString(StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
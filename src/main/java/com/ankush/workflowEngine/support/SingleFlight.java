@@ -0,0 +1,190 @@
+package com.ankush.workflowEngine.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces identical concurrent calls to external services. The first caller for a key runs
+ * the call; callers arriving while it is in flight wait for that result instead of issuing
+ * their own request, so a burst of runs sending the same request reaches the downstream once.
+ * Results are shared between callers and must be treated as read-only. Only idempotent
+ * requests may be coalesced, and the key must cover everything that shapes the response.
+ */
+@Component
+public class SingleFlight {
+
+    private record Waiter(Consumer<Object> onCoalesced, CompletableFuture<Object> result) {
+    }
+
+    /**
+     * One call in flight and the callers waiting for it. Once settled it takes no more waiters;
+     * it has been removed from {@code inFlight} by then, so a late caller starts a new flight.
+     */
+    private static final class Flight {
+
+        private final List<Waiter> waiters = new ArrayList<>();
+        private boolean settled;
+
+        synchronized boolean join(Waiter waiter) {
+            if (settled) {
+                return false;
+            }
+            waiters.add(waiter);
+            return true;
+        }
+
+        void settle(Object result, Throwable failure) {
+            List<Waiter> joined;
+            synchronized (this) {
+                settled = true;
+                joined = List.copyOf(waiters);
+            }
+            for (Waiter waiter : joined) {
+                if (failure != null) {
+                    waiter.result().completeExceptionally(failure);
+                    continue;
+                }
+                try {
+                    waiter.onCoalesced().accept(result);
+                    waiter.result().complete(result);
+                } catch (RuntimeException ex) {
+                    waiter.result().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Builds a coalescing key from the parts of a request.
+     */
+    public static String key(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public <T> T execute(String kind, String key, Supplier<T> call) {
+        return execute(kind, key, call, result -> { });
+    }
+
+    /**
+     * Runs {@code call} on the calling thread, or waits for the identical call already in flight.
+     * {@code onCoalesced} runs for each caller that receives another caller's result, on the
+     * thread that produced it and before any caller sees it, so whatever the hook claims (such as
+     * a reference to a spilled body) is held before the producing caller can move on and drop its
+     * own. A hook that throws fails only its own caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String kind, String key, Supplier<T> call, Consumer<T> onCoalesced) {
+        String flightKey = kind + ":" + key;
+        Flight mine = new Flight();
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(flightKey, mine);
+            if (existing == null) {
+                break;
+            }
+            Waiter waiter = new Waiter((Consumer<Object>) onCoalesced, new CompletableFuture<>());
+            if (existing.join(waiter)) {
+                coalesced(kind);
+                try {
+                    return (T) waiter.result().join();
+                } catch (CompletionException ex) {
+                    throw rethrow(ex.getCause());
+                }
+            }
+            // That flight settled between the lookup and the join; look again
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error ex) {
+            inFlight.remove(flightKey, mine);
+            mine.settle(null, ex);
+            throw ex;
+        }
+        inFlight.remove(flightKey, mine);
+        mine.settle(result, null);
+        return result;
+    }
+
+    /**
+     * Async variant: the first caller starts {@code call}; later callers get their own future for
+     * its result, with {@code onCoalesced} run as in {@link #execute(String, String, Supplier, Consumer)}
+     * on the thread that completes the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String kind, String key, Supplier<CompletableFuture<T>> call,
+                                                 Consumer<T> onCoalesced) {
+        String flightKey = kind + ":" + key;
+        Flight mine = new Flight();
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(flightKey, mine);
+            if (existing == null) {
+                break;
+            }
+            Waiter waiter = new Waiter((Consumer<Object>) onCoalesced, new CompletableFuture<>());
+            if (existing.join(waiter)) {
+                coalesced(kind);
+                return waiter.result().thenApply(result -> (T) result);
+            }
+        }
+        // Separate from the call's future, so cancelling the caller's future never fails the others
+        CompletableFuture<T> leader = new CompletableFuture<>();
+        try {
+            call.get().whenComplete((result, failure) -> {
+                inFlight.remove(flightKey, mine);
+                mine.settle(result, failure);
+                if (failure != null) {
+                    leader.completeExceptionally(failure);
+                } else {
+                    leader.complete(result);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(flightKey, mine);
+            mine.settle(null, ex);
+            leader.completeExceptionally(ex);
+        }
+        return leader;
+    }
+
+    private void coalesced(String kind) {
+        meterRegistry.counter("flowstack.singleflight.coalesced", "call", kind).increment();
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A response body too large to keep in the workflow context, stored in a temp file instead.
+ * The context holds this handle. The content is only read on request: streamed with
+ * {@link #openStream()}, or loaded whole with {@link #readString()}, which
+ * {@link TemplateRenderer} does when a template names the body. {@link #toString()} and the
+ * serialized form are a small descriptor (size, content type, preview), so logging the node
+ * output or persisting the run context never loads the file. The file lives only as long as its
+ * run; the persisted descriptor therefore carries no path.
+ */
+public final class SpilledBody {
+
+    private final Path path;
+    private final long sizeBytes;
+    private final String contentType;
+    private final Charset charset;
+    private final String preview;
+
+    SpilledBody(Path path, long sizeBytes, String contentType, Charset charset, String preview) {
+        this.path = path;
+        this.sizeBytes = sizeBytes;
+        this.contentType = contentType;
+        this.charset = charset;
+        this.preview = preview;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long sizeBytes() {
+        return sizeBytes;
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    public String readString() {
+        try {
+            return Files.readString(path, charset);
+        } catch (IOException ex) {
+            throw new NodeExecutionException("Spilled response body is no longer available: " + path, ex);
+        }
+    }
+
+    @JsonValue
+    public Map<String, Object> handle() {
+        Map<String, Object> handle = new LinkedHashMap<>();
+        handle.put("spilled", true);
+        handle.put("sizeBytes", sizeBytes);
+        if (contentType != null) {
+            handle.put("contentType", contentType);
+        }
+        handle.put("preview", preview);
+        return handle;
+    }
+
+    @Override
+    public String toString() {
+        return "SpilledBody[" + sizeBytes + " bytes" + (contentType != null ? ", " + contentType : "")
+                + ", preview=" + preview + "]";
+    }
+}
@@ -0,0 +1,91 @@
+package com.ankush.workflowEngine.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+
+/**
+ * Async response consumer that streams the body into a {@link BodyAccumulator} chunk by chunk
+ * instead of buffering it whole, so large responses spill to disk as they arrive. Bodies of
+ * error responses are discarded because the node fails on the status alone.
+ */
+public class SpoolingResponseConsumer extends AbstractBinResponseConsumer<SpoolingResponseConsumer.Result> {
+
+    private static final int CAPACITY_INCREMENT = 64 * 1024;
+
+    public record Result(int status, String reasonPhrase, Map<String, String> headers, Object body,
+                         long bodyBytes, boolean spilled, Map<String, Object> extracted) {
+
+        /**
+         * Server errors and throttling count against the host's circuit breaker; other 4xx are the caller's fault.
+         */
+        public boolean downstreamFailure() {
+            return status >= 500 || status == 429;
+        }
+    }
+
+    private final BodyAccumulator accumulator;
+    private HttpResponse response;
+    private ContentType contentType;
+
+    public SpoolingResponseConsumer(BodyAccumulator accumulator) {
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) {
+        this.response = response;
+        this.contentType = contentType;
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return CAPACITY_INCREMENT;
+    }
+
+    @Override
+    protected void data(ByteBuffer data, boolean endOfStream) throws IOException {
+        if (response.getCode() >= 400) {
+            data.position(data.limit());
+            return;
+        }
+        accumulator.write(data);
+    }
+
+    @Override
+    protected Result buildResult() {
+        try {
+            Object body = accumulator.finish(contentType != null ? contentType.toString() : null,
+                    contentType != null ? contentType.getCharset() : null);
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (Header header : response.getHeaders()) {
+                headers.putIfAbsent(header.getName(), header.getValue());
+            }
+            return new Result(response.getCode(), response.getReasonPhrase(), headers, body,
+                    accumulator.size(), accumulator.spilled(), accumulator.extracted());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        releaseResources();
+        super.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+        try {
+            accumulator.close();
+        } catch (IOException ex) {
+            // Nothing left to release
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ankush.workflowEngine.support;
+
+import java.io.IOException;
+import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+/**
+ * Helpers for writing a streamed LLM response to an SSE emitter.
+ */
+public final class SseStreams {
+
+    private SseStreams() {
+    }
+
+    /**
+     * A holder for the subscription feeding {@code emitter}, disposed once the emitter completes,
+     * times out or fails (the client went away), so the generation behind it is cancelled instead
+     * of running on for nobody. Put the subscription in with {@link Disposable.Swap#update}; one
+     * added after the emitter closed is disposed straight away. Registers the emitter's
+     * completion, timeout and error callbacks.
+     */
+    public static Disposable.Swap cancelOnClose(SseEmitter emitter) {
+        Disposable.Swap subscription = Disposables.swap();
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return subscription;
+    }
+
+    /**
+     * Sends the queued {@code events} in order and clears the queue.
+     */
+    public static void sendAll(SseEmitter emitter, List<SseEmitter.SseEventBuilder> events) throws IOException {
+        for (SseEmitter.SseEventBuilder event : events) {
+            emitter.send(event);
+        }
+        events.clear();
+    }
+}
@@ -21,7 +21,9 @@ public final class TemplateRenderer {
         while (matcher.find()) {
             String key = matcher.group(1);
             Object value = context.getOrDefault(key, "");
-            String replacement = value == null ? "" : value.toString();
+            String replacement = value == null ? ""
+                    // A template naming a spilled body asks for its content, not the handle
+                    : value instanceof SpilledBody spilled ? spilled.readString() : value.toString();
             matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement));
         }
         matcher.appendTail(buffer);
@@ -0,0 +1,160 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.config.AnalysisCacheProperties;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Analyses of editor graphs keyed by {@link #fingerprint}, so an editor re-analysing a graph that
+ * has not changed gets the previous answer without another LLM call. A bounded in-memory LRU;
+ * entries expire after {@code flowstack.assistant.analysis-cache.ttl}.
+ *
+ * <p>Also holds the {@link WorkflowGraph}s of editors using incremental analysis, by graph id.
+ */
+@Component
+public class WorkflowAnalysisCache {
+
+    // Map entries sorted by key so equal configs serialize identically
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private record Entry(WorkflowAnalysisResponse response, long expiresAt) {
+    }
+
+    private final AnalysisCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> entries;
+    private final Map<String, WorkflowGraph> graphs;
+
+    public WorkflowAnalysisCache(AnalysisCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+        this.graphs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WorkflowGraph> eldest) {
+                return size() > properties.getMaxGraphs();
+            }
+        };
+    }
+
+    /**
+     * SHA-256 over the workflow name and description plus the sorted node (key, type, display
+     * name, config) and edge (source, target, condition) descriptors, so neither the order of
+     * nodes and edges nor of config keys changes it.
+     */
+    public static String fingerprint(WorkflowAnalysisRequest request) {
+        List<String> nodes = new ArrayList<>();
+        if (request.nodes() != null) {
+            for (WorkflowAnalysisRequest.NodeInfo node : request.nodes()) {
+                nodes.add(node.key() + '\0' + node.type() + '\0' + node.displayName() + '\0' + canonical(node.config()));
+            }
+        }
+        List<String> edges = new ArrayList<>();
+        if (request.edges() != null) {
+            for (WorkflowAnalysisRequest.EdgeInfo edge : request.edges()) {
+                edges.add(edge.sourceKey() + '\0' + edge.targetKey() + '\0' + edge.conditionExpression());
+            }
+        }
+        nodes.sort(null);
+        edges.sort(null);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, Objects.toString(request.workflowName()));
+            update(digest, Objects.toString(request.workflowDescription()));
+            update(digest, "nodes:" + nodes.size());
+            nodes.forEach(node -> update(digest, node));
+            update(digest, "edges:" + edges.size());
+            edges.forEach(edge -> update(digest, edge));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public WorkflowAnalysisResponse get(String fingerprint) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        WorkflowAnalysisResponse response = null;
+        synchronized (entries) {
+            Entry entry = entries.get(fingerprint);
+            if (entry != null) {
+                if (entry.expiresAt() > System.currentTimeMillis()) {
+                    response = entry.response();
+                } else {
+                    entries.remove(fingerprint);
+                }
+            }
+        }
+        meterRegistry.counter("flowstack.assistant.analysis.cache.requests",
+                "result", response != null ? "hit" : "miss").increment();
+        return response;
+    }
+
+    public void put(String fingerprint, WorkflowAnalysisResponse response) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Entry entry = new Entry(response, System.currentTimeMillis() + properties.getTtl().toMillis());
+        synchronized (entries) {
+            entries.put(fingerprint, entry);
+        }
+    }
+
+    /**
+     * Editor graph stored under {@code graphId}, or {@code null} once evicted.
+     */
+    public WorkflowGraph graph(String graphId) {
+        synchronized (graphs) {
+            return graphs.get(graphId);
+        }
+    }
+
+    /**
+     * Stores a new editor graph and returns its id.
+     */
+    public String register(WorkflowGraph graph) {
+        String graphId = UUID.randomUUID().toString();
+        synchronized (graphs) {
+            graphs.put(graphId, graph);
+        }
+        return graphId;
+    }
+
+    private static String canonical(Map<String, Object> config) {
+        if (config == null || config.isEmpty()) {
+            return "{}";
+        }
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(config);
+        } catch (JsonProcessingException ex) {
+            return config.toString();
+        }
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
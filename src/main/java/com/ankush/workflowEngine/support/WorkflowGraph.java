@@ -0,0 +1,324 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisResponse.WorkflowIssue;
+import com.ankush.workflowEngine.enums.NodeType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexed editor graph for structural analysis. Nodes are kept by key in insertion order and
+ * edges in per-node sets both ways, so orphan, dead-end and reachability checks cost O(V + E) for
+ * the whole graph instead of a scan of the edge list per visited node.
+ *
+ * <p>The graph can also be edited in place: config issues are cached per node, node type counts
+ * and degrees are updated per change, and reachability from the INPUT node is extended by a
+ * search from the new edges only; removals (and a changed INPUT node) mark it for a full, still
+ * linear, recomputation. A node without a key is ignored and one without a type is reported as
+ * an issue instead of entering the graph, so a bad upsert never leaves it half-updated. Not
+ * thread-safe; callers hold the graph's monitor while editing and reading it.
+ */
+public final class WorkflowGraph {
+
+    private final Map<String, WorkflowAnalysisRequest.NodeInfo> nodes = new LinkedHashMap<>();
+    private final Set<WorkflowAnalysisRequest.EdgeInfo> edges = new LinkedHashSet<>();
+    private final Map<String, Set<WorkflowAnalysisRequest.EdgeInfo>> outgoing = new HashMap<>();
+    private final Map<String, Set<WorkflowAnalysisRequest.EdgeInfo>> incoming = new HashMap<>();
+    private final Map<String, List<WorkflowIssue>> configIssues = new HashMap<>();
+    private final Map<String, WorkflowIssue> untyped = new LinkedHashMap<>();
+    private final Map<NodeType, Integer> typeCounts = new EnumMap<>(NodeType.class);
+    private final Set<String> reachable = new HashSet<>();
+    private String reachableFrom;
+    private boolean reachabilityStale = true;
+    private String name;
+    private String description;
+
+    public static WorkflowGraph of(WorkflowAnalysisRequest request) {
+        WorkflowGraph graph = new WorkflowGraph();
+        graph.describe(request.workflowName(), request.workflowDescription());
+        graph.apply(request.nodes(), List.of(), request.edges(), List.of());
+        return graph;
+    }
+
+    public void describe(String workflowName, String workflowDescription) {
+        this.name = workflowName;
+        this.description = workflowDescription;
+    }
+
+    /**
+     * Applies one round of editor changes: removals first (a removed node takes its edges with
+     * it), then upserts (a known key is replaced in place) and new edges.
+     */
+    public void apply(Collection<WorkflowAnalysisRequest.NodeInfo> upsertNodes, Collection<String> removedNodeKeys,
+                      Collection<WorkflowAnalysisRequest.EdgeInfo> addedEdges,
+                      Collection<WorkflowAnalysisRequest.EdgeInfo> removedEdges) {
+        if (removedEdges != null) {
+            removedEdges.forEach(this::removeEdge);
+        }
+        if (removedNodeKeys != null) {
+            removedNodeKeys.forEach(this::removeNode);
+        }
+        if (upsertNodes != null) {
+            upsertNodes.forEach(this::putNode);
+        }
+        if (addedEdges != null) {
+            addedEdges.forEach(this::addEdge);
+        }
+    }
+
+    public WorkflowAnalysisRequest toRequest() {
+        return new WorkflowAnalysisRequest(List.copyOf(nodes.values()), List.copyOf(edges), name, description);
+    }
+
+    public Collection<WorkflowAnalysisRequest.NodeInfo> nodes() {
+        return nodes.values();
+    }
+
+    public WorkflowAnalysisRequest.NodeInfo node(String key) {
+        return nodes.get(key);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean has(NodeType type) {
+        return typeCounts.getOrDefault(type, 0) > 0;
+    }
+
+    /**
+     * Key of the first node of {@code type} in insertion order, or {@code null}.
+     */
+    public String first(NodeType type) {
+        if (!has(type)) {
+            return null;
+        }
+        for (WorkflowAnalysisRequest.NodeInfo node : nodes.values()) {
+            if (node.type() == type) {
+                return node.key();
+            }
+        }
+        return null;
+    }
+
+    public String lastKey() {
+        String last = null;
+        for (String key : nodes.keySet()) {
+            last = key;
+        }
+        return last;
+    }
+
+    /**
+     * Structural issues in the order the editor shows them: missing INPUT/OUTPUT, orphaned
+     * nodes, nodes unreachable from INPUT, dead ends (only once there is an OUTPUT node to lead
+     * to), then incomplete configs.
+     */
+    public List<WorkflowIssue> issues() {
+        List<WorkflowIssue> issues = new ArrayList<>();
+        boolean hasInput = has(NodeType.INPUT);
+        if (!hasInput) {
+            issues.add(new WorkflowIssue("MISSING_INPUT", "ERROR", "Workflow must start with an INPUT node", null,
+                    "Add an INPUT node as the entry point"));
+        }
+        if (!has(NodeType.OUTPUT) && nodes.size() > 1) {
+            issues.add(new WorkflowIssue("MISSING_OUTPUT", "WARNING", "Workflow should end with an OUTPUT node", null,
+                    "Add an OUTPUT node to complete the workflow"));
+        }
+        for (WorkflowAnalysisRequest.NodeInfo node : nodes.values()) {
+            if (!incoming.containsKey(node.key()) && !outgoing.containsKey(node.key())
+                    && node.type() != NodeType.INPUT && node.type() != NodeType.OUTPUT) {
+                issues.add(new WorkflowIssue("ORPHANED_NODE", "WARNING",
+                        "Node '" + node.key() + "' is not connected to any other node", node.key(),
+                        "Connect this node to other nodes or remove it"));
+            }
+        }
+        if (hasInput) {
+            Set<String> reached = reachable();
+            for (WorkflowAnalysisRequest.NodeInfo node : nodes.values()) {
+                if (!reached.contains(node.key()) && node.type() != NodeType.INPUT) {
+                    issues.add(new WorkflowIssue("DISCONNECTED_FLOW", "ERROR",
+                            "Node '" + node.key() + "' cannot be reached from INPUT node", node.key(),
+                            "Add a connection path from INPUT to this node"));
+                }
+            }
+        }
+        if (has(NodeType.OUTPUT)) {
+            for (WorkflowAnalysisRequest.NodeInfo node : nodes.values()) {
+                if (incoming.containsKey(node.key()) && !outgoing.containsKey(node.key())
+                        && node.type() != NodeType.OUTPUT) {
+                    issues.add(new WorkflowIssue("DEAD_END", "WARNING",
+                            "Node '" + node.key() + "' has no outgoing connection and never reaches OUTPUT",
+                            node.key(), "Connect this node to the next step or to the OUTPUT node"));
+                }
+            }
+        }
+        issues.addAll(untyped.values());
+        for (String key : nodes.keySet()) {
+            issues.addAll(configIssues.getOrDefault(key, List.of()));
+        }
+        return issues;
+    }
+
+    /**
+     * Keys reachable from the first INPUT node (including it); empty without one.
+     */
+    public Set<String> reachable() {
+        String start = first(NodeType.INPUT);
+        if (start == null) {
+            reachable.clear();
+            reachableFrom = null;
+            return reachable;
+        }
+        if (reachabilityStale || !start.equals(reachableFrom)) {
+            reachable.clear();
+            reachableFrom = start;
+            reachabilityStale = false;
+            search(start);
+        }
+        return reachable;
+    }
+
+    private void putNode(WorkflowAnalysisRequest.NodeInfo node) {
+        if (node == null || node.key() == null || node.key().isBlank()) {
+            return;
+        }
+        if (node.type() == null) {
+            // Whatever the key held before stays as it was until the node gets a type
+            untyped.put(node.key(), new WorkflowIssue("MISSING_TYPE", "ERROR",
+                    "Node '" + node.key() + "' has no type", node.key(), "Choose a type for this node"));
+            return;
+        }
+        untyped.remove(node.key());
+        WorkflowAnalysisRequest.NodeInfo previous = nodes.put(node.key(), node);
+        if (previous != null) {
+            typeCounts.merge(previous.type(), -1, Integer::sum);
+        }
+        typeCounts.merge(node.type(), 1, Integer::sum);
+        if (previous != null ? previous.type() != node.type() : node.type() == NodeType.INPUT) {
+            reachabilityStale = true; // The INPUT node may have changed
+        }
+        List<WorkflowIssue> issues = checkConfig(node);
+        if (issues.isEmpty()) {
+            configIssues.remove(node.key());
+        } else {
+            configIssues.put(node.key(), issues);
+        }
+    }
+
+    private void removeNode(String key) {
+        untyped.remove(key);
+        WorkflowAnalysisRequest.NodeInfo removed = nodes.remove(key);
+        if (removed == null) {
+            return;
+        }
+        typeCounts.merge(removed.type(), -1, Integer::sum);
+        configIssues.remove(key);
+        List.copyOf(outgoing.getOrDefault(key, Set.of())).forEach(this::removeEdge);
+        List.copyOf(incoming.getOrDefault(key, Set.of())).forEach(this::removeEdge);
+        reachabilityStale = true;
+    }
+
+    private void addEdge(WorkflowAnalysisRequest.EdgeInfo edge) {
+        if (edge == null || edge.sourceKey() == null || edge.targetKey() == null || !edges.add(edge)) {
+            return;
+        }
+        outgoing.computeIfAbsent(edge.sourceKey(), key -> new LinkedHashSet<>()).add(edge);
+        incoming.computeIfAbsent(edge.targetKey(), key -> new LinkedHashSet<>()).add(edge);
+        if (!reachabilityStale && reachable.contains(edge.sourceKey())) {
+            search(edge.targetKey());
+        }
+    }
+
+    private void removeEdge(WorkflowAnalysisRequest.EdgeInfo edge) {
+        if (!edges.remove(edge)) {
+            return;
+        }
+        unlink(outgoing, edge.sourceKey(), edge);
+        unlink(incoming, edge.targetKey(), edge);
+        reachabilityStale = true;
+    }
+
+    private static void unlink(Map<String, Set<WorkflowAnalysisRequest.EdgeInfo>> index, String key,
+                               WorkflowAnalysisRequest.EdgeInfo edge) {
+        Set<WorkflowAnalysisRequest.EdgeInfo> linked = index.get(key);
+        if (linked != null && linked.remove(edge) && linked.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Breadth-first from {@code start}, adding to {@link #reachable} everything not in it yet.
+     */
+    private void search(String start) {
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        if (reachable.add(start)) {
+            queue.add(start);
+        }
+        while (!queue.isEmpty()) {
+            for (WorkflowAnalysisRequest.EdgeInfo edge : outgoing.getOrDefault(queue.poll(), Set.of())) {
+                if (reachable.add(edge.targetKey())) {
+                    queue.add(edge.targetKey());
+                }
+            }
+        }
+    }
+
+    private static List<WorkflowIssue> checkConfig(WorkflowAnalysisRequest.NodeInfo node) {
+        Map<String, Object> config = node.config() != null ? node.config() : Map.of();
+        WorkflowIssue issue = switch (node.type()) {
+            case HTTP -> blank(config.get("url"))
+                    ? incomplete(node, "ERROR", "HTTP node '" + node.key() + "' is missing URL configuration",
+                            "Configure the URL for this HTTP node")
+                    : null;
+            case HTTP_BATCH -> {
+                boolean hasRequests = config.get("requests") instanceof List<?> requests && !requests.isEmpty();
+                boolean hasTemplate = config.get("request") instanceof Map<?, ?> && config.get("items") != null;
+                yield !hasRequests && !hasTemplate
+                        ? incomplete(node, "ERROR", "HTTP_BATCH node '" + node.key() + "' has no requests",
+                                "Add a 'requests' list, or a 'request' template with 'items' to map over")
+                        : null;
+            }
+            case LLM -> !(config.get("providers") instanceof List<?> providers) || providers.isEmpty()
+                    ? incomplete(node, "ERROR", "LLM node '" + node.key() + "' has no providers",
+                            "Add a 'providers' list such as [\"ollama:gemma3:1b\", \"openai:gpt-4o-mini\"]")
+                    : null;
+            case SCRIPT_JS, SCRIPT_PY -> blank(config.get("script"))
+                    ? incomplete(node, "WARNING", "Script node '" + node.key() + "' has no script code",
+                            "Add script code to this node")
+                    : null;
+            case OLLAMA, CHATGPT -> blank(config.get("prompt"))
+                    ? incomplete(node, "ERROR", "AI node '" + node.key() + "' is missing prompt",
+                            "Add a prompt for this AI node")
+                    : null;
+            case EMAIL -> config.get("to") == null
+                    ? incomplete(node, "ERROR", "Email node '" + node.key() + "' is missing recipient (to)",
+                            "Configure email recipient")
+                    : null;
+            case IF_ELSE -> blank(config.get("condition"))
+                    ? incomplete(node, "ERROR", "IF_ELSE node '" + node.key() + "' is missing condition",
+                            "Add a condition expression")
+                    : null;
+            default -> null;
+        };
+        return issue != null ? List.of(issue) : List.of();
+    }
+
+    private static boolean blank(Object value) {
+        return value == null || String.valueOf(value).trim().isEmpty();
+    }
+
+    private static WorkflowIssue incomplete(WorkflowAnalysisRequest.NodeInfo node, String severity, String message,
+                                            String suggestion) {
+        return new WorkflowIssue("INCOMPLETE_CONFIG", severity, message, node.key(), suggestion);
+    }
+}
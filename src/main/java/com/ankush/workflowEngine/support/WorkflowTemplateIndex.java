@@ -0,0 +1,270 @@
+package com.ankush.workflowEngine.support;
+
+import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory BM25 index over workflow templates. A template's text is its name and description,
+ * its nodes' keys, display names and types, and the string values of their configs; name, description
+ * and display names count several times so a matching title outweighs a word buried in a script.
+ * Templates can be added, replaced and removed one at a time; postings and document frequencies
+ * are updated in place, so keeping the index current costs the size of the changed template only.
+ *
+ * <p>Besides the BM25 score, each match carries a confidence in [0, 1]: the share of the query's
+ * IDF weight that the template covers. A query whose rarest words all appear in the template is a
+ * confident match, however long the template is; {@code matchedTerms} counts the distinct query
+ * words found. Thread-safe; every method holds the index's monitor.
+ *
+ * <p>Templates are handed to other users as starting points, so config entries that carry
+ * credentials ({@code apiKey}, an {@code Authorization} header, a {@code password}, ...) are
+ * stripped, at any depth, before a template is stored.
+ */
+public final class WorkflowTemplateIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int DISPLAY_NAME_WEIGHT = 2;
+    private static final int MAX_CONFIG_VALUE_CHARS = 500;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "create", "do", "for", "from", "i", "if",
+            "in", "into", "is", "it", "make", "me", "my", "need", "of", "on", "or", "please", "that", "the",
+            "then", "this", "to", "want", "we", "what", "when", "which", "with", "workflow", "you");
+    private static final List<String> SECRET_KEY_PARTS = List.of(
+            "authorization", "password", "passwd", "secret", "apikey", "accesskey", "privatekey", "credential",
+            "cookie");
+
+    /**
+     * An indexed workflow; {@code source} says where it came from, e.g. {@code workflow:42}.
+     */
+    public record Template(String source, WorkflowDefinitionRequest workflow) {
+    }
+
+    public record Match(Template template, double score, double confidence, int matchedTerms) {
+    }
+
+    private record Document(Template template, Map<String, Integer> terms, int length) {
+    }
+
+    private final Map<String, Document> documents = new HashMap<>();
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Adds {@code template}, replacing any template from the same source.
+     */
+    public synchronized void put(Template template) {
+        String source = template.source();
+        remove(source);
+        WorkflowDefinitionRequest workflow = withoutSecrets(template.workflow());
+        Map<String, Integer> terms = new HashMap<>();
+        int length = addTerms(terms, workflow);
+        if (length == 0) {
+            return;
+        }
+        documents.put(source, new Document(new Template(source, workflow), terms, length));
+        terms.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(source, frequency));
+        totalLength += length;
+    }
+
+    public synchronized void remove(String source) {
+        Document removed = documents.remove(source);
+        if (removed == null) {
+            return;
+        }
+        for (String term : removed.terms().keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(source);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= removed.length();
+    }
+
+    /**
+     * Removes every template whose source starts with {@code prefix}.
+     */
+    public synchronized void removeAll(String prefix) {
+        List.copyOf(documents.keySet()).stream().filter(source -> source.startsWith(prefix)).forEach(this::remove);
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Up to {@code limit} templates matching {@code query}, best first.
+     */
+    public synchronized List<Match> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || documents.isEmpty()) {
+            return List.of();
+        }
+        double averageLength = (double) totalLength / documents.size();
+        double queryWeight = 0;
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Double> covered = new HashMap<>();
+        Map<String, Integer> matched = new HashMap<>();
+        for (String term : queryTerms) {
+            Map<String, Integer> posting = postings.getOrDefault(term, Map.of());
+            double idf = idf(posting.size());
+            queryWeight += idf;
+            posting.forEach((source, frequency) -> {
+                Document document = documents.get(source);
+                double norm = K1 * (1 - B + B * document.length() / averageLength);
+                scores.merge(source, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                covered.merge(source, idf, Double::sum);
+                matched.merge(source, 1, Integer::sum);
+            });
+        }
+        double totalWeight = queryWeight;
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> new Match(documents.get(entry.getKey()).template(), entry.getValue(),
+                        covered.get(entry.getKey()) / totalWeight, matched.get(entry.getKey())))
+                .toList();
+    }
+
+    /**
+     * Nodes of {@code workflow} ranked by how many of the query's words they contain; nodes
+     * sharing none are left out.
+     */
+    public static List<WorkflowNodeRequest> matchingNodes(WorkflowDefinitionRequest workflow, String query) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (workflow.nodes() == null || queryTerms.isEmpty()) {
+            return List.of();
+        }
+        record Hit(WorkflowNodeRequest node, long count) {
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (WorkflowNodeRequest node : workflow.nodes()) {
+            Map<String, Integer> terms = new HashMap<>();
+            addNodeTerms(terms, node);
+            long count = queryTerms.stream().filter(terms::containsKey).count();
+            if (count > 0) {
+                hits.add(new Hit(node, count));
+            }
+        }
+        // Stable sort: equally good nodes keep their order in the workflow
+        hits.sort(Comparator.comparingLong(Hit::count).reversed());
+        return hits.stream().map(Hit::node).toList();
+    }
+
+    /**
+     * {@code workflow} with every config entry whose name marks it as a credential removed,
+     * including those inside nested maps and lists such as {@code headers} or {@code providers}.
+     */
+    public static WorkflowDefinitionRequest withoutSecrets(WorkflowDefinitionRequest workflow) {
+        if (workflow.nodes() == null) {
+            return workflow;
+        }
+        List<WorkflowNodeRequest> nodes = workflow.nodes().stream()
+                .map(node -> node.config() == null ? node : new WorkflowNodeRequest(node.key(), node.displayName(),
+                        node.type(), node.sortOrder(), withoutSecrets(node.config()), node.metadata()))
+                .toList();
+        return new WorkflowDefinitionRequest(workflow.name(), workflow.description(), workflow.metadata(), nodes,
+                workflow.edges());
+    }
+
+    static boolean isSecretKey(String key) {
+        String name = key.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        // "token" only as a suffix, so accessToken goes and maxTokens stays
+        return name.endsWith("token") || SECRET_KEY_PARTS.stream().anyMatch(name::contains);
+    }
+
+    private static Map<String, Object> withoutSecrets(Map<?, ?> config) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        config.forEach((key, value) -> {
+            if (!isSecretKey(String.valueOf(key))) {
+                copy.put(String.valueOf(key), withoutSecretValues(value));
+            }
+        });
+        return copy;
+    }
+
+    private static Object withoutSecretValues(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return withoutSecrets(map);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(WorkflowTemplateIndex::withoutSecretValues).toList();
+        }
+        return value;
+    }
+
+    /**
+     * Lower-cased words of two or more characters, split on anything that is not a letter or
+     * digit and on camelCase, without stop words and with an {@code -ing} or plural {@code s}
+     * dropped.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String split = text.replaceAll("([a-z])([A-Z])", "$1 $2").toLowerCase(Locale.ROOT);
+        for (String word : split.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            if (word.length() > 5 && word.endsWith("ing")) {
+                word = word.substring(0, word.length() - 3);
+            } else if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            tokens.add(word);
+        }
+        return tokens;
+    }
+
+    private double idf(int documentFrequency) {
+        int count = documents.size();
+        return Math.log(1 + (count - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static int addTerms(Map<String, Integer> terms, WorkflowDefinitionRequest workflow) {
+        int length = add(terms, workflow.name(), NAME_WEIGHT);
+        length += add(terms, workflow.description(), DESCRIPTION_WEIGHT);
+        if (workflow.nodes() != null) {
+            for (WorkflowNodeRequest node : workflow.nodes()) {
+                length += addNodeTerms(terms, node);
+            }
+        }
+        return length;
+    }
+
+    private static int addNodeTerms(Map<String, Integer> terms, WorkflowNodeRequest node) {
+        int length = add(terms, node.key(), 1);
+        length += add(terms, node.displayName(), DISPLAY_NAME_WEIGHT);
+        length += add(terms, node.type() != null ? node.type().name().replace('_', ' ') : null, 1);
+        if (node.config() != null) {
+            for (Object value : node.config().values()) {
+                if (value instanceof String text) {
+                    length += add(terms, text.length() > MAX_CONFIG_VALUE_CHARS
+                            ? text.substring(0, MAX_CONFIG_VALUE_CHARS) : text, 1);
+                }
+            }
+        }
+        return length;
+    }
+
+    private static int add(Map<String, Integer> terms, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> terms.merge(token, weight, Integer::sum));
+        return tokens.size() * weight;
+    }
+}
@@ -0,0 +1,2 @@
+-- Per-node resource usage (script sandbox wall/CPU time, output sizes, ...) recorded by executors
+ALTER TABLE workflow_node_runs ADD COLUMN metrics JSON;
@@ -0,0 +1,160 @@
+package com.ankush.workflowEngine.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ankush.workflowEngine.config.TemplateIndexProperties;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import com.ankush.workflowEngine.dto.WorkflowDefinitionResponse;
+import com.ankush.workflowEngine.dto.WorkflowNodeResponse;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.enums.NodeType;
+import com.ankush.workflowEngine.enums.WorkflowStatus;
+import com.ankush.workflowEngine.support.WorkflowTemplateIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WorkflowTemplateServiceTest {
+
+    @TempDir
+    Path examplesDir;
+
+    private final TemplateIndexProperties properties = new TemplateIndexProperties();
+    private final WorkflowDefinitionService definitionService = mock(WorkflowDefinitionService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WorkflowTemplateService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setExamplesDir(examplesDir.toString());
+        service = new WorkflowTemplateService(properties, definitionService, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void matchesAPromptDescribingAStoredWorkflow() {
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge and emails the customer"),
+                stored(2, "Weather report", "Fetches the forecast every morning"),
+                stored(3, "Payroll export", "Exports payroll to the bank"));
+
+        Optional<WorkflowTemplateIndex.Match> match = service.match("Refund a stripe charge", LlmCaller.ASSISTANT);
+
+        assertThat(match).map(found -> found.template().source()).contains("workflow:1");
+        assertThat(meterRegistry.counter("flowstack.assistant.templates.lookups", "caller",
+                LlmCaller.ASSISTANT.tag(), "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void missesWhenTooLittleOfThePromptIsCovered() {
+        properties.setMinConfidence(0.55);
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge"),
+                stored(2, "Weather report", "Fetches the forecast"));
+
+        assertThat(service.match("stripe refund with fraud scoring, ledger sync and audit trail",
+                LlmCaller.ASSISTANT)).isEmpty();
+        assertThat(meterRegistry.counter("flowstack.assistant.templates.lookups", "caller",
+                LlmCaller.ASSISTANT.tag(), "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void missesWhenTooFewWordsMatch() {
+        properties.setMinMatchedTerms(2);
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge"),
+                stored(2, "Weather report", "Fetches the forecast"));
+
+        assertThat(service.match("stripe", LlmCaller.ASSISTANT)).isEmpty();
+
+        properties.setMinMatchedTerms(1);
+        assertThat(service.match("stripe", LlmCaller.ASSISTANT)).isPresent();
+    }
+
+    @Test
+    void missesWhenTheRunnerUpIsAlmostAsGood() {
+        properties.setMinMargin(1.5);
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge"),
+                stored(2, "Stripe refund report", "Refunds a Stripe charge and reports it"),
+                stored(3, "Weather report", "Fetches the forecast"));
+
+        assertThat(service.match("stripe refund", LlmCaller.ASSISTANT)).isEmpty();
+
+        properties.setMinMargin(1.0);
+        assertThat(service.match("stripe refund", LlmCaller.ASSISTANT)).isPresent();
+    }
+
+    @Test
+    void reindexesAWorkflowWhenItChangesOrIsDeleted() {
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge"),
+                stored(2, "Weather report", "Fetches the forecast"));
+
+        service.handleDefinitionChanged(new WorkflowDefinitionChangedEvent(1L,
+                stored(1, "Payroll export", "Exports payroll to the bank")));
+        assertThat(service.match("stripe refund", LlmCaller.ASSISTANT)).isEmpty();
+        assertThat(service.match("export payroll", LlmCaller.ASSISTANT))
+                .map(found -> found.template().workflow().name()).contains("Payroll export");
+
+        service.handleDefinitionChanged(new WorkflowDefinitionChangedEvent(1L, null));
+        assertThat(service.match("export payroll", LlmCaller.ASSISTANT)).isEmpty();
+    }
+
+    @Test
+    void indexesExampleJsonFilesAndCurlScripts() throws IOException {
+        Files.writeString(examplesDir.resolve("refund.json"), """
+                {"name": "Refund example", "description": "Refunds a Stripe charge",
+                 "nodes": [{"key": "refund", "type": "HTTP", "config": {"url": "https://api.stripe.com/v1/refunds"}}]}
+                """);
+        Files.writeString(examplesDir.resolve("weather.sh"), """
+                curl -X POST http://localhost:8080/api/workflows \\
+                  -H 'Content-Type: application/json' \\
+                  --data-raw '{"name": "Weather example", "description": "Fetches the forecast",
+                   "nodes": [{"key": "fetch", "type": "HTTP", "config": {"url": "https://api.weather.example"}}]}'
+                """);
+        indexAll();
+
+        assertThat(service.match("refund a stripe charge", LlmCaller.ASSISTANT))
+                .map(found -> found.template().source()).contains("example:Refund example");
+        assertThat(service.match("fetch the weather forecast", LlmCaller.ASSISTANT))
+                .map(found -> found.template().source()).contains("example:Weather example");
+    }
+
+    @Test
+    void copiesAStoredWorkflowUnderANewNameWithoutCredentials() {
+        Map<String, Object> config = Map.of("url", "https://api.stripe.com/v1/refunds",
+                "headers", Map.of("Authorization", "Bearer sk-live-123", "Content-Type", "application/json"),
+                "apiKey", "sk-live-456");
+        indexAll(stored(1, "Stripe refund", "Refunds a Stripe charge", config),
+                stored(2, "Weather report", "Fetches the forecast"));
+        WorkflowTemplateIndex.Match match = service.match("refund a stripe charge", LlmCaller.ASSISTANT).orElseThrow();
+
+        WorkflowDefinitionRequest copy = WorkflowTemplateService.copyOf(match, null);
+
+        assertThat(copy.name()).isEqualTo("Stripe refund-copy");
+        assertThat(copy.nodes().get(0).config()).isEqualTo(Map.of("url", "https://api.stripe.com/v1/refunds",
+                "headers", Map.of("Content-Type", "application/json")));
+        assertThat(WorkflowTemplateService.copyOf(match, "My refunds").name()).isEqualTo("My refunds");
+    }
+
+    private void indexAll(WorkflowDefinitionResponse... definitions) {
+        when(definitionService.listDefinitions()).thenReturn(List.of(definitions));
+        service.indexAll();
+    }
+
+    private static WorkflowDefinitionResponse stored(long id, String name, String description) {
+        return stored(id, name, description, Map.of());
+    }
+
+    private static WorkflowDefinitionResponse stored(long id, String name, String description,
+                                                     Map<String, Object> config) {
+        WorkflowNodeResponse node = new WorkflowNodeResponse(id * 10, "step", null, NodeType.HTTP, 0, config, null);
+        return new WorkflowDefinitionResponse(id, name, description, WorkflowStatus.DRAFT, 1, null, null, null,
+                List.of(node), List.of());
+    }
+}
@@ -0,0 +1,160 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.config.AssistantExecutorProperties;
+import com.ankush.workflowEngine.exception.AssistantUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Queued calls run only when the test drains {@link #queued}; timeouts are fired by calling the
+ * handler the servlet container would call.
+ */
+class AssistantDispatcherTest {
+
+    private static final String ENDPOINT = "chatbot";
+
+    private final AssistantExecutorProperties properties = new AssistantExecutorProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Deque<Runnable> queued = new ArrayDeque<>();
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrent(new HashMap<>(Map.of(ENDPOINT, 2)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void runsTheCallAndReleasesItsSlot() {
+        AssistantDispatcher dispatcher = new AssistantDispatcher(queued::add, properties, meterRegistry);
+
+        DeferredResult<String> result = dispatcher.dispatch(ENDPOINT, () -> "answer");
+        assertThat(active()).isEqualTo(1);
+        queued.poll().run();
+
+        assertThat(result.getResult()).isEqualTo("answer");
+        assertThat(active()).isZero();
+    }
+
+    @Test
+    void rejectsARequestOverTheEndpointLimit() {
+        AssistantDispatcher dispatcher = new AssistantDispatcher(queued::add, properties, meterRegistry);
+        dispatcher.dispatch(ENDPOINT, () -> "first");
+        dispatcher.dispatch(ENDPOINT, () -> "second");
+
+        assertThatThrownBy(() -> dispatcher.dispatch(ENDPOINT, () -> "third"))
+                .isInstanceOf(AssistantUnavailableException.class)
+                .hasMessageContaining("Too many chatbot requests in progress");
+        assertThat(rejected("endpoint-limit")).isEqualTo(1);
+        // Other endpoints have slots of their own
+        assertThat(dispatcher.dispatch("visual-editor", () -> "other")).isNotNull();
+
+        queued.poll().run();
+        assertThat(dispatcher.dispatch(ENDPOINT, () -> "fourth")).isNotNull();
+    }
+
+    @Test
+    void rejectsARequestWhenThePoolIsFullAndGivesBackItsSlot() {
+        AssistantDispatcher dispatcher = new AssistantDispatcher(task -> {
+            throw new RejectedExecutionException("pool full");
+        }, properties, meterRegistry);
+
+        assertThatThrownBy(() -> dispatcher.dispatch(ENDPOINT, () -> "answer"))
+                .isInstanceOf(AssistantUnavailableException.class)
+                .hasMessageContaining("at capacity")
+                .extracting(ex -> ((AssistantUnavailableException) ex).getRetryAfterSeconds())
+                .isEqualTo(5L);
+        assertThat(rejected("pool-full")).isEqualTo(1);
+        assertThat(active()).isZero();
+    }
+
+    @Test
+    void skipsACallThatTimedOutBeforeItStarted() {
+        AssistantDispatcher dispatcher = new AssistantDispatcher(queued::add, properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        AssistantDispatcher.Dispatch<String> dispatch = dispatcher.submit(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            return "late";
+        });
+        dispatch.timedOut();
+        assertThat(dispatch.result.getResult()).isInstanceOf(AssistantUnavailableException.class);
+        assertThat(active()).isEqualTo(1);
+
+        queued.poll().run();
+
+        assertThat(calls).hasValue(0);
+        assertThat(active()).isZero();
+        assertThat(abandoned()).isZero();
+        assertThat(rejected("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void holdsTheSlotOfAnAbandonedCallUntilItReturns() throws InterruptedException {
+        properties.getMaxConcurrent().put(ENDPOINT, 1);
+        AssistantDispatcher dispatcher = new AssistantDispatcher(threads, properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AssistantDispatcher.Dispatch<String> dispatch = dispatcher.submit(ENDPOINT, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "too late";
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatch.timedOut();
+
+        assertThat(dispatch.result.getResult()).isInstanceOf(AssistantUnavailableException.class);
+        assertThat(abandoned()).isEqualTo(1);
+        assertThat(active()).isEqualTo(1);
+        assertThatThrownBy(() -> dispatcher.dispatch(ENDPOINT, () -> "next"))
+                .isInstanceOf(AssistantUnavailableException.class)
+                .hasMessageContaining("1 still running after timing out");
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (active() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(active()).isZero();
+        assertThat(abandoned()).isZero();
+        // The request already got its 503
+        assertThat(dispatch.result.getResult()).isInstanceOf(AssistantUnavailableException.class);
+    }
+
+    private double active() {
+        return meterRegistry.get("flowstack.assistant.active").tag("endpoint", ENDPOINT).gauge().value();
+    }
+
+    private double abandoned() {
+        return meterRegistry.get("flowstack.assistant.abandoned").tag("endpoint", ENDPOINT).gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.counter("flowstack.assistant.rejected", "endpoint", ENDPOINT, "reason", reason).count();
+    }
+}
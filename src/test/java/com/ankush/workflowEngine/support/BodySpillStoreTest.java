@@ -0,0 +1,82 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.config.HttpClientProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BodySpillStoreTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private BodySpillStore store;
+
+    @BeforeEach
+    void setUp() {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxInMemoryBodyBytes(16);
+        properties.setSpillDirectory(spillDirectory.toString());
+        store = new BodySpillStore(properties);
+    }
+
+    @Test
+    void keepsSmallBodiesInMemory() throws IOException {
+        assertThat(body(1L, "short")).isEqualTo("short");
+        assertThat(spilledFiles()).isZero();
+    }
+
+    @Test
+    void deletesASpilledBodyWhenItsRunFinishes() throws IOException {
+        SpilledBody body = (SpilledBody) body(1L, "a body longer than sixteen bytes");
+        assertThat(body.readString()).isEqualTo("a body longer than sixteen bytes");
+
+        store.release(1L);
+
+        assertThat(Files.exists(body.path())).isFalse();
+    }
+
+    @Test
+    void keepsASharedBodyUntilTheLastRunFinishes() throws IOException {
+        SpilledBody body = (SpilledBody) body(1L, "a body longer than sixteen bytes");
+        store.retain(2L, body);
+        store.retain(3L, body);
+
+        store.release(1L);
+        store.release(3L);
+        assertThat(body.readString()).isEqualTo("a body longer than sixteen bytes");
+
+        store.release(2L);
+        assertThat(Files.exists(body.path())).isFalse();
+    }
+
+    @Test
+    void refusesToShareABodyThatIsGone() throws IOException {
+        SpilledBody body = (SpilledBody) body(1L, "a body longer than sixteen bytes");
+        store.release(1L);
+
+        assertThatThrownBy(() -> store.retain(2L, body)).isInstanceOf(NodeExecutionException.class);
+    }
+
+    private Object body(Long runId, String text) throws IOException {
+        try (BodyAccumulator accumulator = store.accumulator(runId)) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            accumulator.write(bytes, 0, bytes.length);
+            return accumulator.finish("text/plain", StandardCharsets.UTF_8);
+        }
+    }
+
+    private long spilledFiles() throws IOException {
+        try (var files = Files.list(spillDirectory)) {
+            return files.count();
+        }
+    }
+}
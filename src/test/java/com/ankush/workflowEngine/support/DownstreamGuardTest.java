@@ -0,0 +1,117 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.config.ResilienceProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import reactor.core.publisher.Flux;
+
+class DownstreamGuardTest {
+
+    private static final String DOWNSTREAM = "api.example.com";
+
+    private DownstreamGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties properties = new ResilienceProperties();
+        ResilienceProperties.Policy policy = properties.getDefaults();
+        policy.setSlidingWindowSize(4);
+        policy.setMinimumCalls(4);
+        policy.setFailureRateThreshold(50);
+        policy.setOpenDuration(Duration.ofMillis(200));
+        policy.setHalfOpenProbes(2);
+        guard = new DownstreamGuard(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void opensOnDownstreamFaultsAndClosesAfterSuccessfulProbes() throws InterruptedException {
+        fail(new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out")));
+        fail(status(503));
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.CLOSED);
+        fail(status(429));
+        fail(new NodeExecutionException("Ollama call failed", status(500)));
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.OPEN);
+
+        assertThatThrownBy(() -> guard.call(DOWNSTREAM, () -> "never called"))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("is open");
+
+        Thread.sleep(250);
+        assertThat(guard.call(DOWNSTREAM, () -> "probe")).isEqualTo("probe");
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.HALF_OPEN);
+        guard.call(DOWNSTREAM, () -> "probe");
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void reopensWhenAProbeFails() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            fail(status(502));
+        }
+        Thread.sleep(250);
+
+        fail(status(502));
+
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void doesNotCountRejectedRequestsOrUnusableResponses() {
+        for (int i = 0; i < 4; i++) {
+            fail(status(400));
+            fail(status(404));
+            fail(new UncheckedIOException(new ResponseBodyException("Response body is not valid JSON: oops")));
+            fail(new IllegalArgumentException("Bad template"));
+        }
+
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void countsFailedAsyncCallsAndStreamsLikeBlockingOnes() {
+        for (int i = 0; i < 2; i++) {
+            guard.callAsync(DOWNSTREAM, () -> CompletableFuture.failedFuture(status(500)), result -> false)
+                    .exceptionally(ex -> null)
+                    .join();
+            guard.guardStream(DOWNSTREAM, () -> Flux.error(new ResourceAccessException("Connection reset")))
+                    .onErrorResume(ex -> Flux.empty())
+                    .blockLast();
+        }
+
+        assertThat(guard.state(DOWNSTREAM)).isEqualTo(DownstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void classifiesErrorsByTheirCauseChain() {
+        assertThat(DownstreamGuard.isDownstreamFault(new NodeExecutionException("Streaming timed out",
+                new TimeoutException()))).isTrue();
+        assertThat(DownstreamGuard.isDownstreamFault(new NodeExecutionException("HTTP call failed",
+                new IOException("Connection refused")))).isTrue();
+        assertThat(DownstreamGuard.isDownstreamFault(new NodeExecutionException("ChatGPT call failed",
+                status(401)))).isFalse();
+        assertThat(DownstreamGuard.isDownstreamFault(new NodeExecutionException("No API key"))).isFalse();
+    }
+
+    private void fail(RuntimeException error) {
+        assertThatThrownBy(() -> guard.call(DOWNSTREAM, () -> {
+            throw error;
+        })).isSameAs(error);
+    }
+
+    private static RestClientResponseException status(int status) {
+        return new RestClientResponseException("HTTP " + status, status, "status " + status, null, null, null);
+    }
+}
@@ -0,0 +1,147 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ankush.workflowEngine.config.HttpCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpMethod;
+
+class HttpResponseCacheTest {
+
+    private static final String URL = "https://api.example.com/items";
+
+    private final HttpCacheProperties properties = new HttpCacheProperties();
+    private HttpResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        cache = new HttpResponseCache(properties, null, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesAResponseWhileItsMaxAgeLessAgeLasts() {
+        store(get(), Map.of("Cache-Control", "max-age=60", "Age", "30"));
+
+        HttpResponseCache.Lookup lookup = cache.lookup(get(), false, null);
+        assertThat(lookup.fresh()).isTrue();
+        assertThat(lookup.entry().freshUntil() - System.currentTimeMillis()).isBetween(25_000L, 30_000L);
+    }
+
+    @Test
+    void keepsAResponseOlderThanItsMaxAgeOnlyForRevalidation() {
+        store(get(), Map.of("Cache-Control", "max-age=10", "Age", "20", "ETag", "\"v1\""));
+
+        HttpResponseCache.Lookup lookup = cache.lookup(get(), false, null);
+        assertThat(lookup.entry()).isNotNull();
+        assertThat(lookup.fresh()).isFalse();
+        assertThat(lookup.conditionalHeaders()).containsEntry("If-None-Match", "\"v1\"");
+    }
+
+    @Test
+    void takesFreshnessFromExpiresRelativeToDate() {
+        ZonedDateTime date = ZonedDateTime.now(ZoneOffset.UTC).minusHours(1);
+        store(get(), Map.of("Date", http(date), "Expires", http(date.plusSeconds(120))));
+
+        HttpResponseCache.Lookup lookup = cache.lookup(get(), false, null);
+        assertThat(lookup.fresh()).isTrue();
+        // Date is an hour off the local clock; the lifetime is what the origin granted
+        assertThat(lookup.entry().freshUntil() - System.currentTimeMillis()).isBetween(115_000L, 120_000L);
+    }
+
+    @Test
+    void skipsResponsesWithoutFreshnessOrValidators() {
+        store(get(), Map.of("Content-Type", "application/json"));
+
+        assertThat(cache.lookup(get(), false, null).entry()).isNull();
+    }
+
+    @Test
+    void storesVaryingResponsesOnlyWhenTheKeyCoversTheVariedHeaders() {
+        HttpNodeRequest plain = get();
+        HttpNodeRequest withAccept = get(Map.of("Accept", "application/json"));
+
+        store(plain, Map.of("Cache-Control", "max-age=60", "Vary", "Accept"));
+        store(withAccept, Map.of("Cache-Control", "max-age=60", "Vary", "Accept, Accept-Encoding"));
+
+        assertThat(cache.lookup(plain, false, null).entry()).isNull();
+        assertThat(cache.lookup(withAccept, false, null).entry()).isNotNull();
+
+        HttpNodeRequest other = get(Map.of("X-Tenant", "a"));
+        store(other, Map.of("Cache-Control", "max-age=60", "Vary", "*"));
+        assertThat(cache.lookup(other, false, null).entry()).isNull();
+    }
+
+    @Test
+    void refreshesValidatorsAndFreshnessFromA304() {
+        store(get(), Map.of("ETag", "\"v1\"", "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"));
+        HttpResponseCache.Lookup stale = cache.lookup(get(), false, null);
+        assertThat(stale.fresh()).isFalse();
+
+        HttpResponseCache.CachedResponse refreshed = cache.revalidated(stale,
+                Map.of("ETag", "\"v2\"", "Cache-Control", "max-age=60"));
+
+        assertThat(refreshed.body()).isEqualTo("{\"items\":[]}");
+        assertThat(refreshed.etag()).isEqualTo("\"v2\"");
+        assertThat(refreshed.lastModified()).isEqualTo("Mon, 01 Jan 2024 00:00:00 GMT");
+        HttpResponseCache.Lookup after = cache.lookup(get(), false, null);
+        assertThat(after.fresh()).isTrue();
+        assertThat(after.conditionalHeaders()).containsEntry("If-None-Match", "\"v2\"");
+    }
+
+    @Test
+    void evictsTheEntryWhenTheNewResponseCannotBeStored() {
+        store(get(), Map.of("ETag", "\"v1\""));
+        HttpResponseCache.Lookup conditional = cache.lookup(get(), false, null);
+
+        cache.store(conditional, 200, "{\"items\":[1]}", null, Map.of("Cache-Control", "no-store"));
+
+        assertThat(cache.lookup(get(), false, null).entry()).isNull();
+    }
+
+    @Test
+    void evictsFromRedisAsWell() {
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        when(redis.opsForValue()).thenReturn(values);
+        properties.setRedisEnabled(true);
+        cache = new HttpResponseCache(properties, redis, new ObjectMapper(), new SimpleMeterRegistry());
+        store(get(), Map.of("ETag", "\"v1\""));
+        HttpResponseCache.Lookup conditional = cache.lookup(get(), false, null);
+
+        // A new representation without validators or freshness
+        cache.store(conditional, 200, "{\"items\":[1]}", null, Map.of());
+
+        verify(redis).delete(properties.getRedisKeyPrefix() + conditional.key());
+        assertThat(cache.lookup(get(), false, null).entry()).isNull();
+    }
+
+    private void store(HttpNodeRequest request, Map<String, String> headers) {
+        cache.store(cache.lookup(request, false, null), 200, "{\"items\":[]}", null, headers);
+    }
+
+    private static HttpNodeRequest get() {
+        return get(Map.of());
+    }
+
+    private static HttpNodeRequest get(Map<String, String> headers) {
+        return new HttpNodeRequest(HttpMethod.GET, URL, headers, null, null);
+    }
+
+    private static String http(ZonedDateTime time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(time);
+    }
+}
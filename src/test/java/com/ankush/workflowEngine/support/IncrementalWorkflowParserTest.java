@@ -0,0 +1,90 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ankush.workflowEngine.dto.WorkflowEdgeRequest;
+import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
+import com.ankush.workflowEngine.enums.NodeType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IncrementalWorkflowParserTest {
+
+    private static final String WORKFLOW = """
+            Here is your workflow:
+            ```json
+            {"name": "Greeting {v2}", "nodes": [
+              {"key": "in", "type": "INPUT", "displayName": "Start \\"here\\" }"},
+              {"key": "greet", "type": "SCRIPT_JS", "config": {"script": "return {msg: 'hi [' + input.name + ']'};"}},
+              {"key": "in", "type": "OUTPUT"},
+              {"type": "HTTP"},
+              {"key": "out", "type": "OUTPUT"}
+            ], "edges": [
+              {"sourceKey": "in", "targetKey": "greet"},
+              {"sourceKey": "greet", "targetKey": "greet"},
+              {"sourceKey": "greet", "targetKey": "later"},
+              {"sourceKey": "greet", "targetKey": "out"}
+            ]}
+            ```
+            Let me know if you need { anything } else.""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void emitsTheSameElementsHoweverTheTextIsSplit() {
+        for (int chunkSize : new int[] {1, 2, 3, 7, 16, WORKFLOW.length()}) {
+            List<String> events = new ArrayList<>();
+            IncrementalWorkflowParser parser = parser(events);
+            for (int i = 0; i < WORKFLOW.length(); i += chunkSize) {
+                parser.accept(WORKFLOW.substring(i, Math.min(WORKFLOW.length(), i + chunkSize)));
+            }
+
+            assertThat(events).as("chunks of %d", chunkSize).containsExactly(
+                    "node in INPUT #0", "node greet SCRIPT_JS #1", "node out OUTPUT #2", "edge in->greet",
+                    "edge greet->out");
+            assertThat(parser.json()).as("chunks of %d", chunkSize)
+                    .startsWith("{\"name\": \"Greeting {v2}\"")
+                    .endsWith("]}");
+        }
+    }
+
+    @Test
+    void holdsAnEdgeUntilBothOfItsNodesArrive() {
+        List<String> events = new ArrayList<>();
+        IncrementalWorkflowParser parser = parser(events);
+
+        parser.accept("{\"edges\": [{\"sourceKey\": \"a\", \"targetKey\": \"b\"}], \"nodes\": [{\"key\": \"a\", \"ty");
+        assertThat(events).isEmpty();
+        parser.accept("pe\": \"INPUT\"}, {\"key\": \"b\", \"type\": \"OUTPUT\"}");
+        assertThat(events).containsExactly("node a INPUT #0", "node b OUTPUT #1", "edge a->b");
+        assertThat(parser.json()).isNull();
+
+        parser.accept("]}");
+        assertThat(parser.json()).isNotNull();
+    }
+
+    @Test
+    void skipsElementsThatDoNotParse() {
+        List<String> events = new ArrayList<>();
+        IncrementalWorkflowParser parser = parser(events);
+
+        parser.accept("{\"nodes\": [{\"key\": \"a\", \"type\": \"NOT_A_TYPE\"}, {\"key\": \"b\", \"type\": \"INPUT\"}]}");
+
+        assertThat(events).containsExactly("node b INPUT #0");
+    }
+
+    @Test
+    void findsTheFirstObjectPastBracesInProse() {
+        assertThat(IncrementalWorkflowParser.firstObject("Use {name} here: {\"a\": \"}\"} and {\"b\": 1}"))
+                .isEqualTo("{\"a\": \"}\"}");
+        assertThat(IncrementalWorkflowParser.firstObject("{\"a\": {\"b\": ")).isNull();
+    }
+
+    private IncrementalWorkflowParser parser(List<String> events) {
+        return new IncrementalWorkflowParser(objectMapper,
+                (WorkflowNodeRequest node) -> events.add("node " + node.key() + " " + node.type() + " #" + node.sortOrder()),
+                (WorkflowEdgeRequest edge) -> events.add("edge " + edge.sourceKey() + "->" + edge.targetKey()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Each case is extracted from the document fed whole, byte by byte, in small fixed chunks and in
+ * randomly sized ones, so splits land inside names, numbers, escapes and multi-byte characters.
+ */
+class JsonExtractorTest {
+
+    private static final String DOCUMENT = """
+            {
+              "data": {
+                "items": [
+                  {"id": 1, "name": "first", "tags": ["a", "b"]},
+                  {"id": 2, "name": "zweite über", "tags": []},
+                  {"id": 3, "name": "\\u2603 snow", "tags": ["c"]}
+                ],
+                "total": 3,
+                "ratio": 0.75,
+                "done": true,
+                "next": null
+              },
+              "matrix": [[1, 2], [3, 4], [5]],
+              "a/b": "slash",
+              "m~n": "tilde",
+              "quo\\"te": "escaped quote",
+              "dot.ted": {"key": "dotted"},
+              "caf\\u00e9": "unicode escape",
+              "日本": "multi-byte key"
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                // Plain paths
+                Arguments.of("$.data.total", 3),
+                Arguments.of("data.ratio", 0.75),
+                Arguments.of("$.data.done", true),
+                Arguments.of("$.data.next", null),
+                Arguments.of("$.data.items[1].name", "zweite über"),
+                Arguments.of("$.data.items[2].name", "☃ snow"),
+                Arguments.of("$.data.items[0]", Map.of("id", 1, "name", "first", "tags", List.of("a", "b"))),
+                // Nested arrays and wildcards
+                Arguments.of("$.matrix[1][0]", 3),
+                Arguments.of("$.matrix[*][1]", List.of(2, 4)),
+                Arguments.of("$.matrix[*]", List.of(List.of(1, 2), List.of(3, 4), List.of(5))),
+                Arguments.of("$.data.items[*].id", List.of(1, 2, 3)),
+                Arguments.of("$.data.items[*].tags[*]", List.of("a", "b", "c")),
+                Arguments.of("$.data.items[*].tags", List.of(List.of("a", "b"), List.of(), List.of("c"))),
+                Arguments.of("$.dot.ted.*", List.of()),
+                Arguments.of("$['dot.ted'].*", List.of("dotted")),
+                // Escaped and unusual keys
+                Arguments.of("$['a/b']", "slash"),
+                Arguments.of("$['quo\"te']", "escaped quote"),
+                Arguments.of("$['café']", "unicode escape"),
+                Arguments.of("$['日本']", "multi-byte key"),
+                // JSON Pointer, with ~1 for '/' and ~0 for '~'
+                Arguments.of("/data/items/2/id", 3),
+                Arguments.of("/matrix/0/1", 2),
+                Arguments.of("/a~1b", "slash"),
+                Arguments.of("/m~0n", "tilde"),
+                Arguments.of("/quo\"te", "escaped quote"),
+                Arguments.of("/dot.ted/key", "dotted"),
+                // Paths that match nothing
+                Arguments.of("$.missing", null),
+                Arguments.of("$.data.items[7].id", null),
+                Arguments.of("$.data.total.deeper", null),
+                Arguments.of("$.missing[*].id", List.of()),
+                Arguments.of("$.data.items[*].missing", List.of()),
+                Arguments.of("/matrix/2/1", null),
+                Arguments.of("/a/b", null));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void extractsTheSameValueHoweverTheBodyIsChunked(String expression, Object expected) throws IOException {
+        byte[] body = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        JsonExtractor extractor = JsonExtractor.compile(Map.of("value", expression));
+
+        for (int[] split : splits(body.length)) {
+            Map<String, Object> extracted = extract(extractor, body, split);
+            assertThat(extracted.get("value"))
+                    .as("%s with chunk sizes %s", expression, Arrays.toString(split))
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void extractsSeveralExpressionsInOnePass() throws IOException {
+        Map<String, Object> spec = new HashMap<>();
+        spec.put("total", "$.data.total");
+        spec.put("ids", "$.data.items[*].id");
+        spec.put("slash", "/a~1b");
+        JsonExtractor extractor = JsonExtractor.compile(spec);
+
+        Map<String, Object> extracted = extract(extractor, DOCUMENT.getBytes(StandardCharsets.UTF_8), new int[] {5});
+
+        assertThat(extracted).containsEntry("total", 3).containsEntry("ids", List.of(1, 2, 3))
+                .containsEntry("slash", "slash");
+    }
+
+    @Test
+    void rejectsABodyThatIsNotJson() {
+        JsonExtractor extractor = JsonExtractor.compile(Map.of("value", "$.a"));
+        byte[] body = "{\"a\": [1, 2".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> extract(extractor, body, new int[] {3}))
+                .isInstanceOf(ResponseBodyException.class)
+                .hasMessageContaining("not valid JSON");
+    }
+
+    @Test
+    void rejectsUnsupportedExpressions() {
+        for (String expression : List.of("$..id", "$.a[?(@.x)]", "$.a[", "$.", "$.a[-1]")) {
+            assertThatThrownBy(() -> JsonExtractor.compile(Map.of("value", expression)))
+                    .as(expression)
+                    .isInstanceOf(NodeExecutionException.class)
+                    .hasMessageContaining("Unsupported extract expression");
+        }
+    }
+
+    private Map<String, Object> extract(JsonExtractor extractor, byte[] body, int[] split) throws IOException {
+        JsonExtractor.Session session = extractor.start(objectMapper);
+        int offset = 0;
+        for (int i = 0; offset < body.length; i++) {
+            int length = Math.min(split[i % split.length], body.length - offset);
+            session.feed(body, offset, length);
+            offset += length;
+        }
+        return session.finish();
+    }
+
+    /**
+     * Chunk size patterns, cycled over the body: whole, single bytes, small primes, and a few
+     * random ones from a fixed seed.
+     */
+    private static List<int[]> splits(int length) {
+        Random random = new Random(42);
+        List<int[]> splits = new ArrayList<>(List.of(
+                new int[] {length}, new int[] {1}, new int[] {2}, new int[] {3, 5}, new int[] {7, 1, 13}));
+        for (int i = 0; i < 5; i++) {
+            int[] split = new int[8];
+            for (int j = 0; j < split.length; j++) {
+                split[j] = 1 + random.nextInt(17);
+            }
+            splits.add(split);
+        }
+        return splits;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.config.LlmAdmissionProperties;
+import com.ankush.workflowEngine.enums.LlmCaller;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LlmAdmissionGateTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    private LlmAdmissionGate gate;
+
+    @BeforeEach
+    void setUp() {
+        LlmAdmissionProperties properties = new LlmAdmissionProperties();
+        properties.setConcurrency(1);
+        properties.setMaxQueue(2);
+        properties.setInitialServiceTime(Duration.ofMillis(10));
+        gate = new LlmAdmissionGate(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void queuedAsyncCallersAreAdmittedByPriorityThenArrival() throws Exception {
+        LlmAdmissionGate.Permit running = gate.acquire("m", LlmCaller.NODE, DEADLINE);
+        CompletableFuture<LlmAdmissionGate.Permit> node = gate.acquireAsync("m", LlmCaller.NODE, DEADLINE);
+        CompletableFuture<LlmAdmissionGate.Permit> chatbot = gate.acquireAsync("m", LlmCaller.CHATBOT, DEADLINE);
+        assertThat(node).isNotDone();
+        assertThat(chatbot).isNotDone();
+        assertThat(gate.pending("m")).isEqualTo(3);
+
+        running.close();
+        assertThat(chatbot).isDone();
+        assertThat(node).isNotDone();
+
+        chatbot.get().close();
+        node.get().close();
+        assertThat(gate.pending("m")).isZero();
+    }
+
+    @Test
+    void closingAPermitTwiceFreesOneSlot() {
+        LlmAdmissionGate.Permit permit = gate.acquire("m", LlmCaller.NODE, DEADLINE);
+
+        permit.close();
+        permit.close();
+
+        assertThat(gate.pending("m")).isZero();
+        gate.acquire("m", LlmCaller.NODE, DEADLINE);
+        assertThat(gate.acquireAsync("m", LlmCaller.NODE, DEADLINE)).isNotDone();
+    }
+
+    @Test
+    void anAsyncWaiterGivesUpAtItsDeadline() throws Exception {
+        LlmAdmissionGate.Permit running = gate.acquire("m", LlmCaller.NODE, DEADLINE);
+        CompletableFuture<LlmAdmissionGate.Permit> waiting = gate.acquireAsync("m", LlmCaller.NODE,
+                Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NodeExecutionException.class);
+        assertThat(gate.pending("m")).isEqualTo(1);
+
+        running.close();
+        assertThat(gate.pending("m")).isZero();
+    }
+
+    @Test
+    void aCancelledWaiterLeavesTheQueueAndTheSlotPassesOn() throws Exception {
+        LlmAdmissionGate.Permit running = gate.acquire("m", LlmCaller.NODE, DEADLINE);
+        CompletableFuture<LlmAdmissionGate.Permit> cancelled = gate.acquireAsync("m", LlmCaller.NODE, DEADLINE);
+        CompletableFuture<LlmAdmissionGate.Permit> next = gate.acquireAsync("m", LlmCaller.NODE, DEADLINE);
+
+        cancelled.cancel(false);
+        assertThat(gate.pending("m")).isEqualTo(2);
+
+        running.close();
+        assertThat(next).isDone();
+        next.get().close();
+        assertThat(gate.pending("m")).isZero();
+    }
+
+    @Test
+    void rejectsCallersOnceTheQueueIsFull() {
+        gate.acquire("m", LlmCaller.NODE, DEADLINE);
+        gate.acquireAsync("m", LlmCaller.NODE, DEADLINE);
+        gate.acquireAsync("m", LlmCaller.NODE, DEADLINE);
+
+        assertThat(gate.acquireAsync("m", LlmCaller.NODE, DEADLINE)).isCompletedExceptionally();
+        assertThatThrownBy(() -> gate.acquire("m", LlmCaller.NODE, DEADLINE))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("full");
+    }
+}
@@ -0,0 +1,271 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ankush.workflowEngine.config.HttpClientProperties;
+import com.ankush.workflowEngine.config.LlmAdmissionProperties;
+import com.ankush.workflowEngine.config.LlmCacheProperties;
+import com.ankush.workflowEngine.config.LlmRouterProperties;
+import com.ankush.workflowEngine.config.LlmTimeoutProperties;
+import com.ankush.workflowEngine.config.ModelResidencyProperties;
+import com.ankush.workflowEngine.config.OllamaProperties;
+import com.ankush.workflowEngine.config.OpenAiProperties;
+import com.ankush.workflowEngine.config.ResilienceProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Routes against local stand-ins for Ollama and OpenAI. The Ollama stub answers per model:
+ * {@code broken} fails with a 500, {@code slow} streams a token every 200ms and anything else
+ * answers at once. The OpenAI stub waits 500ms before answering for {@code gpt-slow}.
+ */
+class LlmRouterTest {
+
+    private static final LlmRouter.Candidate BROKEN = new LlmRouter.Candidate(LlmRouter.OLLAMA, "broken");
+    private static final LlmRouter.Candidate SLOW = new LlmRouter.Candidate(LlmRouter.OLLAMA, "slow");
+    private static final LlmRouter.Candidate FAST = new LlmRouter.Candidate(LlmRouter.OLLAMA, "fast");
+    private static final LlmRouter.Candidate GPT = new LlmRouter.Candidate(LlmRouter.OPENAI, "gpt-test");
+    private static final LlmRouter.Candidate GPT_SLOW = new LlmRouter.Candidate(LlmRouter.OPENAI, "gpt-slow");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger openAiCalls = new AtomicInteger();
+    private final AtomicInteger slowAborted = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmRouterProperties routerProperties = new LlmRouterProperties();
+    private ExecutorService serverThreads;
+    private HttpServer ollama;
+    private HttpServer openAi;
+    private LlmAdmissionGate admissionGate;
+    private LlmRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        ollama = server("/api/generate", this::ollama);
+        openAi = server("/chat/completions", this::openAi);
+
+        HttpClientRegistry httpClientRegistry = new HttpClientRegistry(new HttpClientProperties(), meterRegistry);
+        SingleFlight singleFlight = new SingleFlight(meterRegistry);
+        DownstreamGuard downstreamGuard = new DownstreamGuard(new ResilienceProperties(), meterRegistry);
+        LlmResponseCache responseCache = new LlmResponseCache(new LlmCacheProperties(), null, objectMapper, meterRegistry);
+        admissionGate = new LlmAdmissionGate(new LlmAdmissionProperties(), meterRegistry);
+        LlmMetrics llmMetrics = new LlmMetrics(meterRegistry);
+
+        OllamaProperties ollamaProperties = new OllamaProperties();
+        ollamaProperties.setBaseUrl(baseUrl(ollama));
+        OllamaClient ollamaClient = new OllamaClient(httpClientRegistry, ollamaProperties, objectMapper, singleFlight,
+                downstreamGuard, responseCache, admissionGate, llmMetrics,
+                new LlmTimeoutPolicy(new LlmTimeoutProperties()),
+                new ModelResidency(new ModelResidencyProperties(), meterRegistry));
+        OpenAiProperties openAiProperties = new OpenAiProperties();
+        openAiProperties.setBaseUrl(baseUrl(openAi));
+        openAiProperties.setApiKey("test-key");
+        OpenAiClient openAiClient = new OpenAiClient(httpClientRegistry, openAiProperties, objectMapper, singleFlight,
+                downstreamGuard, responseCache, llmMetrics);
+
+        routerProperties.setTimeout(Duration.ofSeconds(10));
+        router = new LlmRouter(ollamaClient, openAiClient, admissionGate, downstreamGuard, routerProperties,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ollama.stop(0);
+        openAi.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void answersFromTheBestCandidate() {
+        LlmRouter.Routed routed = router.route(List.of(FAST, GPT), "hello", null, false, null);
+
+        assertThat(routed.text()).isEqualTo("ollama fast says hi");
+        assertThat(routed.candidate()).isEqualTo(FAST);
+        assertThat(routed.attempts()).isEqualTo(1);
+        assertThat(openAiCalls).hasValue(0);
+    }
+
+    @Test
+    void failsOverWhenTheBestCandidateFails() {
+        LlmRouter.Routed routed = router.route(List.of(BROKEN, GPT), "hello", null, false, null);
+
+        assertThat(routed.text()).isEqualTo("openai says hi");
+        assertThat(routed.candidate()).isEqualTo(GPT);
+        assertThat(routed.attempts()).isEqualTo(2);
+        assertThat(routed.hedged()).isFalse();
+    }
+
+    @Test
+    void reportsTheLastErrorWhenEveryCandidateFails() {
+        assertThatThrownBy(() -> router.route(List.of(BROKEN), "hello", null, false, null))
+                .isInstanceOf(NodeExecutionException.class);
+    }
+
+    @Test
+    void hedgesASlowLeaderAndCancelsIt() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        LlmRouter.Routed routed = router.route(List.of(SLOW, GPT), "hello", null, true, Duration.ofMillis(100));
+        Duration took = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        assertThat(routed.candidate()).isEqualTo(GPT);
+        assertThat(routed.hedged()).isTrue();
+        assertThat(routed.attempts()).isEqualTo(2);
+        assertThat(took).isLessThan(Duration.ofSeconds(2));
+        // The losing stream is aborted
+        for (int i = 0; i < 20 && slowAborted.get() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(slowAborted).hasValue(1);
+    }
+
+    @Test
+    void cancelsALoserStillQueuedForAdmission() throws Exception {
+        // Holds the only admission slot of "slow", so the hedge below has to queue
+        CompletableFuture<LlmRouter.Routed> holder = CompletableFuture.supplyAsync(
+                () -> router.route(List.of(SLOW), "hold", null, false, null), serverThreads);
+        for (int i = 0; i < 20 && admissionGate.pending("slow") == 0; i++) {
+            Thread.sleep(50);
+        }
+
+        LlmRouter.Routed routed = router.route(List.of(GPT_SLOW, SLOW), "hello", null, true, Duration.ofMillis(100));
+
+        assertThat(routed.candidate()).isEqualTo(GPT_SLOW);
+        assertThat(routed.hedged()).isTrue();
+        // The winner's thread may still be cancelling it when route() returns
+        for (int i = 0; i < 20 && admissionGate.pending("slow") > 1; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(admissionGate.pending("slow")).isEqualTo(1);
+        assertThat(attempts(SLOW, "hedge", "cancelled")).isEqualTo(1);
+        holder.cancel(true);
+    }
+
+    @Test
+    void launchesNothingOnceTheCallTimedOut() throws InterruptedException {
+        routerProperties.setTimeout(Duration.ofMillis(300));
+
+        assertThatThrownBy(() -> router.route(List.of(SLOW, GPT), "hello", null, true, Duration.ofMillis(600)))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("No LLM answered");
+        Thread.sleep(600);
+
+        assertThat(openAiCalls).hasValue(0);
+        assertThat(slowAborted).hasValue(1);
+        assertThat(admissionGate.pending("slow")).isZero();
+    }
+
+    @Test
+    void doesNotHedgeWhenTheLeaderAnswersInTime() {
+        LlmRouter.Routed routed = router.route(List.of(FAST, GPT), "hello", null, true, Duration.ofSeconds(5));
+
+        assertThat(routed.candidate()).isEqualTo(FAST);
+        assertThat(routed.hedged()).isFalse();
+        assertThat(openAiCalls).hasValue(0);
+    }
+
+    private void ollama(HttpExchange exchange) throws IOException {
+        String model = objectMapper.readTree(exchange.getRequestBody()).path("model").asText();
+        if ("broken".equals(model)) {
+            respond(exchange, 500, "{\"error\":\"model crashed\"}");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            int tokens = "slow".equals(model) ? 50 : 1;
+            for (int i = 0; i < tokens; i++) {
+                String token = "slow".equals(model) ? "tick " : "ollama " + model + " says hi";
+                body.write(line("{\"response\":" + objectMapper.writeValueAsString(token) + ",\"done\":false}"));
+                body.flush();
+                if ("slow".equals(model)) {
+                    sleep(200);
+                }
+            }
+            body.write(line("{\"response\":\"\",\"done\":true}"));
+        } catch (IOException ex) {
+            slowAborted.incrementAndGet();
+        }
+    }
+
+    private double attempts(LlmRouter.Candidate candidate, String role, String result) {
+        return meterRegistry.counter("flowstack.llm.router.attempts", "provider", candidate.provider(),
+                "model", candidate.model(), "role", role, "result", result).count();
+    }
+
+    private void openAi(HttpExchange exchange) throws IOException {
+        openAiCalls.incrementAndGet();
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        assertThat(request.path("stream").asBoolean()).isTrue();
+        if ("gpt-slow".equals(request.path("model").asText())) {
+            sleep(500);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            for (String delta : List.of("openai ", "says hi")) {
+                body.write(("data: {\"choices\":[{\"delta\":{\"content\":\"" + delta + "\"}}]}\n\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                body.flush();
+            }
+            body.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private HttpServer server(String path, Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                handler.handle(exchange);
+            }
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+        return server;
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static byte[] line(String json) {
+        return (json + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Handler {
+
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ankush.workflowEngine.config.LlmPromptProperties;
+import com.ankush.workflowEngine.config.OllamaProperties;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PromptAssemblerTest {
+
+    private static final PromptAssembler.Segment INSTRUCTIONS =
+            PromptAssembler.Segment.of("You design workflows. Reply with JSON only.\n");
+    private static final PromptAssembler.Segment EXAMPLES =
+            PromptAssembler.Segment.of("Example: {\"nodes\":[{\"id\":\"start\",\"type\":\"trigger\"}]}\n");
+
+    private PromptAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        LlmPromptProperties properties = new LlmPromptProperties();
+        properties.setContextTokens(4096);
+        OllamaProperties ollamaProperties = new OllamaProperties();
+        ollamaProperties.setDefaultModel("llama3");
+        assembler = new PromptAssembler(properties, ollamaProperties);
+    }
+
+    @Test
+    void keepsEverythingWhenThePromptFits() {
+        String prompt = assembler.prompt(null, 512)
+                .fixed(INSTRUCTIONS)
+                .text("Request: ", "Send an email when a form is submitted")
+                .list("Nodes: ", List.of("form", "email"), ", ")
+                .optional(EXAMPLES)
+                .build();
+
+        assertThat(prompt).isEqualTo(INSTRUCTIONS.text()
+                + "Request: Send an email when a form is submitted\n"
+                + "Nodes: form, email\n"
+                + EXAMPLES.text());
+    }
+
+    @Test
+    void keepsFixedSegmentsEvenWhenTheyAloneExceedTheBudget() {
+        String prompt = assembler.prompt(null, 512)
+                .limit(2)
+                .fixed(INSTRUCTIONS)
+                .text("Request: ", "Send an email when a form is submitted")
+                .list("Nodes: ", items(10), ", ")
+                .optional(EXAMPLES)
+                .fixed("Respond now.\n")
+                .build();
+
+        assertThat(prompt).isEqualTo(INSTRUCTIONS.text() + "Respond now.\n");
+    }
+
+    @Test
+    void dropsOptionalSegmentsBeforeCompactingAnything() {
+        String request = "Send an email when a form is submitted";
+        int needed = INSTRUCTIONS.tokens()
+                + PromptAssembler.estimateTokens("Request: " + request + "\n")
+                + PromptAssembler.estimateTokens("Nodes: form, email\n");
+
+        String prompt = assembler.prompt(null, 512)
+                .limit(needed + EXAMPLES.tokens() - 1)
+                .fixed(INSTRUCTIONS)
+                .optional(EXAMPLES)
+                .text("Request: ", request)
+                .list("Nodes: ", List.of("form", "email"), ", ")
+                .build();
+
+        assertThat(prompt).isEqualTo(INSTRUCTIONS.text() + "Request: " + request + "\n" + "Nodes: form, email\n");
+    }
+
+    @Test
+    void listKeepsTheLeadingItemsAndCountsTheRest() {
+        // 60 characters: the label and newline, 16 held back for the note, 36 for items
+        String prompt = assembler.prompt(null, 512)
+                .limit(15)
+                .list("Nodes: ", items(20), ", ")
+                .build();
+
+        assertThat(prompt).isEqualTo("Nodes: item-00, item-01, item-02, item-03, (+16 more)\n");
+    }
+
+    @Test
+    void tailKeepsTheNewestItemsAndCountsTheEarlierOnes() {
+        String prompt = assembler.prompt(null, 512)
+                .limit(15)
+                .tail("History: ", items(20), "\n")
+                .build();
+
+        assertThat(prompt).startsWith("History: (+16 earlier)\n")
+                .endsWith("item-16\nitem-17\nitem-18\nitem-19\n")
+                .doesNotContain("item-15");
+    }
+
+    @Test
+    void cutsTextShortWithAnEllipsis() {
+        String prompt = assembler.prompt(null, 512)
+                .limit(10)
+                .text("Request: ", "Send an email to the sales team whenever a form is submitted")
+                .build();
+
+        assertThat(prompt).isEqualTo("Request: Send an email to the sales ...\n");
+    }
+
+    @Test
+    void budgetLeavesRoomForTheResponse() {
+        assertThat(assembler.budget("llama3", 1000)).isEqualTo(3096);
+        assertThat(assembler.budget(null, 5000)).isZero();
+    }
+
+    private static List<String> items(int count) {
+        return IntStream.range(0, count).mapToObj(i -> String.format("item-%02d", i)).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.ankush.workflowEngine.config.ScriptSandboxProperties;
+import com.ankush.workflowEngine.execution.NodeExecutionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs real interpreters; a test is skipped when its interpreter is not installed.
+ */
+class ScriptSandboxTest {
+
+    private final ScriptSandboxProperties properties = new ScriptSandboxProperties();
+    private ScriptSandbox sandbox;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setWallClockTimeout(Duration.ofSeconds(10));
+        properties.setCpuTimeLimit(Duration.ofSeconds(10));
+        sandbox = new ScriptSandbox(properties, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sandbox.shutdown();
+    }
+
+    @Test
+    void runsAPythonScriptAgainstTheContext() {
+        assumeInstalled(properties.getPythonCommand());
+
+        ScriptSandbox.Execution execution = sandbox.execute(ScriptSandbox.Language.PYTHON,
+                "print('hello')\nreturn context['a'] + 1", Map.of("a", 41), "py");
+
+        assertThat(execution.result()).isEqualTo(42);
+        assertThat(execution.stdout()).isEqualTo("hello");
+        assertThat(execution.metrics()).containsEntry("exitCode", 0);
+    }
+
+    @Test
+    void keepsPythonIndentationAndMultiLineStringsAsWritten() {
+        assumeInstalled(properties.getPythonCommand());
+        String script = "text = '''first\nsecond'''\n"
+                + "if True:\n"
+                + "\tlines = text.split('\\n')\n"
+                + "return lines";
+
+        ScriptSandbox.Execution execution = sandbox.execute(ScriptSandbox.Language.PYTHON, script, Map.of(), "py");
+
+        assertThat(execution.result()).isEqualTo(List.of("first", "second"));
+    }
+
+    @Test
+    void reportsPythonErrorsAgainstTheScriptsOwnLines() {
+        assumeInstalled(properties.getPythonCommand());
+
+        assertThatThrownBy(() -> sandbox.execute(ScriptSandbox.Language.PYTHON, "x = 1\nraise ValueError('boom')",
+                Map.of(), "py"))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("exited with code 1")
+                .hasMessageContaining("line 2")
+                .hasMessageContaining("ValueError: boom");
+    }
+
+    @Test
+    void runsAJavaScriptScriptAgainstTheContext() {
+        assumeInstalled(properties.getNodeCommand());
+
+        ScriptSandbox.Execution execution = sandbox.execute(ScriptSandbox.Language.JAVASCRIPT,
+                "console.log('hello');\nreturn { sum: context.a + 1 };", Map.of("a", 41), "js");
+
+        assertThat(execution.result()).isEqualTo(Map.of("sum", 42));
+        assertThat(execution.stdout()).isEqualTo("hello");
+    }
+
+    @Test
+    void runsAScriptLargerThanACommandLineArgument() {
+        assumeInstalled(properties.getPythonCommand());
+        // Linux caps a single argument at 128KiB
+        String script = "# padding\n".repeat(20_000) + "return 'done'";
+
+        ScriptSandbox.Execution execution = sandbox.execute(ScriptSandbox.Language.PYTHON, script, Map.of(), "py");
+
+        assertThat(execution.result()).isEqualTo("done");
+    }
+
+    @Test
+    void killsARunawayLoopAtTheWallClockLimit() {
+        assumeInstalled(properties.getPythonCommand());
+        properties.setWallClockTimeout(Duration.ofMillis(500));
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> sandbox.execute(ScriptSandbox.Language.PYTHON, "import time\nwhile True:\n    time.sleep(0.01)",
+                Map.of(), "py"))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("wall-clock limit of 500ms exceeded");
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void killsAScriptThatFloodsItsOutput() {
+        assumeInstalled(properties.getNodeCommand());
+        properties.setMaxOutputBytes(4096);
+
+        assertThatThrownBy(() -> sandbox.execute(ScriptSandbox.Language.JAVASCRIPT,
+                "while (true) { console.log('x'.repeat(100)); }", Map.of(), "js"))
+                .isInstanceOf(NodeExecutionException.class)
+                .hasMessageContaining("output limit of 4096 bytes exceeded");
+    }
+
+    private static void assumeInstalled(String command) {
+        boolean installed;
+        try {
+            Process process = new ProcessBuilder(command, "--version").redirectErrorStream(true).start();
+            installed = process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException ex) {
+            installed = false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            installed = false;
+        }
+        assumeTrue(installed, command + " is not installed");
+    }
+}
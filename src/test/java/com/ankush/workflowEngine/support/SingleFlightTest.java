@@ -0,0 +1,119 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void identicalConcurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> hookThreads = new CopyOnWriteArrayList<>();
+
+        Future<String> leader = callers.submit(() -> singleFlight.execute("test", "k", () -> {
+            executions.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return "result";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        Future<String> follower = callers.submit(() -> singleFlight.execute("test", "k", () -> {
+            executions.incrementAndGet();
+            return "own result";
+        }, result -> hookThreads.add(Thread.currentThread().getName())));
+        waitUntilCoalesced();
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(executions).hasValue(1);
+        assertThat(hookThreads).hasSize(1);
+    }
+
+    @Test
+    void aFailingHookFailsOnlyItsOwnCaller() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = callers.submit(() -> singleFlight.execute("test", "k", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "result";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        Future<String> follower = callers.submit(() -> singleFlight.execute("test", "k", () -> "own result",
+                result -> {
+                    throw new IllegalStateException("hook failed");
+                }));
+        waitUntilCoalesced();
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("hook failed");
+    }
+
+    @Test
+    void callsAfterTheFlightLandRunAgain() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("test", "k", executions::incrementAndGet);
+        singleFlight.execute("test", "k", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void asyncFollowersKeepTheirResultWhenTheLeaderCancels() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.executeAsync("test", "k", () -> call, result -> { });
+        CompletableFuture<String> follower = singleFlight.executeAsync("test", "k",
+                () -> CompletableFuture.completedFuture("own result"), result -> { });
+
+        leader.cancel(true);
+        call.complete("result");
+
+        assertThat(follower.join()).isEqualTo("result");
+    }
+
+    /**
+     * Lets the follower join the leader's flight before the leader is let go.
+     */
+    private void waitUntilCoalesced() throws InterruptedException {
+        for (int i = 0; i < 100 && meterRegistry.counter("flowstack.singleflight.coalesced", "call", "test").count() < 1;
+             i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
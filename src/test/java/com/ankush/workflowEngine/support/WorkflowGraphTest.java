@@ -0,0 +1,91 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest.EdgeInfo;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisRequest.NodeInfo;
+import com.ankush.workflowEngine.dto.WorkflowAnalysisResponse.WorkflowIssue;
+import com.ankush.workflowEngine.enums.NodeType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class WorkflowGraphTest {
+
+    @Test
+    void extendsReachabilityFromAddedEdges() {
+        WorkflowGraph graph = new WorkflowGraph();
+        graph.apply(List.of(node("in", NodeType.INPUT), node("a", NodeType.SCRIPT_JS), node("b", NodeType.OUTPUT)),
+                List.of(), List.of(edge("in", "a")), List.of());
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("in", "a");
+        assertThat(issueTypes(graph, "b")).contains("DISCONNECTED_FLOW");
+
+        graph.apply(List.of(), List.of(), List.of(edge("a", "b")), List.of());
+
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("in", "a", "b");
+        assertThat(issueTypes(graph, "b")).doesNotContain("DISCONNECTED_FLOW");
+    }
+
+    @Test
+    void recomputesReachabilityAfterRemovals() {
+        WorkflowGraph graph = new WorkflowGraph();
+        graph.apply(List.of(node("in", NodeType.INPUT), node("a", NodeType.SCRIPT_JS), node("b", NodeType.SCRIPT_JS),
+                        node("out", NodeType.OUTPUT)),
+                List.of(), List.of(edge("in", "a"), edge("a", "b"), edge("b", "out")), List.of());
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("in", "a", "b", "out");
+
+        graph.apply(List.of(), List.of(), List.of(), List.of(edge("a", "b")));
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("in", "a");
+
+        graph.apply(List.of(), List.of("a"), List.of(edge("in", "b")), List.of());
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("in", "b", "out");
+        assertThat(graph.node("a")).isNull();
+    }
+
+    @Test
+    void followsTheInputNodeWhenItChanges() {
+        WorkflowGraph graph = new WorkflowGraph();
+        graph.apply(List.of(node("start", NodeType.INPUT), node("x", NodeType.SCRIPT_JS)),
+                List.of(), List.of(edge("x", "start")), List.of());
+        assertThat(graph.reachable()).containsExactly("start");
+
+        graph.apply(List.of(node("start", NodeType.SCRIPT_JS), node("x", NodeType.INPUT)), List.of(), List.of(), List.of());
+
+        assertThat(graph.reachable()).containsExactlyInAnyOrder("x", "start");
+    }
+
+    @Test
+    void reportsUntypedNodesWithoutChangingTheGraph() {
+        WorkflowGraph graph = new WorkflowGraph();
+        graph.apply(List.of(node("in", NodeType.INPUT), node("http", NodeType.HTTP)), List.of(),
+                List.of(edge("in", "http")), List.of());
+
+        graph.apply(Arrays.asList(node("http", null), node("new", null), null), List.of(), List.of(), List.of());
+
+        assertThat(graph.size()).isEqualTo(2);
+        assertThat(graph.node("http").type()).isEqualTo(NodeType.HTTP);
+        assertThat(issueTypes(graph, "http")).contains("MISSING_TYPE", "INCOMPLETE_CONFIG");
+        assertThat(issueTypes(graph, "new")).containsExactly("MISSING_TYPE");
+
+        graph.apply(List.of(node("new", NodeType.OUTPUT)), List.of(), List.of(edge("http", "new")), List.of());
+
+        assertThat(issueTypes(graph, "new")).isEmpty();
+        assertThat(graph.reachable()).contains("new");
+    }
+
+    private static List<String> issueTypes(WorkflowGraph graph, String key) {
+        return graph.issues().stream()
+                .filter(issue -> key.equals(issue.nodeKey()))
+                .map(WorkflowIssue::type)
+                .toList();
+    }
+
+    private static NodeInfo node(String key, NodeType type) {
+        return new NodeInfo(key, type, null, Map.of());
+    }
+
+    private static EdgeInfo edge(String source, String target) {
+        return new EdgeInfo(source, target, null);
+    }
+}
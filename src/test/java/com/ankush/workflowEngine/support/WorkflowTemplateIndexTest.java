@@ -0,0 +1,134 @@
+package com.ankush.workflowEngine.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import com.ankush.workflowEngine.dto.WorkflowDefinitionRequest;
+import com.ankush.workflowEngine.dto.WorkflowNodeRequest;
+import com.ankush.workflowEngine.enums.NodeType;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class WorkflowTemplateIndexTest {
+
+    private final WorkflowTemplateIndex index = new WorkflowTemplateIndex();
+
+    @Test
+    void tokenizesCamelCaseAndDropsStopWordsAndSuffixes() {
+        assertThat(WorkflowTemplateIndex.tokenize("Create a workflow that sends SlackAlerts when billing fails"))
+                .containsExactly("send", "slack", "alert", "bill", "fail");
+    }
+
+    @Test
+    void ranksATitleMatchAboveAWordBuriedInAConfig() {
+        index.put(template("workflow:1", "Slack alert", "Posts build failures to a channel",
+                node("post", NodeType.HTTP, Map.of("url", "https://hooks.example.com/build"))));
+        index.put(template("workflow:2", "Nightly report", "Summarises the day's orders",
+                node("notify", NodeType.SCRIPT_JS, Map.of("script", "send(report, 'slack alert')"))));
+
+        List<WorkflowTemplateIndex.Match> matches = index.search("slack alert", 5);
+
+        assertThat(matches).extracting(match -> match.template().source())
+                .containsExactly("workflow:1", "workflow:2");
+        assertThat(matches.get(0).score()).isGreaterThan(matches.get(1).score());
+    }
+
+    @Test
+    void weighsRareWordsAboveCommonOnes() {
+        index.put(template("workflow:1", "Email invoice", "Emails each new invoice"));
+        index.put(template("workflow:2", "Email digest", "Emails a digest"));
+        index.put(template("workflow:3", "Email reminder", "Emails a reminder"));
+
+        List<WorkflowTemplateIndex.Match> matches = index.search("email the invoice", 5);
+
+        assertThat(matches.get(0).template().source()).isEqualTo("workflow:1");
+        assertThat(matches.get(0).matchedTerms()).isEqualTo(2);
+        assertThat(matches.get(0).confidence()).isEqualTo(1.0);
+        // "email" is in every template, so it carries little of the query's weight
+        assertThat(matches.get(1).matchedTerms()).isEqualTo(1);
+        assertThat(matches.get(1).confidence()).isLessThan(0.2);
+    }
+
+    @Test
+    void confidenceIsTheShareOfTheQueryWeightCovered() {
+        index.put(template("workflow:1", "Stripe refund", "Refunds a Stripe charge"));
+        index.put(template("workflow:2", "Weather report", "Fetches the forecast"));
+
+        WorkflowTemplateIndex.Match full = index.search("stripe refund", 1).get(0);
+        WorkflowTemplateIndex.Match half = index.search("stripe refund payroll", 1).get(0);
+
+        assertThat(full.confidence()).isEqualTo(1.0);
+        // IDF is ln(1 + (N - df + 0.5) / (df + 0.5)): ln 2 for each matched word, ln 6 for the unknown one
+        assertThat(half.confidence()).isCloseTo(2 * Math.log(2) / (2 * Math.log(2) + Math.log(6)), offset(1e-9));
+        assertThat(half.matchedTerms()).isEqualTo(2);
+    }
+
+    @Test
+    void replacesATemplateInPlace() {
+        index.put(template("workflow:1", "Stripe refund", "Refunds a Stripe charge"));
+        index.put(template("workflow:2", "Weather report", "Fetches the forecast"));
+
+        index.put(template("workflow:1", "Payroll export", "Exports payroll to the bank"));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("stripe refund", 5)).isEmpty();
+        assertThat(index.search("payroll export", 5)).extracting(match -> match.template().source())
+                .containsExactly("workflow:1");
+        // Scores match an index built from the current templates only
+        WorkflowTemplateIndex fresh = new WorkflowTemplateIndex();
+        fresh.put(template("workflow:2", "Weather report", "Fetches the forecast"));
+        fresh.put(template("workflow:1", "Payroll export", "Exports payroll to the bank"));
+        assertThat(index.search("payroll weather", 5)).usingRecursiveFieldByFieldElementComparatorIgnoringFields(
+                "template").isEqualTo(fresh.search("payroll weather", 5));
+    }
+
+    @Test
+    void removesTemplatesBySourceAndPrefix() {
+        index.put(template("workflow:1", "Stripe refund", "Refunds a Stripe charge"));
+        index.put(template("example:refund", "Refund example", "Refunds an order"));
+        index.put(template("example:weather", "Weather example", "Fetches the forecast"));
+
+        index.remove("workflow:1");
+        assertThat(index.search("stripe", 5)).isEmpty();
+        assertThat(index.search("refund", 5)).extracting(match -> match.template().source())
+                .containsExactly("example:refund");
+
+        index.removeAll("example:");
+        assertThat(index.size()).isZero();
+        assertThat(index.search("refund weather", 5)).isEmpty();
+    }
+
+    @Test
+    void stripsCredentialsBeforeStoringATemplate() {
+        Map<String, Object> headers = Map.of("Authorization", "Bearer sk-live-123", "X-Api-Key", "k-456",
+                "Content-Type", "application/json");
+        Map<String, Object> httpConfig = Map.of("url", "https://api.example.com/charges", "headers", headers,
+                "password", "hunter2");
+        Map<String, Object> llmConfig = Map.of("prompt", "Summarise the charge", "maxTokens", 200,
+                "providers", List.of(Map.of("provider", "openai", "model", "gpt-4o-mini", "apiKey", "sk-789",
+                        "access_token", "t-000")));
+        index.put(template("workflow:1", "Charge summary", "Summarises a charge",
+                node("fetch", NodeType.HTTP, httpConfig), node("summarise", NodeType.LLM, llmConfig)));
+
+        List<WorkflowNodeRequest> nodes = index.search("charge summary", 1).get(0).template().workflow().nodes();
+
+        assertThat(nodes.get(0).config()).isEqualTo(Map.of("url", "https://api.example.com/charges",
+                "headers", Map.of("Content-Type", "application/json")));
+        assertThat(nodes.get(1).config()).isEqualTo(Map.of("prompt", "Summarise the charge", "maxTokens", 200,
+                "providers", List.of(Map.of("provider", "openai", "model", "gpt-4o-mini"))));
+        assertThat(index.search("hunter2", 1)).isEmpty();
+    }
+
+    static WorkflowTemplateIndex.Template template(String source, String name, String description,
+                                                  WorkflowNodeRequest... nodes) {
+        List<WorkflowNodeRequest> nodeList = nodes.length > 0 ? List.of(nodes)
+                : List.of(node("start", NodeType.INPUT, Map.of()));
+        return new WorkflowTemplateIndex.Template(source,
+                new WorkflowDefinitionRequest(name, description, null, nodeList, List.of()));
+    }
+
+    static WorkflowNodeRequest node(String key, NodeType type, Map<String, Object> config) {
+        return new WorkflowNodeRequest(key, null, type, null, config, null);
+    }
+}